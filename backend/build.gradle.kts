@@ -6,6 +6,7 @@ plugins {
     id("io.spring.dependency-management") version "1.1.4"
     kotlin("jvm") version "1.9.21"
     kotlin("plugin.spring") version "1.9.21"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.todoapp"
@@ -61,6 +62,7 @@ dependencies {
     implementation("com.bucket4j:bucket4j-jcache:8.7.0")
     implementation("javax.cache:cache-api:1.1.1")
     implementation("org.ehcache:ehcache:3.10.8")
+    implementation("org.hibernate.orm:hibernate-jcache")
     
     // JSON handling for PostgreSQL
     implementation("com.vladmihalcea:hibernate-types-60:2.21.1")
@@ -80,6 +82,13 @@ tasks.withType<Test> {
     useJUnitPlatform()
 }
 
+// Microbenchmarks (src/jmh): ./gradlew jmh
+jmh {
+    warmupIterations.set(2)
+    iterations.set(5)
+    fork.set(1)
+}
+
 tasks.withType<BootJar> {
     archiveFileName.set("${project.name}-${project.version}.jar")
 }
@@ -0,0 +1,80 @@
+package com.todoapp.auth.security;
+
+import com.todoapp.auth.entity.Role;
+import com.todoapp.auth.entity.User;
+import com.todoapp.auth.entity.UserStatus;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * So sánh chi phí xác thực access token ở mỗi request:
+ * - legacyValidateThenParse: cách cũ, dựng lại key và parser rồi xác thực token hai lần
+ *   (validateToken + getUserIdFromToken)
+ * - verifyWithCachedParser: key/parser dựng sẵn, xác thực một lần (cache claims tắt)
+ * - verifyWithClaimsCache: key/parser dựng sẵn và token đã có trong cache claims
+ *
+ * Chạy: ./gradlew jmh
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "my-super-secret-jwt-key-for-todo-app-change-in-production-min-256-bits";
+
+    private JwtService uncachedService;
+    private JwtService cachedService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        uncachedService = new JwtService(SECRET, 60, 0);
+        cachedService = new JwtService(SECRET, 60, 10_000);
+
+        User user = User.builder()
+                .id(42L)
+                .email("bench@example.com")
+                .role(Role.USER)
+                .status(UserStatus.ACTIVE)
+                .build();
+        token = cachedService.generateToken(user);
+        cachedService.verifyToken(token);
+    }
+
+    @Benchmark
+    public Long legacyValidateThenParse() {
+        // validateToken()
+        Jwts.parser()
+                .verifyWith(legacySigningKey())
+                .build()
+                .parseSignedClaims(token);
+
+        // getUserIdFromToken()
+        Claims claims = Jwts.parser()
+                .verifyWith(legacySigningKey())
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+        return Long.parseLong(claims.getSubject());
+    }
+
+    @Benchmark
+    public Long verifyWithCachedParser() {
+        return Long.parseLong(uncachedService.verifyToken(token).getSubject());
+    }
+
+    @Benchmark
+    public Long verifyWithClaimsCache() {
+        return Long.parseLong(cachedService.verifyToken(token).getSubject());
+    }
+
+    private static SecretKey legacySigningKey() {
+        return Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+    }
+}
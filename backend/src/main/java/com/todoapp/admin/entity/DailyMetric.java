@@ -0,0 +1,28 @@
+package com.todoapp.admin.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Count of a daily dashboard metric for one calendar day
+ */
+@Entity
+@Table(name = "daily_metrics")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyMetric {
+
+    @EmbeddedId
+    private DailyMetricId id;
+
+    @Column(name = "metric_value", nullable = false)
+    private Long value;
+}
@@ -0,0 +1,38 @@
+package com.todoapp.admin.entity;
+
+/**
+ * Metrics maintained for the admin dashboard.
+ *
+ * Totals are stored in {@code metric_totals}; daily metrics are counted per calendar day
+ * in {@code daily_metrics}.
+ */
+public enum DashboardMetric {
+
+    USERS_TOTAL,
+    USERS_ACTIVE,
+    TODOS_TOTAL,
+    TODOS_PENDING,
+    TODOS_IN_PROGRESS,
+    TODOS_DONE,
+    TODOS_CANCELED,
+    CATEGORIES_TOTAL,
+    TAGS_TOTAL,
+
+    USERS_REGISTERED(true),
+    TODOS_CREATED(true),
+    TODOS_COMPLETED(true);
+
+    private final boolean daily;
+
+    DashboardMetric() {
+        this(false);
+    }
+
+    DashboardMetric(boolean daily) {
+        this.daily = daily;
+    }
+
+    public boolean isDaily() {
+        return daily;
+    }
+}
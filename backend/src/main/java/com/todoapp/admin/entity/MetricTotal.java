@@ -0,0 +1,39 @@
+package com.todoapp.admin.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running total of a dashboard metric
+ */
+@Entity
+@Table(name = "metric_totals")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MetricTotal {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "metric", length = 64)
+    private DashboardMetric metric;
+
+    @Column(name = "metric_value", nullable = false)
+    private Long value;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
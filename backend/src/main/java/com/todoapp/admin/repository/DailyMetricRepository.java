@@ -0,0 +1,42 @@
+package com.todoapp.admin.repository;
+
+import com.todoapp.admin.entity.DailyMetric;
+import com.todoapp.admin.entity.DailyMetricId;
+import com.todoapp.admin.entity.DashboardMetric;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyMetricRepository extends JpaRepository<DailyMetric, DailyMetricId> {
+
+    /**
+     * Add a delta to a daily bucket in place.
+     *
+     * @return number of updated rows (0 when the bucket has no row yet)
+     */
+    @Modifying
+    @Query("UPDATE DailyMetric d SET d.value = d.value + :delta " +
+           "WHERE d.id.bucketDate = :bucketDate AND d.id.metric = :metric")
+    int increment(@Param("bucketDate") LocalDate bucketDate,
+                  @Param("metric") DashboardMetric metric,
+                  @Param("delta") long delta);
+
+    /**
+     * Find all buckets from the given day (inclusive)
+     */
+    @Query("SELECT d FROM DailyMetric d WHERE d.id.bucketDate >= :from")
+    List<DailyMetric> findSince(@Param("from") LocalDate from);
+
+    /**
+     * Delete all buckets from the given day (inclusive), used before a rebuild
+     */
+    @Modifying
+    @Query("DELETE FROM DailyMetric d WHERE d.id.bucketDate >= :from")
+    int deleteSince(@Param("from") LocalDate from);
+}
@@ -0,0 +1,26 @@
+package com.todoapp.admin.repository;
+
+import com.todoapp.admin.entity.DashboardMetric;
+import com.todoapp.admin.entity.MetricTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface MetricTotalRepository extends JpaRepository<MetricTotal, DashboardMetric> {
+
+    /**
+     * Add a delta to a running total in place.
+     *
+     * @return number of updated rows (0 when the metric has no row yet)
+     */
+    @Modifying
+    @Query("UPDATE MetricTotal m SET m.value = m.value + :delta, m.updatedAt = :now WHERE m.metric = :metric")
+    int increment(@Param("metric") DashboardMetric metric,
+                  @Param("delta") long delta,
+                  @Param("now") LocalDateTime now);
+}
@@ -3,28 +3,42 @@ package com.todoapp.admin.service;
 import com.todoapp.admin.dto.AdminDashboardStats;
 import com.todoapp.admin.dto.TodoManagementResponse;
 import com.todoapp.admin.dto.UserManagementResponse;
+import com.todoapp.admin.entity.DashboardMetric;
 import com.todoapp.auth.entity.Role;
 import com.todoapp.auth.entity.User;
 import com.todoapp.auth.entity.UserStatus;
+import com.todoapp.auth.event.UserStatusChangedEvent;
 import com.todoapp.auth.repository.UserRepository;
+import com.todoapp.auth.security.UserSnapshotCache;
 import com.todoapp.todos.entity.Category;
 import com.todoapp.todos.entity.Tag;
 import com.todoapp.todos.entity.Todo;
 import com.todoapp.todos.entity.TodoStatus;
+import com.todoapp.todos.event.CategoryChangedEvent;
+import com.todoapp.todos.event.ChangeType;
+import com.todoapp.todos.event.TagChangedEvent;
+import com.todoapp.todos.event.TodoChangedEvent;
+import com.todoapp.todos.event.TodoSnapshot;
 import com.todoapp.todos.repository.CategoryRepository;
 import com.todoapp.todos.repository.TagRepository;
 import com.todoapp.todos.repository.TodoRepository;
+import com.todoapp.todos.search.TodoFullTextSearch;
+import com.todoapp.todos.service.UserDataVersionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -36,56 +50,41 @@ public class AdminService {
     private final TodoRepository todoRepository;
     private final CategoryRepository categoryRepository;
     private final TagRepository tagRepository;
+    private final UserSnapshotCache userSnapshotCache;
+    private final TodoFullTextSearch todoFullTextSearch;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DashboardMetricsService dashboardMetricsService;
+    private final UserDataVersionService userDataVersionService;
 
     public AdminDashboardStats getDashboardStats() {
-        log.info("Calculating admin dashboard statistics");
-
-        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
-        LocalDateTime endOfDay = LocalDate.now().atTime(LocalTime.MAX);
-        LocalDateTime startOfWeek = LocalDate.now().minusWeeks(1).atStartOfDay();
-        LocalDateTime startOfMonth = LocalDate.now().minusMonths(1).atStartOfDay();
-
-        // User statistics
-        Long totalUsers = userRepository.count();
-        Long activeUsers = userRepository.countByStatus(UserStatus.ACTIVE);
-        Long inactiveUsers = totalUsers - activeUsers;
-
-        // Todo statistics
-        Long totalTodos = todoRepository.count();
-        Long completedTodos = todoRepository.countByStatus(TodoStatus.DONE);
-        Long pendingTodos = todoRepository.countByStatus(TodoStatus.PENDING);
-        Long inProgressTodos = todoRepository.countByStatus(TodoStatus.IN_PROGRESS);
-        Long canceledTodos = todoRepository.countByStatus(TodoStatus.CANCELED);
-
-        // Category and Tag statistics
-        Long totalCategories = categoryRepository.count();
-        Long totalTags = tagRepository.count();
-
-        // Today's statistics
-        Long todosCreatedToday = todoRepository.countByCreatedAtBetween(startOfDay, endOfDay);
-        Long todosCompletedToday = todoRepository.countByStatus(TodoStatus.DONE); // Count all completed todos
-        Long usersRegisteredToday = userRepository.countByCreatedAtBetween(startOfDay, endOfDay);
-
-        // Weekly and Monthly statistics
-        Long usersRegisteredThisWeek = userRepository.countByCreatedAtBetween(startOfWeek, LocalDateTime.now());
-        Long usersRegisteredThisMonth = userRepository.countByCreatedAtBetween(startOfMonth, LocalDateTime.now());
+        log.info("Reading admin dashboard statistics");
+
+        LocalDate today = LocalDate.now();
+        LocalDate startOfWeek = today.minusWeeks(1);
+        LocalDate startOfMonth = today.minusMonths(1);
+
+        Map<DashboardMetric, Long> totals = dashboardMetricsService.getTotals();
+        Map<LocalDate, Map<DashboardMetric, Long>> daily = dashboardMetricsService.getDailyCounts(startOfMonth);
+
+        Long totalUsers = totals.get(DashboardMetric.USERS_TOTAL);
+        Long activeUsers = totals.get(DashboardMetric.USERS_ACTIVE);
 
         return AdminDashboardStats.builder()
                 .totalUsers(totalUsers)
                 .activeUsers(activeUsers)
-                .inactiveUsers(inactiveUsers)
-                .totalTodos(totalTodos)
-                .completedTodos(completedTodos)
-                .pendingTodos(pendingTodos)
-                .inProgressTodos(inProgressTodos)
-                .canceledTodos(canceledTodos)
-                .totalCategories(totalCategories)
-                .totalTags(totalTags)
-                .todosCreatedToday(todosCreatedToday)
-                .todosCompletedToday(todosCompletedToday)
-                .usersRegisteredToday(usersRegisteredToday)
-                .usersRegisteredThisWeek(usersRegisteredThisWeek)
-                .usersRegisteredThisMonth(usersRegisteredThisMonth)
+                .inactiveUsers(totalUsers - activeUsers)
+                .totalTodos(totals.get(DashboardMetric.TODOS_TOTAL))
+                .completedTodos(totals.get(DashboardMetric.TODOS_DONE))
+                .pendingTodos(totals.get(DashboardMetric.TODOS_PENDING))
+                .inProgressTodos(totals.get(DashboardMetric.TODOS_IN_PROGRESS))
+                .canceledTodos(totals.get(DashboardMetric.TODOS_CANCELED))
+                .totalCategories(totals.get(DashboardMetric.CATEGORIES_TOTAL))
+                .totalTags(totals.get(DashboardMetric.TAGS_TOTAL))
+                .todosCreatedToday(sumSince(daily, DashboardMetric.TODOS_CREATED, today))
+                .todosCompletedToday(sumSince(daily, DashboardMetric.TODOS_COMPLETED, today))
+                .usersRegisteredToday(sumSince(daily, DashboardMetric.USERS_REGISTERED, today))
+                .usersRegisteredThisWeek(sumSince(daily, DashboardMetric.USERS_REGISTERED, startOfWeek))
+                .usersRegisteredThisMonth(sumSince(daily, DashboardMetric.USERS_REGISTERED, startOfMonth))
                 .lastUpdated(LocalDateTime.now())
                 .build();
     }
@@ -102,14 +101,15 @@ public class AdminService {
             users = userRepository.findAll(pageable);
         }
 
-        return users.map(this::mapToUserManagementResponse);
+        Map<Long, UserStats> stats = loadUserStats(users.map(User::getId).getContent());
+        return users.map(user -> mapToUserManagementResponse(user, stats.get(user.getId())));
     }
 
     public UserManagementResponse getUserById(Long userId) {
         log.info("Getting user by ID: {}", userId);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
-        return mapToUserManagementResponse(user);
+        return mapToUserManagementResponse(user, loadUserStats(List.of(userId)).get(userId));
     }
 
     @Transactional
@@ -118,10 +118,15 @@ public class AdminService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
         
+        UserStatus previousStatus = user.getStatus();
         user.setStatus(UserStatus.valueOf(status.toUpperCase()));
         User savedUser = userRepository.save(user);
+        userSnapshotCache.invalidate(userId);
+        if (previousStatus != savedUser.getStatus()) {
+            eventPublisher.publishEvent(new UserStatusChangedEvent(userId, previousStatus, savedUser.getStatus()));
+        }
         
-        return mapToUserManagementResponse(savedUser);
+        return mapToUserManagementResponse(savedUser, loadUserStats(List.of(userId)).get(userId));
     }
 
     @Transactional
@@ -132,23 +137,21 @@ public class AdminService {
         
         user.setRole(Role.valueOf(role.toUpperCase()));
         User savedUser = userRepository.save(user);
+        userSnapshotCache.invalidate(userId);
         
-        return mapToUserManagementResponse(savedUser);
+        return mapToUserManagementResponse(savedUser, loadUserStats(List.of(userId)).get(userId));
     }
 
     public Page<TodoManagementResponse> getAllTodos(Pageable pageable, String search) {
         log.info("Getting all todos with pagination - page: {}, size: {}, search: {}", 
                 pageable.getPageNumber(), pageable.getPageSize(), search);
 
-        Page<Todo> todos;
         if (search != null && !search.trim().isEmpty()) {
-            todos = todoRepository.findByTitleContainingIgnoreCaseOrDescriptionContainingIgnoreCase(
-                    search, pageable);
-        } else {
-            todos = todoRepository.findAll(pageable);
+            Page<Long> ids = todoFullTextSearch.searchAllTodoIds(search, pageable);
+            return new PageImpl<>(todoRepository.findManagementByIdInOrder(ids.getContent()),
+                    pageable, ids.getTotalElements());
         }
-
-        return todos.map(this::mapToTodoManagementResponse);
+        return todoRepository.findManagementPage(pageable);
     }
 
     public List<Category> getAllCategories() {
@@ -168,8 +171,18 @@ public class AdminService {
                 .orElseThrow(() -> new RuntimeException("Todo not found with id: " + todoId));
         
         // Soft delete instead of hard delete
+        boolean alreadyDeleted = todo.getDeletedAt() != null;
+        TodoSnapshot before = TodoSnapshot.of(todo);
         todo.setDeletedAt(LocalDateTime.now());
         todoRepository.save(todo);
+        if (!alreadyDeleted) {
+            eventPublisher.publishEvent(TodoChangedEvent.deleted(before, todo));
+        }
+
+        // Keep the parent's denormalized subtask counter in sync
+        if (!alreadyDeleted && todo.getParent() != null) {
+            todoRepository.adjustSubtaskCount(todo.getParent().getId(), -1);
+        }
         
         log.info("Successfully soft deleted todo with ID: {}", todoId);
     }
@@ -177,29 +190,67 @@ public class AdminService {
     @Transactional
     public void deleteCategory(Long categoryId) {
         log.info("Deleting category with ID: {}", categoryId);
-        if (!categoryRepository.existsById(categoryId)) {
-            throw new RuntimeException("Category not found with id: " + categoryId);
-        }
-        categoryRepository.deleteById(categoryId);
+        Category category = categoryRepository.findById(categoryId)
+                .orElseThrow(() -> new RuntimeException("Category not found with id: " + categoryId));
+        // Todos lose the category through ON DELETE SET NULL; include them in the owner's delta sync
+        userDataVersionService.markTodosChanged(category.getUser().getId(), todoRepository.findIdsByCategoryId(categoryId));
+        categoryRepository.delete(category);
+        eventPublisher.publishEvent(
+                new CategoryChangedEvent(category.getUser().getId(), categoryId, ChangeType.DELETED));
     }
 
     @Transactional
     public void deleteTag(Long tagId) {
         log.info("Deleting tag with ID: {}", tagId);
-        if (!tagRepository.existsById(tagId)) {
-            throw new RuntimeException("Tag not found with id: " + tagId);
-        }
-        tagRepository.deleteById(tagId);
+        Tag tag = tagRepository.findById(tagId)
+                .orElseThrow(() -> new RuntimeException("Tag not found with id: " + tagId));
+        userDataVersionService.markTodosChanged(tag.getUser().getId(), todoRepository.findIdsByTagId(tagId));
+        todoRepository.decrementTagCountForTag(tagId);
+        tagRepository.delete(tag);
+        eventPublisher.publishEvent(new TagChangedEvent(tag.getUser().getId(), tagId, ChangeType.DELETED));
+    }
+
+    private static long sumSince(Map<LocalDate, Map<DashboardMetric, Long>> daily,
+                                 DashboardMetric metric, LocalDate from) {
+        return daily.entrySet().stream()
+                .filter(entry -> !entry.getKey().isBefore(from))
+                .mapToLong(entry -> entry.getValue().getOrDefault(metric, 0L))
+                .sum();
     }
 
-    private UserManagementResponse mapToUserManagementResponse(User user) {
-        // Get user's todo statistics
-        Long totalTodos = todoRepository.countByUserId(user.getId());
-        Long completedTodos = todoRepository.countByUserIdAndStatus(user.getId(), TodoStatus.DONE);
-        Long pendingTodos = todoRepository.countByUserIdAndStatus(user.getId(), TodoStatus.PENDING);
-        Long totalCategories = categoryRepository.countByUserId(user.getId());
-        Long totalTags = tagRepository.countByUserId(user.getId());
+    /**
+     * Load todo/category/tag statistics of a page of users with three grouped queries,
+     * independent of the number of users.
+     *
+     * @return statistics by user ID; every requested user has an entry
+     */
+    private Map<Long, UserStats> loadUserStats(Collection<Long> userIds) {
+        Map<Long, UserStats> stats = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return stats;
+        }
+        userIds.forEach(userId -> stats.put(userId, new UserStats()));
+
+        for (Object[] row : todoRepository.countByUserIdsGroupedByStatus(userIds)) {
+            UserStats userStats = stats.get((Long) row[0]);
+            long count = ((Number) row[2]).longValue();
+            userStats.totalTodos += count;
+            if (row[1] == TodoStatus.DONE) {
+                userStats.completedTodos += count;
+            } else if (row[1] == TodoStatus.PENDING) {
+                userStats.pendingTodos += count;
+            }
+        }
+        for (Object[] row : categoryRepository.countByUserIds(userIds)) {
+            stats.get((Long) row[0]).totalCategories = ((Number) row[1]).longValue();
+        }
+        for (Object[] row : tagRepository.countByUserIds(userIds)) {
+            stats.get((Long) row[0]).totalTags = ((Number) row[1]).longValue();
+        }
+        return stats;
+    }
 
+    private UserManagementResponse mapToUserManagementResponse(User user, UserStats stats) {
         return UserManagementResponse.builder()
                 .id(user.getId())
                 .email(user.getEmail())
@@ -210,44 +261,19 @@ public class AdminService {
                 .createdAt(user.getCreatedAt())
                 .updatedAt(user.getUpdatedAt())
                 .lastLoginAt(null) // TODO: Add last login tracking
-                .totalTodos(totalTodos)
-                .completedTodos(completedTodos)
-                .pendingTodos(pendingTodos)
-                .totalCategories(totalCategories)
-                .totalTags(totalTags)
+                .totalTodos(stats.totalTodos)
+                .completedTodos(stats.completedTodos)
+                .pendingTodos(stats.pendingTodos)
+                .totalCategories(stats.totalCategories)
+                .totalTags(stats.totalTags)
                 .build();
     }
 
-    private TodoManagementResponse mapToTodoManagementResponse(Todo todo) {
-        User user = todo.getUser();
-        Category category = todo.getCategory();
-        Todo parent = todo.getParent();
-
-        return TodoManagementResponse.builder()
-                .id(todo.getId())
-                .title(todo.getTitle())
-                .description(todo.getDescription())
-                .status(todo.getStatus())
-                .priority(todo.getPriority())
-                .dueDate(todo.getDueDate())
-                .remindAt(todo.getRemindAt())
-                .estimatedMinutes(todo.getEstimatedMinutes())
-                .createdAt(todo.getCreatedAt())
-                .updatedAt(todo.getUpdatedAt())
-                .deletedAt(todo.getDeletedAt())
-                .userId(user != null ? user.getId() : null)
-                .userEmail(user != null ? user.getEmail() : null)
-                .userFullName(user != null ? user.getFullName() : null)
-                .userRole(user != null ? user.getRole() : null)
-                .userStatus(user != null ? user.getStatus() : null)
-                .categoryId(category != null ? category.getId() : null)
-                .categoryName(category != null ? category.getName() : null)
-                .categoryColor(category != null ? category.getColor() : null)
-                .parentId(parent != null ? parent.getId() : null)
-                .parentTitle(parent != null ? parent.getTitle() : null)
-                .subtaskCount(todo.getSubtasks() != null ? todo.getSubtasks().size() : 0)
-                .attachmentCount(todo.getAttachments() != null ? todo.getAttachments().size() : 0)
-                .tagCount(todo.getTags() != null ? todo.getTags().size() : 0)
-                .build();
+    private static final class UserStats {
+        private long totalTodos;
+        private long completedTodos;
+        private long pendingTodos;
+        private long totalCategories;
+        private long totalTags;
     }
 }
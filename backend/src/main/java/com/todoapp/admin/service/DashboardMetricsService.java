@@ -0,0 +1,388 @@
+package com.todoapp.admin.service;
+
+import com.todoapp.admin.entity.DailyMetric;
+import com.todoapp.admin.entity.DailyMetricId;
+import com.todoapp.admin.entity.DashboardMetric;
+import com.todoapp.admin.entity.MetricTotal;
+import com.todoapp.admin.repository.DailyMetricRepository;
+import com.todoapp.admin.repository.MetricTotalRepository;
+import com.todoapp.auth.entity.UserStatus;
+import com.todoapp.auth.event.UserRegisteredEvent;
+import com.todoapp.auth.event.UserStatusChangedEvent;
+import com.todoapp.auth.repository.UserRepository;
+import com.todoapp.todos.entity.TodoStatus;
+import com.todoapp.todos.event.CategoryChangedEvent;
+import com.todoapp.todos.event.ChangeType;
+import com.todoapp.todos.event.TagChangedEvent;
+import com.todoapp.todos.event.TodoChangedEvent;
+import com.todoapp.todos.event.TodoSnapshot;
+import com.todoapp.todos.repository.CategoryRepository;
+import com.todoapp.todos.repository.TagRepository;
+import com.todoapp.todos.repository.TodoRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Incrementally maintained aggregates for the admin dashboard.
+ *
+ * User, todo, tag and category changes are turned into metric deltas after their transaction
+ * commits. Deltas are accumulated in memory and periodically added to the {@code metric_totals}
+ * and {@code daily_metrics} rows, so reading the dashboard costs two small queries instead of
+ * counting the whole tables. Reads include the deltas that are not flushed yet.
+ *
+ * Totals are rebuilt from the source tables on startup when empty and nightly, which also repairs
+ * drift (e.g. deltas lost on a crash, concurrent writers on several instances, or the small
+ * over-count a rebuild itself can leave, see {@link #rebuild()}).
+ */
+@Slf4j
+@Service
+public class DashboardMetricsService {
+
+    private final MetricTotalRepository metricTotalRepository;
+    private final DailyMetricRepository dailyMetricRepository;
+    private final UserRepository userRepository;
+    private final TodoRepository todoRepository;
+    private final CategoryRepository categoryRepository;
+    private final TagRepository tagRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Deltas not yet written to the database; daily metrics are keyed with their bucket date
+     */
+    private final Map<MetricKey, Long> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Serializes flushes and rebuilds
+     */
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    @Value("${admin.metrics.rebuild-days:35}")
+    private int rebuildDays;
+
+    public DashboardMetricsService(MetricTotalRepository metricTotalRepository,
+                                   DailyMetricRepository dailyMetricRepository,
+                                   UserRepository userRepository,
+                                   TodoRepository todoRepository,
+                                   CategoryRepository categoryRepository,
+                                   TagRepository tagRepository,
+                                   PlatformTransactionManager transactionManager) {
+        this.metricTotalRepository = metricTotalRepository;
+        this.dailyMetricRepository = dailyMetricRepository;
+        this.userRepository = userRepository;
+        this.todoRepository = todoRepository;
+        this.categoryRepository = categoryRepository;
+        this.tagRepository = tagRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @return current value of every total metric (missing metrics are 0)
+     */
+    public Map<DashboardMetric, Long> getTotals() {
+        Map<DashboardMetric, Long> totals = new EnumMap<>(DashboardMetric.class);
+        for (DashboardMetric metric : DashboardMetric.values()) {
+            if (!metric.isDaily()) {
+                totals.put(metric, 0L);
+            }
+        }
+        for (MetricTotal total : metricTotalRepository.findAll()) {
+            totals.merge(total.getMetric(), total.getValue(), Long::sum);
+        }
+        pending.forEach((key, delta) -> {
+            if (key.day() == null) {
+                totals.merge(key.metric(), delta, Long::sum);
+            }
+        });
+        return totals;
+    }
+
+    /**
+     * @param from first day (inclusive)
+     * @return daily metrics per day since the given day
+     */
+    public Map<LocalDate, Map<DashboardMetric, Long>> getDailyCounts(LocalDate from) {
+        Map<LocalDate, Map<DashboardMetric, Long>> counts = new HashMap<>();
+        for (DailyMetric daily : dailyMetricRepository.findSince(from)) {
+            counts.computeIfAbsent(daily.getId().getBucketDate(), day -> new EnumMap<>(DashboardMetric.class))
+                    .merge(daily.getId().getMetric(), daily.getValue(), Long::sum);
+        }
+        pending.forEach((key, delta) -> {
+            if (key.day() != null && !key.day().isBefore(from)) {
+                counts.computeIfAbsent(key.day(), day -> new EnumMap<>(DashboardMetric.class))
+                        .merge(key.metric(), delta, Long::sum);
+            }
+        });
+        return counts;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onUserRegistered(UserRegisteredEvent event) {
+        add(DashboardMetric.USERS_TOTAL, 1);
+        if (event.status() == UserStatus.ACTIVE) {
+            add(DashboardMetric.USERS_ACTIVE, 1);
+        }
+        if (event.createdAt() != null) {
+            addDaily(DashboardMetric.USERS_REGISTERED, event.createdAt().toLocalDate(), 1);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onUserStatusChanged(UserStatusChangedEvent event) {
+        boolean wasActive = event.before() == UserStatus.ACTIVE;
+        boolean isActive = event.after() == UserStatus.ACTIVE;
+        if (wasActive != isActive) {
+            add(DashboardMetric.USERS_ACTIVE, isActive ? 1 : -1);
+        }
+    }
+
+    /**
+     * Todo totals count every row of the todos table (soft-deleted todos included), the same as
+     * the previous dashboard queries, so only status and completion changes move them.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTodoChanged(TodoChangedEvent event) {
+        TodoSnapshot before = event.before();
+        TodoSnapshot after = event.after();
+
+        if (before == null) {
+            add(DashboardMetric.TODOS_TOTAL, 1);
+            if (after.createdAt() != null) {
+                addDaily(DashboardMetric.TODOS_CREATED, after.createdAt().toLocalDate(), 1);
+            }
+        } else if (before.status() != after.status()) {
+            add(statusMetric(before.status()), -1);
+        }
+        if (before == null || before.status() != after.status()) {
+            add(statusMetric(after.status()), 1);
+        }
+
+        LocalDate completedBefore = before == null || before.completedAt() == null
+                ? null : before.completedAt().toLocalDate();
+        LocalDate completedAfter = after.completedAt() == null ? null : after.completedAt().toLocalDate();
+        if (!Objects.equals(completedBefore, completedAfter)) {
+            if (completedBefore != null) {
+                addDaily(DashboardMetric.TODOS_COMPLETED, completedBefore, -1);
+            }
+            if (completedAfter != null) {
+                addDaily(DashboardMetric.TODOS_COMPLETED, completedAfter, 1);
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTagChanged(TagChangedEvent event) {
+        addForChange(DashboardMetric.TAGS_TOTAL, event.type());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        addForChange(DashboardMetric.CATEGORIES_TOTAL, event.type());
+    }
+
+    /**
+     * Write the accumulated deltas to the database
+     */
+    @Scheduled(fixedDelayString = "${admin.metrics.flush-interval-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            Map<MetricKey, Long> deltas = drain();
+            if (deltas.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(deltas));
+            } catch (RuntimeException e) {
+                // Keep the deltas for the next attempt
+                deltas.forEach((key, delta) -> pending.merge(key, delta, Long::sum));
+                log.error("Error flushing {} dashboard metric deltas", deltas.size(), e);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        try {
+            if (metricTotalRepository.count() == 0) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            log.error("Error initializing dashboard metrics", e);
+        }
+    }
+
+    @Scheduled(cron = "${admin.metrics.rebuild-cron:0 0 4 * * ?}") // Default: 4 AM every day
+    public void rebuildScheduled() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("Error rebuilding dashboard metrics", e);
+        }
+    }
+
+    /**
+     * Recompute all totals and the daily buckets of the last {@code admin.metrics.rebuild-days} days
+     * from the source tables. Older daily buckets are kept as they are.
+     *
+     * Pending deltas are drained inside the rebuild transaction, right before the source tables are
+     * read: their transactions have already committed, so the counts include them and they are
+     * discarded (except for daily buckets older than the rebuilt range, which are written as usual).
+     * Deltas recorded after the drain stay pending and are flushed on top of the rebuilt values.
+     *
+     * This is exact only for transactions that do not commit while the counts are being read. A
+     * transaction that commits after the drain but before a count query reads its table (or whose
+     * after-commit listener runs only after the drain) is included in that count and also flushed as
+     * a delta, so it is counted twice. Nothing is missed: a transaction committing after the reads
+     * is only counted through its delta. The over-count is bounded by the changes committed during
+     * the few count queries and is repaired by the next rebuild.
+     */
+    public void rebuild() {
+        log.info("Rebuilding dashboard metrics");
+        writeLock.lock();
+        try {
+            LocalDate from = LocalDate.now().minusDays(rebuildDays);
+            Map<MetricKey, Long> deltas = new HashMap<>();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    deltas.putAll(drain());
+                    rebuildFromSource(from);
+                    Map<MetricKey, Long> notRebuilt = new HashMap<>(deltas);
+                    notRebuilt.keySet().removeIf(key -> key.day() == null || !key.day().isBefore(from));
+                    write(notRebuilt);
+                });
+            } catch (RuntimeException e) {
+                // Nothing was rebuilt, keep the deltas for the next flush
+                deltas.forEach((key, delta) -> pending.merge(key, delta, Long::sum));
+                throw e;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        log.info("Dashboard metrics rebuilt");
+    }
+
+    private void rebuildFromSource(LocalDate from) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<DashboardMetric, Long> totals = new EnumMap<>(DashboardMetric.class);
+        for (DashboardMetric metric : DashboardMetric.values()) {
+            if (!metric.isDaily()) {
+                totals.put(metric, 0L);
+            }
+        }
+        totals.put(DashboardMetric.USERS_TOTAL, userRepository.count());
+        totals.put(DashboardMetric.USERS_ACTIVE, userRepository.countByStatus(UserStatus.ACTIVE));
+        totals.put(DashboardMetric.TODOS_TOTAL, todoRepository.count());
+        for (Object[] row : todoRepository.countGroupedByStatus()) {
+            totals.put(statusMetric((TodoStatus) row[0]), ((Number) row[1]).longValue());
+        }
+        totals.put(DashboardMetric.CATEGORIES_TOTAL, categoryRepository.count());
+        totals.put(DashboardMetric.TAGS_TOTAL, tagRepository.count());
+        LocalDateTime fromTime = from.atStartOfDay();
+        List<Object[]> registered = userRepository.countRegistrationsByDay(fromTime);
+        List<Object[]> created = todoRepository.countCreatedByDay(fromTime);
+        List<Object[]> completed = todoRepository.countCompletedByDay(fromTime);
+
+        // All source counts are read before writing, to keep the window described in rebuild() short
+        metricTotalRepository.saveAll(totals.entrySet().stream()
+                .map(entry -> new MetricTotal(entry.getKey(), entry.getValue(), now))
+                .toList());
+        dailyMetricRepository.deleteSince(from);
+        dailyMetricRepository.flush();
+        saveDaily(DashboardMetric.USERS_REGISTERED, registered);
+        saveDaily(DashboardMetric.TODOS_CREATED, created);
+        saveDaily(DashboardMetric.TODOS_COMPLETED, completed);
+    }
+
+    private void saveDaily(DashboardMetric metric, List<Object[]> rows) {
+        dailyMetricRepository.saveAll(rows.stream()
+                .map(row -> new DailyMetric(new DailyMetricId((LocalDate) row[0], metric),
+                        ((Number) row[1]).longValue()))
+                .toList());
+    }
+
+    private void write(Map<MetricKey, Long> deltas) {
+        LocalDateTime now = LocalDateTime.now();
+        deltas.forEach((key, delta) -> {
+            if (key.day() == null) {
+                if (metricTotalRepository.increment(key.metric(), delta, now) == 0) {
+                    metricTotalRepository.save(new MetricTotal(key.metric(), delta, now));
+                }
+            } else if (dailyMetricRepository.increment(key.day(), key.metric(), delta) == 0) {
+                dailyMetricRepository.save(new DailyMetric(new DailyMetricId(key.day(), key.metric()), delta));
+            }
+        });
+    }
+
+    private Map<MetricKey, Long> drain() {
+        Map<MetricKey, Long> deltas = new HashMap<>();
+        for (MetricKey key : pending.keySet()) {
+            Long delta = pending.remove(key);
+            if (delta != null && delta != 0) {
+                deltas.merge(key, delta, Long::sum);
+            }
+        }
+        return deltas;
+    }
+
+    private void addForChange(DashboardMetric metric, ChangeType type) {
+        if (type == ChangeType.CREATED) {
+            add(metric, 1);
+        } else if (type == ChangeType.DELETED) {
+            add(metric, -1);
+        }
+    }
+
+    private void add(DashboardMetric metric, long delta) {
+        if (metric != null) {
+            pending.merge(new MetricKey(metric, null), delta, Long::sum);
+        }
+    }
+
+    private void addDaily(DashboardMetric metric, LocalDate day, long delta) {
+        pending.merge(new MetricKey(metric, day), delta, Long::sum);
+    }
+
+    private static DashboardMetric statusMetric(TodoStatus status) {
+        if (status == null) {
+            return null;
+        }
+        return switch (status) {
+            case PENDING -> DashboardMetric.TODOS_PENDING;
+            case IN_PROGRESS -> DashboardMetric.TODOS_IN_PROGRESS;
+            case DONE -> DashboardMetric.TODOS_DONE;
+            case CANCELED -> DashboardMetric.TODOS_CANCELED;
+        };
+    }
+
+    private record MetricKey(DashboardMetric metric, LocalDate day) {
+    }
+}
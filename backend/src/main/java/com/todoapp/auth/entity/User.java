@@ -1,8 +1,11 @@
 package com.todoapp.auth.entity;
 
+import com.todoapp.common.cache.CacheRegions;
 import com.todoapp.common.entity.Auditable;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -14,6 +17,8 @@ import java.util.Collections;
 @Table(name = "users", indexes = {
         @Index(name = "idx_email", columnList = "email", unique = true)
 })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.USERS)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,11 @@
+package com.todoapp.auth.event;
+
+import com.todoapp.auth.entity.UserStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Event phát ra khi một user mới đăng ký
+ */
+public record UserRegisteredEvent(Long userId, UserStatus status, LocalDateTime createdAt) {
+}
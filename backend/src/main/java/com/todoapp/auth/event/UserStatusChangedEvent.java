@@ -0,0 +1,9 @@
+package com.todoapp.auth.event;
+
+import com.todoapp.auth.entity.UserStatus;
+
+/**
+ * Event phát ra khi trạng thái của user thay đổi
+ */
+public record UserStatusChangedEvent(Long userId, UserStatus before, UserStatus after) {
+}
@@ -0,0 +1,24 @@
+package com.todoapp.auth.repository;
+
+import com.todoapp.auth.entity.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+
+    /**
+     * Revocations that can still affect an unexpired access token.
+     */
+    List<TokenRevocation> findByRevokedAtAfter(LocalDateTime threshold);
+
+    @Modifying
+    @Query("DELETE FROM TokenRevocation r WHERE r.revokedAt < :threshold")
+    int deleteOlderThan(@Param("threshold") LocalDateTime threshold);
+}
@@ -2,17 +2,23 @@ package com.todoapp.auth.repository;
 
 import com.todoapp.auth.entity.User;
 import com.todoapp.auth.entity.UserStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByEmail(String email);
 
     boolean existsByEmail(String email);
@@ -21,6 +27,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Long countByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
 
+    @Query("SELECT CAST(u.createdAt AS LocalDate), COUNT(u) FROM User u " +
+           "WHERE u.createdAt >= :from GROUP BY CAST(u.createdAt AS LocalDate)")
+    List<Object[]> countRegistrationsByDay(@Param("from") LocalDateTime from);
+
     @Query("SELECT u FROM User u WHERE " +
            "LOWER(u.email) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
            "LOWER(u.fullName) LIKE LOWER(CONCAT('%', :search, '%'))")
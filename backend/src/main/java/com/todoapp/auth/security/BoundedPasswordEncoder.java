@@ -0,0 +1,142 @@
+package com.todoapp.auth.security;
+
+import com.todoapp.common.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * PasswordEncoder chạy việc băm/kiểm tra mật khẩu (BCrypt) trên một pool riêng có giới hạn.
+ *
+ * Pool có {@code threads} thread và hàng đợi tối đa {@code queue-capacity} việc (0: không xếp hàng,
+ * chỉ nhận việc khi có thread rảnh). Khi hàng đợi đầy,
+ * yêu cầu bị từ chối ngay bằng {@link ServiceUnavailableException} (503 + Retry-After) thay vì chờ,
+ * nên một đợt đăng nhập dồn dập chỉ dùng tối đa số core của pool và không chiếm CPU của các API khác.
+ * Thread gọi chờ kết quả trên Future (không tốn CPU).
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder, MeterBinder {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSeconds;
+    private final LongAdder rejections = new LongAdder();
+
+    private volatile Timer encodeTimer;
+    private volatile Timer matchesTimer;
+    private volatile Timer queueWaitTimer;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, long retryAfterSeconds) {
+        this.delegate = delegate;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("Password hashing pool: {} threads, queue capacity {}", threads, queueCapacity);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        encodeTimer = hashTimer(registry, "encode");
+        matchesTimer = hashTimer(registry, "matches");
+        queueWaitTimer = Timer.builder("todoapp.auth.password.queue.wait")
+                .description("Time password hashing tasks spend queued before running")
+                .register(registry);
+        Gauge.builder("todoapp.auth.password.queue.size", executor, pool -> pool.getQueue().size())
+                .description("Password hashing tasks waiting in the queue")
+                .register(registry);
+        Gauge.builder("todoapp.auth.password.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing tasks running")
+                .register(registry);
+        FunctionCounter.builder("todoapp.auth.password.rejections", rejections, LongAdder::sum)
+                .description("Password hashing requests rejected because the queue was full")
+                .register(registry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword), encodeTimer);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword), matchesTimer);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Callable<T> task, Timer hashTimer) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                record(queueWaitTimer, startedAt - submittedAt);
+                try {
+                    return task.call();
+                } finally {
+                    record(hashTimer, System.nanoTime() - startedAt);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            log.warn("Password hashing queue is full, request rejected");
+            throw new ServiceUnavailableException("Hệ thống đang quá tải. Vui lòng thử lại sau.", retryAfterSeconds);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private static void record(Timer timer, long nanos) {
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static Timer hashTimer(MeterRegistry registry, String operation) {
+        return Timer.builder("todoapp.auth.password.hash")
+                .description("Time spent hashing or verifying passwords")
+                .tag("operation", operation)
+                .register(registry);
+    }
+}
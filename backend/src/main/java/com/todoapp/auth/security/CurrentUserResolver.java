@@ -0,0 +1,96 @@
+package com.todoapp.auth.security;
+
+import com.todoapp.auth.entity.User;
+import com.todoapp.auth.repository.UserRepository;
+import com.todoapp.common.exception.BadRequestException;
+import com.todoapp.common.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Xác định user hiện tại cho các service.
+ *
+ * Ưu tiên dùng principal mà JwtAuthenticationFilter đã dựng sẵn; chỉ khi principal không phải
+ * User (ví dụ xác thực bằng cơ chế khác) mới truy vấn database theo email, và kết quả được
+ * ghi nhớ trong phạm vi request để các lần gọi tiếp theo không truy vấn lại.
+ *
+ * Metric {@code todoapp.current_user.lookups} đếm số lần resolve theo nguồn
+ * (principal / request-cache / database).
+ */
+@Slf4j
+@Component
+public class CurrentUserResolver {
+
+    private static final String REQUEST_ATTRIBUTE = CurrentUserResolver.class.getName() + ".USER";
+
+    private final UserRepository userRepository;
+    private final Counter principalLookups;
+    private final Counter requestCacheLookups;
+    private final Counter databaseLookups;
+
+    public CurrentUserResolver(UserRepository userRepository, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.principalLookups = lookupCounter(meterRegistry, "principal");
+        this.requestCacheLookups = lookupCounter(meterRegistry, "request-cache");
+        this.databaseLookups = lookupCounter(meterRegistry, "database");
+    }
+
+    /**
+     * Lấy user hiện tại.
+     * User trả về có thể là principal transient (chỉ có id, email, role, status); dùng
+     * được để gán quan hệ ManyToOne nhưng không dùng để đọc các thông tin profile khác.
+     *
+     * @return User hiện tại
+     * @throws BadRequestException       nếu không tìm thấy authentication
+     * @throws ResourceNotFoundException nếu không tìm thấy user
+     */
+    public User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new BadRequestException("Không tìm thấy thông tin xác thực");
+        }
+
+        if (authentication.getPrincipal() instanceof User principal && principal.getId() != null) {
+            principalLookups.increment();
+            return principal;
+        }
+
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null && attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof User cached) {
+            requestCacheLookups.increment();
+            return cached;
+        }
+
+        String email = authentication.getName();
+        databaseLookups.increment();
+        log.debug("Resolving current user from database: {}", email);
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy user với email: " + email));
+
+        if (attributes != null) {
+            attributes.setAttribute(REQUEST_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
+
+    /**
+     * Lấy ID của user hiện tại.
+     */
+    public Long getCurrentUserId() {
+        return getCurrentUser().getId();
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("todoapp.current_user.lookups")
+                .description("Current user resolutions by source")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
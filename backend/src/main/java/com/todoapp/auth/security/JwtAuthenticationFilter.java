@@ -2,12 +2,15 @@ package com.todoapp.auth.security;
 
 import com.todoapp.auth.entity.User;
 import com.todoapp.auth.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -18,6 +21,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 
@@ -28,6 +32,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserRepository userRepository;
+    private final UserSnapshotCache userSnapshotCache;
+
+    @Value("${jwt.principal-resolution:CLAIMS}")
+    private PrincipalResolutionMode principalResolution;
 
     private static final List<String> PUBLIC_ENDPOINTS = List.of(
             "/api/auth/",
@@ -44,22 +52,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && jwtService.validateToken(jwt)) {
-                Long userId = jwtService.getUserIdFromToken(jwt);
+            if (StringUtils.hasText(jwt)) {
+                Claims claims = jwtService.verifyToken(jwt);
+                UserSnapshot snapshot = resolveSnapshot(claims);
 
-                User user = userRepository.findById(userId)
-                        .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+                if (snapshot != null && snapshot.isActive()) {
+                    User user = snapshot.toPrincipal();
 
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        user,
-                        null,
-                        Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().name())));
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            user,
+                            null,
+                            Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().name())));
 
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
 
-                log.debug("Set authentication for user: {} with role: {}", user.getEmail(), user.getRole());
+                    log.debug("Set authentication for user: {} with role: {}", user.getEmail(), user.getRole());
+                } else if (snapshot != null) {
+                    log.debug("Rejected token of inactive user: {} (status: {})", snapshot.getEmail(), snapshot.getStatus());
+                }
             }
+        } catch (JwtException | IllegalArgumentException ex) {
+            log.error("Invalid JWT token: {}", ex.getMessage());
         } catch (Exception ex) {
             log.error("Could not set user authentication in security context", ex);
         }
@@ -73,6 +87,37 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         return PUBLIC_ENDPOINTS.stream().anyMatch(path::startsWith);
     }
 
+    /**
+     * Dựng thông tin user cho request theo thứ tự: claims trong token (nếu được phép và chưa bị
+     * invalidate), cache có TTL, cuối cùng mới truy vấn database.
+     */
+    private UserSnapshot resolveSnapshot(Claims claims) {
+        Long userId = Long.parseLong(claims.getSubject());
+
+        if (principalResolution == PrincipalResolutionMode.CLAIMS) {
+            Instant issuedAt = claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null;
+            if (!userSnapshotCache.isStale(userId, issuedAt)) {
+                UserSnapshot fromClaims = UserSnapshot.fromClaims(claims);
+                if (fromClaims != null) {
+                    return fromClaims;
+                }
+            }
+        }
+
+        UserSnapshot cached = userSnapshotCache.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        return userRepository.findById(userId)
+                .map(UserSnapshot::from)
+                .map(snapshot -> {
+                    userSnapshotCache.put(snapshot);
+                    return snapshot;
+                })
+                .orElse(null);
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
 
@@ -1,5 +1,6 @@
 package com.todoapp.auth.security;
 
+import com.todoapp.auth.entity.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
@@ -8,55 +9,163 @@ import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Slf4j
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    public static final String CLAIM_EMAIL = "email";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_STATUS = "status";
 
-    @Value("${jwt.expiration-minutes}")
-    private long expirationMinutes;
+    private final long expirationMinutes;
+    private final int verifiedCacheMaxSize;
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    // Key và parser chỉ phụ thuộc vào secret nên được dựng một lần
+    private final SecretKey signingKey;
+    private final JwtParser jwtParser;
+
+    // Chữ ký của token đã xác thực -> claims; giới hạn kích thước và kiểm tra hạn khi đọc
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+    // Chỉ một thread dọn cache tại một thời điểm, các thread khác không chờ
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    public JwtService(
+            @Value("${jwt.secret}") String secret,
+            @Value("${jwt.expiration-minutes}") long expirationMinutes,
+            @Value("${jwt.verified-cache.max-size:10000}") int verifiedCacheMaxSize) {
+        this.expirationMinutes = expirationMinutes;
+        this.verifiedCacheMaxSize = verifiedCacheMaxSize;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
     }
 
-    public String generateToken(Long userId) {
+    /**
+     * Tạo access token cho user.
+     * Email, role và status được nhúng vào claims để filter xác thực có thể dựng principal
+     * mà không cần truy vấn database ở mỗi request.
+     */
+    public String generateToken(User user) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expirationMinutes * 60 * 1000);
 
         return Jwts.builder()
-                .subject(String.valueOf(userId))
+                .subject(String.valueOf(user.getId()))
+                .claim(CLAIM_EMAIL, user.getEmail())
+                .claim(CLAIM_ROLE, user.getRole().name())
+                .claim(CLAIM_STATUS, user.getStatus().name())
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
     public Long getUserIdFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return Long.parseLong(verifyToken(token).getSubject());
+    }
+
+    /**
+     * Xác thực token một lần duy nhất và trả về claims.
+     * Token vừa được xác thực gần đây được lấy lại từ cache (so khớp toàn bộ token, không chỉ
+     * chữ ký) miễn là chưa hết hạn.
+     *
+     * @throws JwtException             nếu token không hợp lệ hoặc đã hết hạn
+     * @throws IllegalArgumentException nếu token rỗng
+     */
+    public Claims verifyToken(String token) {
+        String signature = signatureOf(token);
+        long now = System.currentTimeMillis();
+
+        if (signature != null) {
+            VerifiedToken cached = verifiedTokens.get(signature);
+            if (cached != null) {
+                if (cached.isExpired(now)) {
+                    verifiedTokens.remove(signature, cached);
+                } else if (cached.matches(token)) {
+                    return cached.claims();
+                }
+            }
+        }
+
+        Claims claims = jwtParser.parseSignedClaims(token).getPayload();
 
-        return Long.parseLong(claims.getSubject());
+        if (signature != null && claims.getExpiration() != null) {
+            cacheVerified(signature, new VerifiedToken(token, claims, claims.getExpiration().getTime()), now);
+        }
+        return claims;
     }
 
     public boolean validateToken(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
+            verifyToken(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             log.error("Invalid JWT token: {}", e.getMessage());
             return false;
         }
     }
+
+    /**
+     * Lưu token vừa xác thực. Khi cache đầy, xóa token hết hạn rồi xóa thêm tới khi còn khoảng 90%
+     * kích thước tối đa, để các lần miss tiếp theo chỉ put mà không phải quét lại toàn bộ cache.
+     */
+    private void cacheVerified(String signature, VerifiedToken verified, long now) {
+        if (verifiedCacheMaxSize <= 0) {
+            return;
+        }
+        if (verifiedTokens.size() >= verifiedCacheMaxSize && evictionLock.tryLock()) {
+            try {
+                evict(now);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+        verifiedTokens.put(signature, verified);
+    }
+
+    private void evict(long now) {
+        int target = verifiedCacheMaxSize - Math.max(1, verifiedCacheMaxSize / 10);
+        verifiedTokens.values().removeIf(entry -> entry.isExpired(now));
+        Iterator<String> iterator = verifiedTokens.keySet().iterator();
+        while (verifiedTokens.size() > target && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    int verifiedCacheSize() {
+        return verifiedTokens.size();
+    }
+
+    private static String signatureOf(String token) {
+        if (token == null) {
+            return null;
+        }
+        int lastDot = token.lastIndexOf('.');
+        if (lastDot < 0 || lastDot == token.length() - 1) {
+            return null;
+        }
+        return token.substring(lastDot + 1);
+    }
+
+    private record VerifiedToken(String token, Claims claims, long expiresAtMillis) {
+
+        boolean isExpired(long now) {
+            return now >= expiresAtMillis;
+        }
+
+        boolean matches(String candidate) {
+            return MessageDigest.isEqual(
+                    token.getBytes(StandardCharsets.US_ASCII),
+                    candidate.getBytes(StandardCharsets.US_ASCII));
+        }
+    }
 }
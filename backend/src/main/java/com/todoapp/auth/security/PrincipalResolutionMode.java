@@ -0,0 +1,16 @@
+package com.todoapp.auth.security;
+
+/**
+ * Cách JwtAuthenticationFilter dựng principal cho request.
+ */
+public enum PrincipalResolutionMode {
+    /**
+     * Tin tưởng claims role/status trong token (trừ khi user vừa bị thay đổi quyền/trạng thái),
+     * fallback sang cache rồi database.
+     */
+    CLAIMS,
+    /**
+     * Luôn dựa trên dữ liệu database (qua cache có TTL), bỏ qua claims role/status.
+     */
+    DATABASE
+}
@@ -0,0 +1,67 @@
+package com.todoapp.auth.security;
+
+import com.todoapp.auth.entity.Role;
+import com.todoapp.auth.entity.User;
+import com.todoapp.auth.entity.UserStatus;
+import io.jsonwebtoken.Claims;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Thông tin tối thiểu về user cần cho việc xác thực và phân quyền một request.
+ * Có thể dựng từ claims của JWT hoặc từ entity User.
+ */
+@Value
+@Builder
+public class UserSnapshot {
+
+    Long id;
+    String email;
+    Role role;
+    UserStatus status;
+
+    public static UserSnapshot from(User user) {
+        return UserSnapshot.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .role(user.getRole())
+                .status(user.getStatus())
+                .build();
+    }
+
+    /**
+     * Dựng snapshot từ claims; trả về null nếu token được phát hành trước khi có
+     * các claim role/status (token cũ) để caller fallback sang cache hoặc database.
+     */
+    public static UserSnapshot fromClaims(Claims claims) {
+        String email = claims.get(JwtService.CLAIM_EMAIL, String.class);
+        String role = claims.get(JwtService.CLAIM_ROLE, String.class);
+        String status = claims.get(JwtService.CLAIM_STATUS, String.class);
+        if (email == null || role == null || status == null) {
+            return null;
+        }
+        return UserSnapshot.builder()
+                .id(Long.parseLong(claims.getSubject()))
+                .email(email)
+                .role(Role.valueOf(role))
+                .status(UserStatus.valueOf(status))
+                .build();
+    }
+
+    public boolean isActive() {
+        return status == UserStatus.ACTIVE;
+    }
+
+    /**
+     * Principal đặt vào SecurityContext. Đây là User transient (không được quản lý bởi
+     * persistence context) chỉ mang id, email, role và status.
+     */
+    public User toPrincipal() {
+        return User.builder()
+                .id(id)
+                .email(email)
+                .role(role)
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,208 @@
+package com.todoapp.auth.security;
+
+import com.todoapp.auth.entity.TokenRevocation;
+import com.todoapp.auth.repository.TokenRevocationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cache có giới hạn kích thước và TTL cho UserSnapshot, dùng bởi JwtAuthenticationFilter
+ * để tránh truy vấn bảng users ở mỗi request.
+ *
+ * Khi role/status của user thay đổi (hoặc user bị xóa), {@link #invalidate(Long)} xóa entry và ghi
+ * mốc thu hồi vào bảng token_revocations; các token phát hành trước mốc đó không còn được tin tưởng
+ * dựa trên claims. Các mốc còn hiệu lực (trong thời gian sống của access token) được nạp lại từ
+ * database khi khởi động và mỗi {@code jwt.revocations.sync-interval-ms}, nên sau khi khởi động lại
+ * vẫn đúng, và thay đổi trên instance khác có hiệu lực ở đây chậm nhất sau một chu kỳ đồng bộ.
+ * Cho đến khi nạp được các mốc này, mọi token đều được coi là "cũ" (claims không được tin, user được
+ * đọc từ cache/database), nên request không bao giờ phải chờ hay thất bại vì việc nạp.
+ */
+@Slf4j
+@Component
+public class UserSnapshotCache {
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Long, Instant> invalidations = new ConcurrentHashMap<>();
+
+    private final TokenRevocationRepository tokenRevocationRepository;
+    private final int maxSize;
+    private final long ttlSeconds;
+    private final long tokenExpirationMinutes;
+
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    private volatile boolean revocationsLoaded;
+
+    public UserSnapshotCache(TokenRevocationRepository tokenRevocationRepository,
+                             @Value("${jwt.user-cache.max-size:10000}") int maxSize,
+                             @Value("${jwt.user-cache.ttl-seconds:60}") long ttlSeconds,
+                             @Value("${jwt.expiration-minutes}") long tokenExpirationMinutes) {
+        this.tokenRevocationRepository = tokenRevocationRepository;
+        this.maxSize = maxSize;
+        this.ttlSeconds = ttlSeconds;
+        this.tokenExpirationMinutes = tokenExpirationMinutes;
+    }
+
+    public UserSnapshot get(Long userId) {
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            entries.remove(userId, entry);
+            return null;
+        }
+        return entry.snapshot();
+    }
+
+    public void put(UserSnapshot snapshot) {
+        if (entries.size() >= maxSize) {
+            evictExpired();
+            evictOverflow();
+        }
+        entries.put(snapshot.getId(), new Entry(snapshot, System.nanoTime() + ttlSeconds * 1_000_000_000L));
+    }
+
+    /**
+     * Xóa snapshot của user, ghi mốc thu hồi vào database (trong transaction hiện tại nếu có) và
+     * đánh dấu mọi token phát hành trước thời điểm này là "cũ". Nếu đang trong transaction, entry
+     * được xóa thêm một lần sau khi commit để tránh request đồng thời nạp lại dữ liệu trước thay đổi.
+     */
+    public void invalidate(Long userId) {
+        Instant now = Instant.now();
+        tokenRevocationRepository.save(new TokenRevocation(userId, LocalDateTime.ofInstant(now, ZoneId.systemDefault())));
+        markRevoked(userId, now);
+        entries.remove(userId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    markRevoked(userId, Instant.now());
+                    entries.remove(userId);
+                }
+            });
+        }
+        log.debug("Invalidated cached principal for user ID: {}", userId);
+    }
+
+    /**
+     * Token có issuedAt trước lần invalidate gần nhất của user thì claims role/status không còn đáng tin.
+     */
+    public boolean isStale(Long userId, Instant issuedAt) {
+        if (!revocationsLoaded && !tryLoadRevocations()) {
+            return true;
+        }
+        Instant invalidatedAt = invalidations.get(userId);
+        return invalidatedAt != null && (issuedAt == null || !issuedAt.isAfter(invalidatedAt));
+    }
+
+    /**
+     * Nạp các mốc thu hồi ngay khi ứng dụng sẵn sàng, để request đầu tiên không phải làm việc này
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        syncRevocations();
+    }
+
+    /**
+     * Nạp lại các mốc thu hồi từ database (gồm cả mốc do instance khác ghi)
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocations.sync-interval-ms:5000}")
+    public void syncRevocations() {
+        try {
+            loadRevocations();
+        } catch (Exception e) {
+            log.warn("Could not reload token revocations: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Dọn các entry hết hạn; mốc invalidate chỉ cần giữ trong thời gian sống của access token.
+     */
+    @Scheduled(fixedDelay = 60_000)
+    @Transactional
+    public void purge() {
+        evictExpired();
+        Instant threshold = revocationThreshold();
+        invalidations.values().removeIf(invalidatedAt -> invalidatedAt.isBefore(threshold));
+        tokenRevocationRepository.deleteOlderThan(LocalDateTime.ofInstant(threshold, ZoneId.systemDefault()));
+    }
+
+    /**
+     * Nạp các mốc thu hồi từ request thread khi chúng chưa được nạp (khởi động chưa xong hoặc lần nạp
+     * trước lỗi). Không chờ: nếu thread khác đang nạp hoặc nạp lỗi thì trả về false để request
+     * đi theo đường an toàn (không tin claims).
+     */
+    private boolean tryLoadRevocations() {
+        if (!loadLock.tryLock()) {
+            return false;
+        }
+        try {
+            if (!revocationsLoaded) {
+                loadRevocations();
+            }
+            return true;
+        } catch (Exception e) {
+            log.warn("Could not load token revocations, not trusting token claims: {}", e.getMessage());
+            return false;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private void loadRevocations() {
+        loadLock.lock();
+        try {
+            LocalDateTime threshold = LocalDateTime.ofInstant(revocationThreshold(), ZoneId.systemDefault());
+            for (TokenRevocation revocation : tokenRevocationRepository.findByRevokedAtAfter(threshold)) {
+                markRevoked(revocation.getUserId(), revocation.getRevokedAt().atZone(ZoneId.systemDefault()).toInstant());
+            }
+            revocationsLoaded = true;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private void markRevoked(Long userId, Instant revokedAt) {
+        invalidations.merge(userId, revokedAt, (current, candidate) -> candidate.isAfter(current) ? candidate : current);
+    }
+
+    private Instant revocationThreshold() {
+        return Instant.now().minusSeconds(tokenExpirationMinutes * 60);
+    }
+
+    private void evictExpired() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+    }
+
+    private void evictOverflow() {
+        Iterator<Long> iterator = entries.keySet().iterator();
+        while (entries.size() >= maxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private record Entry(UserSnapshot snapshot, long expiresAtNanos) {
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
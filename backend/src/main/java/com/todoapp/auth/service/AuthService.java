@@ -7,17 +7,19 @@ import com.todoapp.auth.entity.RefreshToken;
 import com.todoapp.auth.entity.Role;
 import com.todoapp.auth.entity.User;
 import com.todoapp.auth.entity.UserStatus;
+import com.todoapp.auth.event.UserRegisteredEvent;
 import com.todoapp.auth.repository.UserRepository;
 import com.todoapp.auth.security.JwtService;
 import com.todoapp.common.exception.BadRequestException;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class AuthService {
 
@@ -25,27 +27,47 @@ public class AuthService {
     private final RefreshTokenService refreshTokenService;
     private final JwtService jwtService;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    public AuthService(UserRepository userRepository,
+                       RefreshTokenService refreshTokenService,
+                       JwtService jwtService,
+                       PasswordEncoder passwordEncoder,
+                       ApplicationEventPublisher eventPublisher,
+                       PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.refreshTokenService = refreshTokenService;
+        this.jwtService = jwtService;
+        this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
 
     /**
-     * Đăng ký user mới
+     * Đăng ký user mới. Mật khẩu được băm trước khi mở transaction (BCrypt, có thể phải chờ pool băm)
+     * nên việc băm không giữ connection database; user và refresh token được tạo trong một transaction.
      *
      * @param request RegisterRequest chứa thông tin đăng ký
      * @return AuthResponse chứa access token và refresh token
      * @throws BadRequestException nếu email đã tồn tại
      */
-    @Transactional
     public AuthResponse register(RegisterRequest request) {
         log.info("Processing registration for email: {}", request.getEmail());
 
         // Kiểm tra email đã tồn tại chưa
-        if (userRepository.existsByEmail(request.getEmail())) {
-            log.warn("Registration failed: Email already exists - {}", request.getEmail());
-            throw new BadRequestException("Email đã được sử dụng");
-        }
+        checkEmailAvailable(request.getEmail());
 
         // Mã hóa password bằng BCrypt
         String encodedPassword = passwordEncoder.encode(request.getPassword());
 
+        return transactionTemplate.execute(status -> createUser(request, encodedPassword));
+    }
+
+    private AuthResponse createUser(RegisterRequest request, String encodedPassword) {
+        // Kiểm tra lại: email có thể vừa được đăng ký trong lúc băm mật khẩu
+        checkEmailAvailable(request.getEmail());
+
         // Tạo user mới
         User user = User.builder()
                 .email(request.getEmail())
@@ -59,9 +81,11 @@ public class AuthService {
         // Lưu user vào database
         User savedUser = userRepository.save(user);
         log.info("User registered successfully: {} (ID: {})", savedUser.getEmail(), savedUser.getId());
+        eventPublisher.publishEvent(
+                new UserRegisteredEvent(savedUser.getId(), savedUser.getStatus(), savedUser.getCreatedAt()));
 
         // Tạo tokens
-        String accessToken = jwtService.generateToken(savedUser.getId());
+        String accessToken = jwtService.generateToken(savedUser);
         RefreshToken refreshToken = refreshTokenService.createRefreshToken(savedUser);
 
         // Trả về response
@@ -76,14 +100,21 @@ public class AuthService {
                 .build();
     }
 
+    private void checkEmailAvailable(String email) {
+        if (userRepository.existsByEmail(email)) {
+            log.warn("Registration failed: Email already exists - {}", email);
+            throw new BadRequestException("Email đã được sử dụng");
+        }
+    }
+
     /**
-     * Đăng nhập
+     * Đăng nhập. Không chạy trong transaction: việc kiểm tra mật khẩu (BCrypt, có thể phải chờ pool băm)
+     * không giữ connection database; refresh token được tạo trong transaction riêng.
      *
      * @param request LoginRequest chứa email và password
      * @return AuthResponse chứa access token và refresh token
      * @throws BadRequestException nếu credentials không đúng
      */
-    @Transactional
     public AuthResponse login(LoginRequest request) {
         log.info("Processing login for email: {}", request.getEmail());
 
@@ -109,7 +140,7 @@ public class AuthService {
         log.info("User logged in successfully: {} (ID: {})", user.getEmail(), user.getId());
 
         // Tạo tokens
-        String accessToken = jwtService.generateToken(user.getId());
+        String accessToken = jwtService.generateToken(user);
         RefreshToken refreshToken = refreshTokenService.createRefreshToken(user);
 
         // Trả về response
@@ -142,7 +173,7 @@ public class AuthService {
         log.info("Refreshing token for user: {} (ID: {})", user.getEmail(), user.getId());
 
         // Tạo access token mới
-        String newAccessToken = jwtService.generateToken(user.getId());
+        String newAccessToken = jwtService.generateToken(user);
 
         // Trả về response với access token mới
         return AuthResponse.builder()
@@ -0,0 +1,35 @@
+package com.todoapp.common.cache;
+
+import org.hibernate.cache.spi.RegionFactory;
+
+/**
+ * Tên các region của Hibernate second-level cache.
+ * Mọi region phải được khai báo trong {@link SecondLevelCacheRegionFactory}; region lạ làm ứng dụng
+ * không khởi động được (missing_cache_strategy = fail).
+ */
+public final class CacheRegions {
+
+    public static final String USERS = "users";
+
+    public static final String CATEGORIES = "categories";
+
+    public static final String TAGS = "tags";
+
+    /**
+     * Collection Todo.tags (ID các tag của từng todo)
+     */
+    public static final String TODO_TAGS = "todo-tags";
+
+    /**
+     * Kết quả các query đánh dấu cacheable
+     */
+    public static final String QUERY_RESULTS = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+
+    /**
+     * Thời điểm cập nhật cuối của từng bảng, dùng để loại kết quả query đã cũ
+     */
+    public static final String UPDATE_TIMESTAMPS = RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+
+    private CacheRegions() {
+    }
+}
@@ -0,0 +1,70 @@
+package com.todoapp.common.cache;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.ehcache.jsr107.config.ConfigurationElementState;
+import org.ehcache.jsr107.config.Jsr107Configuration;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * RegionFactory JCache dùng Ehcache, tự dựng CacheManager với các region khai báo tường minh.
+ *
+ * Mỗi region là một cache trên heap, giới hạn số phần tử và TTL; có thể ghi đè bằng thuộc tính
+ * Hibernate {@code todoapp.cache.regions.<region>.max-entries} / {@code .ttl-seconds}
+ * (ttl-seconds = 0: không hết hạn). Mỗi SessionFactory có CacheManager riêng (URI ngẫu nhiên),
+ * được đóng cùng SessionFactory. Statistics JCache được bật để xuất metrics hit/miss theo region.
+ */
+public class SecondLevelCacheRegionFactory extends JCacheRegionFactory {
+
+    public static final String PROPERTY_PREFIX = "todoapp.cache.regions.";
+
+    private static final List<RegionDefaults> REGIONS = List.of(
+            new RegionDefaults(CacheRegions.USERS, 10_000, 600),
+            new RegionDefaults(CacheRegions.CATEGORIES, 50_000, 600),
+            new RegionDefaults(CacheRegions.TAGS, 50_000, 600),
+            new RegionDefaults(CacheRegions.TODO_TAGS, 100_000, 600),
+            new RegionDefaults(CacheRegions.QUERY_RESULTS, 10_000, 300),
+            // Timestamps không được hết hạn trước các kết quả query phụ thuộc vào chúng
+            new RegionDefaults(CacheRegions.UPDATE_TIMESTAMPS, 1_000, 0));
+
+    @Override
+    protected CacheManager resolveCacheManager(SessionFactoryOptions settings, Map<String, Object> properties) {
+        ConfigurationBuilder configuration = ConfigurationBuilder.newConfigurationBuilder()
+                .withService(new Jsr107Configuration(null, Map.of(), false,
+                        ConfigurationElementState.DISABLED, ConfigurationElementState.ENABLED));
+
+        for (RegionDefaults region : REGIONS) {
+            long maxEntries = longProperty(properties, region.name() + ".max-entries", region.maxEntries());
+            long ttlSeconds = longProperty(properties, region.name() + ".ttl-seconds", region.ttlSeconds());
+            configuration = configuration.withCache(region.name(), CacheConfigurationBuilder
+                    .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries))
+                    .withExpiry(ttlSeconds > 0
+                            ? ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ttlSeconds))
+                            : ExpiryPolicyBuilder.noExpiration()));
+        }
+
+        EhcacheCachingProvider provider =
+                (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        return provider.getCacheManager(URI.create("todoapp:hibernate-cache:" + UUID.randomUUID()), configuration.build());
+    }
+
+    private static long longProperty(Map<String, Object> properties, String name, long defaultValue) {
+        Object value = properties.get(PROPERTY_PREFIX + name);
+        return value != null ? Long.parseLong(value.toString().trim()) : defaultValue;
+    }
+
+    private record RegionDefaults(String name, long maxEntries, long ttlSeconds) {
+    }
+}
@@ -7,8 +7,6 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
-import org.springframework.web.util.ContentCachingRequestWrapper;
-import org.springframework.web.util.ContentCachingResponseWrapper;
 
 import java.io.IOException;
 
@@ -24,23 +22,20 @@ public class RequestResponseLoggingFilter extends OncePerRequestFilter {
 
         long startTime = System.currentTimeMillis();
 
-        ContentCachingRequestWrapper requestWrapper = new ContentCachingRequestWrapper(request);
-        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
-
+        // Không bọc request/response bằng ContentCaching*Wrapper: filter chỉ log metadata, còn wrapper
+        // giữ toàn bộ body trong bộ nhớ (làm hỏng streaming export/SSE và nhân đôi bộ nhớ khi import)
         try {
-            filterChain.doFilter(requestWrapper, responseWrapper);
+            filterChain.doFilter(request, response);
         } finally {
             long duration = System.currentTimeMillis() - startTime;
 
-            logRequestResponse(requestWrapper, responseWrapper, duration);
-
-            responseWrapper.copyBodyToResponse();
+            logRequestResponse(request, response, duration);
         }
     }
 
     private void logRequestResponse(
-            ContentCachingRequestWrapper request,
-            ContentCachingResponseWrapper response,
+            HttpServletRequest request,
+            HttpServletResponse response,
             long duration) {
 
         String method = request.getMethod();
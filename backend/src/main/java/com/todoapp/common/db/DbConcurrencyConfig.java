@@ -0,0 +1,93 @@
+package com.todoapp.common.db;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+import javax.sql.DataSource;
+
+/**
+ * Bọc DataSource bằng {@link ConcurrencyLimitedDataSource} (bật/tắt bằng {@code todo.db.concurrency.enabled}).
+ *
+ * Giới hạn chỉ được áp dụng khi {@code todo.db.concurrency.max-concurrent} nhỏ hơn kích thước pool Hikari.
+ * Khi bằng hoặc lớn hơn (hoặc không cấu hình), semaphore chỉ lặp lại hàng đợi của Hikari và cộng thêm một
+ * thời gian chờ nữa trước {@code connection-timeout} của Hikari, nên DataSource không được bọc. Khi nhỏ hơn,
+ * thread giữ permit luôn lấy được connection ngay, nên chỉ còn thời gian chờ {@code acquire-timeout-ms}.
+ *
+ * Các bean được khai báo static vì BeanPostProcessor phải được tạo trước các bean khác.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "todo.db.concurrency.enabled", havingValue = "true", matchIfMissing = true)
+public class DbConcurrencyConfig {
+
+    static final String MAX_CONCURRENT = "todo.db.concurrency.max-concurrent";
+    static final String POOL_SIZE = "spring.datasource.hikari.maximum-pool-size";
+    static final int DEFAULT_POOL_SIZE = 10;
+
+    @Bean
+    @Conditional(LimitBelowPoolSize.class)
+    static DbConcurrencyLimiter dbConcurrencyLimiter(
+            @Value("${" + MAX_CONCURRENT + "}") int maxConcurrent,
+            @Value("${todo.db.concurrency.acquire-timeout-ms:20000}") long acquireTimeoutMs) {
+        return new DbConcurrencyLimiter(maxConcurrent, acquireTimeoutMs);
+    }
+
+    @Bean
+    static BeanPostProcessor dbConcurrencyLimitingPostProcessor(ObjectProvider<DbConcurrencyLimiter> limiter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConcurrencyLimitedDataSource)) {
+                    DbConcurrencyLimiter dbConcurrencyLimiter = limiter.getIfAvailable();
+                    if (dbConcurrencyLimiter != null) {
+                        return new ConcurrencyLimitedDataSource(dataSource, dbConcurrencyLimiter);
+                    }
+                }
+                return bean;
+            }
+        };
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void logExecutionMode(ApplicationReadyEvent event) {
+        Environment environment = event.getApplicationContext().getEnvironment();
+        boolean virtualThreads = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        boolean virtualThreadsActive = virtualThreads && Runtime.version().feature() >= 21;
+        if (virtualThreads && !virtualThreadsActive) {
+            log.warn("spring.threads.virtual.enabled requires Java 21+, requests run on platform threads (Java {})",
+                    Runtime.version().feature());
+        }
+        DbConcurrencyLimiter limiter = event.getApplicationContext().getBeanProvider(DbConcurrencyLimiter.class).getIfAvailable();
+        log.info("Request threads: {}, database concurrency limit: {}",
+                virtualThreadsActive ? "virtual" : "platform",
+                limiter != null ? limiter.getMaxConcurrent() : "none (Hikari pool size " + poolSize(environment) + ")");
+    }
+
+    private static int poolSize(Environment environment) {
+        return environment.getProperty(POOL_SIZE, Integer.class, DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * Chỉ tạo limiter khi giới hạn được cấu hình và nhỏ hơn kích thước pool
+     */
+    static class LimitBelowPoolSize implements Condition {
+
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            int maxConcurrent = context.getEnvironment().getProperty(MAX_CONCURRENT, Integer.class, 0);
+            return maxConcurrent > 0 && maxConcurrent < poolSize(context.getEnvironment());
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.todoapp.common.db;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Giới hạn số connection database được dùng đồng thời, độc lập với số thread xử lý request.
+ *
+ * Mỗi connection lấy từ pool giữ một permit cho đến khi được đóng (trả về pool). Thread vượt giới hạn
+ * chờ theo thứ tự (semaphore fair) tối đa {@code acquire-timeout-ms} rồi thất bại, thay vì dồn vào
+ * hàng đợi của Hikari. Nhờ vậy khi request chạy trên virtual thread (số thread không giới hạn),
+ * kích thước pool chỉ cần theo khả năng của database, và thời gian chờ được đo riêng.
+ */
+public class DbConcurrencyLimiter implements MeterBinder {
+
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final long acquireTimeoutMs;
+    private final LongAdder rejections = new LongAdder();
+    private volatile Timer waitTimer;
+
+    public DbConcurrencyLimiter(int maxConcurrent, long acquireTimeoutMs) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxConcurrent = maxConcurrent;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("todoapp.db.concurrency.active", this, limiter -> limiter.maxConcurrent - limiter.permits.availablePermits())
+                .description("Database connections in use through the concurrency limiter")
+                .register(registry);
+        Gauge.builder("todoapp.db.concurrency.waiting", permits, Semaphore::getQueueLength)
+                .description("Threads waiting for a database concurrency permit")
+                .register(registry);
+        FunctionCounter.builder("todoapp.db.concurrency.rejections", rejections, LongAdder::sum)
+                .description("Connection requests that timed out waiting for a permit")
+                .register(registry);
+        waitTimer = Timer.builder("todoapp.db.concurrency.wait")
+                .description("Time spent waiting for a database concurrency permit")
+                .register(registry);
+    }
+
+    /**
+     * Lấy connection trong giới hạn; permit được trả khi connection được đóng
+     *
+     * @throws SQLTransientConnectionException nếu không có permit trong thời gian chờ
+     */
+    Connection acquire(ConnectionSupplier supplier) throws SQLException {
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database permit");
+        }
+        Timer timer = waitTimer;
+        if (timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            rejections.increment();
+            throw new SQLTransientConnectionException("Database concurrency limit (" + maxConcurrent
+                    + ") reached, no permit within " + acquireTimeoutMs + "ms");
+        }
+
+        try {
+            return releasingOnClose(supplier.get());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private Connection releasingOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                        try {
+                            connection.close();
+                        } finally {
+                            if (released.compareAndSet(false, true)) {
+                                permits.release();
+                            }
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+}
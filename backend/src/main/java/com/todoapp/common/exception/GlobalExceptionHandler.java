@@ -2,14 +2,17 @@ package com.todoapp.common.exception;
 
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -133,6 +136,65 @@ public class GlobalExceptionHandler {
                 return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(error);
         }
 
+        /**
+         * Hệ thống tạm thời quá tải (ví dụ hàng đợi băm mật khẩu đã đầy)
+         */
+        @ExceptionHandler(ServiceUnavailableException.class)
+        public ResponseEntity<ErrorResponse> handleServiceUnavailable(
+                        ServiceUnavailableException ex,
+                        HttpServletRequest request) {
+
+                log.warn("Service unavailable: {}", ex.getMessage());
+
+                ErrorResponse error = new ErrorResponse(
+                                LocalDateTime.now(),
+                                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                                "Service Unavailable",
+                                ex.getMessage(),
+                                request.getRequestURI());
+
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                                .body(error);
+        }
+
+        /**
+         * Không lấy được connection database (giới hạn đồng thời hoặc pool đã hết trong thời gian chờ):
+         * quá tải tạm thời, client nên thử lại
+         */
+        @ExceptionHandler(CannotCreateTransactionException.class)
+        public ResponseEntity<ErrorResponse> handleCannotCreateTransaction(
+                        CannotCreateTransactionException ex,
+                        HttpServletRequest request) {
+
+                log.warn("Database unavailable: {}", ex.getMessage());
+
+                ErrorResponse error = new ErrorResponse(
+                                LocalDateTime.now(),
+                                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                                "Service Unavailable",
+                                "Hệ thống đang quá tải. Vui lòng thử lại sau.",
+                                request.getRequestURI());
+
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header(HttpHeaders.RETRY_AFTER, "1")
+                                .body(error);
+        }
+
+        /**
+         * Request async (ví dụ stream SSE) hết thời gian: response có thể đã được gửi một phần
+         * (text/event-stream) nên không ghi thêm body JSON
+         */
+        @ExceptionHandler(AsyncRequestTimeoutException.class)
+        public ResponseEntity<Void> handleAsyncRequestTimeout(
+                        AsyncRequestTimeoutException ex,
+                        HttpServletRequest request) {
+
+                log.debug("Async request timed out: {}", request.getRequestURI());
+
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
         @ExceptionHandler(Exception.class)
         public ResponseEntity<ErrorResponse> handleGenericException(
                         Exception ex,
@@ -3,6 +3,7 @@ package com.todoapp.todos.controller;
 import com.todoapp.todos.dto.CategoryRequest;
 import com.todoapp.todos.dto.CategoryResponse;
 import com.todoapp.todos.service.CategoryService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,6 +23,7 @@ import java.util.List;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final DataVersionETags dataVersionETags;
 
     /**
      * Tạo category mới
@@ -37,15 +39,16 @@ public class CategoryController {
     }
 
     /**
-     * Lấy tất cả categories của user hiện tại
+     * Lấy tất cả categories của user hiện tại.
+     * Hỗ trợ If-None-Match: trả về 304 nếu dữ liệu của user chưa thay đổi.
      *
+     * @param request HttpServletRequest để đọc If-None-Match
      * @return Danh sách CategoryResponse
      */
     @GetMapping
-    public ResponseEntity<List<CategoryResponse>> getAllCategories() {
+    public ResponseEntity<List<CategoryResponse>> getAllCategories(HttpServletRequest request) {
         log.info("GET /api/categories - Lấy danh sách tất cả categories");
-        List<CategoryResponse> response = categoryService.getAll();
-        return ResponseEntity.ok(response);
+        return dataVersionETags.conditional(request, categoryService::getAll);
     }
 
     /**
@@ -0,0 +1,113 @@
+package com.todoapp.todos.controller;
+
+import com.todoapp.auth.security.CurrentUserResolver;
+import com.todoapp.todos.service.UserDataVersionService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET cho các API đọc dữ liệu của user hiện tại.
+ *
+ * ETag (strong) gồm version dữ liệu của user và hash của (user, URL), nên If-None-Match được so khớp
+ * và trả về 304 trước khi chạy truy vấn hay serialize dữ liệu. Với dữ liệu phụ thuộc thời gian
+ * (thống kê), ETag mang thêm thời điểm hết hiệu lực và không còn khớp sau thời điểm đó.
+ *
+ * Version được đọc trước khi nạp dữ liệu, nên loader không được trả dữ liệu cũ hơn version hiện tại
+ * của user (TodoDueIndex, TodoSearchIndex và TodoStatisticsCache ghi nhớ version mà chúng phản ánh
+ * và bỏ dữ liệu cũ hơn).
+ */
+@Component
+@RequiredArgsConstructor
+class DataVersionETags {
+
+    private static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
+    private final CurrentUserResolver currentUserResolver;
+    private final UserDataVersionService userDataVersionService;
+
+    /**
+     * @param loader Nạp dữ liệu, chỉ được gọi khi If-None-Match không khớp
+     */
+    <T> ResponseEntity<T> conditional(HttpServletRequest request, Supplier<T> loader) {
+        return conditional(request, loader, data -> null, Function.identity());
+    }
+
+    /**
+     * @param loader     Nạp dữ liệu, chỉ được gọi khi If-None-Match không khớp
+     * @param validUntil Thời điểm dữ liệu hết hiệu lực dù không có thay đổi (null nếu không có)
+     * @param body       Chuyển dữ liệu sang body của response
+     */
+    <T, R> ResponseEntity<R> conditional(HttpServletRequest request, Supplier<T> loader,
+                                         Function<T, LocalDateTime> validUntil, Function<T, R> body) {
+        Long userId = currentUserResolver.getCurrentUserId();
+        String prefix = "\"" + userDataVersionService.getVersion(userId) + "-" + variant(request, userId);
+
+        String matched = match(request.getHeader(HttpHeaders.IF_NONE_MATCH), prefix);
+        if (matched != null) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(matched)
+                    .cacheControl(CACHE_CONTROL)
+                    .build();
+        }
+
+        T data = loader.get();
+        LocalDateTime expiresAt = validUntil.apply(data);
+        String eTag = expiresAt == null
+                ? prefix + "\""
+                : prefix + "-" + expiresAt.toEpochSecond(ZoneOffset.UTC) + "\"";
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CACHE_CONTROL)
+                .body(body.apply(data));
+    }
+
+    /**
+     * @return ETag trong If-None-Match khớp với version hiện tại và còn hiệu lực, hoặc null
+     */
+    private static String match(String ifNoneMatch, String prefix) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return null;
+        }
+        long now = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(prefix + "\"")) {
+                return tag;
+            }
+            if (tag.startsWith(prefix + "-") && tag.endsWith("\"")) {
+                try {
+                    long expiresAt = Long.parseLong(tag.substring(prefix.length() + 1, tag.length() - 1));
+                    if (now < expiresAt) {
+                        return tag;
+                    }
+                } catch (NumberFormatException e) {
+                    // ETag không do server này tạo
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Hash của user và URL (kể cả query string), để các danh sách/trang khác nhau có ETag khác nhau
+     */
+    private static String variant(HttpServletRequest request, Long userId) {
+        String url = request.getQueryString() == null
+                ? request.getRequestURI()
+                : request.getRequestURI() + "?" + request.getQueryString();
+        return Integer.toHexString((userId + " " + url).hashCode());
+    }
+}
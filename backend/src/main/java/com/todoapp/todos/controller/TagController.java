@@ -3,6 +3,7 @@ package com.todoapp.todos.controller;
 import com.todoapp.todos.dto.TagRequest;
 import com.todoapp.todos.dto.TagResponse;
 import com.todoapp.todos.service.TagService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,6 +23,7 @@ import java.util.List;
 public class TagController {
 
     private final TagService tagService;
+    private final DataVersionETags dataVersionETags;
 
     /**
      * Tạo tag mới
@@ -37,15 +39,16 @@ public class TagController {
     }
 
     /**
-     * Lấy tất cả tags của user hiện tại
+     * Lấy tất cả tags của user hiện tại.
+     * Hỗ trợ If-None-Match: trả về 304 nếu dữ liệu của user chưa thay đổi.
      *
+     * @param request HttpServletRequest để đọc If-None-Match
      * @return Danh sách TagResponse
      */
     @GetMapping
-    public ResponseEntity<List<TagResponse>> getAllTags() {
+    public ResponseEntity<List<TagResponse>> getAllTags(HttpServletRequest request) {
         log.info("GET /api/tags - Lấy danh sách tất cả tags");
-        List<TagResponse> response = tagService.getAll();
-        return ResponseEntity.ok(response);
+        return dataVersionETags.conditional(request, tagService::getAll);
     }
 
     /**
@@ -1,8 +1,13 @@
 package com.todoapp.todos.controller;
 
+import com.todoapp.auth.security.CurrentUserResolver;
 import com.todoapp.todos.dto.*;
 import com.todoapp.todos.entity.TodoStatus;
 import com.todoapp.todos.service.TodoService;
+import com.todoapp.todos.service.TodoTransferService;
+import com.todoapp.todos.stream.TodoChangeStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -10,10 +15,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
@@ -27,6 +38,10 @@ import java.util.Map;
 public class TodoController {
 
     private final TodoService todoService;
+    private final TodoTransferService todoTransferService;
+    private final DataVersionETags dataVersionETags;
+    private final TodoChangeStream todoChangeStream;
+    private final CurrentUserResolver currentUserResolver;
 
     /**
      * Tạo todo mới
@@ -44,22 +59,71 @@ public class TodoController {
     /**
      * Lấy danh sách todos với phân trang
      *
-     * @param page Số trang (mặc định: 0)
-     * @param size Kích thước trang (mặc định: 20)
-     * @param sort Trường sắp xếp (mặc định: createdAt,desc)
-     * @return Page chứa TodoResponse
+     * Hỗ trợ hai chế độ:
+     * - offset (mặc định): page/size, trả về Page kèm tổng số
+     * - cursor: truyền pagination=cursor (hoặc cursor từ trang trước), trả về CursorPageResponse;
+     *   tổng số chỉ được tính khi includeTotal=true
+     * Hỗ trợ If-None-Match: trả về 304 nếu dữ liệu của user chưa thay đổi.
+     *
+     * @param page         Số trang (mặc định: 0), chỉ dùng cho chế độ offset
+     * @param size         Kích thước trang (mặc định: 20; chế độ cursor: 1..{@value TodoService#MAX_CURSOR_PAGE_SIZE})
+     * @param sort         Trường sắp xếp (mặc định: createdAt,desc)
+     * @param pagination   Chế độ phân trang: offset | cursor
+     * @param cursor       Token tiếp tục từ trang trước (chế độ cursor)
+     * @param includeTotal Có tính tổng số todos hay không (chế độ cursor)
+     * @param request      HttpServletRequest để đọc If-None-Match
+     * @return Page hoặc CursorPageResponse chứa TodoResponse
      */
     @GetMapping
-    public ResponseEntity<Page<TodoResponse>> getAllTodos(
+    public ResponseEntity<?> getAllTodos(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
-            @RequestParam(defaultValue = "createdAt,desc") String[] sort) {
+            @RequestParam(defaultValue = "createdAt,desc") String[] sort,
+            @RequestParam(defaultValue = "offset") String pagination,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            HttpServletRequest request) {
         log.info("GET /api/todos - Lấy danh sách todos");
 
+        if (cursor != null || "cursor".equalsIgnoreCase(pagination)) {
+            return dataVersionETags.conditional(request, () -> todoService.getAllByCursor(cursor, size, includeTotal));
+        }
+
         Pageable pageable = createPageable(page, size, sort);
-        Page<TodoResponse> todos = todoService.getAll(pageable);
+        return dataVersionETags.conditional(request, () -> todoService.getAll(pageable));
+    }
 
-        return ResponseEntity.ok(todos);
+    /**
+     * Lấy các todo thay đổi kể từ cursor (delta sync): todo được tạo/cập nhật/khôi phục và tombstone
+     * của todo bị xóa, theo thứ tự commit. Gọi lại với cursor trả về cho đến khi hasMore = false.
+     * Hỗ trợ If-None-Match: trả về 304 nếu dữ liệu của user chưa thay đổi.
+     *
+     * @param since   Cursor từ lần đồng bộ trước (bỏ trống để lấy toàn bộ)
+     * @param limit   Số thay đổi tối đa (mặc định: 500, tối đa {@value TodoService#MAX_CHANGES_LIMIT})
+     * @param request HttpServletRequest để đọc If-None-Match
+     * @return TodoChangesResponse
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<TodoChangesResponse> getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "500") int limit,
+            HttpServletRequest request) {
+        log.info("GET /api/todos/changes - Lấy thay đổi todos");
+        return dataVersionETags.conditional(request, () -> todoService.getChanges(since, limit));
+    }
+
+    /**
+     * Mở stream (Server-Sent Events) các thay đổi todos/categories/tags của user hiện tại.
+     * Mỗi transaction đã commit được gửi thành một event "change" (TodoStreamEvent); server gửi
+     * comment heartbeat định kỳ. Client cần gửi header Authorization (ví dụ dùng fetch thay vì
+     * EventSource) và khi kết nối lại nên gọi /api/todos/changes để lấy các thay đổi bị lỡ.
+     *
+     * @return SseEmitter của kết nối
+     */
+    @GetMapping("/stream")
+    public SseEmitter stream() {
+        log.info("GET /api/todos/stream - Mở stream thay đổi todos");
+        return todoChangeStream.subscribe(currentUserResolver.getCurrentUserId());
     }
 
     /**
@@ -120,6 +184,111 @@ public class TodoController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Tạo nhiều todo trong một transaction
+     *
+     * @param request Danh sách TodoRequest (tối đa {@value BulkRequest#MAX_ITEMS} phần tử)
+     * @return BulkResult chứa kết quả từng phần tử
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkResult<TodoResponse>> bulkCreateTodos(
+            @Valid @RequestBody BulkRequest<TodoRequest> request) {
+        log.info("POST /api/todos/bulk - Tạo {} todos", request.getItems().size());
+        return ResponseEntity.ok(todoService.bulkCreate(request.getItems()));
+    }
+
+    /**
+     * Cập nhật nhiều todo trong một transaction
+     *
+     * @param request Danh sách ID và nội dung cập nhật
+     * @return BulkResult chứa kết quả từng phần tử
+     */
+    @PutMapping("/bulk")
+    public ResponseEntity<BulkResult<TodoResponse>> bulkUpdateTodos(
+            @Valid @RequestBody BulkRequest<BulkTodoUpdateItem> request) {
+        log.info("PUT /api/todos/bulk - Cập nhật {} todos", request.getItems().size());
+        return ResponseEntity.ok(todoService.bulkUpdate(request.getItems()));
+    }
+
+    /**
+     * Cập nhật trạng thái nhiều todo trong một transaction
+     *
+     * @param request Danh sách ID và trạng thái mới
+     * @return BulkResult chứa kết quả từng phần tử
+     */
+    @PatchMapping("/bulk/status")
+    public ResponseEntity<BulkResult<TodoResponse>> bulkUpdateTodoStatus(
+            @Valid @RequestBody BulkRequest<BulkTodoStatusItem> request) {
+        log.info("PATCH /api/todos/bulk/status - Cập nhật trạng thái {} todos", request.getItems().size());
+        return ResponseEntity.ok(todoService.bulkUpdateStatus(request.getItems()));
+    }
+
+    /**
+     * Xóa nhiều todo (soft delete) trong một transaction
+     *
+     * @param request Danh sách ID todo
+     * @return BulkResult chứa kết quả từng phần tử
+     */
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<BulkResult<TodoResponse>> bulkDeleteTodos(@Valid @RequestBody BulkRequest<Long> request) {
+        log.info("POST /api/todos/bulk/delete - Xóa {} todos", request.getItems().size());
+        return ResponseEntity.ok(todoService.bulkDelete(request.getItems()));
+    }
+
+    /**
+     * Khôi phục nhiều todo từ trash trong một transaction
+     *
+     * @param request Danh sách ID todo
+     * @return BulkResult chứa kết quả từng phần tử
+     */
+    @PostMapping("/bulk/restore")
+    public ResponseEntity<BulkResult<TodoResponse>> bulkRestoreTodos(@Valid @RequestBody BulkRequest<Long> request) {
+        log.info("POST /api/todos/bulk/restore - Khôi phục {} todos", request.getItems().size());
+        return ResponseEntity.ok(todoService.bulkRestore(request.getItems()));
+    }
+
+    /**
+     * Export toàn bộ todos (kể cả subtasks, kèm category và tags) của user hiện tại.
+     * Dữ liệu được ghi thẳng ra response theo từng dòng, không dựng toàn bộ danh sách trong bộ nhớ.
+     *
+     * @param format   Định dạng: ndjson (mặc định) hoặc csv
+     * @param response HttpServletResponse để ghi dữ liệu
+     * @throws IOException nếu ghi response thất bại
+     */
+    @GetMapping("/export")
+    public void exportTodos(
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+        log.info("GET /api/todos/export - Export todos dạng {}", format);
+        TodoTransferFormat transferFormat = TodoTransferFormat.from(format);
+
+        response.setContentType(transferFormat.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("todos." + transferFormat.getFileExtension())
+                .build()
+                .toString());
+        todoTransferService.export(transferFormat, response.getOutputStream());
+    }
+
+    /**
+     * Import todos từ request body (NDJSON hoặc CSV theo định dạng của export).
+     * Dữ liệu được đọc và ghi dần theo lô; category và tag chưa có sẽ được tạo theo tên.
+     *
+     * @param format Định dạng: ndjson (mặc định) hoặc csv
+     * @param body   Request body
+     * @return TodoImportResult chứa số dòng thành công/lỗi
+     * @throws IOException nếu đọc request body thất bại
+     */
+    @PostMapping("/import")
+    public ResponseEntity<TodoImportResult> importTodos(
+            @RequestParam(defaultValue = "ndjson") String format,
+            InputStream body) throws IOException {
+        log.info("POST /api/todos/import - Import todos dạng {}", format);
+        TodoImportResult result = todoTransferService.importTodos(TodoTransferFormat.from(format), body);
+        return ResponseEntity.ok(result);
+    }
+
     /**
      * Tìm kiếm todos nâng cao
      *
@@ -207,15 +376,56 @@ public class TodoController {
     }
 
     /**
-     * Lấy thống kê todos
+     * Lấy thống kê todos.
+     * Hỗ trợ If-None-Match: trả về 304 nếu dữ liệu của user chưa thay đổi và số quá hạn/đến hạn
+     * hôm nay chưa thể thay đổi theo thời gian.
      *
+     * @param request HttpServletRequest để đọc If-None-Match
      * @return Map chứa thống kê
      */
     @GetMapping("/statistics")
-    public ResponseEntity<Map<String, Long>> getStatistics() {
+    public ResponseEntity<Map<String, Long>> getStatistics(HttpServletRequest request) {
         log.info("GET /api/todos/statistics - Lấy thống kê todos");
-        Map<String, Long> statistics = todoService.getStatistics();
-        return ResponseEntity.ok(statistics);
+        return dataVersionETags.conditional(request, todoService::getStatisticsSnapshot,
+                TodoStatistics::getValidUntil, TodoStatistics::toMap);
+    }
+
+    /**
+     * Lấy số todos chưa hoàn thành quá hạn / đến hạn hôm nay / trong tuần.
+     * Hỗ trợ If-None-Match: trả về 304 nếu dữ liệu của user chưa thay đổi và chưa có todo nào
+     * chuyển nhóm theo thời gian.
+     *
+     * @param request HttpServletRequest để đọc If-None-Match
+     * @return TodoDueSummary
+     */
+    @GetMapping("/due/summary")
+    public ResponseEntity<TodoDueSummary> getDueSummary(HttpServletRequest request) {
+        log.info("GET /api/todos/due/summary - Lấy số todos theo nhóm hạn");
+        return dataVersionETags.conditional(request, todoService::getDueSummary,
+                TodoDueSummary::getValidUntil, summary -> summary);
+    }
+
+    /**
+     * Lấy todos chưa hoàn thành của một nhóm hạn, sắp xếp theo hạn tăng dần.
+     * Hỗ trợ If-None-Match như /due/summary.
+     *
+     * @param bucket  Nhóm hạn: overdue | today | week
+     * @param page    Số trang (mặc định: 0)
+     * @param size    Kích thước trang (mặc định: 20)
+     * @param request HttpServletRequest để đọc If-None-Match
+     * @return Page chứa TodoResponse
+     */
+    @GetMapping("/due/{bucket}")
+    public ResponseEntity<Page<TodoResponse>> getDueTodos(
+            @PathVariable String bucket,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            HttpServletRequest request) {
+        log.info("GET /api/todos/due/{} - Lấy todos theo nhóm hạn", bucket);
+        TodoDueBucket dueBucket = TodoDueBucket.fromPath(bucket);
+        return dataVersionETags.conditional(request,
+                () -> todoService.getDue(dueBucket, PageRequest.of(page, size)),
+                TodoDuePage::getValidUntil, TodoDuePage::getTodos);
     }
 
     /**
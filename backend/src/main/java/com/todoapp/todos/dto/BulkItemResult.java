@@ -0,0 +1,46 @@
+package com.todoapp.todos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Kết quả xử lý một phần tử trong lô
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkItemResult<T> {
+
+    /**
+     * Vị trí của phần tử trong request
+     */
+    private int index;
+
+    /**
+     * ID todo (với thao tác tạo mới: ID được sinh, null nếu thất bại)
+     */
+    private Long id;
+
+    private boolean success;
+
+    /**
+     * Dữ liệu sau khi xử lý, null nếu thất bại hoặc thao tác không trả dữ liệu
+     */
+    private T data;
+
+    /**
+     * Lý do thất bại
+     */
+    private String error;
+
+    public static <T> BulkItemResult<T> success(int index, Long id, T data) {
+        return new BulkItemResult<>(index, id, true, data, null);
+    }
+
+    public static <T> BulkItemResult<T> failure(int index, Long id, String error) {
+        return new BulkItemResult<>(index, id, false, null, error);
+    }
+}
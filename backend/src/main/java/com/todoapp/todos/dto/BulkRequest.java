@@ -0,0 +1,29 @@
+package com.todoapp.todos.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO cho request thao tác hàng loạt; toàn bộ lô được xử lý trong một transaction
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRequest<T> {
+
+    public static final int MAX_ITEMS = 500;
+
+    @NotEmpty(message = "Danh sách không được để trống")
+    @Size(max = MAX_ITEMS, message = "Mỗi lô tối đa " + MAX_ITEMS + " phần tử")
+    @Valid
+    private List<@NotNull(message = "Phần tử không được null") T> items;
+}
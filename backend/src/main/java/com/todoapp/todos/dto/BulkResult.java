@@ -0,0 +1,31 @@
+package com.todoapp.todos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Kết quả của một thao tác hàng loạt, kèm kết quả từng phần tử theo thứ tự request
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkResult<T> {
+
+    private int total;
+
+    private int succeeded;
+
+    private int failed;
+
+    private List<BulkItemResult<T>> results;
+
+    public static <T> BulkResult<T> of(List<BulkItemResult<T>> results) {
+        int succeeded = (int) results.stream().filter(BulkItemResult::isSuccess).count();
+        return new BulkResult<>(results.size(), succeeded, results.size() - succeeded, results);
+    }
+}
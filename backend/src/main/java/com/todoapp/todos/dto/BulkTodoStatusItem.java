@@ -0,0 +1,24 @@
+package com.todoapp.todos.dto;
+
+import com.todoapp.todos.entity.TodoStatus;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Một phần tử của request cập nhật trạng thái todos hàng loạt
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTodoStatusItem {
+
+    @NotNull(message = "ID không được để trống")
+    private Long id;
+
+    @NotNull(message = "Trạng thái không được để trống")
+    private TodoStatus status;
+}
@@ -0,0 +1,25 @@
+package com.todoapp.todos.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Một phần tử của request cập nhật todos hàng loạt
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTodoUpdateItem {
+
+    @NotNull(message = "ID không được để trống")
+    private Long id;
+
+    @NotNull(message = "Nội dung cập nhật không được để trống")
+    @Valid
+    private TodoRequest todo;
+}
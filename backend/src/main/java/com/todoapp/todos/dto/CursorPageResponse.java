@@ -0,0 +1,34 @@
+package com.todoapp.todos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO cho một trang kết quả phân trang theo cursor (keyset)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+
+    private List<T> content;
+
+    private int size;
+
+    private boolean hasNext;
+
+    /**
+     * Token để lấy trang kế tiếp, null nếu đã hết dữ liệu
+     */
+    private String nextCursor;
+
+    /**
+     * Tổng số phần tử, chỉ được tính khi client yêu cầu (includeTotal=true)
+     */
+    private Long totalElements;
+}
@@ -0,0 +1,49 @@
+package com.todoapp.todos.dto;
+
+import com.todoapp.common.exception.BadRequestException;
+import com.todoapp.todos.entity.Todo;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Vị trí trong luồng thay đổi todos của một user theo (sync_version, id).
+ * Được mã hóa thành token mờ (Base64 URL-safe) để client gửi lại nguyên vẹn.
+ */
+public record TodoChangeCursor(long version, long id) {
+
+    /**
+     * Vị trí trước mọi thay đổi (đồng bộ lần đầu)
+     */
+    public static final TodoChangeCursor INITIAL = new TodoChangeCursor(-1L, 0L);
+
+    private static final String VERSION = "c1";
+    private static final String SEPARATOR = ":";
+
+    public static TodoChangeCursor of(Todo todo) {
+        return new TodoChangeCursor(todo.getSyncVersion(), todo.getId());
+    }
+
+    public String encode() {
+        String raw = VERSION + SEPARATOR + version + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Giải mã token từ client
+     *
+     * @throws BadRequestException nếu token không hợp lệ
+     */
+    public static TodoChangeCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR);
+            if (parts.length != 3 || !VERSION.equals(parts[0])) {
+                throw new BadRequestException("Cursor không hợp lệ");
+            }
+            return new TodoChangeCursor(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Cursor không hợp lệ");
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.todoapp.todos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO cho một trang thay đổi todos kể từ một cursor (delta sync)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoChangesResponse {
+
+    /**
+     * Todo được tạo, cập nhật hoặc khôi phục sau cursor
+     */
+    @Builder.Default
+    private List<TodoResponse> changed = new ArrayList<>();
+
+    /**
+     * Todo bị xóa (soft delete) sau cursor
+     */
+    @Builder.Default
+    private List<Tombstone> deleted = new ArrayList<>();
+
+    /**
+     * Token truyền vào since ở lần đồng bộ tiếp theo
+     */
+    private String cursor;
+
+    /**
+     * Còn thay đổi chưa trả về, client nên gọi tiếp ngay với cursor mới
+     */
+    private boolean hasMore;
+
+    /**
+     * Dấu xóa của một todo
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Tombstone {
+
+        private Long id;
+
+        private LocalDateTime deletedAt;
+    }
+}
@@ -0,0 +1,44 @@
+package com.todoapp.todos.dto;
+
+import com.todoapp.common.exception.BadRequestException;
+import com.todoapp.todos.entity.Todo;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Vị trí trong danh sách todos theo khóa sắp xếp (sort_key, id).
+ * Được mã hóa thành token mờ (Base64 URL-safe) để client gửi lại nguyên vẹn.
+ */
+public record TodoCursor(String sortKey, Long id) {
+
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = ":";
+
+    public static TodoCursor of(Todo todo) {
+        return new TodoCursor(todo.getSortKey(), todo.getId());
+    }
+
+    public String encode() {
+        String raw = VERSION + SEPARATOR + sortKey + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Giải mã token từ client
+     *
+     * @throws BadRequestException nếu token không hợp lệ
+     */
+    public static TodoCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR);
+            if (parts.length != 3 || !VERSION.equals(parts[0]) || parts[1].isEmpty()) {
+                throw new BadRequestException("Cursor không hợp lệ");
+            }
+            return new TodoCursor(parts[1], Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Cursor không hợp lệ");
+        }
+    }
+}
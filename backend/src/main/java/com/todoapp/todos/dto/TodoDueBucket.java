@@ -0,0 +1,66 @@
+package com.todoapp.todos.dto;
+
+import com.todoapp.common.exception.BadRequestException;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Nhóm hạn của các todo chưa hoàn thành (PENDING/IN_PROGRESS)
+ */
+public enum TodoDueBucket {
+
+    /**
+     * Đã quá hạn: hạn trước thời điểm hiện tại
+     */
+    OVERDUE,
+
+    /**
+     * Đến hạn trong phần còn lại của hôm nay
+     */
+    TODAY,
+
+    /**
+     * Đến hạn từ bây giờ đến hết tuần (tuần bắt đầu từ thứ Hai, bao gồm cả hôm nay)
+     */
+    WEEK;
+
+    /**
+     * @return Đầu khoảng hạn (bao gồm), null nếu không giới hạn
+     */
+    public LocalDateTime from(LocalDateTime now) {
+        return this == OVERDUE ? null : now;
+    }
+
+    /**
+     * @return Cuối khoảng hạn (không bao gồm)
+     */
+    public LocalDateTime to(LocalDateTime now) {
+        return switch (this) {
+            case OVERDUE -> now;
+            case TODAY -> startOfTomorrow(now);
+            case WEEK -> now.toLocalDate().with(TemporalAdjusters.next(DayOfWeek.MONDAY)).atStartOfDay();
+        };
+    }
+
+    /**
+     * Nửa đêm hôm nay: các nhóm TODAY/WEEK đổi ranh giới theo ngày
+     */
+    public static LocalDateTime startOfTomorrow(LocalDateTime now) {
+        return now.toLocalDate().plusDays(1).atStartOfDay();
+    }
+
+    /**
+     * @param value overdue | today | week (không phân biệt hoa thường)
+     * @throws BadRequestException nếu giá trị không hợp lệ
+     */
+    public static TodoDueBucket fromPath(String value) {
+        for (TodoDueBucket bucket : values()) {
+            if (bucket.name().equalsIgnoreCase(value)) {
+                return bucket;
+            }
+        }
+        throw new BadRequestException("Nhóm hạn không hợp lệ: " + value + " (overdue, today, week)");
+    }
+}
@@ -0,0 +1,17 @@
+package com.todoapp.todos.dto;
+
+import lombok.Value;
+import org.springframework.data.domain.Page;
+
+import java.time.LocalDateTime;
+
+/**
+ * Một trang todos của một nhóm hạn, kèm thời điểm trang hết hiệu lực do thời gian trôi
+ */
+@Value
+public class TodoDuePage {
+
+    Page<TodoResponse> todos;
+
+    LocalDateTime validUntil;
+}
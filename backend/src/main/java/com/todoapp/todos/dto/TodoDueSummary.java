@@ -0,0 +1,31 @@
+package com.todoapp.todos.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Số todo chưa hoàn thành theo nhóm hạn của user (response của /api/todos/due/summary)
+ */
+@Value
+@Builder
+public class TodoDueSummary {
+
+    long overdue;
+
+    long dueToday;
+
+    /**
+     * Bao gồm cả các todo đến hạn hôm nay
+     */
+    long dueThisWeek;
+
+    /**
+     * Thời điểm sớm nhất mà các số trên có thể thay đổi do thời gian trôi
+     * (hạn kế tiếp của một todo chưa hoàn thành, hoặc nửa đêm)
+     */
+    @JsonIgnore
+    LocalDateTime validUntil;
+}
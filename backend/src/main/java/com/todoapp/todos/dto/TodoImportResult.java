@@ -0,0 +1,68 @@
+package com.todoapp.todos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Kết quả import todos
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoImportResult {
+
+    /**
+     * Số lỗi tối đa được trả về chi tiết; các lỗi sau đó chỉ được đếm trong {@link #failed}
+     */
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    /**
+     * Số dòng dữ liệu đã đọc
+     */
+    private long total;
+
+    private long imported;
+
+    private long failed;
+
+    private int categoriesCreated;
+
+    private int tagsCreated;
+
+    private long durationMs;
+
+    @Builder.Default
+    private List<RowError> errors = new ArrayList<>();
+
+    /**
+     * Ghi nhận một dòng lỗi
+     *
+     * @param line    Số thứ tự dòng trong file (bắt đầu từ 1)
+     * @param message Lý do lỗi
+     */
+    public void addError(long line, String message) {
+        failed++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(line, message));
+        }
+    }
+
+    /**
+     * Lỗi của một dòng trong file import
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+
+        private long line;
+
+        private String message;
+    }
+}
@@ -0,0 +1,77 @@
+package com.todoapp.todos.dto;
+
+import com.todoapp.todos.entity.TodoPriority;
+import com.todoapp.todos.entity.TodoStatus;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Thống kê todos (chưa xóa) của một user
+ */
+@Value
+@Builder
+public class TodoStatistics {
+
+    /**
+     * Các trạng thái được coi là chưa hoàn thành (tính quá hạn/đến hạn)
+     */
+    public static final Set<TodoStatus> OPEN_STATUSES =
+            Collections.unmodifiableSet(EnumSet.of(TodoStatus.PENDING, TodoStatus.IN_PROGRESS));
+
+    Map<TodoStatus, Long> byStatus;
+
+    Map<TodoPriority, Long> byPriority;
+
+    /**
+     * Số todo chưa hoàn thành (PENDING/IN_PROGRESS) đã quá hạn
+     */
+    long overdue;
+
+    /**
+     * Số todo chưa hoàn thành có hạn trong hôm nay
+     */
+    long dueToday;
+
+    /**
+     * Thời điểm sớm nhất mà overdue/dueToday có thể thay đổi do thời gian trôi
+     * (hạn kế tiếp của một todo chưa hoàn thành, hoặc nửa đêm)
+     */
+    LocalDateTime validUntil;
+
+    public long getTotal() {
+        return byStatus.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * Chuyển sang dạng Map cho response của /api/todos/statistics
+     */
+    public Map<String, Long> toMap() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        for (TodoStatus status : TodoStatus.values()) {
+            statistics.put(status.name(), byStatus.getOrDefault(status, 0L));
+        }
+        statistics.put("TOTAL_ACTIVE", getTotal());
+        for (TodoPriority priority : TodoPriority.values()) {
+            statistics.put("PRIORITY_" + priority.name(), byPriority.getOrDefault(priority, 0L));
+        }
+        statistics.put("OVERDUE", overdue);
+        statistics.put("DUE_TODAY", dueToday);
+        return statistics;
+    }
+
+    public static Map<TodoStatus, Long> emptyStatusCounts() {
+        return new EnumMap<>(TodoStatus.class);
+    }
+
+    public static Map<TodoPriority, Long> emptyPriorityCounts() {
+        return new EnumMap<>(TodoPriority.class);
+    }
+}
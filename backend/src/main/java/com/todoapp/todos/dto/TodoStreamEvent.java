@@ -0,0 +1,54 @@
+package com.todoapp.todos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Event "change" của /api/todos/stream: các thay đổi của một transaction đã commit
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoStreamEvent {
+
+    /**
+     * Số thay đổi tối đa trong một event
+     */
+    public static final int MAX_CHANGES = 100;
+
+    @Builder.Default
+    private List<Change> changes = new ArrayList<>();
+
+    /**
+     * Transaction có nhiều hơn {@value #MAX_CHANGES} thay đổi; client nên đồng bộ lại
+     * (ví dụ qua /api/todos/changes) thay vì dựa vào danh sách changes
+     */
+    private boolean truncated;
+
+    /**
+     * Một thay đổi
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Change {
+
+        /**
+         * TODO, CATEGORY hoặc TAG
+         */
+        private String entity;
+
+        /**
+         * CREATED, UPDATED, DELETED hoặc RESTORED
+         */
+        private String type;
+
+        private Long id;
+    }
+}
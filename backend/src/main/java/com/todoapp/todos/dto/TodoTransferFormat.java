@@ -0,0 +1,43 @@
+package com.todoapp.todos.dto;
+
+import com.todoapp.common.exception.BadRequestException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Định dạng dữ liệu khi export/import todos
+ */
+@Getter
+@RequiredArgsConstructor
+public enum TodoTransferFormat {
+
+    /**
+     * Mỗi dòng là một object JSON (newline-delimited JSON)
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+
+    /**
+     * CSV có dòng header, các tag được nối bằng ký tự '|'
+     */
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+
+    private final String fileExtension;
+
+    /**
+     * Chuyển tham số format (không phân biệt hoa thường) thành enum
+     *
+     * @param value Giá trị tham số, ví dụ "ndjson" hoặc "csv"
+     * @return TodoTransferFormat tương ứng
+     * @throws BadRequestException nếu format không được hỗ trợ
+     */
+    public static TodoTransferFormat from(String value) {
+        for (TodoTransferFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value) || format.fileExtension.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new BadRequestException("Định dạng không được hỗ trợ: " + value);
+    }
+}
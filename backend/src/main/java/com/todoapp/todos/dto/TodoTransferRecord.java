@@ -0,0 +1,64 @@
+package com.todoapp.todos.dto;
+
+import com.todoapp.todos.entity.TodoPriority;
+import com.todoapp.todos.entity.TodoStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Một todo trong file export/import.
+ * Category và tags được ghi theo tên để file có thể import sang tài khoản khác;
+ * id/parentId chỉ dùng để giữ quan hệ todo cha - subtask trong cùng một file.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoTransferRecord {
+
+    private Long id;
+
+    private Long parentId;
+
+    private String title;
+
+    private String description;
+
+    private TodoStatus status;
+
+    private TodoPriority priority;
+
+    private LocalDateTime dueDate;
+
+    private LocalDateTime remindAt;
+
+    private Integer estimatedMinutes;
+
+    private String category;
+
+    @Builder.Default
+    private List<String> tags = new ArrayList<>();
+
+    private LocalDateTime completedAt;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    /**
+     * Constructor cho JPQL constructor expression (TodoRepository.streamTransferRecords), tags được gán sau
+     */
+    public TodoTransferRecord(Long id, Long parentId, String title, String description, TodoStatus status,
+                              TodoPriority priority, LocalDateTime dueDate, LocalDateTime remindAt,
+                              Integer estimatedMinutes, String category, LocalDateTime completedAt,
+                              LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(id, parentId, title, description, status, priority, dueDate, remindAt, estimatedMinutes,
+                category, new ArrayList<>(), completedAt, createdAt, updatedAt);
+    }
+}
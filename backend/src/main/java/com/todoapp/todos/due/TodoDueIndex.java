@@ -0,0 +1,338 @@
+package com.todoapp.todos.due;
+
+import com.todoapp.todos.dto.TodoStatistics;
+import com.todoapp.todos.event.CategoryChangedEvent;
+import com.todoapp.todos.event.TagChangedEvent;
+import com.todoapp.todos.event.TodoChangedEvent;
+import com.todoapp.todos.event.TodoSnapshot;
+import com.todoapp.todos.repository.TodoRepository;
+import com.todoapp.todos.service.UserDataVersionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Index hạn của các todo chưa hoàn thành theo từng user (bật/tắt bằng {@code todo.due-index.enabled}),
+ * phục vụ các danh sách quá hạn / đến hạn hôm nay / trong tuần.
+ *
+ * Index của một user được dựng ở lần đọc đầu tiên (1 truy vấn trên index (user_id, due_date)), sau đó
+ * được cập nhật từ {@link TodoChangedEvent} sau khi transaction commit (tạo, cập nhật, đổi trạng thái,
+ * xóa, khôi phục). Tổng bộ nhớ ước lượng bị giới hạn bởi {@code todo.due-index.max-bytes} (LRU).
+ * User có quá nhiều todo có hạn không được index và được phục vụ từ database.
+ *
+ * Mỗi index ghi nhớ version dữ liệu của user (UserDataVersionService) mà nó phản ánh. Thay đổi đã commit
+ * chỉ được áp dụng khi version của transaction nối tiếp version của index; nếu thiếu version ở giữa
+ * (thay đổi trên instance khác hoặc không đi qua event) thì index bị bỏ. Khi đọc, index cũ hơn version
+ * hiện tại của user được dựng lại, nên dữ liệu trả về không bao giờ cũ hơn version dùng làm ETag.
+ * Index còn được dựng lại sau {@code todo.due-index.ttl-seconds}.
+ */
+@Slf4j
+@Component
+public class TodoDueIndex {
+
+    private final TodoRepository todoRepository;
+    private final UserDataVersionService userDataVersionService;
+    private final boolean enabled;
+    private final long maxBytes;
+    private final int maxTodosPerUser;
+    private final long ttlNanos;
+
+    private final Counter hits;
+    private final Counter builds;
+    private final Counter skips;
+
+    /**
+     * Các index theo thứ tự truy cập (LRU), bảo vệ bởi {@code this}
+     */
+    private final LinkedHashMap<Long, UserDueIndex> indexes = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Thay đổi phát sinh trong lúc index của user đang được dựng, áp dụng lại khi dựng xong
+     */
+    private final Map<Long, BuildingChanges> pending = new HashMap<>();
+
+    private long totalBytes;
+
+    public TodoDueIndex(TodoRepository todoRepository,
+                        UserDataVersionService userDataVersionService,
+                        MeterRegistry meterRegistry,
+                        @Value("${todo.due-index.enabled:true}") boolean enabled,
+                        @Value("${todo.due-index.max-bytes:33554432}") long maxBytes,
+                        @Value("${todo.due-index.max-todos-per-user:20000}") int maxTodosPerUser,
+                        @Value("${todo.due-index.ttl-seconds:300}") long ttlSeconds) {
+        this.todoRepository = todoRepository;
+        this.userDataVersionService = userDataVersionService;
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+        this.maxTodosPerUser = maxTodosPerUser;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.hits = requestCounter(meterRegistry, "hit");
+        this.builds = requestCounter(meterRegistry, "build");
+        this.skips = requestCounter(meterRegistry, "skip");
+        Gauge.builder("todoapp.todos.due.index.bytes", this, TodoDueIndex::getTotalBytes)
+                .description("Estimated memory used by the in-memory todo due index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return Index hạn của user, hoặc empty nếu index không dùng được cho user này
+     */
+    public Optional<UserDueIndex> get(Long userId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        long version = userDataVersionService.getVersion(userId);
+        UserDueIndex index;
+        synchronized (this) {
+            index = indexes.get(userId);
+            if (index != null && (index.getVersion() < version
+                    || System.nanoTime() - index.getBuiltAtNanos() >= ttlNanos)) {
+                indexes.remove(userId);
+                totalBytes -= index.getEstimatedBytes();
+                index = null;
+            }
+        }
+        if (index != null) {
+            hits.increment();
+            return Optional.of(index);
+        }
+
+        index = build(userId, version);
+        if (index == null) {
+            skips.increment();
+            return Optional.empty();
+        }
+        builds.increment();
+        return Optional.of(index);
+    }
+
+    /**
+     * Cập nhật index sau khi thay đổi todo đã commit
+     */
+    @EventListener
+    public void onTodoChanged(TodoChangedEvent event) {
+        collect(event.userId(), index -> {
+            TodoSnapshot after = event.after();
+            if (after.isDeleted() || after.dueDate() == null
+                    || !TodoStatistics.OPEN_STATUSES.contains(after.status())) {
+                index.remove(after.id());
+            } else {
+                index.put(after.id(), after.dueDate());
+            }
+        });
+    }
+
+    /**
+     * Category/tag không ảnh hưởng đến hạn nhưng làm tăng version dữ liệu của user
+     */
+    @EventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        collect(event.userId(), null);
+    }
+
+    @EventListener
+    public void onTagChanged(TagChangedEvent event) {
+        collect(event.userId(), null);
+    }
+
+    public synchronized void invalidate(Long userId) {
+        UserDueIndex removed = indexes.remove(userId);
+        if (removed != null) {
+            totalBytes -= removed.getEstimatedBytes();
+        }
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Ghi nhận thay đổi của transaction hiện tại; được áp dụng sau khi commit cùng version mà
+     * transaction được cấp. Ngoài transaction thì không biết version: index của user bị bỏ.
+     *
+     * @param change Thay đổi của index, null nếu chỉ có version thay đổi
+     */
+    private void collect(Long userId, Consumer<UserDueIndex> change) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(userId);
+            return;
+        }
+        TransactionChanges changes = (TransactionChanges) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            changes = new TransactionChanges();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(changes);
+        }
+        changes.add(userId, change);
+    }
+
+    private UserDueIndex build(Long userId, long version) {
+        synchronized (this) {
+            pending.computeIfAbsent(userId, id -> new BuildingChanges()).builders++;
+        }
+
+        // Đọc version trước truy vấn: index chứa ít nhất mọi thay đổi đến version này
+        UserDueIndex index = new UserDueIndex(userId, version);
+        BuildingChanges changes;
+        boolean tooLarge;
+        try {
+            List<Object[]> rows = todoRepository.findOpenDueDates(
+                    userId, TodoStatistics.OPEN_STATUSES, PageRequest.of(0, maxTodosPerUser + 1));
+            tooLarge = rows.size() > maxTodosPerUser;
+            if (!tooLarge) {
+                for (Object[] row : rows) {
+                    index.put((Long) row[0], (LocalDateTime) row[1]);
+                }
+            }
+        } finally {
+            synchronized (this) {
+                changes = pending.get(userId);
+                if (--changes.builders == 0) {
+                    pending.remove(userId);
+                }
+            }
+        }
+        if (tooLarge) {
+            return null;
+        }
+
+        synchronized (this) {
+            boolean complete = true;
+            changes.committed.sort(Comparator.comparing(CommittedChanges::version,
+                    Comparator.nullsFirst(Comparator.naturalOrder())));
+            for (CommittedChanges committed : changes.committed) {
+                complete = complete && applyTo(index, committed);
+            }
+            if (complete && !indexes.containsKey(userId) && index.getEstimatedBytes() <= maxBytes) {
+                indexes.put(userId, index);
+                totalBytes += index.getEstimatedBytes();
+                evictOverBudget(userId);
+            }
+        }
+        log.debug("Built due index for user {}: {} todos", userId, index.size());
+        return index;
+    }
+
+    private synchronized void apply(Long userId, CommittedChanges committed) {
+        BuildingChanges changes = pending.get(userId);
+        if (changes != null) {
+            changes.committed.add(committed);
+        }
+
+        UserDueIndex index = indexes.get(userId);
+        if (index == null) {
+            return;
+        }
+        long before = index.getEstimatedBytes();
+        if (!applyTo(index, committed)) {
+            indexes.remove(userId);
+            totalBytes -= before;
+            log.debug("Dropped due index of user {}: version {} does not follow {}",
+                    userId, committed.version(), index.getVersion());
+            return;
+        }
+        totalBytes += index.getEstimatedBytes() - before;
+        evictOverBudget(userId);
+    }
+
+    /**
+     * Áp dụng thay đổi của một transaction đã commit lên index
+     *
+     * @return false nếu index đã thiếu thay đổi (version không nối tiếp) và không còn dùng được
+     */
+    private static boolean applyTo(UserDueIndex index, CommittedChanges committed) {
+        Long version = committed.version();
+        if (version == null || version > index.getVersion() + 1) {
+            return false;
+        }
+        if (version < index.getVersion()) {
+            // Đã có trong index (được dựng sau commit này)
+            return true;
+        }
+        committed.changes().forEach(change -> change.accept(index));
+        index.setVersion(version);
+        return true;
+    }
+
+    private void evictOverBudget(Long keepUserId) {
+        Iterator<Map.Entry<Long, UserDueIndex>> iterator = indexes.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<Long, UserDueIndex> eldest = iterator.next();
+            if (eldest.getKey().equals(keepUserId)) {
+                continue;
+            }
+            totalBytes -= eldest.getValue().getEstimatedBytes();
+            iterator.remove();
+            log.debug("Evicted due index of user {}", eldest.getKey());
+        }
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("todoapp.todos.due.index.requests")
+                .description("In-memory todo due index requests")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Thay đổi của một transaction đã commit
+     *
+     * @param version Version dữ liệu của user được cấp cho transaction, null nếu không xác định
+     */
+    private record CommittedChanges(Long version, List<Consumer<UserDueIndex>> changes) {
+    }
+
+    private static final class BuildingChanges {
+        private final List<CommittedChanges> committed = new ArrayList<>();
+        private int builders;
+    }
+
+    /**
+     * Các thay đổi của transaction hiện tại, theo user, áp dụng sau khi commit
+     */
+    private final class TransactionChanges implements TransactionSynchronization {
+
+        private final Map<Long, List<Consumer<UserDueIndex>>> changes = new HashMap<>();
+
+        void add(Long userId, Consumer<UserDueIndex> change) {
+            List<Consumer<UserDueIndex>> userChanges = changes.computeIfAbsent(userId, id -> new ArrayList<>());
+            if (change != null) {
+                userChanges.add(change);
+            }
+        }
+
+        @Override
+        public void afterCommit() {
+            changes.forEach((userId, userChanges) ->
+                    apply(userId, new CommittedChanges(userDataVersionService.getCommittedVersion(userId), userChanges)));
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TodoDueIndex.this);
+        }
+    }
+}
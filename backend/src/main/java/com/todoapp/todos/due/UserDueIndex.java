@@ -0,0 +1,168 @@
+package com.todoapp.todos.due;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index hạn (dueDate) của các todo chưa hoàn thành, chưa xóa của một user.
+ *
+ * Lưu dạng hai mảng song song (hạn theo millisecond, ID todo) sắp xếp theo (hạn, ID), nên số todo
+ * trong một khoảng hạn và vị trí của một trang được tính bằng tìm kiếm nhị phân, không phụ thuộc
+ * số todo trong khoảng. Mọi thao tác được đồng bộ trên chính index.
+ */
+public class UserDueIndex {
+
+    /**
+     * Ước lượng bộ nhớ (byte) của một todo: 2 phần tử mảng và một entry của dueById
+     */
+    private static final long ENTRY_BYTES = 96;
+    private static final long BASE_BYTES = 128;
+
+    private final Long userId;
+    private final long builtAtNanos;
+
+    /**
+     * Version dữ liệu của user (UserDataVersionService) mà index phản ánh: index chứa mọi thay đổi
+     * đến version này
+     */
+    private volatile long version;
+    private long[] dues = new long[16];
+    private long[] ids = new long[16];
+    private int size;
+    private final Map<Long, Long> dueById = new HashMap<>();
+
+    UserDueIndex(Long userId, long version) {
+        this.userId = userId;
+        this.version = version;
+        this.builtAtNanos = System.nanoTime();
+    }
+
+    Long getUserId() {
+        return userId;
+    }
+
+    long getBuiltAtNanos() {
+        return builtAtNanos;
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    void setVersion(long version) {
+        this.version = version;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized long getEstimatedBytes() {
+        return BASE_BYTES + (long) size * ENTRY_BYTES;
+    }
+
+    /**
+     * Thêm hoặc cập nhật hạn của todo
+     */
+    synchronized void put(Long id, LocalDateTime dueDate) {
+        long due = key(dueDate);
+        Long current = dueById.get(id);
+        if (current != null && current == due) {
+            return;
+        }
+        remove(id);
+        if (size == dues.length) {
+            int capacity = size + (size >> 1);
+            dues = Arrays.copyOf(dues, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+        }
+        int position = position(due, id);
+        System.arraycopy(dues, position, dues, position + 1, size - position);
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        dues[position] = due;
+        ids[position] = id;
+        size++;
+        dueById.put(id, due);
+    }
+
+    synchronized void remove(Long id) {
+        Long due = dueById.remove(id);
+        if (due == null) {
+            return;
+        }
+        int position = position(due, id);
+        System.arraycopy(dues, position + 1, dues, position, size - position - 1);
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        size--;
+    }
+
+    /**
+     * @param from Đầu khoảng (bao gồm), null nếu không giới hạn
+     * @param to   Cuối khoảng (không bao gồm)
+     * @return Số todo có hạn trong khoảng
+     */
+    public synchronized int count(LocalDateTime from, LocalDateTime to) {
+        return lowerBound(key(to)) - (from == null ? 0 : lowerBound(key(from)));
+    }
+
+    /**
+     * @param from   Đầu khoảng (bao gồm), null nếu không giới hạn
+     * @param to     Cuối khoảng (không bao gồm)
+     * @param offset Vị trí bắt đầu trong khoảng
+     * @param limit  Số ID tối đa
+     * @return ID các todo có hạn trong khoảng, theo (hạn, ID)
+     */
+    public synchronized List<Long> find(LocalDateTime from, LocalDateTime to, long offset, int limit) {
+        int end = lowerBound(key(to));
+        int start = (int) Math.min((from == null ? 0 : lowerBound(key(from))) + offset, end);
+        List<Long> result = new ArrayList<>(Math.min(limit, end - start));
+        for (int i = start; i < end && result.size() < limit; i++) {
+            result.add(ids[i]);
+        }
+        return result;
+    }
+
+    /**
+     * @return Hạn sớm nhất không trước {@code from}, hoặc null nếu không có
+     */
+    public synchronized LocalDateTime nextDue(LocalDateTime from) {
+        int position = lowerBound(key(from));
+        return position < size
+                ? LocalDateTime.ofInstant(Instant.ofEpochMilli(dues[position]), ZoneOffset.UTC)
+                : null;
+    }
+
+    /**
+     * Vị trí đầu tiên có hạn không nhỏ hơn {@code due}
+     */
+    private int lowerBound(long due) {
+        return position(due, Long.MIN_VALUE);
+    }
+
+    /**
+     * Vị trí đầu tiên có (hạn, ID) không nhỏ hơn (due, id)
+     */
+    private int position(long due, long id) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (dues[middle] < due || (dues[middle] == due && ids[middle] < id)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static long key(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -1,9 +1,12 @@
 package com.todoapp.todos.entity;
 
 import com.todoapp.auth.entity.User;
+import com.todoapp.common.cache.CacheRegions;
 import com.todoapp.common.entity.Auditable;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "tags", indexes = {
@@ -11,6 +14,8 @@ import lombok.*;
 }, uniqueConstraints = {
         @UniqueConstraint(name = "uk_tag_user_name", columnNames = { "user_id", "name" })
 })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.TAGS)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -1,11 +1,15 @@
 package com.todoapp.todos.entity;
 
 import com.todoapp.auth.entity.User;
+import com.todoapp.common.cache.CacheRegions;
 import com.todoapp.common.entity.SoftDelete;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -17,7 +21,10 @@ import java.util.Set;
         @Index(name = "idx_todo_due_date", columnList = "due_date"),
         @Index(name = "idx_todo_user_due", columnList = "user_id, due_date"),
         @Index(name = "idx_todo_parent_id", columnList = "parent_id"),
-        @Index(name = "idx_todo_deleted_at", columnList = "deleted_at")
+        @Index(name = "idx_todo_deleted_at", columnList = "deleted_at"),
+        @Index(name = "idx_todo_user_sort", columnList = "user_id, sort_key, id"),
+        @Index(name = "idx_todo_user_sync", columnList = "user_id, sync_version, id"),
+        @Index(name = "idx_todo_remind_at", columnList = "remind_at")
 })
 @Getter
 @Setter
@@ -26,8 +33,19 @@ import java.util.Set;
 @Builder
 public class Todo extends SoftDelete {
 
+    private static final LocalDateTime NO_DUE_DATE = LocalDateTime.of(2999, 12, 31, 23, 59, 59);
+    private static final DateTimeFormatter DUE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    private static final DateTimeFormatter UPDATED_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSS");
+    private static final long UPDATED_MAX = 99_999_999_999_999_999L;
+
+    /**
+     * ID sinh từ sequence todos_seq theo khối 50 giá trị (pooled optimizer), để Hibernate có thể
+     * gom các câu lệnh insert thành JDBC batch (IDENTITY buộc insert từng dòng).
+     * Trên MySQL, todos_seq là bảng một dòng mô phỏng sequence.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "todos_seq")
+    @SequenceGenerator(name = "todos_seq", sequenceName = "todos_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -56,6 +74,13 @@ public class Todo extends SoftDelete {
     @Column(name = "remind_at")
     private LocalDateTime remindAt;
 
+    /**
+     * Giá trị remindAt đã được gửi nhắc việc. Chỉ được gán bởi ReminderScheduler
+     * (TodoRepository.claimReminder); remindAt khác giá trị này nghĩa là nhắc việc chưa được gửi.
+     */
+    @Column(name = "reminded_at", insertable = false, updatable = false)
+    private LocalDateTime remindedAt;
+
     @Column(name = "estimated_minutes")
     private Integer estimatedMinutes;
 
@@ -71,7 +96,12 @@ public class Todo extends SoftDelete {
     @JoinColumn(name = "category_id")
     private Category category;
 
+    /**
+     * Được cache ở region todo-tags; các thay đổi ngoài Hibernate (ON DELETE CASCADE khi xóa tag)
+     * được xử lý bởi TodoTagsCacheInvalidator.
+     */
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.TODO_TAGS)
     @JoinTable(name = "todo_tags", joinColumns = @JoinColumn(name = "todo_id"), inverseJoinColumns = @JoinColumn(name = "tag_id"))
     @Builder.Default
     private Set<Tag> tags = new HashSet<>();
@@ -80,6 +110,34 @@ public class Todo extends SoftDelete {
     @Builder.Default
     private Set<Attachment> attachments = new HashSet<>();
 
+    /**
+     * Số subtask chưa bị xóa. Chỉ được thay đổi bằng câu lệnh UPDATE nguyên tử
+     * (TodoRepository.adjustSubtaskCount) nên không nằm trong UPDATE của entity.
+     */
+    @Column(name = "subtask_count", nullable = false, updatable = false)
+    @Builder.Default
+    private Integer subtaskCount = 0;
+
+    /**
+     * Số attachment. Chỉ được thay đổi bằng TodoRepository.adjustAttachmentCount.
+     */
+    @Column(name = "attachment_count", nullable = false, updatable = false)
+    @Builder.Default
+    private Integer attachmentCount = 0;
+
+    /**
+     * Số tag, được cập nhật cùng với tập tags.
+     */
+    @Column(name = "tag_count", nullable = false)
+    @Builder.Default
+    private Integer tagCount = 0;
+
+    /**
+     * Thời điểm todo chuyển sang DONE, null khi todo chưa (hoặc không còn) hoàn thành.
+     */
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -92,14 +150,54 @@ public class Todo extends SoftDelete {
     @Column(name = "updated_by")
     private Long updatedBy;
 
+    /**
+     * Khóa sắp xếp mặc định của danh sách todos, lưu sẵn để index (user_id, sort_key, id)
+     * phục vụ được cả ORDER BY lẫn keyset pagination.
+     * Thứ tự: IN_PROGRESS, PENDING, còn lại; due_date tăng dần (không có hạn xếp cuối);
+     * updated_at giảm dần.
+     */
+    @Column(name = "sort_key", nullable = false, length = 64)
+    private String sortKey;
+
+    /**
+     * Version dữ liệu của user tại lần thay đổi gần nhất của todo, dùng cho delta sync.
+     * Chỉ được gán bởi UserDataVersionService (TodoRepository.assignSyncVersion) ngay trước khi commit.
+     */
+    @Column(name = "sync_version", nullable = false, updatable = false)
+    @Builder.Default
+    private Long syncVersion = 0L;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        sortKey = buildSortKey();
+        trackCompletion();
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        sortKey = buildSortKey();
+        trackCompletion();
+    }
+
+    private void trackCompletion() {
+        if (status != TodoStatus.DONE) {
+            completedAt = null;
+        } else if (completedAt == null) {
+            completedAt = updatedAt;
+        }
+    }
+
+    private String buildSortKey() {
+        int statusRank = switch (status) {
+            case IN_PROGRESS -> 0;
+            case PENDING -> 1;
+            default -> 2;
+        };
+        String due = (dueDate != null ? dueDate : NO_DUE_DATE).format(DUE_FORMAT);
+        long invertedUpdated = UPDATED_MAX - Long.parseLong(updatedAt.format(UPDATED_FORMAT));
+        return statusRank + due + String.format("%017d", invertedUpdated);
     }
 }
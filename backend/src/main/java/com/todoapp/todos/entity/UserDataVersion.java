@@ -0,0 +1,31 @@
+package com.todoapp.todos.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Phiên bản dữ liệu của một user, tăng mỗi khi todos, categories hoặc tags của user thay đổi
+ */
+@Entity
+@Table(name = "user_data_versions")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserDataVersion {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "data_version", nullable = false)
+    private Long version;
+}
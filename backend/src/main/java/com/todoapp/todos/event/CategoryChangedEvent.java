@@ -0,0 +1,7 @@
+package com.todoapp.todos.event;
+
+/**
+ * Event phát ra khi category của một user được tạo, cập nhật hoặc xóa
+ */
+public record CategoryChangedEvent(Long userId, Long categoryId, ChangeType type) {
+}
@@ -0,0 +1,8 @@
+package com.todoapp.todos.event;
+
+/**
+ * Loại thay đổi của tag/category
+ */
+public enum ChangeType {
+    CREATED, UPDATED, DELETED
+}
@@ -0,0 +1,9 @@
+package com.todoapp.todos.event;
+
+import com.todoapp.todos.reminder.TodoReminder;
+
+/**
+ * Event phát ra khi một nhắc việc đến hạn (đã được claim, mỗi nhắc việc một lần)
+ */
+public record ReminderDueEvent(TodoReminder reminder) {
+}
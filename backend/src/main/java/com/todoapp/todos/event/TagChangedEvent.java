@@ -0,0 +1,7 @@
+package com.todoapp.todos.event;
+
+/**
+ * Event phát ra khi tag của một user được tạo, cập nhật hoặc xóa
+ */
+public record TagChangedEvent(Long userId, Long tagId, ChangeType type) {
+}
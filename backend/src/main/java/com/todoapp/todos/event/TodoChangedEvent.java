@@ -0,0 +1,82 @@
+package com.todoapp.todos.event;
+
+import com.todoapp.todos.entity.Todo;
+
+/**
+ * Event phát ra khi một todo được tạo, cập nhật, xóa hoặc khôi phục.
+ *
+ * Listener nên dùng {@code @TransactionalEventListener} (AFTER_COMMIT) để chỉ phản ứng với
+ * thay đổi đã commit. Ảnh chụp {@link #after()} được tạo khi listener đầu tiên cần đến,
+ * lúc đó entity đã được flush nên các trường audit (updatedAt...) đã có giá trị cuối cùng.
+ */
+public final class TodoChangedEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED, RESTORED
+    }
+
+    private final Type type;
+    private final TodoSnapshot before;
+    private final Todo entity;
+    private volatile TodoSnapshot after;
+
+    private TodoChangedEvent(Type type, TodoSnapshot before, Todo entity) {
+        this.type = type;
+        this.before = before;
+        this.entity = entity;
+    }
+
+    public static TodoChangedEvent created(Todo todo) {
+        return new TodoChangedEvent(Type.CREATED, null, todo);
+    }
+
+    public static TodoChangedEvent updated(TodoSnapshot before, Todo todo) {
+        return new TodoChangedEvent(Type.UPDATED, before, todo);
+    }
+
+    public static TodoChangedEvent deleted(TodoSnapshot before, Todo todo) {
+        return new TodoChangedEvent(Type.DELETED, before, todo);
+    }
+
+    public static TodoChangedEvent restored(TodoSnapshot before, Todo todo) {
+        return new TodoChangedEvent(Type.RESTORED, before, todo);
+    }
+
+    public Type type() {
+        return type;
+    }
+
+    /**
+     * @return Trạng thái trước thay đổi, null với CREATED
+     */
+    public TodoSnapshot before() {
+        return before;
+    }
+
+    /**
+     * @return Trạng thái sau thay đổi
+     */
+    public TodoSnapshot after() {
+        TodoSnapshot snapshot = after;
+        if (snapshot == null) {
+            snapshot = TodoSnapshot.of(entity);
+            after = snapshot;
+        }
+        return snapshot;
+    }
+
+    public Long todoId() {
+        return entity.getId();
+    }
+
+    public Long userId() {
+        return entity.getUser().getId();
+    }
+
+    /**
+     * @return ID của todo cha (counter subtask của todo cha cũng thay đổi), null nếu không phải subtask
+     */
+    public Long parentId() {
+        return entity.getParent() != null ? entity.getParent().getId() : null;
+    }
+}
@@ -0,0 +1,64 @@
+package com.todoapp.todos.event;
+
+import com.todoapp.todos.entity.Tag;
+import com.todoapp.todos.entity.Todo;
+import com.todoapp.todos.entity.TodoPriority;
+import com.todoapp.todos.entity.TodoStatus;
+import org.hibernate.Hibernate;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Ảnh chụp bất biến các trường của một todo tại một thời điểm, dùng trong {@link TodoChangedEvent}
+ *
+ * @param tagIds ID các tag, hoặc null nếu tập tags chưa được nạp (tags không thay đổi trong thao tác đó)
+ */
+public record TodoSnapshot(
+        Long id,
+        Long userId,
+        Long parentId,
+        String title,
+        String description,
+        TodoStatus status,
+        TodoPriority priority,
+        Long categoryId,
+        Set<Long> tagIds,
+        LocalDateTime dueDate,
+        LocalDateTime remindAt,
+        LocalDateTime completedAt,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        LocalDateTime deletedAt) {
+
+    public static TodoSnapshot of(Todo todo) {
+        Set<Long> tagIds = Hibernate.isInitialized(todo.getTags())
+                ? todo.getTags().stream().map(Tag::getId).collect(Collectors.toUnmodifiableSet())
+                : null;
+        return new TodoSnapshot(
+                todo.getId(),
+                todo.getUser() != null ? todo.getUser().getId() : null,
+                todo.getParent() != null ? todo.getParent().getId() : null,
+                todo.getTitle(),
+                todo.getDescription(),
+                todo.getStatus(),
+                todo.getPriority(),
+                todo.getCategory() != null ? todo.getCategory().getId() : null,
+                tagIds,
+                todo.getDueDate(),
+                todo.getRemindAt(),
+                todo.getCompletedAt(),
+                todo.getCreatedAt(),
+                todo.getUpdatedAt(),
+                todo.getDeletedAt());
+    }
+
+    public boolean isDeleted() {
+        return deletedAt != null;
+    }
+
+    public boolean isRoot() {
+        return parentId == null;
+    }
+}
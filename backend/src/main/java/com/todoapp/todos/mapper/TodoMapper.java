@@ -29,16 +29,21 @@ public interface TodoMapper {
     @Mapping(target = "createdBy", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "updatedBy", ignore = true)
+    @Mapping(target = "subtaskCount", ignore = true)
+    @Mapping(target = "attachmentCount", ignore = true)
+    @Mapping(target = "tagCount", ignore = true)
+    @Mapping(target = "completedAt", ignore = true)
     Todo toEntity(TodoRequest request);
 
     /**
      * Map Todo entity sang TodoResponse cơ bản
-     * Bỏ qua collection để tránh lazy loading
+     * Bỏ qua collection để tránh lazy loading; số đếm lấy từ các cột counter,
+     * category và tags được service nạp theo lô cho cả trang
      */
     @Mapping(target = "category", ignore = true)
     @Mapping(target = "tags", ignore = true)
-    @Mapping(target = "subtasksCount", expression = "java(todo.getSubtasks() != null ? todo.getSubtasks().size() : 0)")
-    @Mapping(target = "attachmentsCount", expression = "java(todo.getAttachments() != null ? todo.getAttachments().size() : 0)")
+    @Mapping(target = "subtasksCount", source = "subtaskCount")
+    @Mapping(target = "attachmentsCount", source = "attachmentCount")
     @Mapping(target = "parentId", expression = "java(todo.getParent() != null ? todo.getParent().getId() : null)")
     TodoResponse toResponse(Todo todo);
 
@@ -50,8 +55,8 @@ public interface TodoMapper {
     @Mapping(target = "tags", ignore = true)
     @Mapping(target = "subtasks", ignore = true)
     @Mapping(target = "attachments", ignore = true)
-    @Mapping(target = "subtasksCount", expression = "java(todo.getSubtasks() != null ? todo.getSubtasks().size() : 0)")
-    @Mapping(target = "attachmentsCount", expression = "java(todo.getAttachments() != null ? todo.getAttachments().size() : 0)")
+    @Mapping(target = "subtasksCount", source = "subtaskCount")
+    @Mapping(target = "attachmentsCount", source = "attachmentCount")
     @Mapping(target = "parentId", expression = "java(todo.getParent() != null ? todo.getParent().getId() : null)")
     TodoDetailResponse toDetailResponse(Todo todo);
 }
@@ -0,0 +1,28 @@
+package com.todoapp.todos.reminder;
+
+import com.todoapp.todos.event.ReminderDueEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Phát nhắc việc thành {@link ReminderDueEvent} trong ứng dụng; TodoChangeStream chuyển tiếp
+ * tới các kết nối SSE của user.
+ *
+ * Event chỉ đi trong instance đã claim nhắc việc: khi chạy nhiều instance, client đang kết nối
+ * stream tới instance khác không nhận được nhắc việc này (không có bus giữa các instance). Triển khai
+ * nhiều instance cần một ReminderNotifier gửi qua kênh dùng chung (message broker, push, email...).
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "todo.reminders.notifier", havingValue = "in-process", matchIfMissing = true)
+public class InProcessReminderNotifier implements ReminderNotifier {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void send(TodoReminder reminder) {
+        eventPublisher.publishEvent(new ReminderDueEvent(reminder));
+    }
+}
@@ -0,0 +1,20 @@
+package com.todoapp.todos.reminder;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Chỉ ghi nhắc việc ra log (dùng khi phát triển và kiểm thử)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "todo.reminders.notifier", havingValue = "log")
+public class LogReminderNotifier implements ReminderNotifier {
+
+    @Override
+    public void send(TodoReminder reminder) {
+        log.info("Nhắc việc: todo {} của user {} \"{}\" lúc {}",
+                reminder.todoId(), reminder.userId(), reminder.title(), reminder.remindAt());
+    }
+}
@@ -0,0 +1,13 @@
+package com.todoapp.todos.reminder;
+
+/**
+ * Kênh gửi nhắc việc. Được gọi trên thread của scheduler sau khi nhắc việc đã được claim
+ * (mỗi nhắc việc được gửi tối đa một lần), nên không nên chặn lâu; kênh chậm (email, push...)
+ * nên tự chuyển việc gửi sang thread/queue riêng.
+ *
+ * Chọn kênh bằng {@code todo.reminders.notifier}: in-process (mặc định) hoặc log.
+ */
+public interface ReminderNotifier {
+
+    void send(TodoReminder reminder);
+}
@@ -0,0 +1,296 @@
+package com.todoapp.todos.reminder;
+
+import com.todoapp.todos.entity.TodoStatus;
+import com.todoapp.todos.event.TodoChangedEvent;
+import com.todoapp.todos.event.TodoSnapshot;
+import com.todoapp.todos.repository.TodoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Gửi nhắc việc theo Todo.remindAt.
+ *
+ * Chỉ giữ trong bộ nhớ các nhắc việc của cửa sổ sắp tới ({@code todo.reminders.lookahead-seconds}),
+ * sắp theo (remindAt, todoId), tối đa {@code todo.reminders.max-in-memory} nhắc việc. Cửa sổ được nạp
+ * dần bằng truy vấn khoảng trên index remind_at (keyset theo (remindAt, id)), nên mỗi tick không
+ * quét bảng và chi phí không phụ thuộc tổng số nhắc việc đã đặt.
+ *
+ * Trước khi gửi, nhắc việc được claim bằng một câu UPDATE có điều kiện (reminded_at = remind_at),
+ * nên sau khi khởi động lại hoặc khi chạy nhiều instance, mỗi nhắc việc chỉ được gửi một lần
+ * (at-most-once: nhắc việc bị mất nếu kênh gửi lỗi sau khi claim). Khi khởi động, các nhắc việc
+ * bị lỡ trong {@code todo.reminders.catch-up-seconds} vừa qua được gửi bù.
+ *
+ * Todo thay đổi trên instance này được cập nhật vào cửa sổ ngay sau khi commit; cửa sổ được nạp lại
+ * toàn bộ mỗi {@code todo.reminders.rescan-interval-ms} để nhận các thay đổi không đi qua event
+ * (import, instance khác). Nhắc việc cũ (todo đã đổi remindAt, hoàn thành hoặc bị xóa) không cần
+ * gỡ khỏi cửa sổ: claim sẽ thất bại và nhắc việc bị bỏ qua.
+ *
+ * Tick chạy trên thread riêng ("todo-reminders") thay vì scheduler dùng chung của Spring, để các
+ * job dài (rebuild dashboard, đối soát counter...) không làm trễ nhắc việc và ngược lại.
+ */
+@Slf4j
+@Component
+public class ReminderScheduler {
+
+    /**
+     * Trạng thái không còn nhận nhắc việc (khớp với điều kiện của TodoRepository.claimReminder)
+     */
+    static final Set<TodoStatus> CLOSED_STATUSES = Set.of(TodoStatus.DONE, TodoStatus.CANCELED);
+
+    private static final Comparator<TodoReminder> ORDER = Comparator
+            .comparing(TodoReminder::remindAt)
+            .thenComparing(TodoReminder::todoId);
+
+    private final TodoRepository todoRepository;
+    private final ReminderNotifier notifier;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final ScheduledExecutorService ticker;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final NavigableSet<TodoReminder> window = new TreeSet<>(ORDER);
+
+    /**
+     * Vị trí (remindAt, todoId) cuối cùng đã nạp: mọi nhắc việc chưa gửi đến vị trí này đã nằm trong
+     * window (trừ khi window đầy). Null khi cần nạp lại toàn bộ.
+     */
+    private LocalDateTime loadedAt;
+    private long loadedId;
+    private long loadedAtNanos;
+
+    private final boolean enabled;
+    private final long tickMs;
+    private final long lookaheadSeconds;
+    private final long catchUpSeconds;
+    private final int maxInMemory;
+    private final int batchSize;
+    private final long rescanIntervalNanos;
+
+    private final Counter sent;
+    private final Counter skipped;
+    private final Counter failed;
+
+    public ReminderScheduler(TodoRepository todoRepository,
+                             ReminderNotifier notifier,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${todo.reminders.enabled:true}") boolean enabled,
+                             @Value("${todo.reminders.tick-ms:1000}") long tickMs,
+                             @Value("${todo.reminders.lookahead-seconds:300}") long lookaheadSeconds,
+                             @Value("${todo.reminders.catch-up-seconds:3600}") long catchUpSeconds,
+                             @Value("${todo.reminders.max-in-memory:10000}") int maxInMemory,
+                             @Value("${todo.reminders.batch-size:1000}") int batchSize,
+                             @Value("${todo.reminders.rescan-interval-ms:60000}") long rescanIntervalMs) {
+        this.todoRepository = todoRepository;
+        this.notifier = notifier;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+
+        this.enabled = enabled;
+        this.tickMs = tickMs;
+        this.lookaheadSeconds = lookaheadSeconds;
+        this.catchUpSeconds = catchUpSeconds;
+        this.maxInMemory = maxInMemory;
+        this.batchSize = batchSize;
+        this.rescanIntervalNanos = TimeUnit.MILLISECONDS.toNanos(rescanIntervalMs);
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "todo-reminders");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.sent = outcomeCounter(meterRegistry, "sent");
+        this.skipped = outcomeCounter(meterRegistry, "skipped");
+        this.failed = outcomeCounter(meterRegistry, "failed");
+        Gauge.builder("todoapp.todos.reminders.scheduled", this, ReminderScheduler::scheduledCount)
+                .description("Reminders held in the in-memory window")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            ticker.scheduleWithFixedDelay(this::tick, 0, tickMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    public void tick() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            if (loadedAt == null || System.nanoTime() - loadedAtNanos >= rescanIntervalNanos) {
+                resetWindow(now);
+            }
+            refill(now.plusSeconds(lookaheadSeconds));
+            sendDue(now);
+        } catch (Exception e) {
+            log.error("Error while sending todo reminders", e);
+        }
+    }
+
+    /**
+     * Đưa nhắc việc của todo vừa commit vào cửa sổ nếu nó nằm trong phần đã nạp
+     * (phần sau đó sẽ được nạp từ DB)
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTodoChanged(TodoChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        TodoSnapshot after = event.after();
+        if (after.remindAt() == null || after.isDeleted() || CLOSED_STATUSES.contains(after.status())) {
+            return;
+        }
+        TodoReminder reminder = new TodoReminder(after.id(), after.userId(), after.title(), after.remindAt());
+        lock.lock();
+        try {
+            if (loadedAt != null && ORDER.compare(reminder, new TodoReminder(loadedId, null, null, loadedAt)) <= 0
+                    && !after.remindAt().isBefore(LocalDateTime.now().minusSeconds(catchUpSeconds))) {
+                window.add(reminder);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Bỏ cửa sổ hiện tại và nạp lại từ đầu khoảng gửi bù
+     */
+    private void resetWindow(LocalDateTime now) {
+        lock.lock();
+        try {
+            window.clear();
+            loadedAt = now.minusSeconds(catchUpSeconds);
+            loadedId = 0L;
+            loadedAtNanos = System.nanoTime();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Nạp tiếp các nhắc việc đến {@code until}, từng trang, đến khi hết hoặc cửa sổ đầy
+     */
+    private void refill(LocalDateTime until) {
+        while (true) {
+            LocalDateTime afterAt;
+            long afterId;
+            int room;
+            lock.lock();
+            try {
+                if (!loadedAt.isBefore(until) || window.size() >= maxInMemory) {
+                    return;
+                }
+                afterAt = loadedAt;
+                afterId = loadedId;
+                room = Math.min(batchSize, maxInMemory - window.size());
+            } finally {
+                lock.unlock();
+            }
+
+            List<TodoReminder> page = readOnlyTransactionTemplate.execute(status ->
+                    todoRepository.findPendingReminders(afterAt, afterId, until, CLOSED_STATUSES, PageRequest.of(0, room)));
+            if (page == null) {
+                return;
+            }
+
+            lock.lock();
+            try {
+                window.addAll(page);
+                if (page.size() < room) {
+                    loadedAt = until;
+                    loadedId = Long.MAX_VALUE;
+                } else {
+                    TodoReminder last = page.get(page.size() - 1);
+                    loadedAt = last.remindAt();
+                    loadedId = last.todoId();
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (page.size() < room) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Claim và gửi các nhắc việc đã đến hạn
+     */
+    private void sendDue(LocalDateTime now) {
+        while (true) {
+            TodoReminder reminder;
+            lock.lock();
+            try {
+                reminder = window.isEmpty() || window.first().remindAt().isAfter(now) ? null : window.pollFirst();
+            } finally {
+                lock.unlock();
+            }
+            if (reminder == null) {
+                return;
+            }
+
+            Integer claimed = transactionTemplate.execute(status ->
+                    todoRepository.claimReminder(reminder.todoId(), reminder.remindAt()));
+            if (claimed == null || claimed == 0) {
+                // Đã gửi (instance khác hoặc trước khi khởi động lại), hoặc todo đã thay đổi
+                skipped.increment();
+                continue;
+            }
+            try {
+                notifier.send(reminder);
+                sent.increment();
+            } catch (Exception e) {
+                failed.increment();
+                log.error("Failed to send reminder of todo {}", reminder.todoId(), e);
+            }
+        }
+    }
+
+    private int scheduledCount() {
+        lock.lock();
+        try {
+            return window.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("todoapp.todos.reminders")
+                .description("Due todo reminders by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
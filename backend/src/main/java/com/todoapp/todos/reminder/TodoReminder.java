@@ -0,0 +1,14 @@
+package com.todoapp.todos.reminder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Một nhắc việc đã đến hạn hoặc sắp đến hạn
+ *
+ * @param todoId   ID của todo
+ * @param userId   ID của chủ todo
+ * @param title    Tiêu đề todo tại thời điểm nạp nhắc việc
+ * @param remindAt Thời điểm nhắc
+ */
+public record TodoReminder(Long todoId, Long userId, String title, LocalDateTime remindAt) {
+}
@@ -2,14 +2,26 @@ package com.todoapp.todos.repository;
 
 import com.todoapp.todos.entity.Attachment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface AttachmentRepository extends JpaRepository<Attachment, Long> {
 
     List<Attachment> findByTodoId(Long todoId);
+
+    /**
+     * Đếm số attachment của nhiều todo trong một truy vấn
+     *
+     * @param todoIds Danh sách ID todo
+     * @return Các cặp [todoId, số attachment]; todo không có attachment sẽ không xuất hiện
+     */
+    @Query("SELECT a.todo.id, COUNT(a) FROM Attachment a WHERE a.todo.id IN :todoIds GROUP BY a.todo.id")
+    List<Object[]> countByTodoIds(@Param("todoIds") Collection<Long> todoIds);
 }
 
 
@@ -1,9 +1,15 @@
 package com.todoapp.todos.repository;
 
 import com.todoapp.todos.entity.Category;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +22,7 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
      * @param userId ID của user
      * @return Danh sách categories
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Category> findByUserId(Long userId);
 
     /**
@@ -34,8 +41,18 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
      * @param userId ID của user
      * @return Category nếu user sở hữu
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Category> findByIdAndUserId(Long id, Long userId);
 
+    /**
+     * Validate ownership theo lô - lấy các category thuộc user trong một truy vấn
+     * 
+     * @param userId ID của user
+     * @param ids    Danh sách ID category
+     * @return Các category tìm thấy và thuộc user
+     */
+    List<Category> findByUserIdAndIdIn(Long userId, Collection<Long> ids);
+
     /**
      * Count categories by user ID for admin dashboard
      * 
@@ -43,4 +60,13 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
      * @return count of categories for the user
      */
     Long countByUserId(Long userId);
+
+    /**
+     * Count categories of several users in one query for admin user listing
+     *
+     * @param userIds the IDs of the users
+     * @return rows of [userId, count]; users without categories are absent
+     */
+    @Query("SELECT c.user.id, COUNT(c) FROM Category c WHERE c.user.id IN :userIds GROUP BY c.user.id")
+    List<Object[]> countByUserIds(@Param("userIds") Collection<Long> userIds);
 }
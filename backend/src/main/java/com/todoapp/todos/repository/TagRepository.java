@@ -1,9 +1,15 @@
 package com.todoapp.todos.repository;
 
 import com.todoapp.todos.entity.Tag;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +22,7 @@ public interface TagRepository extends JpaRepository<Tag, Long> {
      * @param userId ID của user
      * @return Danh sách tags
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Tag> findByUserId(Long userId);
 
     /**
@@ -34,8 +41,18 @@ public interface TagRepository extends JpaRepository<Tag, Long> {
      * @param userId ID của user
      * @return Tag nếu user sở hữu
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Tag> findByIdAndUserId(Long id, Long userId);
 
+    /**
+     * Validate ownership theo lô - lấy các tag thuộc user trong một truy vấn
+     * 
+     * @param userId ID của user
+     * @param ids    Danh sách ID tag
+     * @return Các tag tìm thấy và thuộc user (tag không tồn tại hoặc của user khác bị bỏ qua)
+     */
+    List<Tag> findByUserIdAndIdIn(Long userId, Collection<Long> ids);
+
     /**
      * Count tags by user ID for admin dashboard
      * 
@@ -43,4 +60,13 @@ public interface TagRepository extends JpaRepository<Tag, Long> {
      * @return count of tags for the user
      */
     Long countByUserId(Long userId);
+
+    /**
+     * Count tags of several users in one query for admin user listing
+     *
+     * @param userIds the IDs of the users
+     * @return rows of [userId, count]; users without tags are absent
+     */
+    @Query("SELECT t.user.id, COUNT(t) FROM Tag t WHERE t.user.id IN :userIds GROUP BY t.user.id")
+    List<Object[]> countByUserIds(@Param("userIds") Collection<Long> userIds);
 }
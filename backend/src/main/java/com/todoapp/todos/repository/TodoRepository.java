@@ -1,18 +1,32 @@
 package com.todoapp.todos.repository;
 
+import com.todoapp.admin.dto.TodoManagementResponse;
 import com.todoapp.todos.entity.Todo;
+import com.todoapp.todos.dto.TodoTransferRecord;
 import com.todoapp.todos.entity.TodoStatus;
+import com.todoapp.todos.reminder.TodoReminder;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Todo entity.
@@ -34,7 +48,8 @@ public interface TodoRepository extends JpaRepository<Todo, Long>, JpaSpecificat
     
     /**
      * Find all active todos for a user with smart ordering
-     * Orders by: IN_PROGRESS (first), PENDING, DONE (last), then due_date, then updated_at
+     * Orders by: IN_PROGRESS (first), PENDING, DONE (last), then due_date, then updated_at.
+     * The ordering is precomputed in sort_key so idx_todo_user_sort can serve it.
      * 
      * @param userId   the ID of the user
      * @param pageable pagination information
@@ -42,14 +57,311 @@ public interface TodoRepository extends JpaRepository<Todo, Long>, JpaSpecificat
      */
     @Query(value = "SELECT * FROM todos " +
            "WHERE user_id = :userId AND deleted_at IS NULL " +
-           "ORDER BY " +
-           "CASE WHEN status='IN_PROGRESS' THEN 0 WHEN status='PENDING' THEN 1 ELSE 2 END, " +
-           "COALESCE(due_date, '2999-12-31 23:59:59'), " +
-           "updated_at DESC", 
+           "ORDER BY sort_key, id", 
            countQuery = "SELECT count(*) FROM todos WHERE user_id = :userId AND deleted_at IS NULL",
            nativeQuery = true)
     Page<Todo> findActiveTodosByUserId(@Param("userId") Long userId, Pageable pageable);
 
+    /**
+     * First page of active todos for keyset pagination, in sort_key order.
+     * No count query is issued.
+     * 
+     * @param userId   the ID of the user
+     * @param pageable page size (page number is ignored by callers, always 0)
+     * @return todos in sort_key, id order
+     */
+    @Query("SELECT t FROM Todo t WHERE t.user.id = :userId AND t.deletedAt IS NULL " +
+           "ORDER BY t.sortKey, t.id")
+    List<Todo> findActiveTodosFirstPage(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Active todos positioned strictly after the given (sortKey, id) cursor.
+     * The redundant {@code sortKey >= :sortKey} gives the planner a range start on
+     * idx_todo_user_sort, so every page costs the same as the first one.
+     * 
+     * @param userId   the ID of the user
+     * @param sortKey  sort key of the last todo of the previous page
+     * @param id       ID of the last todo of the previous page
+     * @param pageable page size (page number is ignored by callers, always 0)
+     * @return todos after the cursor in sort_key, id order
+     */
+    @Query("SELECT t FROM Todo t WHERE t.user.id = :userId AND t.deletedAt IS NULL " +
+           "AND t.sortKey >= :sortKey AND (t.sortKey > :sortKey OR t.id > :id) " +
+           "ORDER BY t.sortKey, t.id")
+    List<Todo> findActiveTodosAfter(@Param("userId") Long userId,
+                                    @Param("sortKey") String sortKey,
+                                    @Param("id") Long id,
+                                    Pageable pageable);
+
+    /**
+     * Count active (non-deleted) todos of a user.
+     * 
+     * @param userId the ID of the user
+     * @return number of non-deleted todos
+     */
+    long countByUserIdAndDeletedAtIsNull(Long userId);
+
+    /**
+     * Load the tags of several todos in one query.
+     * 
+     * @param todoIds the IDs of the todos
+     * @return [todoId, Tag] pairs
+     */
+    @Query("SELECT t.id, tag FROM Todo t JOIN t.tags tag WHERE t.id IN :todoIds")
+    List<Object[]> findTagsByTodoIds(@Param("todoIds") Collection<Long> todoIds);
+
+    /**
+     * Load todos by ID, returned in the order of the given IDs (missing IDs are skipped).
+     * Used to hydrate a page of IDs produced by a search.
+     * 
+     * @param ids the IDs of the todos, in the desired order
+     * @return todos in the same order as the IDs
+     */
+    default List<Todo> findAllByIdInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Todo> byId = findAllById(ids).stream()
+                .collect(Collectors.toMap(Todo::getId, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    /**
+     * Searchable fields of all active root todos of a user, for building the in-memory search index.
+     * 
+     * @param userId the ID of the user
+     * @return [id, title, description, status, priority, categoryId, dueDate, createdAt, updatedAt] rows
+     */
+    @Query("SELECT t.id, t.title, t.description, t.status, t.priority, t.category.id, " +
+           "t.dueDate, t.createdAt, t.updatedAt FROM Todo t " +
+           "WHERE t.user.id = :userId AND t.deletedAt IS NULL AND t.parent IS NULL")
+    List<Object[]> findSearchFieldsOfActiveRootTodos(@Param("userId") Long userId);
+
+    /**
+     * Tag IDs of all active root todos of a user, for building the in-memory search index.
+     * 
+     * @param userId the ID of the user
+     * @return [todoId, tagId] pairs
+     */
+    @Query("SELECT t.id, tag.id FROM Todo t JOIN t.tags tag " +
+           "WHERE t.user.id = :userId AND t.deletedAt IS NULL AND t.parent IS NULL")
+    List<Object[]> findTagIdsOfActiveRootTodos(@Param("userId") Long userId);
+
+    /**
+     * Due dates of a user's open, non-deleted todos that have one, for building the in-memory due index.
+     * Served by the (user_id, due_date) index.
+     * 
+     * @param userId       the ID of the user
+     * @param openStatuses statuses counted as not finished
+     * @param pageable     maximum number of rows (page number is ignored by callers, always 0)
+     * @return [id, dueDate] rows
+     */
+    @Query("SELECT t.id, t.dueDate FROM Todo t " +
+           "WHERE t.user.id = :userId AND t.dueDate IS NOT NULL AND t.deletedAt IS NULL " +
+           "AND t.status IN :openStatuses")
+    List<Object[]> findOpenDueDates(@Param("userId") Long userId,
+                                    @Param("openStatuses") Collection<TodoStatus> openStatuses,
+                                    Pageable pageable);
+
+    /**
+     * Count non-deleted subtasks of several parent todos in one query.
+     * 
+     * @param parentIds the IDs of the parent todos
+     * @return [parentId, count] pairs; parents without subtasks are absent
+     */
+    @Query("SELECT s.parent.id, COUNT(s) FROM Todo s " +
+           "WHERE s.parent.id IN :parentIds AND s.deletedAt IS NULL GROUP BY s.parent.id")
+    List<Object[]> countActiveSubtasksByParentIds(@Param("parentIds") Collection<Long> parentIds);
+
+    /**
+     * Atomically adjust the denormalized subtask counter of a todo.
+     * 
+     * @param id    the ID of the parent todo
+     * @param delta the amount to add (negative to decrement)
+     * @return number of updated rows
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Todo t SET t.subtaskCount = t.subtaskCount + :delta WHERE t.id = :id")
+    int adjustSubtaskCount(@Param("id") Long id, @Param("delta") int delta);
+
+    /**
+     * Atomically adjust the denormalized attachment counter of a todo.
+     * 
+     * @param id    the ID of the todo
+     * @param delta the amount to add (negative to decrement)
+     * @return number of updated rows
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Todo t SET t.attachmentCount = t.attachmentCount + :delta WHERE t.id = :id")
+    int adjustAttachmentCount(@Param("id") Long id, @Param("delta") int delta);
+
+    /**
+     * Decrement the tag counter of every todo linked to a tag that is about to be deleted
+     * (the todo_tags rows are removed by ON DELETE CASCADE).
+     * The native statement is synchronized on the todos table only, so Hibernate does not
+     * invalidate every second-level cache region after it.
+     * 
+     * @param tagId the ID of the tag
+     * @return number of updated rows
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "todos"))
+    @Query(value = "UPDATE todos SET tag_count = tag_count - 1 " +
+           "WHERE id IN (SELECT todo_id FROM todo_tags WHERE tag_id = :tagId)",
+           nativeQuery = true)
+    int decrementTagCountForTag(@Param("tagId") Long tagId);
+
+    /**
+     * IDs of the todos linked to a tag (before the tag is deleted).
+     * 
+     * @param tagId the ID of the tag
+     * @return todo IDs
+     */
+    @Query("SELECT t.id FROM Todo t JOIN t.tags tag WHERE tag.id = :tagId")
+    List<Long> findIdsByTagId(@Param("tagId") Long tagId);
+
+    /**
+     * IDs of the todos in a category (before the category is deleted).
+     * 
+     * @param categoryId the ID of the category
+     * @return todo IDs
+     */
+    @Query("SELECT t.id FROM Todo t WHERE t.category.id = :categoryId")
+    List<Long> findIdsByCategoryId(@Param("categoryId") Long categoryId);
+
+    /**
+     * Stamp changed todos with the data version assigned to their owner's transaction (delta sync).
+     * No cached entity, collection or query reads sync_version, so the statement is synchronized on
+     * its own query space and does not evict second-level cache regions (e.g. Todo.tags) on every write.
+     * 
+     * @param ids     the IDs of the changed todos
+     * @param version the new data version of the owner
+     * @return number of updated rows
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = SYNC_VERSION_SPACE))
+    @Query(value = "UPDATE todos SET sync_version = :version WHERE id IN (:ids)", nativeQuery = true)
+    int assignSyncVersion(@Param("ids") Collection<Long> ids, @Param("version") Long version);
+
+    /**
+     * Todos of a user changed after the given (syncVersion, id) position, deleted ones included.
+     * Served by the (user_id, sync_version, id) index.
+     * 
+     * @param userId   the ID of the user
+     * @param version  sync version of the cursor
+     * @param id       todo ID of the cursor
+     * @param pageable page size (page number is ignored by callers, always 0)
+     * @return todos in sync_version, id order
+     */
+    @Query("SELECT t FROM Todo t WHERE t.user.id = :userId " +
+           "AND t.syncVersion >= :version AND (t.syncVersion > :version OR t.id > :id) " +
+           "ORDER BY t.syncVersion, t.id")
+    List<Todo> findChangedAfter(@Param("userId") Long userId,
+                                @Param("version") Long version,
+                                @Param("id") Long id,
+                                Pageable pageable);
+
+    /**
+     * Unsent reminders of open todos due after the given (remindAt, id) position and no later than
+     * {@code until}. Served by the remind_at index: only the requested window is read, never the table.
+     * 
+     * @param afterAt        remindAt of the position
+     * @param afterId        todo ID of the position
+     * @param until          end of the window (inclusive)
+     * @param closedStatuses statuses that no longer get reminders
+     * @param pageable       page size (page number is ignored by callers, always 0)
+     * @return reminders in remindAt, id order
+     */
+    @Query("SELECT new com.todoapp.todos.reminder.TodoReminder(t.id, t.user.id, t.title, t.remindAt) FROM Todo t " +
+           "WHERE t.remindAt >= :afterAt AND (t.remindAt > :afterAt OR t.id > :afterId) AND t.remindAt <= :until " +
+           "AND t.deletedAt IS NULL AND t.status NOT IN :closedStatuses " +
+           "AND (t.remindedAt IS NULL OR t.remindedAt <> t.remindAt) " +
+           "ORDER BY t.remindAt, t.id")
+    List<TodoReminder> findPendingReminders(@Param("afterAt") LocalDateTime afterAt,
+                                            @Param("afterId") Long afterId,
+                                            @Param("until") LocalDateTime until,
+                                            @Param("closedStatuses") Collection<TodoStatus> closedStatuses,
+                                            Pageable pageable);
+
+    /**
+     * Claim a reminder before it is sent: succeeds only once per remindAt value, and only while the
+     * todo is still open, not deleted and still scheduled at that time, so restarts and concurrent
+     * instances never send the same reminder twice. Synchronized on its own query space, like
+     * {@link #assignSyncVersion}.
+     * 
+     * @param id       the ID of the todo
+     * @param remindAt the remindAt value being sent
+     * @return 1 if the reminder was claimed, 0 otherwise
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = REMINDER_SPACE))
+    @Query(value = "UPDATE todos SET reminded_at = remind_at " +
+                   "WHERE id = :id AND remind_at = :remindAt AND deleted_at IS NULL " +
+                   "AND status NOT IN ('DONE', 'CANCELED') " +
+                   "AND (reminded_at IS NULL OR reminded_at <> remind_at)", nativeQuery = true)
+    int claimReminder(@Param("id") Long id, @Param("remindAt") LocalDateTime remindAt);
+
+    /**
+     * Stored counters of a chunk of todos, in ID order, for reconciliation.
+     * 
+     * @param afterId  only todos with a greater ID are returned
+     * @param pageable chunk size
+     * @return [id, subtaskCount, attachmentCount, tagCount] rows
+     */
+    @Query("SELECT t.id, t.subtaskCount, t.attachmentCount, t.tagCount FROM Todo t " +
+           "WHERE t.id > :afterId ORDER BY t.id")
+    List<Object[]> findCounterChunk(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Count tags of several todos in one query.
+     * 
+     * @param todoIds the IDs of the todos
+     * @return [todoId, count] pairs; todos without tags are absent
+     */
+    @Query("SELECT t.id, COUNT(tag) FROM Todo t JOIN t.tags tag WHERE t.id IN :todoIds GROUP BY t.id")
+    List<Object[]> countTagsByTodoIds(@Param("todoIds") Collection<Long> todoIds);
+
+    /**
+     * Overwrite the denormalized counters of a todo (reconciliation only), provided they still hold
+     * the values that were read; a concurrent increment/decrement makes the update a no-op.
+     * 
+     * @return number of updated rows (0 when the counters changed since they were read)
+     */
+    @Modifying
+    @Query("UPDATE Todo t SET t.subtaskCount = :subtaskCount, t.attachmentCount = :attachmentCount, " +
+           "t.tagCount = :tagCount WHERE t.id = :id AND t.subtaskCount = :oldSubtaskCount " +
+           "AND t.attachmentCount = :oldAttachmentCount AND t.tagCount = :oldTagCount")
+    int overwriteCounters(@Param("id") Long id,
+                          @Param("oldSubtaskCount") int oldSubtaskCount,
+                          @Param("oldAttachmentCount") int oldAttachmentCount,
+                          @Param("oldTagCount") int oldTagCount,
+                          @Param("subtaskCount") int subtaskCount,
+                          @Param("attachmentCount") int attachmentCount,
+                          @Param("tagCount") int tagCount);
+
+    /**
+     * Statistics of a user's non-deleted todos in one round trip, grouped by status and priority.
+     * 
+     * @param userId         the ID of the user
+     * @param openStatuses   statuses counted as not finished (for overdue/due today)
+     * @param now            current time
+     * @param startOfDay     start of today
+     * @param startOfNextDay start of tomorrow
+     * @return [status, priority, count, overdue, dueToday, earliest open due date &gt;= now] rows
+     */
+    @Query("SELECT t.status, t.priority, COUNT(t), " +
+           "SUM(CASE WHEN t.status IN :openStatuses AND t.dueDate < :now THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN t.status IN :openStatuses AND t.dueDate >= :startOfDay " +
+           "AND t.dueDate < :startOfNextDay THEN 1 ELSE 0 END), " +
+           "MIN(CASE WHEN t.status IN :openStatuses AND t.dueDate >= :now THEN t.dueDate ELSE NULL END) " +
+           "FROM Todo t WHERE t.user.id = :userId AND t.deletedAt IS NULL " +
+           "GROUP BY t.status, t.priority")
+    List<Object[]> aggregateStatistics(@Param("userId") Long userId,
+                                       @Param("openStatuses") Collection<TodoStatus> openStatuses,
+                                       @Param("now") LocalDateTime now,
+                                       @Param("startOfDay") LocalDateTime startOfDay,
+                                       @Param("startOfNextDay") LocalDateTime startOfNextDay);
+
     /**
      * Find all todos that have been deleted (in trash) for a specific user.
      * 
@@ -107,6 +419,35 @@ public interface TodoRepository extends JpaRepository<Todo, Long>, JpaSpecificat
      */
     Optional<Todo> findByIdAndUserIdAndDeletedAtIsNull(Long id, Long userId);
 
+    /**
+     * Find several todos of a user by ID (deleted or not), for bulk operations.
+     * 
+     * @param userId the ID of the user
+     * @param ids    the IDs of the todos
+     * @return the todos that exist and are owned by the user
+     */
+    List<Todo> findByUserIdAndIdIn(Long userId, Collection<Long> ids);
+
+    /**
+     * Find several non-deleted todos of a user by ID, for bulk operations.
+     * 
+     * @param userId the ID of the user
+     * @param ids    the IDs of the todos
+     * @return the non-deleted todos that exist and are owned by the user
+     */
+    List<Todo> findByUserIdAndIdInAndDeletedAtIsNull(Long userId, Collection<Long> ids);
+
+    /**
+     * Find several non-deleted todos of a user by ID with their tags initialized, for bulk updates.
+     * 
+     * @param userId the ID of the user
+     * @param ids    the IDs of the todos
+     * @return the non-deleted todos that exist and are owned by the user
+     */
+    @Query("SELECT DISTINCT t FROM Todo t LEFT JOIN FETCH t.tags " +
+           "WHERE t.user.id = :userId AND t.id IN :ids AND t.deletedAt IS NULL")
+    List<Todo> findActiveWithTagsByUserIdAndIdIn(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
     /**
      * Count todos by status for admin dashboard
      * 
@@ -124,6 +465,34 @@ public interface TodoRepository extends JpaRepository<Todo, Long>, JpaSpecificat
      */
     Long countByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
 
+    /**
+     * Count todos grouped by status, used to rebuild the admin dashboard metrics.
+     *
+     * @return rows of [status, count]
+     */
+    @Query("SELECT t.status, COUNT(t) FROM Todo t GROUP BY t.status")
+    List<Object[]> countGroupedByStatus();
+
+    /**
+     * Count todos created per day since the given time, used to rebuild the admin dashboard metrics.
+     *
+     * @param from start time (inclusive)
+     * @return rows of [day, count]
+     */
+    @Query("SELECT CAST(t.createdAt AS LocalDate), COUNT(t) FROM Todo t " +
+           "WHERE t.createdAt >= :from GROUP BY CAST(t.createdAt AS LocalDate)")
+    List<Object[]> countCreatedByDay(@Param("from") LocalDateTime from);
+
+    /**
+     * Count todos completed per day since the given time, used to rebuild the admin dashboard metrics.
+     *
+     * @param from start time (inclusive)
+     * @return rows of [day, count]
+     */
+    @Query("SELECT CAST(t.completedAt AS LocalDate), COUNT(t) FROM Todo t " +
+           "WHERE t.completedAt >= :from GROUP BY CAST(t.completedAt AS LocalDate)")
+    List<Object[]> countCompletedByDay(@Param("from") LocalDateTime from);
+
 
     /**
      * Count todos by user ID for admin dashboard
@@ -134,49 +503,104 @@ public interface TodoRepository extends JpaRepository<Todo, Long>, JpaSpecificat
     Long countByUserId(Long userId);
 
     /**
-     * Find todos by title or description containing search term
+     * Count todos of several users grouped by status in one query for admin user listing
+     *
+     * @param userIds the IDs of the users
+     * @return rows of [userId, status, count]
+     */
+    @Query("SELECT t.user.id, t.status, COUNT(t) FROM Todo t WHERE t.user.id IN :userIds GROUP BY t.user.id, t.status")
+    List<Object[]> countByUserIdsGroupedByStatus(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Admin listing projection: todo columns with user, category and parent columns and the
+     * denormalized counters, one row per todo (only to-one joins), without loading entities.
+     */
+    String MANAGEMENT_PROJECTION = "SELECT new com.todoapp.admin.dto.TodoManagementResponse(" +
+            "t.id, t.title, t.description, t.status, t.priority, t.dueDate, t.remindAt, t.estimatedMinutes, " +
+            "t.createdAt, t.updatedAt, t.deletedAt, " +
+            "u.id, u.email, u.fullName, u.role, u.status, " +
+            "c.id, c.name, c.color, " +
+            "p.id, p.title, " +
+            "t.subtaskCount, t.attachmentCount, t.tagCount) " +
+            "FROM Todo t LEFT JOIN t.user u LEFT JOIN t.category c LEFT JOIN t.parent p ";
+
+    /**
+     * Find a page of all todos as admin management rows in a single statement (plus count)
      * 
-     * @param search   search term for title or description
      * @param pageable pagination information
-     * @return page of todos matching the search criteria
+     * @return page of admin management rows
      */
-    @Query("SELECT t FROM Todo t WHERE " +
-           "LOWER(t.title) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "LOWER(t.description) LIKE LOWER(CONCAT('%', :search, '%'))")
-    Page<Todo> findByTitleContainingIgnoreCaseOrDescriptionContainingIgnoreCase(
-            String search, Pageable pageable);
+    @Query(value = MANAGEMENT_PROJECTION, countQuery = "SELECT COUNT(t) FROM Todo t")
+    Page<TodoManagementResponse> findManagementPage(Pageable pageable);
 
     /**
-     * Find all todos with eager loading of related entities for admin management
+     * Find admin management rows of the given todos in a single statement
      * 
-     * @param pageable pagination information
-     * @return page of todos with all related entities loaded
+     * @param ids the IDs of the todos
+     * @return admin management rows (unordered)
      */
-    @Query("SELECT DISTINCT t FROM Todo t " +
-           "LEFT JOIN FETCH t.user " +
-           "LEFT JOIN FETCH t.category " +
-           "LEFT JOIN FETCH t.parent " +
-           "LEFT JOIN FETCH t.subtasks " +
-           "LEFT JOIN FETCH t.attachments " +
-           "LEFT JOIN FETCH t.tags")
-    Page<Todo> findAllWithRelations(Pageable pageable);
+    @Query(MANAGEMENT_PROJECTION + "WHERE t.id IN :ids")
+    List<TodoManagementResponse> findManagementByIdIn(@Param("ids") Collection<Long> ids);
 
     /**
-     * Find todos by title or description containing search term with eager loading
+     * Find admin management rows of the given todos, returned in the order of the given IDs
      * 
-     * @param search   search term for title or description
-     * @param pageable pagination information
-     * @return page of todos matching the search criteria with all related entities loaded
-     */
-    @Query("SELECT DISTINCT t FROM Todo t " +
-           "LEFT JOIN FETCH t.user " +
-           "LEFT JOIN FETCH t.category " +
-           "LEFT JOIN FETCH t.parent " +
-           "LEFT JOIN FETCH t.subtasks " +
-           "LEFT JOIN FETCH t.attachments " +
-           "LEFT JOIN FETCH t.tags " +
-           "WHERE LOWER(t.title) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "LOWER(t.description) LIKE LOWER(CONCAT('%', :search, '%'))")
-    Page<Todo> findByTitleContainingIgnoreCaseOrDescriptionContainingIgnoreCaseWithRelations(
-            String search, Pageable pageable);
+     * @param ids the IDs of the todos, in the desired order
+     * @return admin management rows in the same order as the IDs
+     */
+    default List<TodoManagementResponse> findManagementByIdInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, TodoManagementResponse> byId = findManagementByIdIn(ids).stream()
+                .collect(Collectors.toMap(TodoManagementResponse::getId, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    /**
+     * JDBC fetch size of the export cursors: rows are pulled from the database in chunks of this size.
+     * MySQL only honours it with useCursorFetch=true; PostgreSQL only inside a transaction.
+     */
+    String EXPORT_FETCH_SIZE = "500";
+
+    /**
+     * Query space of {@link #assignSyncVersion}: a dedicated name instead of "todos", because the
+     * column is not part of any cached state.
+     */
+    String SYNC_VERSION_SPACE = "todos_sync_version";
+
+    /**
+     * Query space of {@link #claimReminder}: reminded_at is not part of any cached state either.
+     */
+    String REMINDER_SPACE = "todos_reminder";
+
+    /**
+     * Stream the active todos (including subtasks) of a user as export records, ordered by ID.
+     * Rows are DTOs, so nothing is added to the persistence context while the stream is consumed.
+     * Tags are not included; see {@link #streamTransferTagNames(Long)}.
+     * Must be consumed inside a transaction and closed after use.
+     *
+     * @param userId the ID of the user
+     * @return forward-only stream of export records
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("SELECT new com.todoapp.todos.dto.TodoTransferRecord(" +
+           "t.id, t.parent.id, t.title, t.description, t.status, t.priority, t.dueDate, t.remindAt, " +
+           "t.estimatedMinutes, c.name, t.completedAt, t.createdAt, t.updatedAt) " +
+           "FROM Todo t LEFT JOIN t.category c " +
+           "WHERE t.user.id = :userId AND t.deletedAt IS NULL ORDER BY t.id")
+    Stream<TodoTransferRecord> streamTransferRecords(@Param("userId") Long userId);
+
+    /**
+     * Stream (todo ID, tag name) pairs of the active todos of a user, in the same todo order as
+     * {@link #streamTransferRecords(Long)} so both streams can be merged in a single pass.
+     * Must be consumed inside a transaction and closed after use.
+     *
+     * @param userId the ID of the user
+     * @return forward-only stream of [todoId, tagName] rows
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("SELECT t.id, g.name FROM Todo t JOIN t.tags g " +
+           "WHERE t.user.id = :userId AND t.deletedAt IS NULL ORDER BY t.id, g.name")
+    Stream<Object[]> streamTransferTagNames(@Param("userId") Long userId);
 }
@@ -0,0 +1,26 @@
+package com.todoapp.todos.repository;
+
+import com.todoapp.todos.entity.UserDataVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface UserDataVersionRepository extends JpaRepository<UserDataVersion, Long> {
+
+    /**
+     * Increment the data version of a user in place.
+     *
+     * @return number of updated rows (0 when the user has no row yet)
+     */
+    @Modifying
+    @Query("UPDATE UserDataVersion v SET v.version = v.version + 1 WHERE v.userId = :userId")
+    int increment(@Param("userId") Long userId);
+
+    @Query("SELECT v.version FROM UserDataVersion v WHERE v.userId = :userId")
+    Optional<Long> findVersion(@Param("userId") Long userId);
+}
@@ -0,0 +1,270 @@
+package com.todoapp.todos.search;
+
+import com.todoapp.common.exception.BadRequestException;
+import com.todoapp.todos.dto.TodoSearchRequest;
+import com.todoapp.todos.entity.Todo;
+import com.todoapp.todos.repository.TodoRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Tìm kiếm todos theo văn bản bằng index full-text của database, kết quả xếp hạng theo độ liên quan.
+ *
+ * Truy vấn native chỉ lấy trang ID (đã xếp hạng) và tổng số, sau đó nạp các todo của trang
+ * theo ID, nên chi phí nạp không phụ thuộc kích thước bảng.
+ *
+ * Backend được chọn theo cấu hình {@code todo.search.engine}; với {@code auto}, dùng
+ * PostgreSQL/MySQL nếu schema đã có index full-text (migration V5), ngược lại dùng LIKE.
+ * Với MySQL, các từ ngắn hơn innodb_ft_min_token_size (không có trong index) được khớp bằng LIKE;
+ * chuỗi chỉ gồm những từ như vậy được tìm hoàn toàn bằng LIKE.
+ */
+@Slf4j
+@Component
+public class TodoFullTextSearch {
+
+    /**
+     * Các trường được phép sắp xếp (thứ tự phụ sau độ liên quan) và cột tương ứng
+     */
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "t.id",
+            "title", "t.title",
+            "status", "t.status",
+            "priority", "t.priority",
+            "dueDate", "t.due_date",
+            "createdAt", "t.created_at",
+            "updatedAt", "t.updated_at"
+    );
+
+    private static final int DEFAULT_MIN_TOKEN_LENGTH = 3;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TodoRepository todoRepository;
+    private final DataSource dataSource;
+    private final String configuredEngine;
+
+    private volatile TodoSearchEngine engine;
+
+    /**
+     * innodb_ft_min_token_size của server MySQL (mặc định của MySQL là 3)
+     */
+    private volatile int minTokenLength = DEFAULT_MIN_TOKEN_LENGTH;
+
+    public TodoFullTextSearch(TodoRepository todoRepository,
+                              DataSource dataSource,
+                              @Value("${todo.search.engine:auto}") String configuredEngine) {
+        this.todoRepository = todoRepository;
+        this.dataSource = dataSource;
+        this.configuredEngine = configuredEngine;
+    }
+
+    /**
+     * Tìm các todo gốc chưa xóa của một user, kết hợp các filter khác của request
+     *
+     * @param userId   ID của user
+     * @param request  Điều kiện tìm kiếm (query bắt buộc có nội dung)
+     * @param pageable Thông tin phân trang; sort là thứ tự phụ sau độ liên quan
+     * @return Page chứa các todo đã xếp hạng
+     */
+    public Page<Todo> searchUserTodos(Long userId, TodoSearchRequest request, Pageable pageable) {
+        Criteria criteria = new Criteria();
+        criteria.add("t.user_id = :userId", "userId", userId);
+        criteria.add("t.deleted_at IS NULL");
+        criteria.add("t.parent_id IS NULL");
+        if (request.getStatus() != null) {
+            criteria.add("t.status = :status", "status", request.getStatus().name());
+        }
+        if (request.getPriority() != null) {
+            criteria.add("t.priority = :priority", "priority", request.getPriority().name());
+        }
+        if (request.getCategoryId() != null) {
+            criteria.add("t.category_id = :categoryId", "categoryId", request.getCategoryId());
+        }
+        if (request.getTagIds() != null && !request.getTagIds().isEmpty()) {
+            criteria.add("EXISTS (SELECT 1 FROM todo_tags tt WHERE tt.todo_id = t.id AND tt.tag_id IN (:tagIds))",
+                    "tagIds", new ArrayList<>(request.getTagIds()));
+        }
+        if (request.getDueFrom() != null) {
+            criteria.add("t.due_date >= :dueFrom", "dueFrom", request.getDueFrom());
+        }
+        if (request.getDueTo() != null) {
+            criteria.add("t.due_date <= :dueTo", "dueTo", request.getDueTo());
+        }
+        Page<Long> ids = searchIds(request.getQuery(), criteria, pageable);
+        return new PageImpl<>(todoRepository.findAllByIdInOrder(ids.getContent()), pageable, ids.getTotalElements());
+    }
+
+    /**
+     * Tìm trong toàn bộ todos (trang quản trị)
+     *
+     * @param query    Chuỗi tìm kiếm
+     * @param pageable Thông tin phân trang; sort là thứ tự phụ sau độ liên quan
+     * @return Page chứa ID các todo đã xếp hạng; trang quản trị tự nạp dữ liệu hiển thị theo ID
+     */
+    public Page<Long> searchAllTodoIds(String query, Pageable pageable) {
+        return searchIds(query, new Criteria(), pageable);
+    }
+
+    /**
+     * @return Backend tìm kiếm đang dùng
+     */
+    public TodoSearchEngine getEngine() {
+        TodoSearchEngine resolved = engine;
+        if (resolved == null) {
+            resolved = resolveEngine();
+            if (resolved == TodoSearchEngine.MYSQL) {
+                minTokenLength = detectMinTokenLength();
+            }
+            engine = resolved;
+            log.info("Todo text search engine: {}", resolved);
+        }
+        return resolved;
+    }
+
+    private Page<Long> searchIds(String query, Criteria criteria, Pageable pageable) {
+        TodoSearchEngine searchEngine = getEngine();
+        String parameter = query == null ? null : searchEngine.toParameter(query, minTokenLength);
+        List<String> unindexedTerms = query == null ? List.of() : searchEngine.unindexedTerms(query, minTokenLength);
+        if (parameter == null && !unindexedTerms.isEmpty()) {
+            // Chỉ có từ không được index full-text: tìm bằng LIKE trên cả chuỗi
+            searchEngine = TodoSearchEngine.LIKE;
+            parameter = searchEngine.toParameter(query);
+            unindexedTerms = List.of();
+        }
+        if (parameter == null) {
+            return Page.empty(pageable);
+        }
+
+        criteria.add(searchEngine.matchSql(), "q", parameter);
+        for (int i = 0; i < unindexedTerms.size(); i++) {
+            criteria.add(TodoSearchEngine.likeMatchSql("q" + i), "q" + i,
+                    TodoSearchEngine.LIKE.toParameter(unindexedTerms.get(i)));
+        }
+        String where = " FROM todos t WHERE " + String.join(" AND ", criteria.clauses);
+
+        Query idQuery = entityManager.createNativeQuery(
+                "SELECT t.id" + where + " ORDER BY " + orderBy(searchEngine, pageable.getSort()));
+        criteria.bind(idQuery);
+        if (pageable.isPaged()) {
+            idQuery.setFirstResult((int) pageable.getOffset());
+            idQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<Long> ids = ((List<?>) idQuery.getResultList()).stream()
+                .map(id -> ((Number) id).longValue())
+                .collect(Collectors.toList());
+
+        long total;
+        if (pageable.isPaged() && pageable.getOffset() == 0 && ids.size() < pageable.getPageSize()) {
+            total = ids.size();
+        } else {
+            Query countQuery = entityManager.createNativeQuery("SELECT COUNT(*)" + where);
+            criteria.bind(countQuery);
+            total = ((Number) countQuery.getSingleResult()).longValue();
+        }
+
+        return new PageImpl<>(ids, pageable, total);
+    }
+
+    private String orderBy(TodoSearchEngine searchEngine, Sort sort) {
+        List<String> orders = new ArrayList<>();
+        orders.add(searchEngine.rankSql() + " DESC");
+        for (Sort.Order order : sort) {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new BadRequestException("Không thể sắp xếp theo trường: " + order.getProperty());
+            }
+            orders.add(column + (order.isAscending() ? " ASC" : " DESC"));
+        }
+        orders.add("t.id DESC");
+        return String.join(", ", orders);
+    }
+
+    private TodoSearchEngine resolveEngine() {
+        if (!"auto".equalsIgnoreCase(configuredEngine)) {
+            return TodoSearchEngine.valueOf(configuredEngine.toUpperCase(Locale.ROOT));
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            String product = connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+            if (product.contains("postgresql")
+                    && exists(connection, "SELECT COUNT(*) FROM information_schema.columns "
+                    + "WHERE table_name = 'todos' AND column_name = 'search_vector'")) {
+                return TodoSearchEngine.POSTGRESQL;
+            }
+            if (product.contains("mysql")
+                    && exists(connection, "SELECT COUNT(*) FROM information_schema.statistics "
+                    + "WHERE table_schema = DATABASE() AND table_name = 'todos' AND index_type = 'FULLTEXT'")) {
+                return TodoSearchEngine.MYSQL;
+            }
+            if (product.contains("postgresql") || product.contains("mysql")) {
+                log.warn("Full-text index on todos not found, falling back to LIKE search");
+            }
+        } catch (SQLException e) {
+            log.warn("Could not detect todo search engine, falling back to LIKE search", e);
+        }
+        return TodoSearchEngine.LIKE;
+    }
+
+    private int detectMinTokenLength() {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT @@innodb_ft_min_token_size");
+             ResultSet resultSet = statement.executeQuery()) {
+            if (resultSet.next()) {
+                return resultSet.getInt(1);
+            }
+        } catch (SQLException e) {
+            log.warn("Could not read innodb_ft_min_token_size, assuming {}", DEFAULT_MIN_TOKEN_LENGTH, e);
+        }
+        return DEFAULT_MIN_TOKEN_LENGTH;
+    }
+
+    private static boolean exists(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql);
+             ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() && resultSet.getLong(1) > 0;
+        }
+    }
+
+    /**
+     * Các điều kiện WHERE và tham số đi kèm, dùng chung cho truy vấn ID và truy vấn đếm
+     */
+    private static final class Criteria {
+
+        private final List<String> clauses = new ArrayList<>();
+        private final Map<String, Object> parameters = new LinkedHashMap<>();
+
+        void add(String clause) {
+            clauses.add(clause);
+        }
+
+        void add(String clause, String name, Object value) {
+            clauses.add(clause);
+            parameters.put(name, value);
+        }
+
+        void bind(Query query) {
+            parameters.forEach(query::setParameter);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.todoapp.todos.search;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Các backend tìm kiếm văn bản cho todos.
+ *
+ * Mỗi backend sinh điều kiện khớp và biểu thức xếp hạng (SQL native) trên bảng todos
+ * với alias {@code t}, cùng với giá trị tham số {@code :q} tương ứng.
+ */
+public enum TodoSearchEngine {
+
+    /**
+     * PostgreSQL: cột tsvector search_vector (generated, có GIN index), tìm theo tiền tố từ
+     */
+    POSTGRESQL {
+        @Override
+        public String matchSql() {
+            return "t.search_vector @@ to_tsquery('simple', :q)";
+        }
+
+        @Override
+        public String rankSql() {
+            return "ts_rank_cd(t.search_vector, to_tsquery('simple', :q))";
+        }
+
+        @Override
+        public String toParameter(String query) {
+            List<String> terms = terms(query);
+            if (terms.isEmpty()) {
+                return null;
+            }
+            return terms.stream().map(term -> term + ":*").collect(Collectors.joining(" & "));
+        }
+    },
+
+    /**
+     * MySQL: FULLTEXT index trên (title, description), boolean mode, tìm theo tiền tố từ.
+     * Từ ngắn hơn innodb_ft_min_token_size không có trong index (ví dụ "đi", "ăn"), nên không được
+     * đưa vào biểu thức bắt buộc; caller khớp chúng bằng LIKE ({@link #unindexedTerms}).
+     */
+    MYSQL {
+        @Override
+        public String matchSql() {
+            return "MATCH(t.title, t.description) AGAINST (:q IN BOOLEAN MODE)";
+        }
+
+        @Override
+        public String rankSql() {
+            return "MATCH(t.title, t.description) AGAINST (:q IN BOOLEAN MODE)";
+        }
+
+        @Override
+        public String toParameter(String query) {
+            return toParameter(query, 1);
+        }
+
+        @Override
+        public String toParameter(String query, int minTokenLength) {
+            List<String> terms = terms(query).stream()
+                    .filter(term -> length(term) >= minTokenLength)
+                    .collect(Collectors.toList());
+            if (terms.isEmpty()) {
+                return null;
+            }
+            return terms.stream().map(term -> "+" + term + "*").collect(Collectors.joining(" "));
+        }
+
+        @Override
+        public List<String> unindexedTerms(String query, int minTokenLength) {
+            return terms(query).stream()
+                    .filter(term -> length(term) < minTokenLength)
+                    .distinct()
+                    .collect(Collectors.toList());
+        }
+    },
+
+    /**
+     * Fallback (H2 hoặc khi chưa có index full-text): LIKE, ưu tiên kết quả khớp ở title
+     */
+    LIKE {
+        @Override
+        public String matchSql() {
+            return likeMatchSql("q");
+        }
+
+        @Override
+        public String rankSql() {
+            return "CASE WHEN LOWER(t.title) LIKE :q ESCAPE '!' THEN 2 ELSE 1 END";
+        }
+
+        @Override
+        public String toParameter(String query) {
+            String trimmed = query.trim().toLowerCase(Locale.ROOT);
+            if (trimmed.isEmpty()) {
+                return null;
+            }
+            String escaped = trimmed.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+            return "%" + escaped + "%";
+        }
+    };
+
+    /**
+     * @return Điều kiện WHERE khớp văn bản, dùng tham số {@code :q}
+     */
+    public abstract String matchSql();
+
+    /**
+     * @return Biểu thức điểm liên quan (lớn hơn là liên quan hơn), dùng tham số {@code :q}
+     */
+    public abstract String rankSql();
+
+    /**
+     * Chuyển chuỗi người dùng nhập thành giá trị tham số {@code :q}
+     *
+     * @param query Chuỗi tìm kiếm
+     * @return Giá trị tham số, hoặc null nếu chuỗi không có từ nào để tìm
+     */
+    public abstract String toParameter(String query);
+
+    /**
+     * Như {@link #toParameter(String)}, bỏ các từ ngắn hơn độ dài tối thiểu được index
+     *
+     * @param query          Chuỗi tìm kiếm
+     * @param minTokenLength Độ dài tối thiểu (ký tự) của một từ trong index full-text
+     * @return Giá trị tham số, hoặc null nếu không còn từ nào được index
+     */
+    public String toParameter(String query, int minTokenLength) {
+        return toParameter(query);
+    }
+
+    /**
+     * @param query          Chuỗi tìm kiếm
+     * @param minTokenLength Độ dài tối thiểu (ký tự) của một từ trong index full-text
+     * @return Các từ của chuỗi tìm kiếm mà index full-text không chứa (phải khớp bằng cách khác)
+     */
+    public List<String> unindexedTerms(String query, int minTokenLength) {
+        return List.of();
+    }
+
+    /**
+     * Điều kiện LIKE trên title/description với tham số {@code :parameterName}
+     * (giá trị tạo bởi {@code LIKE.toParameter})
+     */
+    static String likeMatchSql(String parameterName) {
+        String parameter = ":" + parameterName;
+        return "(LOWER(t.title) LIKE " + parameter + " ESCAPE '!' OR LOWER(t.description) LIKE " + parameter
+                + " ESCAPE '!')";
+    }
+
+    /**
+     * Tách chuỗi tìm kiếm thành các từ (chữ cái/chữ số), bỏ mọi toán tử của cú pháp truy vấn
+     */
+    static List<String> terms(String query) {
+        return Arrays.stream(query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(term -> !term.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    private static int length(String term) {
+        return term.codePointCount(0, term.length());
+    }
+}
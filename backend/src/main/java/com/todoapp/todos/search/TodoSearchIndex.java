@@ -0,0 +1,360 @@
+package com.todoapp.todos.search;
+
+import com.todoapp.todos.dto.TodoSearchRequest;
+import com.todoapp.todos.entity.TodoPriority;
+import com.todoapp.todos.entity.TodoStatus;
+import com.todoapp.todos.event.CategoryChangedEvent;
+import com.todoapp.todos.event.ChangeType;
+import com.todoapp.todos.event.TagChangedEvent;
+import com.todoapp.todos.event.TodoChangedEvent;
+import com.todoapp.todos.event.TodoSnapshot;
+import com.todoapp.todos.repository.TodoRepository;
+import com.todoapp.todos.service.UserDataVersionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Index tìm kiếm trong bộ nhớ theo từng user (tùy chọn, bật bằng {@code todo.search.in-memory.enabled}).
+ *
+ * Index của một user được dựng ở lần tìm kiếm đầu tiên (2 truy vấn), sau đó được cập nhật từ
+ * {@link TodoChangedEvent} sau khi transaction commit. Tổng bộ nhớ ước lượng của mọi index bị giới
+ * hạn bởi {@code todo.search.in-memory.max-bytes}; vượt ngân sách thì index ít được dùng nhất bị loại.
+ * User có quá nhiều todo không được index và tiếp tục tìm kiếm trên database.
+ *
+ * Như {@link com.todoapp.todos.due.TodoDueIndex}, mỗi index ghi nhớ version dữ liệu của user
+ * (UserDataVersionService) mà nó phản ánh. Thay đổi đã commit chỉ được áp dụng khi version của nó nối
+ * tiếp version của index; nếu thiếu version ở giữa (thay đổi trên instance khác) thì index bị bỏ. Khi tìm
+ * kiếm, index cũ hơn version hiện tại của user được dựng lại, và mọi index được dựng lại sau
+ * {@code todo.search.in-memory.ttl-seconds}.
+ */
+@Slf4j
+@Component
+public class TodoSearchIndex {
+
+    private final TodoRepository todoRepository;
+    private final UserDataVersionService userDataVersionService;
+    private final boolean enabled;
+    private final long maxBytes;
+    private final int maxTodosPerUser;
+    private final long ttlNanos;
+
+    private final Counter hits;
+    private final Counter builds;
+    private final Counter skips;
+
+    /**
+     * Các index theo thứ tự truy cập (LRU), bảo vệ bởi {@code this}
+     */
+    private final LinkedHashMap<Long, UserTodoIndex> indexes = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Thay đổi phát sinh trong lúc index của user đang được dựng, áp dụng lại khi dựng xong
+     */
+    private final Map<Long, PendingChanges> pending = new HashMap<>();
+
+    private long totalBytes;
+
+    public TodoSearchIndex(TodoRepository todoRepository,
+                           UserDataVersionService userDataVersionService,
+                           MeterRegistry meterRegistry,
+                           @Value("${todo.search.in-memory.enabled:false}") boolean enabled,
+                           @Value("${todo.search.in-memory.max-bytes:67108864}") long maxBytes,
+                           @Value("${todo.search.in-memory.max-todos-per-user:5000}") int maxTodosPerUser,
+                           @Value("${todo.search.in-memory.ttl-seconds:300}") long ttlSeconds) {
+        this.todoRepository = todoRepository;
+        this.userDataVersionService = userDataVersionService;
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+        this.maxTodosPerUser = maxTodosPerUser;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.hits = requestCounter(meterRegistry, "hit");
+        this.builds = requestCounter(meterRegistry, "build");
+        this.skips = requestCounter(meterRegistry, "skip");
+        Gauge.builder("todoapp.search.index.bytes", this, TodoSearchIndex::getTotalBytes)
+                .description("Estimated memory used by the in-memory todo search index")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Tìm trong các todo gốc chưa xóa của user bằng index trong bộ nhớ
+     *
+     * @param userId   ID của user
+     * @param request  Điều kiện tìm kiếm (từ khóa và filter)
+     * @param pageable Thông tin phân trang
+     * @return Trang ID todo đã sắp xếp, hoặc empty nếu index không dùng được cho user này
+     */
+    public Optional<Page<Long>> search(Long userId, TodoSearchRequest request, Pageable pageable) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        long version = userDataVersionService.getVersion(userId);
+        UserTodoIndex index;
+        synchronized (this) {
+            index = indexes.get(userId);
+            if (index != null && (index.getVersion() < version
+                    || System.nanoTime() - index.getBuiltAtNanos() >= ttlNanos)) {
+                indexes.remove(userId);
+                totalBytes -= index.getEstimatedBytes();
+                index = null;
+            }
+        }
+        if (index != null) {
+            hits.increment();
+        } else {
+            index = build(userId, version);
+            if (index == null) {
+                skips.increment();
+                return Optional.empty();
+            }
+            builds.increment();
+        }
+
+        List<Long> ids = index.search(request, pageable.getSort());
+        if (pageable.isUnpaged()) {
+            return Optional.of(new PageImpl<>(ids));
+        }
+        int from = (int) Math.min(pageable.getOffset(), ids.size());
+        int to = Math.min(from + pageable.getPageSize(), ids.size());
+        return Optional.of(new PageImpl<>(ids.subList(from, to), pageable, ids.size()));
+    }
+
+    /**
+     * Cập nhật index sau khi thay đổi todo đã commit
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTodoChanged(TodoChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        TodoSnapshot after = event.after();
+        apply(event.userId(), index -> {
+            if (after.isDeleted() || !after.isRoot()) {
+                index.remove(after.id());
+                return;
+            }
+            UserTodoIndex.Document current = index.get(after.id());
+            if (after.tagIds() == null && current == null) {
+                // Không biết tags của todo (vd: khôi phục từ thùng rác): dựng lại index khi cần
+                throw new StaleIndexException();
+            }
+            index.put(UserTodoIndex.Document.of(after, current == null ? Set.of() : current.tagIds()));
+        });
+    }
+
+    /**
+     * Tag bị xóa: liên kết todo_tags bị xóa theo cascade, bỏ index của user để dựng lại.
+     * Thay đổi khác của tag không ảnh hưởng đến index, chỉ làm tăng version dữ liệu của user.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTagChanged(TagChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (event.type() == ChangeType.DELETED) {
+            invalidate(event.userId());
+        } else {
+            apply(event.userId(), index -> { });
+        }
+    }
+
+    /**
+     * Category bị xóa: category_id của todos được set NULL, bỏ index của user để dựng lại
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (event.type() == ChangeType.DELETED) {
+            invalidate(event.userId());
+        } else {
+            apply(event.userId(), index -> { });
+        }
+    }
+
+    public synchronized void invalidate(Long userId) {
+        UserTodoIndex removed = indexes.remove(userId);
+        if (removed != null) {
+            totalBytes -= removed.getEstimatedBytes();
+        }
+        PendingChanges changes = pending.get(userId);
+        if (changes != null) {
+            changes.stale = true;
+        }
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private UserTodoIndex build(Long userId, long version) {
+        if (todoRepository.countByUserIdAndDeletedAtIsNull(userId) > maxTodosPerUser) {
+            return null;
+        }
+
+        synchronized (this) {
+            pending.computeIfAbsent(userId, id -> new PendingChanges()).builders++;
+        }
+
+        // Version được đọc trước các truy vấn: index chứa ít nhất mọi thay đổi đến version này
+        UserTodoIndex index = new UserTodoIndex(userId, version);
+        PendingChanges changes = null;
+        try {
+            Map<Long, List<Long>> tagIds = new HashMap<>();
+            for (Object[] row : todoRepository.findTagIdsOfActiveRootTodos(userId)) {
+                tagIds.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((Long) row[1]);
+            }
+            for (Object[] row : todoRepository.findSearchFieldsOfActiveRootTodos(userId)) {
+                Long id = (Long) row[0];
+                index.put(new UserTodoIndex.Document(id, (String) row[1], (String) row[2],
+                        (TodoStatus) row[3], (TodoPriority) row[4], (Long) row[5],
+                        tagIds.getOrDefault(id, List.of()),
+                        (LocalDateTime) row[6], (LocalDateTime) row[7], (LocalDateTime) row[8]));
+            }
+        } finally {
+            synchronized (this) {
+                changes = pending.get(userId);
+                if (--changes.builders == 0) {
+                    pending.remove(userId);
+                }
+            }
+        }
+
+        synchronized (this) {
+            changes.committed.sort(Comparator.comparing(CommittedChange::version,
+                    Comparator.nullsFirst(Comparator.naturalOrder())));
+            for (CommittedChange committed : changes.committed) {
+                if (!changes.stale && !applyTo(index, committed)) {
+                    changes.stale = true;
+                }
+            }
+            // Index vẫn dùng được cho lần tìm kiếm hiện tại, nhưng chỉ được giữ lại khi còn đúng và vừa ngân sách
+            if (!changes.stale && !indexes.containsKey(userId) && index.getEstimatedBytes() <= maxBytes) {
+                indexes.put(userId, index);
+                totalBytes += index.getEstimatedBytes();
+                evictOverBudget(userId);
+            }
+        }
+        log.debug("Built search index for user {}: {} todos, ~{} bytes", userId, index.size(), index.getEstimatedBytes());
+        return index;
+    }
+
+    /**
+     * Áp dụng thay đổi đã commit với version mà transaction được cấp (listener chạy sau commit,
+     * khi version của transaction vẫn còn đọc được)
+     */
+    private void apply(Long userId, Consumer<UserTodoIndex> change) {
+        apply(userId, new CommittedChange(userDataVersionService.getCommittedVersion(userId), change));
+    }
+
+    private synchronized void apply(Long userId, CommittedChange committed) {
+        PendingChanges changes = pending.get(userId);
+        if (changes != null) {
+            changes.committed.add(committed);
+        }
+
+        UserTodoIndex index = indexes.get(userId);
+        if (index == null) {
+            return;
+        }
+        long before = index.getEstimatedBytes();
+        if (!applyTo(index, committed)) {
+            log.debug("Dropped search index of user {}: change at version {} cannot be applied to version {}",
+                    userId, committed.version(), index.getVersion());
+            invalidate(userId);
+            return;
+        }
+        totalBytes += index.getEstimatedBytes() - before;
+        evictOverBudget(userId);
+    }
+
+    /**
+     * Áp dụng một thay đổi đã commit lên index
+     *
+     * @return false nếu index đã thiếu thay đổi (version không nối tiếp, hoặc không biết tags) và không còn dùng được
+     */
+    private static boolean applyTo(UserTodoIndex index, CommittedChange committed) {
+        Long version = committed.version();
+        if (version == null || version > index.getVersion() + 1) {
+            return false;
+        }
+        if (version < index.getVersion()) {
+            // Đã có trong index (được dựng sau commit này)
+            return true;
+        }
+        try {
+            committed.change().accept(index);
+        } catch (StaleIndexException e) {
+            return false;
+        }
+        index.setVersion(version);
+        return true;
+    }
+
+    private void evictOverBudget(Long keepUserId) {
+        Iterator<Map.Entry<Long, UserTodoIndex>> iterator = indexes.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<Long, UserTodoIndex> eldest = iterator.next();
+            if (eldest.getKey().equals(keepUserId)) {
+                continue;
+            }
+            totalBytes -= eldest.getValue().getEstimatedBytes();
+            iterator.remove();
+            log.debug("Evicted search index of user {}", eldest.getKey());
+        }
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("todoapp.search.index.requests")
+                .description("In-memory todo search index requests")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Thay đổi của index từ một transaction đã commit
+     *
+     * @param version Version dữ liệu của user được cấp cho transaction, null nếu không xác định
+     */
+    private record CommittedChange(Long version, Consumer<UserTodoIndex> change) {
+    }
+
+    private static final class PendingChanges {
+        private final List<CommittedChange> committed = new ArrayList<>();
+        private int builders;
+        private boolean stale;
+    }
+
+    private static final class StaleIndexException extends RuntimeException {
+        StaleIndexException() {
+            super(null, null, false, false);
+        }
+    }
+}
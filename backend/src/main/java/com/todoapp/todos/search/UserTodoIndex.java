@@ -0,0 +1,301 @@
+package com.todoapp.todos.search;
+
+import com.todoapp.common.exception.BadRequestException;
+import com.todoapp.todos.dto.TodoSearchRequest;
+import com.todoapp.todos.entity.TodoPriority;
+import com.todoapp.todos.entity.TodoStatus;
+import com.todoapp.todos.event.TodoSnapshot;
+import org.springframework.data.domain.Sort;
+
+import java.text.Collator;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Inverted index trong bộ nhớ cho các todo gốc chưa xóa của một user.
+ *
+ * Mỗi từ (term) trỏ tới danh sách todo chứa nó kèm trọng số vị trí (title/description);
+ * các trường filter được giữ cùng document. Mọi thao tác được đồng bộ trên chính index.
+ *
+ * Sort theo title so sánh không phân biệt hoa thường và dấu, giống collation mặc định của cột title
+ * trên MySQL 8 (utf8mb4_0900_ai_ci), nên thứ tự trùng với đường tìm kiếm trên database.
+ */
+class UserTodoIndex {
+
+    private static final int TITLE = 2;
+    private static final int DESCRIPTION = 1;
+
+    /**
+     * Ước lượng bộ nhớ (byte) của một document và của một posting, dùng cho ngân sách bộ nhớ chung
+     */
+    private static final long DOCUMENT_BYTES = 160;
+    private static final long POSTING_BYTES = 64;
+    private static final long TERM_BYTES = 96;
+
+    /**
+     * Chỉ so sánh ký tự cơ sở (bỏ qua hoa thường và dấu); compare của RuleBasedCollator đã được đồng bộ
+     */
+    private static final Collator TITLE_COLLATOR = titleCollator();
+
+    private static final Map<String, Comparator<Document>> SORTS = Map.of(
+            "id", Comparator.comparing((Document d) -> d.id),
+            "title", Comparator.comparing((Document d) -> d.title, Comparator.nullsLast(TITLE_COLLATOR)),
+            "status", nullsLast(d -> d.status == null ? null : d.status.name()),
+            "priority", nullsLast(d -> d.priority == null ? null : d.priority.name()),
+            "dueDate", nullsLast(d -> d.dueDate),
+            "createdAt", nullsLast(d -> d.createdAt),
+            "updatedAt", nullsLast(d -> d.updatedAt)
+    );
+
+    private final Long userId;
+    private final long builtAtNanos;
+
+    /**
+     * Version dữ liệu của user (UserDataVersionService) mà index phản ánh: index chứa mọi thay đổi
+     * đến version này
+     */
+    private volatile long version;
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private long estimatedBytes;
+
+    UserTodoIndex(Long userId, long version) {
+        this.userId = userId;
+        this.version = version;
+        this.builtAtNanos = System.nanoTime();
+    }
+
+    Long getUserId() {
+        return userId;
+    }
+
+    long getBuiltAtNanos() {
+        return builtAtNanos;
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    void setVersion(long version) {
+        this.version = version;
+    }
+
+    synchronized long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    synchronized int size() {
+        return documents.size();
+    }
+
+    /**
+     * Thêm hoặc thay thế document
+     */
+    synchronized void put(Document document) {
+        remove(document.id);
+        documents.put(document.id, document);
+        estimatedBytes += document.estimatedBytes();
+        document.terms.forEach((term, weight) -> {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting == null) {
+                posting = new HashMap<>();
+                postings.put(term, posting);
+                estimatedBytes += TERM_BYTES + 2L * term.length();
+            }
+            posting.put(document.id, weight);
+            estimatedBytes += POSTING_BYTES;
+        });
+    }
+
+    synchronized void remove(Long todoId) {
+        Document document = documents.remove(todoId);
+        if (document == null) {
+            return;
+        }
+        estimatedBytes -= document.estimatedBytes();
+        for (String term : document.terms.keySet()) {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting != null && posting.remove(todoId) != null) {
+                estimatedBytes -= POSTING_BYTES;
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                    estimatedBytes -= TERM_BYTES + 2L * term.length();
+                }
+            }
+        }
+    }
+
+    synchronized Document get(Long todoId) {
+        return documents.get(todoId);
+    }
+
+    /**
+     * Đánh giá từ khóa và các filter, trả về ID các todo khớp đã sắp xếp
+     * (độ liên quan trước, sau đó theo sort của request, cuối cùng theo ID giảm dần)
+     */
+    synchronized List<Long> search(TodoSearchRequest request, Sort sort) {
+        Map<Long, Integer> scores = matchText(request.getQuery());
+
+        List<Document> matches = new ArrayList<>();
+        Collection<Document> candidates = scores == null ? documents.values()
+                : scores.keySet().stream().map(documents::get).toList();
+        for (Document document : candidates) {
+            if (document != null && document.matches(request)) {
+                matches.add(document);
+            }
+        }
+
+        Comparator<Document> comparator = scores == null ? null
+                : Comparator.comparing((Document d) -> scores.get(d.id)).reversed();
+        for (Sort.Order order : sort) {
+            Comparator<Document> byProperty = SORTS.get(order.getProperty());
+            if (byProperty == null) {
+                throw new BadRequestException("Không thể sắp xếp theo trường: " + order.getProperty());
+            }
+            if (order.isDescending()) {
+                byProperty = byProperty.reversed();
+            }
+            comparator = comparator == null ? byProperty : comparator.thenComparing(byProperty);
+        }
+        Comparator<Document> byIdDesc = Comparator.comparing((Document d) -> d.id).reversed();
+        matches.sort(comparator == null ? byIdDesc : comparator.thenComparing(byIdDesc));
+
+        return matches.stream().map(document -> document.id).toList();
+    }
+
+    /**
+     * @return Điểm liên quan theo ID todo (mỗi từ phải khớp theo tiền tố), hoặc null nếu không có từ khóa
+     */
+    private Map<Long, Integer> matchText(String query) {
+        if (query == null || query.isBlank()) {
+            return null;
+        }
+        List<String> terms = TodoSearchEngine.terms(query);
+        if (terms.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Long, Integer> scores = null;
+        for (String term : terms) {
+            Map<Long, Integer> termScores = new HashMap<>();
+            for (Map<Long, Integer> posting : postings.subMap(term, true, term + Character.MAX_VALUE, true).values()) {
+                posting.forEach((todoId, weight) -> termScores.merge(todoId, weight, Math::max));
+            }
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                scores.keySet().retainAll(termScores.keySet());
+                scores.replaceAll((todoId, score) -> score + termScores.get(todoId));
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        return scores;
+    }
+
+    private static Collator titleCollator() {
+        Collator collator = Collator.getInstance(Locale.ROOT);
+        collator.setStrength(Collator.PRIMARY);
+        return collator;
+    }
+
+    private static <T extends Comparable<? super T>> Comparator<Document> nullsLast(Function<Document, T> key) {
+        return Comparator.comparing(key, Comparator.nullsLast(Comparator.naturalOrder()));
+    }
+
+    /**
+     * Document của một todo: các trường filter/sort và các từ kèm trọng số
+     */
+    static final class Document {
+
+        private final Long id;
+        private final String title;
+        private final TodoStatus status;
+        private final TodoPriority priority;
+        private final Long categoryId;
+        private final long[] tagIds;
+        private final LocalDateTime dueDate;
+        private final LocalDateTime createdAt;
+        private final LocalDateTime updatedAt;
+        private final Map<String, Integer> terms;
+
+        Document(Long id, String title, String description, TodoStatus status, TodoPriority priority,
+                 Long categoryId, Collection<Long> tagIds, LocalDateTime dueDate,
+                 LocalDateTime createdAt, LocalDateTime updatedAt) {
+            this.id = id;
+            this.title = title;
+            this.status = status;
+            this.priority = priority;
+            this.categoryId = categoryId;
+            this.tagIds = tagIds.stream().mapToLong(Long::longValue).sorted().toArray();
+            this.dueDate = dueDate;
+            this.createdAt = createdAt;
+            this.updatedAt = updatedAt;
+            this.terms = new HashMap<>();
+            if (description != null) {
+                TodoSearchEngine.terms(description).forEach(term -> terms.merge(term, DESCRIPTION, Math::max));
+            }
+            if (title != null) {
+                TodoSearchEngine.terms(title).forEach(term -> terms.merge(term, TITLE, Math::max));
+            }
+        }
+
+        /**
+         * Tạo document từ ảnh chụp todo
+         *
+         * @param tagIds Tag IDs dùng khi ảnh chụp không có thông tin tags
+         */
+        static Document of(TodoSnapshot snapshot, Collection<Long> tagIds) {
+            return new Document(snapshot.id(), snapshot.title(), snapshot.description(), snapshot.status(),
+                    snapshot.priority(), snapshot.categoryId(),
+                    snapshot.tagIds() != null ? snapshot.tagIds() : tagIds,
+                    snapshot.dueDate(), snapshot.createdAt(), snapshot.updatedAt());
+        }
+
+        Set<Long> tagIds() {
+            Set<Long> ids = new HashSet<>();
+            for (long tagId : tagIds) {
+                ids.add(tagId);
+            }
+            return ids;
+        }
+
+        boolean matches(TodoSearchRequest request) {
+            if (request.getStatus() != null && request.getStatus() != status) {
+                return false;
+            }
+            if (request.getPriority() != null && request.getPriority() != priority) {
+                return false;
+            }
+            if (request.getCategoryId() != null && !request.getCategoryId().equals(categoryId)) {
+                return false;
+            }
+            if (request.getTagIds() != null && !request.getTagIds().isEmpty()
+                    && request.getTagIds().stream().noneMatch(tagId -> Arrays.binarySearch(tagIds, tagId) >= 0)) {
+                return false;
+            }
+            if (request.getDueFrom() != null && (dueDate == null || dueDate.isBefore(request.getDueFrom()))) {
+                return false;
+            }
+            return request.getDueTo() == null || (dueDate != null && !dueDate.isAfter(request.getDueTo()));
+        }
+
+        long estimatedBytes() {
+            return DOCUMENT_BYTES + (title == null ? 0 : 2L * title.length()) + 8L * tagIds.length;
+        }
+    }
+}
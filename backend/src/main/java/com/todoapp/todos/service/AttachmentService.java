@@ -1,8 +1,7 @@
 package com.todoapp.todos.service;
 
 import com.todoapp.auth.entity.User;
-import com.todoapp.auth.repository.UserRepository;
-import com.todoapp.common.exception.BadRequestException;
+import com.todoapp.auth.security.CurrentUserResolver;
 import com.todoapp.common.exception.ResourceNotFoundException;
 import com.todoapp.todos.dto.AttachmentRequest;
 import com.todoapp.todos.dto.AttachmentResponse;
@@ -13,8 +12,6 @@ import com.todoapp.todos.repository.TodoRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,7 +25,8 @@ public class AttachmentService {
 
     private final AttachmentRepository attachmentRepository;
     private final TodoRepository todoRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserResolver currentUserResolver;
+    private final UserDataVersionService userDataVersionService;
 
     /**
      * Thêm attachment cho một todo (mock upload)
@@ -37,7 +35,7 @@ public class AttachmentService {
     public AttachmentResponse addAttachment(Long todoId, AttachmentRequest request) {
         log.debug("Thêm attachment cho todoId: {}", todoId);
 
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserResolver.getCurrentUser();
         Todo todo = todoRepository.findByIdAndUserIdAndDeletedAtIsNull(todoId, currentUser.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy todo với ID: " + todoId));
 
@@ -49,6 +47,8 @@ public class AttachmentService {
                 .build();
 
         Attachment saved = attachmentRepository.save(attachment);
+        todoRepository.adjustAttachmentCount(todoId, 1);
+        userDataVersionService.markTodosChanged(currentUser.getId(), List.of(todoId));
         log.info("Đã thêm attachment {} cho todo {}", saved.getId(), todoId);
         return toResponse(saved);
     }
@@ -60,7 +60,7 @@ public class AttachmentService {
     public void deleteAttachment(Long attachmentId) {
         log.debug("Xóa attachment với ID: {}", attachmentId);
 
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserResolver.getCurrentUser();
         Attachment attachment = attachmentRepository.findById(attachmentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy attachment với ID: " + attachmentId));
 
@@ -70,6 +70,8 @@ public class AttachmentService {
         }
 
         attachmentRepository.delete(attachment);
+        todoRepository.adjustAttachmentCount(todo.getId(), -1);
+        userDataVersionService.markTodosChanged(currentUser.getId(), List.of(todo.getId()));
         log.info("Đã xóa attachment với ID: {}", attachmentId);
     }
 
@@ -80,7 +82,7 @@ public class AttachmentService {
     public List<AttachmentResponse> getAttachmentsByTodoId(Long todoId) {
         log.debug("Lấy danh sách attachments cho todoId: {}", todoId);
 
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserResolver.getCurrentUser();
         // Validate quyền sở hữu todo, đảm bảo todo tồn tại và thuộc về user hiện tại
         todoRepository.findByIdAndUserIdAndDeletedAtIsNull(todoId, currentUser.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy todo với ID: " + todoId));
@@ -100,16 +102,6 @@ public class AttachmentService {
                 .createdAt(attachment.getCreatedAt())
                 .build();
     }
-
-    private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
-            throw new BadRequestException("Không tìm thấy thông tin xác thực");
-        }
-        String email = authentication.getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy user với email: " + email));
-    }
 }
 
 
@@ -1,18 +1,18 @@
 package com.todoapp.todos.service;
 
 import com.todoapp.auth.entity.User;
-import com.todoapp.auth.repository.UserRepository;
-import com.todoapp.common.exception.BadRequestException;
-import com.todoapp.common.exception.ResourceNotFoundException;
+import com.todoapp.auth.security.CurrentUserResolver;
 import com.todoapp.todos.dto.CategoryRequest;
 import com.todoapp.todos.dto.CategoryResponse;
 import com.todoapp.todos.entity.Category;
+import com.todoapp.todos.event.CategoryChangedEvent;
+import com.todoapp.todos.event.ChangeType;
 import com.todoapp.todos.mapper.CategoryMapper;
 import com.todoapp.todos.repository.CategoryRepository;
+import com.todoapp.todos.repository.TodoRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,7 +29,10 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
-    private final UserRepository userRepository;
+    private final CurrentUserResolver currentUserResolver;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TodoRepository todoRepository;
+    private final UserDataVersionService userDataVersionService;
 
     /**
      * Tạo category mới
@@ -41,7 +44,7 @@ public class CategoryService {
         log.info("Tạo category mới: {}", request.getName());
         
         // Lấy user hiện tại
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserResolver.getCurrentUser();
         
         // Kiểm tra trùng tên
         if (categoryRepository.findByUserIdAndName(currentUser.getId(), request.getName()).isPresent()) {
@@ -54,6 +57,8 @@ public class CategoryService {
         
         // Lưu vào database
         Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(
+                new CategoryChangedEvent(currentUser.getId(), savedCategory.getId(), ChangeType.CREATED));
         
         log.info("Tạo category thành công với ID: {}", savedCategory.getId());
         return categoryMapper.toResponse(savedCategory);
@@ -68,7 +73,7 @@ public class CategoryService {
     public List<CategoryResponse> getAll() {
         log.info("Lấy danh sách categories của user hiện tại");
         
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserResolver.getCurrentUser();
         List<Category> categories = categoryRepository.findByUserId(currentUser.getId());
         
         log.info("Tìm thấy {} categories", categories.size());
@@ -85,7 +90,7 @@ public class CategoryService {
     public CategoryResponse getById(Long id) {
         log.info("Lấy category theo ID: {}", id);
         
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserResolver.getCurrentUser();
         Category category = categoryRepository.findByIdAndUserId(id, currentUser.getId())
                 .orElseThrow(() -> new IllegalArgumentException("Category không tồn tại"));
         
@@ -102,7 +107,7 @@ public class CategoryService {
     public CategoryResponse update(Long id, CategoryRequest request) {
         log.info("Cập nhật category ID: {}", id);
         
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserResolver.getCurrentUser();
         Category category = categoryRepository.findByIdAndUserId(id, currentUser.getId())
                 .orElseThrow(() -> new IllegalArgumentException("Category không tồn tại"));
         
@@ -119,6 +124,7 @@ public class CategoryService {
         category.setOrderIndex(request.getOrderIndex());
         
         Category updatedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(currentUser.getId(), id, ChangeType.UPDATED));
         
         log.info("Cập nhật category thành công");
         return categoryMapper.toResponse(updatedCategory);
@@ -132,34 +138,18 @@ public class CategoryService {
     public void delete(Long id) {
         log.info("Xóa category ID: {}", id);
         
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserResolver.getCurrentUser();
         Category category = categoryRepository.findByIdAndUserId(id, currentUser.getId())
                 .orElseThrow(() -> new IllegalArgumentException("Category không tồn tại"));
         
         // TODO: Kiểm tra xem category có đang được sử dụng bởi todo nào không
         // Nếu có, có thể throw exception hoặc xóa cascade
         
+        // category_id của các todo được đặt về NULL bởi ON DELETE SET NULL, đưa chúng vào delta sync
+        userDataVersionService.markTodosChanged(currentUser.getId(), todoRepository.findIdsByCategoryId(id));
         categoryRepository.delete(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(currentUser.getId(), id, ChangeType.DELETED));
         
         log.info("Xóa category thành công");
     }
-
-    /**
-     * Lấy user hiện tại từ SecurityContext
-     *
-     * @return User entity
-     * @throws BadRequestException       nếu không tìm thấy authentication
-     * @throws ResourceNotFoundException nếu không tìm thấy user
-     */
-    private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-
-        if (authentication == null || !authentication.isAuthenticated()) {
-            throw new BadRequestException("Không tìm thấy thông tin xác thực");
-        }
-
-        String email = authentication.getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy user với email: " + email));
-    }
 }
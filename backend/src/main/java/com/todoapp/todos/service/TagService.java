@@ -1,19 +1,21 @@
 package com.todoapp.todos.service;
 
 import com.todoapp.auth.entity.User;
-import com.todoapp.auth.repository.UserRepository;
+import com.todoapp.auth.security.CurrentUserResolver;
 import com.todoapp.common.exception.BadRequestException;
 import com.todoapp.common.exception.ResourceNotFoundException;
 import com.todoapp.todos.dto.TagRequest;
 import com.todoapp.todos.dto.TagResponse;
 import com.todoapp.todos.entity.Tag;
+import com.todoapp.todos.event.ChangeType;
+import com.todoapp.todos.event.TagChangedEvent;
 import com.todoapp.todos.mapper.TagMapper;
 import com.todoapp.todos.repository.TagRepository;
+import com.todoapp.todos.repository.TodoRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,8 +30,11 @@ import java.util.List;
 public class TagService {
 
     private final TagRepository tagRepository;
-    private final UserRepository userRepository;
+    private final TodoRepository todoRepository;
+    private final CurrentUserResolver currentUserResolver;
     private final TagMapper tagMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserDataVersionService userDataVersionService;
 
     /**
      * Tạo tag mới cho user hiện tại
@@ -43,7 +48,7 @@ public class TagService {
         log.debug("Tạo tag mới với tên: {}", request.getName());
 
         // Lấy user hiện tại
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserResolver.getCurrentUser();
 
         // Kiểm tra trùng tên tag
         tagRepository.findByUserIdAndName(currentUser.getId(), request.getName())
@@ -56,6 +61,7 @@ public class TagService {
         tag.setUser(currentUser);
 
         Tag savedTag = tagRepository.save(tag);
+        eventPublisher.publishEvent(new TagChangedEvent(currentUser.getId(), savedTag.getId(), ChangeType.CREATED));
         log.info("Đã tạo tag mới với ID: {} cho user: {}", savedTag.getId(), currentUser.getEmail());
 
         return tagMapper.toResponse(savedTag);
@@ -76,7 +82,7 @@ public class TagService {
         log.debug("Cập nhật tag với ID: {}", id);
 
         // Lấy user hiện tại
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserResolver.getCurrentUser();
 
         // Tìm tag và validate ownership
         Tag tag = tagRepository.findByIdAndUserId(id, currentUser.getId())
@@ -95,6 +101,7 @@ public class TagService {
         tag.setColor(request.getColor());
 
         Tag updatedTag = tagRepository.save(tag);
+        eventPublisher.publishEvent(new TagChangedEvent(currentUser.getId(), id, ChangeType.UPDATED));
         log.info("Đã cập nhật tag với ID: {}", id);
 
         return tagMapper.toResponse(updatedTag);
@@ -112,13 +119,17 @@ public class TagService {
         log.debug("Xóa tag với ID: {}", id);
 
         // Lấy user hiện tại
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserResolver.getCurrentUser();
 
         // Tìm tag và validate ownership
         Tag tag = tagRepository.findByIdAndUserId(id, currentUser.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy tag với ID: " + id));
 
+        // Liên kết todo_tags bị xóa bởi ON DELETE CASCADE, cập nhật counter trước khi xóa
+        userDataVersionService.markTodosChanged(currentUser.getId(), todoRepository.findIdsByTagId(tag.getId()));
+        todoRepository.decrementTagCountForTag(tag.getId());
         tagRepository.delete(tag);
+        eventPublisher.publishEvent(new TagChangedEvent(currentUser.getId(), id, ChangeType.DELETED));
         log.info("Đã xóa tag với ID: {}", id);
     }
 
@@ -132,7 +143,7 @@ public class TagService {
         log.debug("Lấy danh sách tất cả tags");
 
         // Lấy user hiện tại
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserResolver.getCurrentUser();
 
         List<Tag> tags = tagRepository.findByUserId(currentUser.getId());
         log.info("Đã lấy {} tags cho user: {}", tags.size(), currentUser.getEmail());
@@ -153,7 +164,7 @@ public class TagService {
         log.debug("Lấy tag với ID: {}", id);
 
         // Lấy user hiện tại
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserResolver.getCurrentUser();
 
         // Tìm tag và validate ownership
         Tag tag = tagRepository.findByIdAndUserId(id, currentUser.getId())
@@ -162,23 +173,4 @@ public class TagService {
         log.info("Đã lấy tag với ID: {}", id);
         return tagMapper.toResponse(tag);
     }
-
-    /**
-     * Lấy user hiện tại từ SecurityContext
-     *
-     * @return User entity
-     * @throws BadRequestException       nếu không tìm thấy authentication
-     * @throws ResourceNotFoundException nếu không tìm thấy user
-     */
-    private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-
-        if (authentication == null || !authentication.isAuthenticated()) {
-            throw new BadRequestException("Không tìm thấy thông tin xác thực");
-        }
-
-        String email = authentication.getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy user với email: " + email));
-    }
 }
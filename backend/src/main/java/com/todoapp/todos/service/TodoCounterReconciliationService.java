@@ -0,0 +1,139 @@
+package com.todoapp.todos.service;
+
+import com.todoapp.todos.repository.AttachmentRepository;
+import com.todoapp.todos.repository.TodoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Đối soát các cột counter (subtask_count, attachment_count, tag_count) của todos với
+ * dữ liệu thực trong các bảng con và sửa các dòng bị lệch.
+ *
+ * Duyệt bảng todos theo từng khối ID (keyset), mỗi khối một transaction riêng với
+ * số truy vấn cố định, để không khóa bảng lâu và không phụ thuộc vào kích thước dữ liệu.
+ * Counter chỉ được ghi đè nếu vẫn giữ giá trị đã đọc; todo có counter thay đổi đồng thời
+ * (tăng/giảm đã commit giữa lúc đếm và lúc ghi) được bỏ qua và đối soát lại ở lần chạy sau.
+ */
+@Slf4j
+@Service
+public class TodoCounterReconciliationService {
+
+    private final TodoRepository todoRepository;
+    private final AttachmentRepository attachmentRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${todo.counters.reconcile-chunk-size:1000}")
+    private int chunkSize;
+
+    public TodoCounterReconciliationService(TodoRepository todoRepository,
+                                            AttachmentRepository attachmentRepository,
+                                            PlatformTransactionManager transactionManager) {
+        this.todoRepository = todoRepository;
+        this.attachmentRepository = attachmentRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${todo.counters.reconcile-cron:0 30 3 * * ?}") // Mặc định 3h30 sáng mỗi ngày
+    public void reconcileScheduled() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.error("Error during todo counter reconciliation", e);
+        }
+    }
+
+    /**
+     * Đối soát toàn bộ bảng todos
+     *
+     * @return Số todo đã được sửa counter
+     */
+    public int reconcile() {
+        log.info("Starting todo counter reconciliation");
+
+        long lastId = 0L;
+        int repaired = 0;
+        int skipped = 0;
+        int scanned = 0;
+
+        while (true) {
+            long afterId = lastId;
+            ChunkResult result = transactionTemplate.execute(status -> reconcileChunk(afterId));
+            if (result == null || result.scanned() == 0) {
+                break;
+            }
+            scanned += result.scanned();
+            repaired += result.repaired();
+            skipped += result.skipped();
+            lastId = result.lastId();
+        }
+
+        log.info("Finished todo counter reconciliation: scanned {}, repaired {}, skipped {} (changed concurrently)",
+                scanned, repaired, skipped);
+        return repaired;
+    }
+
+    private ChunkResult reconcileChunk(long afterId) {
+        List<Object[]> rows = todoRepository.findCounterChunk(afterId, PageRequest.of(0, chunkSize));
+        if (rows.isEmpty()) {
+            return new ChunkResult(0, 0, 0, afterId);
+        }
+
+        List<Long> ids = rows.stream().map(row -> (Long) row[0]).collect(Collectors.toList());
+        Map<Long, Long> subtaskCounts = toCountMap(todoRepository.countActiveSubtasksByParentIds(ids));
+        Map<Long, Long> attachmentCounts = toCountMap(attachmentRepository.countByTodoIds(ids));
+        Map<Long, Long> tagCounts = toCountMap(todoRepository.countTagsByTodoIds(ids));
+
+        int repaired = 0;
+        int skipped = 0;
+        for (Object[] row : rows) {
+            Long id = (Long) row[0];
+            int subtasks = subtaskCounts.getOrDefault(id, 0L).intValue();
+            int attachments = attachmentCounts.getOrDefault(id, 0L).intValue();
+            int tags = tagCounts.getOrDefault(id, 0L).intValue();
+
+            if (!matches(row[1], subtasks) || !matches(row[2], attachments) || !matches(row[3], tags)) {
+                int updated = todoRepository.overwriteCounters(id, toInt(row[1]), toInt(row[2]), toInt(row[3]),
+                        subtasks, attachments, tags);
+                if (updated == 0) {
+                    log.debug("Skipping counters of todo {}: changed since they were read", id);
+                    skipped++;
+                    continue;
+                }
+                log.warn("Repaired counters of todo {}: subtasks {} -> {}, attachments {} -> {}, tags {} -> {}",
+                        id, row[1], subtasks, row[2], attachments, row[3], tags);
+                repaired++;
+            }
+        }
+
+        return new ChunkResult(rows.size(), repaired, skipped, ids.get(ids.size() - 1));
+    }
+
+    private static boolean matches(Object stored, int actual) {
+        return stored != null && ((Number) stored).intValue() == actual;
+    }
+
+    private static int toInt(Object stored) {
+        return stored == null ? 0 : ((Number) stored).intValue();
+    }
+
+    private static Map<Long, Long> toCountMap(List<Object[]> rows) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            counts.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    private record ChunkResult(int scanned, int repaired, int skipped, long lastId) {
+    }
+}
@@ -0,0 +1,266 @@
+package com.todoapp.todos.service;
+
+import com.todoapp.common.exception.BadRequestException;
+import com.todoapp.todos.dto.TodoTransferRecord;
+import com.todoapp.todos.entity.TodoPriority;
+import com.todoapp.todos.entity.TodoStatus;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Đọc/ghi TodoTransferRecord dưới dạng CSV (RFC 4180).
+ * Cột tags chứa tên các tag nối bằng '|'; ký tự '|' và '\' trong tên tag được escape bằng '\'.
+ */
+final class TodoCsv {
+
+    static final List<String> COLUMNS = List.of(
+            "id", "parentId", "title", "description", "status", "priority", "dueDate", "remindAt",
+            "estimatedMinutes", "category", "tags", "completedAt", "createdAt", "updatedAt");
+
+    private static final char TAG_SEPARATOR = '|';
+    private static final char TAG_ESCAPE = '\\';
+
+    private TodoCsv() {
+    }
+
+    static void writeHeader(Writer writer) throws IOException {
+        writeRow(writer, COLUMNS);
+    }
+
+    static void writeRecord(Writer writer, TodoTransferRecord record) throws IOException {
+        writeRow(writer, Arrays.asList(
+                text(record.getId()),
+                text(record.getParentId()),
+                record.getTitle(),
+                record.getDescription(),
+                text(record.getStatus()),
+                text(record.getPriority()),
+                text(record.getDueDate()),
+                text(record.getRemindAt()),
+                text(record.getEstimatedMinutes()),
+                record.getCategory(),
+                joinTags(record.getTags()),
+                text(record.getCompletedAt()),
+                text(record.getCreatedAt()),
+                text(record.getUpdatedAt())));
+    }
+
+    private static void writeRow(Writer writer, List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeField(writer, values.get(i));
+        }
+        writer.write("\r\n");
+    }
+
+    private static void writeField(Writer writer, String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    static String joinTags(List<String> tags) {
+        if (tags == null || tags.isEmpty()) {
+            return null;
+        }
+        StringBuilder joined = new StringBuilder();
+        for (String tag : tags) {
+            if (!joined.isEmpty()) {
+                joined.append(TAG_SEPARATOR);
+            }
+            for (int i = 0; i < tag.length(); i++) {
+                char c = tag.charAt(i);
+                if (c == TAG_SEPARATOR || c == TAG_ESCAPE) {
+                    joined.append(TAG_ESCAPE);
+                }
+                joined.append(c);
+            }
+        }
+        return joined.toString();
+    }
+
+    private static String text(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    static List<String> splitTags(String joined) {
+        List<String> tags = new ArrayList<>();
+        if (joined == null || joined.isEmpty()) {
+            return tags;
+        }
+        StringBuilder tag = new StringBuilder();
+        for (int i = 0; i < joined.length(); i++) {
+            char c = joined.charAt(i);
+            if (c == TAG_ESCAPE && i + 1 < joined.length()) {
+                tag.append(joined.charAt(++i));
+            } else if (c == TAG_SEPARATOR) {
+                tags.add(tag.toString());
+                tag.setLength(0);
+            } else {
+                tag.append(c);
+            }
+        }
+        tags.add(tag.toString());
+        return tags;
+    }
+
+    /**
+     * Ánh xạ tên cột (không phân biệt hoa thường) sang vị trí trong dòng header; cột lạ được bỏ qua
+     *
+     * @throws BadRequestException nếu header không có cột title
+     */
+    static Map<String, Integer> headerIndex(List<String> header) {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).replace("\uFEFF", "").trim();
+            for (String column : COLUMNS) {
+                if (column.equalsIgnoreCase(name)) {
+                    index.put(column, i);
+                }
+            }
+        }
+        if (!index.containsKey("title")) {
+            throw new BadRequestException("File CSV thiếu cột title");
+        }
+        return index;
+    }
+
+    /**
+     * Chuyển một dòng CSV thành record theo header
+     *
+     * @throws IllegalArgumentException nếu một giá trị không đúng định dạng
+     */
+    static TodoTransferRecord toRecord(Map<String, Integer> header, List<String> fields) {
+        return TodoTransferRecord.builder()
+                .id(parse(header, fields, "id", Long::valueOf))
+                .parentId(parse(header, fields, "parentId", Long::valueOf))
+                .title(field(header, fields, "title"))
+                .description(field(header, fields, "description"))
+                .status(parse(header, fields, "status", value -> TodoStatus.valueOf(value.toUpperCase(Locale.ROOT))))
+                .priority(parse(header, fields, "priority", value -> TodoPriority.valueOf(value.toUpperCase(Locale.ROOT))))
+                .dueDate(parse(header, fields, "dueDate", LocalDateTime::parse))
+                .remindAt(parse(header, fields, "remindAt", LocalDateTime::parse))
+                .estimatedMinutes(parse(header, fields, "estimatedMinutes", Integer::valueOf))
+                .category(field(header, fields, "category"))
+                .tags(splitTags(field(header, fields, "tags")))
+                .completedAt(parse(header, fields, "completedAt", LocalDateTime::parse))
+                .createdAt(parse(header, fields, "createdAt", LocalDateTime::parse))
+                .updatedAt(parse(header, fields, "updatedAt", LocalDateTime::parse))
+                .build();
+    }
+
+    private static String field(Map<String, Integer> header, List<String> fields, String column) {
+        Integer index = header.get(column);
+        if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    private static <T> T parse(Map<String, Integer> header, List<String> fields, String column,
+                               Function<String, T> parser) {
+        String value = field(header, fields, column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return parser.apply(value.trim());
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Giá trị không hợp lệ ở cột " + column + ": " + value);
+        }
+    }
+
+    /**
+     * Đọc CSV theo từng dòng dữ liệu; một dòng dữ liệu có thể trải trên nhiều dòng vật lý
+     * khi có trường được đặt trong dấu nháy kép.
+     */
+    static final class RowReader {
+
+        private final Reader in;
+        private long line = 1;
+        private long rowLine;
+
+        RowReader(Reader in) {
+            this.in = in;
+        }
+
+        /**
+         * @return Các trường của dòng tiếp theo, hoặc null khi hết dữ liệu
+         * @throws BadRequestException nếu trường trong dấu nháy kép không được đóng
+         */
+        List<String> next() throws IOException {
+            int c = in.read();
+            if (c == -1) {
+                return null;
+            }
+            rowLine = line;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new BadRequestException("CSV không hợp lệ: thiếu dấu nháy kép đóng (dòng " + rowLine + ")");
+                    }
+                    if (c == '"') {
+                        int next = in.read();
+                        if (next != '"') {
+                            quoted = false;
+                            c = next;
+                            continue;
+                        }
+                        field.append('"');
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == -1) {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = in.read();
+            }
+        }
+
+        /**
+         * @return Số thứ tự dòng vật lý (bắt đầu từ 1) nơi dòng dữ liệu vừa đọc bắt đầu
+         */
+        long rowLine() {
+            return rowLine;
+        }
+    }
+}
@@ -1,28 +1,37 @@
 package com.todoapp.todos.service;
 
 import com.todoapp.auth.entity.User;
-import com.todoapp.auth.repository.UserRepository;
+import com.todoapp.auth.security.CurrentUserResolver;
 import com.todoapp.common.exception.BadRequestException;
 import com.todoapp.common.exception.ResourceNotFoundException;
 import com.todoapp.todos.dto.*;
 import com.todoapp.todos.entity.Category;
 import com.todoapp.todos.entity.Tag;
 import com.todoapp.todos.entity.Todo;
+import com.todoapp.todos.entity.TodoPriority;
 import com.todoapp.todos.entity.TodoStatus;
+import com.todoapp.todos.due.TodoDueIndex;
+import com.todoapp.todos.due.UserDueIndex;
+import com.todoapp.todos.event.TodoChangedEvent;
+import com.todoapp.todos.event.TodoSnapshot;
 import com.todoapp.todos.mapper.CategoryMapper;
 import com.todoapp.todos.mapper.TagMapper;
 import com.todoapp.todos.mapper.TodoMapper;
 import com.todoapp.todos.repository.CategoryRepository;
 import com.todoapp.todos.repository.TagRepository;
 import com.todoapp.todos.repository.TodoRepository;
+import com.todoapp.todos.search.TodoFullTextSearch;
+import com.todoapp.todos.search.TodoSearchIndex;
 import com.todoapp.todos.specification.TodoSpecification;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -38,13 +47,28 @@ import java.util.stream.Collectors;
 @Slf4j
 public class TodoService {
 
+    /**
+     * Số thay đổi tối đa trong một lần gọi /api/todos/changes
+     */
+    public static final int MAX_CHANGES_LIMIT = 1000;
+
+    /**
+     * Kích thước trang tối đa của chế độ cursor
+     */
+    public static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     private final TodoRepository todoRepository;
     private final CategoryRepository categoryRepository;
     private final TagRepository tagRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserResolver currentUserResolver;
     private final TodoMapper todoMapper;
     private final CategoryMapper categoryMapper;
     private final TagMapper tagMapper;
+    private final TodoFullTextSearch todoFullTextSearch;
+    private final TodoSearchIndex todoSearchIndex;
+    private final TodoStatisticsCache todoStatisticsCache;
+    private final TodoDueIndex todoDueIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Tạo todo mới cho user hiện tại
@@ -56,7 +80,7 @@ public class TodoService {
     public TodoResponse create(TodoRequest request) {
         log.debug("Tạo todo mới với title: {}", request.getTitle());
 
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserResolver.getCurrentUser();
         Todo todo = todoMapper.toEntity(request);
         todo.setUser(currentUser);
 
@@ -70,19 +94,15 @@ public class TodoService {
 
         // Set tags nếu có
         if (request.getTagIds() != null && !request.getTagIds().isEmpty()) {
-            Set<Tag> tags = new HashSet<>();
-            for (Long tagId : request.getTagIds()) {
-                Tag tag = tagRepository.findByIdAndUserId(tagId, currentUser.getId())
-                        .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy tag với ID: " + tagId));
-                tags.add(tag);
-            }
-            todo.setTags(tags);
+            todo.setTags(resolveTags(request.getTagIds(), currentUser.getId()));
         }
 
+        todo.setTagCount(todo.getTags().size());
         todo.setCreatedBy(currentUser.getId());
         todo.setUpdatedBy(currentUser.getId());
 
         Todo savedTodo = todoRepository.save(todo);
+        eventPublisher.publishEvent(TodoChangedEvent.created(savedTodo));
         log.info("Đã tạo todo mới với ID: {}", savedTodo.getId());
 
         return mapToResponse(savedTodo);
@@ -99,56 +119,26 @@ public class TodoService {
     public TodoResponse update(Long id, TodoRequest request) {
         log.debug("Cập nhật todo với ID: {}", id);
 
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserResolver.getCurrentUser();
         Todo todo = todoRepository.findByIdAndUserIdAndDeletedAtIsNull(id, currentUser.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy todo với ID: " + id));
-
-        // Cập nhật thông tin cơ bản
-        todo.setTitle(request.getTitle());
-        todo.setDescription(request.getDescription());
-        todo.setStatus(request.getStatus());
-        todo.setPriority(request.getPriority());
-        
-        // Chỉ update due_date nếu được cung cấp trong request
-        if (request.getDueDate() != null) {
-            todo.setDueDate(request.getDueDate());
-        }
-        
-        // Chỉ update remind_at nếu được cung cấp
-        if (request.getRemindAt() != null) {
-            todo.setRemindAt(request.getRemindAt());
-        }
-        
-        // Chỉ update estimated_minutes nếu được cung cấp
-        if (request.getEstimatedMinutes() != null) {
-            todo.setEstimatedMinutes(request.getEstimatedMinutes());
-        }
+        TodoSnapshot before = TodoSnapshot.of(todo);
 
         // Cập nhật category
+        Category category = null;
         if (request.getCategoryId() != null) {
-            Category category = categoryRepository.findByIdAndUserId(request.getCategoryId(), currentUser.getId())
+            category = categoryRepository.findByIdAndUserId(request.getCategoryId(), currentUser.getId())
                     .orElseThrow(() -> new ResourceNotFoundException(
                             "Không tìm thấy category với ID: " + request.getCategoryId()));
-            todo.setCategory(category);
-        } else {
-            todo.setCategory(null);
-        }
-
-        // Cập nhật tags
-        todo.getTags().clear();
-        if (request.getTagIds() != null && !request.getTagIds().isEmpty()) {
-            Set<Tag> tags = new HashSet<>();
-            for (Long tagId : request.getTagIds()) {
-                Tag tag = tagRepository.findByIdAndUserId(tagId, currentUser.getId())
-                        .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy tag với ID: " + tagId));
-                tags.add(tag);
-            }
-            todo.setTags(tags);
         }
 
+        Set<Tag> tags = request.getTagIds() == null || request.getTagIds().isEmpty()
+                ? Set.of() : resolveTags(request.getTagIds(), currentUser.getId());
+        applyUpdate(todo, request, category, tags);
         todo.setUpdatedBy(currentUser.getId());
 
         Todo updatedTodo = todoRepository.save(todo);
+        eventPublisher.publishEvent(TodoChangedEvent.updated(before, updatedTodo));
         log.info("Đã cập nhật todo với ID: {}", updatedTodo.getId());
 
         return mapToResponse(updatedTodo);
@@ -164,7 +154,7 @@ public class TodoService {
     public TodoDetailResponse getById(Long id) {
         log.debug("Lấy chi tiết todo với ID: {}", id);
 
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserResolver.getCurrentUser();
         Todo todo = todoRepository.findByIdAndUserIdAndDeletedAtIsNull(id, currentUser.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy todo với ID: " + id));
 
@@ -182,7 +172,7 @@ public class TodoService {
     public Page<TodoResponse> getAll(Pageable pageable) {
         log.debug("Lấy danh sách todos với phân trang");
 
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserResolver.getCurrentUser();
         
         // Create unsorted pageable to avoid conflict with native query ORDER BY
         Pageable unsortedPageable = org.springframework.data.domain.PageRequest.of(
@@ -194,7 +184,94 @@ public class TodoService {
         Page<Todo> todos = todoRepository.findActiveTodosByUserId(currentUser.getId(), unsortedPageable);
 
         log.info("Đã lấy {} todos", todos.getTotalElements());
-        return todos.map(this::mapToResponse);
+        return mapToResponsePage(todos);
+    }
+
+    /**
+     * Lấy danh sách todos của user theo cursor (keyset pagination).
+     * Mỗi trang chỉ đọc size + 1 dòng từ vị trí cursor trên index (user_id, sort_key, id),
+     * nên trang thứ N có chi phí như trang đầu. Tổng số chỉ được đếm khi includeTotal = true.
+     *
+     * @param cursor       Token trả về từ trang trước, null cho trang đầu
+     * @param size         Kích thước trang (1..{@value #MAX_CURSOR_PAGE_SIZE})
+     * @param includeTotal Có đếm tổng số todos hay không
+     * @return CursorPageResponse chứa TodoResponse
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<TodoResponse> getAllByCursor(String cursor, int size, boolean includeTotal) {
+        log.debug("Lấy danh sách todos theo cursor, size: {}", size);
+
+        User currentUser = currentUserResolver.getCurrentUser();
+        int pageSize = Math.min(Math.max(size, 1), MAX_CURSOR_PAGE_SIZE);
+        Pageable limit = org.springframework.data.domain.PageRequest.of(0, pageSize + 1);
+
+        List<Todo> todos;
+        if (cursor == null || cursor.isBlank()) {
+            todos = todoRepository.findActiveTodosFirstPage(currentUser.getId(), limit);
+        } else {
+            TodoCursor position = TodoCursor.decode(cursor);
+            todos = todoRepository.findActiveTodosAfter(currentUser.getId(), position.sortKey(), position.id(), limit);
+        }
+
+        boolean hasNext = todos.size() > pageSize;
+        List<Todo> pageContent = hasNext ? todos.subList(0, pageSize) : todos;
+        String nextCursor = hasNext ? TodoCursor.of(pageContent.get(pageContent.size() - 1)).encode() : null;
+        Long total = includeTotal ? todoRepository.countByUserIdAndDeletedAtIsNull(currentUser.getId()) : null;
+
+        log.info("Đã lấy {} todos theo cursor", pageContent.size());
+        return CursorPageResponse.<TodoResponse>builder()
+                .content(mapToResponses(pageContent))
+                .size(pageContent.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .totalElements(total)
+                .build();
+    }
+
+    /**
+     * Lấy các todo đã thay đổi (tạo, cập nhật, xóa, khôi phục) sau cursor, theo thứ tự commit.
+     * Mỗi trang chỉ đọc limit + 1 dòng từ index (user_id, sync_version, id), nên chi phí tỉ lệ với
+     * số thay đổi chứ không phải số todos; todo đã xóa được trả về dưới dạng tombstone.
+     *
+     * @param since Cursor từ lần đồng bộ trước, null để lấy toàn bộ
+     * @param limit Số thay đổi tối đa (1..{@value #MAX_CHANGES_LIMIT})
+     * @return TodoChangesResponse kèm cursor mới
+     */
+    @Transactional(readOnly = true)
+    public TodoChangesResponse getChanges(String since, int limit) {
+        log.debug("Lấy thay đổi todos sau cursor, limit: {}", limit);
+
+        User currentUser = currentUserResolver.getCurrentUser();
+        TodoChangeCursor position = since == null || since.isBlank()
+                ? TodoChangeCursor.INITIAL
+                : TodoChangeCursor.decode(since);
+        int pageSize = Math.min(Math.max(limit, 1), MAX_CHANGES_LIMIT);
+
+        List<Todo> todos = todoRepository.findChangedAfter(currentUser.getId(), position.version(), position.id(),
+                org.springframework.data.domain.PageRequest.of(0, pageSize + 1));
+        boolean hasMore = todos.size() > pageSize;
+        List<Todo> pageContent = hasMore ? todos.subList(0, pageSize) : todos;
+
+        List<Todo> changed = new ArrayList<>();
+        List<TodoChangesResponse.Tombstone> deleted = new ArrayList<>();
+        for (Todo todo : pageContent) {
+            if (todo.getDeletedAt() != null) {
+                deleted.add(new TodoChangesResponse.Tombstone(todo.getId(), todo.getDeletedAt()));
+            } else {
+                changed.add(todo);
+            }
+        }
+        TodoChangeCursor next = pageContent.isEmpty()
+                ? position
+                : TodoChangeCursor.of(pageContent.get(pageContent.size() - 1));
+
+        log.info("Đã lấy {} thay đổi todos ({} đã xóa)", pageContent.size(), deleted.size());
+        return TodoChangesResponse.builder()
+                .changed(mapToResponses(changed))
+                .deleted(deleted)
+                .cursor(next.encode())
+                .hasMore(hasMore)
+                .build();
     }
 
     /**
@@ -206,12 +283,19 @@ public class TodoService {
     public void delete(Long id) {
         log.debug("Xóa todo với ID: {}", id);
 
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserResolver.getCurrentUser();
         Todo todo = todoRepository.findByIdAndUserIdAndDeletedAtIsNull(id, currentUser.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy todo với ID: " + id));
+        TodoSnapshot before = TodoSnapshot.of(todo);
 
         todo.setDeletedAt(LocalDateTime.now());
         todoRepository.save(todo);
+        eventPublisher.publishEvent(TodoChangedEvent.deleted(before, todo));
+
+        // Subtask bị xóa không còn được tính vào counter của todo cha
+        if (todo.getParent() != null) {
+            todoRepository.adjustSubtaskCount(todo.getParent().getId(), -1);
+        }
 
         log.info("Đã xóa todo với ID: {}", id);
     }
@@ -226,16 +310,22 @@ public class TodoService {
     public TodoResponse restore(Long id) {
         log.debug("Khôi phục todo với ID: {}", id);
 
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserResolver.getCurrentUser();
         Todo todo = todoRepository.findByIdAndUserId(id, currentUser.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy todo với ID: " + id));
 
         if (todo.getDeletedAt() == null) {
             throw new BadRequestException("Todo chưa bị xóa");
         }
+        TodoSnapshot before = TodoSnapshot.of(todo);
 
         todo.setDeletedAt(null);
         Todo restoredTodo = todoRepository.save(todo);
+        eventPublisher.publishEvent(TodoChangedEvent.restored(before, restoredTodo));
+
+        if (todo.getParent() != null) {
+            todoRepository.adjustSubtaskCount(todo.getParent().getId(), 1);
+        }
 
         log.info("Đã khôi phục todo với ID: {}", id);
         return mapToResponse(restoredTodo);
@@ -251,11 +341,11 @@ public class TodoService {
     public Page<TodoResponse> getTrashed(Pageable pageable) {
         log.debug("Lấy danh sách todos đã xóa");
 
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserResolver.getCurrentUser();
         Page<Todo> trashedTodos = todoRepository.findByUserIdAndDeletedAtIsNotNull(currentUser.getId(), pageable);
 
         log.info("Đã lấy {} todos đã xóa", trashedTodos.getTotalElements());
-        return trashedTodos.map(this::mapToResponse);
+        return mapToResponsePage(trashedTodos);
     }
 
     /**
@@ -269,17 +359,29 @@ public class TodoService {
     public Page<TodoResponse> search(TodoSearchRequest searchRequest, Pageable pageable) {
         log.debug("Tìm kiếm todos với điều kiện: {}", searchRequest);
 
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserResolver.getCurrentUser();
+
+        // Index trong bộ nhớ (nếu bật): mọi điều kiện được đánh giá trong bộ nhớ, DB chỉ nạp các todo của trang
+        Optional<Page<Long>> indexed = todoSearchIndex.search(currentUser.getId(), searchRequest, pageable);
+        if (indexed.isPresent()) {
+            Page<Long> ids = indexed.get();
+            log.info("Đã tìm thấy {} todos (index trong bộ nhớ)", ids.getTotalElements());
+            return mapToResponsePage(new PageImpl<>(
+                    todoRepository.findAllByIdInOrder(ids.getContent()), pageable, ids.getTotalElements()));
+        }
+
+        // Có từ khóa: dùng index full-text của database, kết quả xếp hạng theo độ liên quan
+        if (searchRequest.getQuery() != null && !searchRequest.getQuery().trim().isEmpty()) {
+            Page<Todo> todos = todoFullTextSearch.searchUserTodos(currentUser.getId(), searchRequest, pageable);
+            log.info("Đã tìm thấy {} todos", todos.getTotalElements());
+            return mapToResponsePage(todos);
+        }
 
         // Build specification
         Specification<Todo> spec = Specification.where(TodoSpecification.hasUserId(currentUser.getId()))
                 .and(TodoSpecification.isNotDeleted())
                 .and(TodoSpecification.isRootTodo());
 
-        if (searchRequest.getQuery() != null && !searchRequest.getQuery().trim().isEmpty()) {
-            spec = spec.and(TodoSpecification.titleOrDescriptionContains(searchRequest.getQuery()));
-        }
-
         if (searchRequest.getStatus() != null) {
             spec = spec.and(TodoSpecification.hasStatus(searchRequest.getStatus()));
         }
@@ -303,7 +405,7 @@ public class TodoService {
         Page<Todo> todos = todoRepository.findAll(spec, pageable);
 
         log.info("Đã tìm thấy {} todos", todos.getTotalElements());
-        return todos.map(this::mapToResponse);
+        return mapToResponsePage(todos);
     }
 
     /**
@@ -317,14 +419,16 @@ public class TodoService {
     public TodoResponse updateStatus(Long id, TodoStatus status) {
         log.debug("Cập nhật trạng thái todo với ID: {} sang {}", id, status);
 
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserResolver.getCurrentUser();
         Todo todo = todoRepository.findByIdAndUserIdAndDeletedAtIsNull(id, currentUser.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy todo với ID: " + id));
+        TodoSnapshot before = TodoSnapshot.of(todo);
 
         todo.setStatus(status);
         todo.setUpdatedBy(currentUser.getId());
 
         Todo updatedTodo = todoRepository.save(todo);
+        eventPublisher.publishEvent(TodoChangedEvent.updated(before, updatedTodo));
 
         log.info("Đã cập nhật trạng thái todo với ID: {}", id);
         return mapToResponse(updatedTodo);
@@ -341,7 +445,7 @@ public class TodoService {
     public TodoResponse createSubtask(Long parentId, TodoRequest request) {
         log.debug("Tạo subtask cho todo với ID: {}", parentId);
 
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserResolver.getCurrentUser();
         Todo parent = todoRepository.findByIdAndUserIdAndDeletedAtIsNull(parentId, currentUser.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy todo cha với ID: " + parentId));
 
@@ -364,24 +468,175 @@ public class TodoService {
 
         // Set tags nếu có
         if (request.getTagIds() != null && !request.getTagIds().isEmpty()) {
-            Set<Tag> tags = new HashSet<>();
-            for (Long tagId : request.getTagIds()) {
-                Tag tag = tagRepository.findByIdAndUserId(tagId, currentUser.getId())
-                        .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy tag với ID: " + tagId));
-                tags.add(tag);
-            }
-            subtask.setTags(tags);
+            subtask.setTags(resolveTags(request.getTagIds(), currentUser.getId()));
         }
 
+        subtask.setTagCount(subtask.getTags().size());
         subtask.setCreatedBy(currentUser.getId());
         subtask.setUpdatedBy(currentUser.getId());
 
         Todo savedSubtask = todoRepository.save(subtask);
+        todoRepository.adjustSubtaskCount(parent.getId(), 1);
+        eventPublisher.publishEvent(TodoChangedEvent.created(savedSubtask));
 
         log.info("Đã tạo subtask với ID: {} cho todo {}", savedSubtask.getId(), parentId);
         return mapToResponse(savedSubtask);
     }
 
+    /**
+     * Tạo nhiều todo trong một transaction.
+     * Category và tags của cả lô được nạp bằng 2 truy vấn; các insert được gửi theo JDBC batch.
+     * Phần tử lỗi (category/tag không tồn tại) được báo trong kết quả, các phần tử khác vẫn được tạo.
+     *
+     * @param requests Danh sách TodoRequest
+     * @return Kết quả từng phần tử theo thứ tự request
+     */
+    @Transactional
+    public BulkResult<TodoResponse> bulkCreate(List<TodoRequest> requests) {
+        log.debug("Tạo {} todos theo lô", requests.size());
+
+        User currentUser = currentUserResolver.getCurrentUser();
+        BulkReferences references = loadReferences(currentUser.getId(), requests);
+
+        List<BulkItemResult<TodoResponse>> results = new ArrayList<>(Collections.nCopies(requests.size(), null));
+        List<Integer> indexes = new ArrayList<>();
+        List<Todo> todos = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            TodoRequest request = requests.get(i);
+            try {
+                Todo todo = todoMapper.toEntity(request);
+                todo.setUser(currentUser);
+                todo.setCategory(references.category(request.getCategoryId()));
+                if (request.getTagIds() != null && !request.getTagIds().isEmpty()) {
+                    todo.setTags(pickTags(request.getTagIds(), references.tags()));
+                }
+                todo.setTagCount(todo.getTags().size());
+                todo.setCreatedBy(currentUser.getId());
+                todo.setUpdatedBy(currentUser.getId());
+                todos.add(todo);
+                indexes.add(i);
+            } catch (ResourceNotFoundException | BadRequestException e) {
+                results.set(i, BulkItemResult.failure(i, null, e.getMessage()));
+            }
+        }
+
+        List<Todo> savedTodos = todoRepository.saveAll(todos);
+        savedTodos.forEach(todo -> eventPublisher.publishEvent(TodoChangedEvent.created(todo)));
+        fillSuccesses(results, indexes, savedTodos, true);
+
+        log.info("Đã tạo {}/{} todos theo lô", savedTodos.size(), requests.size());
+        return BulkResult.of(results);
+    }
+
+    /**
+     * Cập nhật nhiều todo trong một transaction: todos (kèm tags), category và tags của cả lô
+     * được nạp bằng 3 truy vấn; các update và thay đổi todo_tags được gửi theo JDBC batch.
+     *
+     * @param items Danh sách ID và nội dung cập nhật
+     * @return Kết quả từng phần tử theo thứ tự request
+     */
+    @Transactional
+    public BulkResult<TodoResponse> bulkUpdate(List<BulkTodoUpdateItem> items) {
+        log.debug("Cập nhật {} todos theo lô", items.size());
+
+        User currentUser = currentUserResolver.getCurrentUser();
+        List<Long> ids = items.stream().map(BulkTodoUpdateItem::getId).collect(Collectors.toList());
+        Map<Long, Todo> todos = indexById(todoRepository.findActiveWithTagsByUserIdAndIdIn(currentUser.getId(), ids));
+        BulkReferences references = loadReferences(currentUser.getId(),
+                items.stream().map(BulkTodoUpdateItem::getTodo).collect(Collectors.toList()));
+
+        return applyToEach(ids, todos, true, (index, todo) -> {
+            TodoRequest request = items.get(index).getTodo();
+            Category category = references.category(request.getCategoryId());
+            Set<Tag> tags = request.getTagIds() == null ? Set.of() : pickTags(request.getTagIds(), references.tags());
+            TodoSnapshot before = TodoSnapshot.of(todo);
+            applyUpdate(todo, request, category, tags);
+            todo.setUpdatedBy(currentUser.getId());
+            eventPublisher.publishEvent(TodoChangedEvent.updated(before, todo));
+        });
+    }
+
+    /**
+     * Cập nhật trạng thái nhiều todo trong một transaction
+     *
+     * @param items Danh sách ID và trạng thái mới
+     * @return Kết quả từng phần tử theo thứ tự request
+     */
+    @Transactional
+    public BulkResult<TodoResponse> bulkUpdateStatus(List<BulkTodoStatusItem> items) {
+        log.debug("Cập nhật trạng thái {} todos theo lô", items.size());
+
+        User currentUser = currentUserResolver.getCurrentUser();
+        List<Long> ids = items.stream().map(BulkTodoStatusItem::getId).collect(Collectors.toList());
+        Map<Long, Todo> todos = indexById(todoRepository.findByUserIdAndIdInAndDeletedAtIsNull(currentUser.getId(), ids));
+
+        return applyToEach(ids, todos, true, (index, todo) -> {
+            TodoSnapshot before = TodoSnapshot.of(todo);
+            todo.setStatus(items.get(index).getStatus());
+            todo.setUpdatedBy(currentUser.getId());
+            eventPublisher.publishEvent(TodoChangedEvent.updated(before, todo));
+        });
+    }
+
+    /**
+     * Soft delete nhiều todo trong một transaction
+     *
+     * @param ids Danh sách ID todo
+     * @return Kết quả từng phần tử theo thứ tự request (không kèm dữ liệu)
+     */
+    @Transactional
+    public BulkResult<TodoResponse> bulkDelete(List<Long> ids) {
+        log.debug("Xóa {} todos theo lô", ids.size());
+
+        User currentUser = currentUserResolver.getCurrentUser();
+        Map<Long, Todo> todos = indexById(todoRepository.findByUserIdAndIdInAndDeletedAtIsNull(currentUser.getId(), ids));
+        Map<Long, Integer> subtaskDeltas = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        // Subtask bị xóa không còn được tính vào counter của todo cha (một câu lệnh cho mỗi todo cha)
+        BulkResult<TodoResponse> result = applyToEach(ids, todos, false, subtaskDeltas, (index, todo) -> {
+            TodoSnapshot before = TodoSnapshot.of(todo);
+            todo.setDeletedAt(now);
+            eventPublisher.publishEvent(TodoChangedEvent.deleted(before, todo));
+            if (todo.getParent() != null) {
+                subtaskDeltas.merge(todo.getParent().getId(), -1, Integer::sum);
+            }
+        });
+
+        log.info("Đã xóa {}/{} todos theo lô", result.getSucceeded(), ids.size());
+        return result;
+    }
+
+    /**
+     * Khôi phục nhiều todo từ trash trong một transaction
+     *
+     * @param ids Danh sách ID todo
+     * @return Kết quả từng phần tử theo thứ tự request
+     */
+    @Transactional
+    public BulkResult<TodoResponse> bulkRestore(List<Long> ids) {
+        log.debug("Khôi phục {} todos theo lô", ids.size());
+
+        User currentUser = currentUserResolver.getCurrentUser();
+        Map<Long, Todo> todos = indexById(todoRepository.findByUserIdAndIdIn(currentUser.getId(), ids));
+        Map<Long, Integer> subtaskDeltas = new HashMap<>();
+
+        BulkResult<TodoResponse> result = applyToEach(ids, todos, true, subtaskDeltas, (index, todo) -> {
+            if (todo.getDeletedAt() == null) {
+                throw new BadRequestException("Todo chưa bị xóa");
+            }
+            TodoSnapshot before = TodoSnapshot.of(todo);
+            todo.setDeletedAt(null);
+            eventPublisher.publishEvent(TodoChangedEvent.restored(before, todo));
+            if (todo.getParent() != null) {
+                subtaskDeltas.merge(todo.getParent().getId(), 1, Integer::sum);
+            }
+        });
+
+        log.info("Đã khôi phục {}/{} todos theo lô", result.getSucceeded(), ids.size());
+        return result;
+    }
+
     /**
      * Lấy danh sách subtasks của một todo
      *
@@ -392,62 +647,358 @@ public class TodoService {
     public List<TodoResponse> getSubtasks(Long parentId) {
         log.debug("Lấy danh sách subtasks của todo với ID: {}", parentId);
 
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserResolver.getCurrentUser();
         Todo parent = todoRepository.findByIdAndUserIdAndDeletedAtIsNull(parentId, currentUser.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy todo với ID: " + parentId));
 
-        List<TodoResponse> subtasks = parent.getSubtasks().stream()
+        List<TodoResponse> subtasks = mapToResponses(parent.getSubtasks().stream()
                 .filter(subtask -> subtask.getDeletedAt() == null)
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
 
         log.info("Đã lấy {} subtasks", subtasks.size());
         return subtasks;
     }
 
     /**
-     * Thống kê todos theo status
+     * Thống kê todos theo status, priority, số todo quá hạn và đến hạn hôm nay.
+     * Dùng cache counter theo user nếu được bật, ngược lại tính bằng một truy vấn gom nhóm.
      *
      * @return Map chứa thống kê
      */
     @Transactional(readOnly = true)
     public Map<String, Long> getStatistics() {
-        log.debug("Lấy thống kê todos");
+        return getStatisticsSnapshot().toMap();
+    }
 
-        User currentUser = getCurrentUser();
-        Map<String, Long> statistics = new HashMap<>();
+    /**
+     * Thống kê todos của user hiện tại, kèm thời điểm các số quá hạn/đến hạn hôm nay hết hiệu lực
+     *
+     * @return TodoStatistics
+     */
+    @Transactional(readOnly = true)
+    public TodoStatistics getStatisticsSnapshot() {
+        log.debug("Lấy thống kê todos");
 
-        statistics.put("PENDING", todoRepository.countByUserIdAndStatusAndDeletedAtIsNull(
-                currentUser.getId(), TodoStatus.PENDING));
-        statistics.put("IN_PROGRESS", todoRepository.countByUserIdAndStatusAndDeletedAtIsNull(
-                currentUser.getId(), TodoStatus.IN_PROGRESS));
-        statistics.put("DONE", todoRepository.countByUserIdAndStatusAndDeletedAtIsNull(
-                currentUser.getId(), TodoStatus.DONE));
+        User currentUser = currentUserResolver.getCurrentUser();
+        LocalDateTime now = LocalDateTime.now();
 
-        Long totalActive = statistics.values().stream().mapToLong(Long::longValue).sum();
-        statistics.put("TOTAL_ACTIVE", totalActive);
+        TodoStatistics statistics = todoStatisticsCache.get(currentUser.getId(), now);
+        if (statistics == null) {
+            long loadToken = todoStatisticsCache.beginLoad(currentUser.getId());
+            statistics = loadStatistics(currentUser.getId(), now);
+            todoStatisticsCache.put(currentUser.getId(), statistics, loadToken);
+        }
 
         log.info("Đã lấy thống kê todos: {}", statistics);
         return statistics;
     }
 
     /**
-     * Lấy user hiện tại từ SecurityContext
+     * Tính thống kê của user bằng một truy vấn gom nhóm theo (status, priority)
+     */
+    private TodoStatistics loadStatistics(Long userId, LocalDateTime now) {
+        LocalDateTime startOfDay = now.toLocalDate().atStartOfDay();
+        LocalDateTime startOfNextDay = startOfDay.plusDays(1);
+
+        Map<TodoStatus, Long> byStatus = TodoStatistics.emptyStatusCounts();
+        Map<TodoPriority, Long> byPriority = TodoStatistics.emptyPriorityCounts();
+        long overdue = 0;
+        long dueToday = 0;
+        LocalDateTime validUntil = startOfNextDay;
+
+        for (Object[] row : todoRepository.aggregateStatistics(
+                userId, TodoStatistics.OPEN_STATUSES, now, startOfDay, startOfNextDay)) {
+            long count = ((Number) row[2]).longValue();
+            if (row[0] != null) {
+                byStatus.merge((TodoStatus) row[0], count, Long::sum);
+            }
+            if (row[1] != null) {
+                byPriority.merge((TodoPriority) row[1], count, Long::sum);
+            }
+            overdue += row[3] == null ? 0 : ((Number) row[3]).longValue();
+            dueToday += row[4] == null ? 0 : ((Number) row[4]).longValue();
+            LocalDateTime nextDue = (LocalDateTime) row[5];
+            if (nextDue != null && nextDue.isBefore(validUntil)) {
+                validUntil = nextDue;
+            }
+        }
+
+        return TodoStatistics.builder()
+                .byStatus(byStatus)
+                .byPriority(byPriority)
+                .overdue(overdue)
+                .dueToday(dueToday)
+                .validUntil(validUntil)
+                .build();
+    }
+
+    /**
+     * Số todo chưa hoàn thành quá hạn / đến hạn hôm nay / trong tuần của user hiện tại.
+     * Đọc từ index hạn trong bộ nhớ (tìm kiếm nhị phân, không truy vấn); user không được index
+     * thì đếm trên database.
+     *
+     * @return TodoDueSummary
+     */
+    @Transactional(readOnly = true)
+    public TodoDueSummary getDueSummary() {
+        log.debug("Lấy số todos theo nhóm hạn");
+
+        Long userId = currentUserResolver.getCurrentUserId();
+        LocalDateTime now = LocalDateTime.now();
+        Optional<UserDueIndex> index = todoDueIndex.get(userId);
+
+        TodoDueSummary summary = TodoDueSummary.builder()
+                .overdue(countDue(userId, index, TodoDueBucket.OVERDUE, now))
+                .dueToday(countDue(userId, index, TodoDueBucket.TODAY, now))
+                .dueThisWeek(countDue(userId, index, TodoDueBucket.WEEK, now))
+                .validUntil(dueValidUntil(index, now))
+                .build();
+
+        log.info("Đã lấy số todos theo nhóm hạn: {}", summary);
+        return summary;
+    }
+
+    /**
+     * Lấy một trang todos chưa hoàn thành của một nhóm hạn, sắp xếp theo hạn tăng dần.
+     * Với index hạn trong bộ nhớ, vị trí của trang được tính bằng tìm kiếm nhị phân và DB chỉ nạp
+     * các todo của trang; user không được index thì truy vấn trên database.
+     *
+     * @param bucket   Nhóm hạn
+     * @param pageable Thông tin phân trang (sort bị bỏ qua)
+     * @return TodoDuePage
+     */
+    @Transactional(readOnly = true)
+    public TodoDuePage getDue(TodoDueBucket bucket, Pageable pageable) {
+        log.debug("Lấy todos nhóm hạn {}", bucket);
+
+        Long userId = currentUserResolver.getCurrentUserId();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = bucket.from(now);
+        LocalDateTime to = bucket.to(now);
+        Pageable unsorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        Optional<UserDueIndex> index = todoDueIndex.get(userId);
+
+        Page<Todo> todos;
+        if (index.isPresent()) {
+            List<Long> ids = index.get().find(from, to, unsorted.getOffset(), unsorted.getPageSize());
+            todos = new PageImpl<>(todoRepository.findAllByIdInOrder(ids), unsorted, index.get().count(from, to));
+        } else {
+            todos = todoRepository.findAll(dueSpecification(userId, from, to), PageRequest.of(
+                    unsorted.getPageNumber(), unsorted.getPageSize(), Sort.by("dueDate", "id")));
+        }
+
+        log.info("Đã lấy {} todos nhóm hạn {}", todos.getTotalElements(), bucket);
+        return new TodoDuePage(mapToResponsePage(todos), dueValidUntil(index, now));
+    }
+
+    private long countDue(Long userId, Optional<UserDueIndex> index, TodoDueBucket bucket, LocalDateTime now) {
+        return index.isPresent()
+                ? index.get().count(bucket.from(now), bucket.to(now))
+                : todoRepository.count(dueSpecification(userId, bucket.from(now), bucket.to(now)));
+    }
+
+    /**
+     * Các nhóm hạn thay đổi khi một todo đến hạn (chuyển sang quá hạn) hoặc qua nửa đêm.
+     * Không có index thì không biết hạn kế tiếp: kết quả không được coi là còn hiệu lực.
+     */
+    private static LocalDateTime dueValidUntil(Optional<UserDueIndex> index, LocalDateTime now) {
+        if (index.isEmpty()) {
+            return now;
+        }
+        LocalDateTime startOfTomorrow = TodoDueBucket.startOfTomorrow(now);
+        LocalDateTime nextDue = index.get().nextDue(now);
+        return nextDue != null && nextDue.isBefore(startOfTomorrow) ? nextDue : startOfTomorrow;
+    }
+
+    private static Specification<Todo> dueSpecification(Long userId, LocalDateTime from, LocalDateTime to) {
+        return Specification.where(TodoSpecification.hasUserId(userId))
+                .and(TodoSpecification.isNotDeleted())
+                .and(TodoSpecification.hasStatusIn(TodoStatistics.OPEN_STATUSES))
+                .and(TodoSpecification.dueDateInRange(from, to));
+    }
+
+    /**
+     * Lấy các tag theo ID trong một truy vấn, đồng thời kiểm tra quyền sở hữu
+     *
+     * @param tagIds Danh sách ID tag
+     * @param userId ID của user sở hữu
+     * @return Tập tag tương ứng
+     * @throws ResourceNotFoundException nếu có tag không tồn tại hoặc không thuộc user
+     */
+    private Set<Tag> resolveTags(Set<Long> tagIds, Long userId) {
+        return pickTags(tagIds, tagRepository.findByUserIdAndIdIn(userId, tagIds).stream()
+                .collect(Collectors.toMap(Tag::getId, tag -> tag)));
+    }
+
+    /**
+     * Chọn các tag theo ID từ tập tag đã nạp của user
+     *
+     * @throws ResourceNotFoundException nếu có ID không nằm trong tập đã nạp
+     */
+    private static Set<Tag> pickTags(Set<Long> tagIds, Map<Long, Tag> ownedTags) {
+        Set<Tag> tags = new HashSet<>();
+        for (Long tagId : tagIds) {
+            Tag tag = ownedTags.get(tagId);
+            if (tag == null) {
+                throw new ResourceNotFoundException("Không tìm thấy tag với ID: " + tagId);
+            }
+            tags.add(tag);
+        }
+        return tags;
+    }
+
+    /**
+     * Áp dụng nội dung cập nhật lên todo (category và tags đã được kiểm tra quyền sở hữu)
+     */
+    private static void applyUpdate(Todo todo, TodoRequest request, Category category, Set<Tag> tags) {
+        // Cập nhật thông tin cơ bản
+        todo.setTitle(request.getTitle());
+        todo.setDescription(request.getDescription());
+        todo.setStatus(request.getStatus());
+        todo.setPriority(request.getPriority());
+
+        // Chỉ update due_date, remind_at, estimated_minutes nếu được cung cấp trong request
+        if (request.getDueDate() != null) {
+            todo.setDueDate(request.getDueDate());
+        }
+        if (request.getRemindAt() != null) {
+            todo.setRemindAt(request.getRemindAt());
+        }
+        if (request.getEstimatedMinutes() != null) {
+            todo.setEstimatedMinutes(request.getEstimatedMinutes());
+        }
+
+        todo.setCategory(category);
+
+        // Chỉ thêm/xóa các liên kết tag thay đổi thay vì dựng lại toàn bộ todo_tags
+        todo.getTags().retainAll(tags);
+        todo.getTags().addAll(tags);
+        todo.setTagCount(todo.getTags().size());
+    }
+
+    /**
+     * Nạp category và tags được tham chiếu bởi cả lô request (tối đa 2 truy vấn, kèm kiểm tra quyền sở hữu)
+     */
+    private BulkReferences loadReferences(Long userId, List<TodoRequest> requests) {
+        Set<Long> categoryIds = new HashSet<>();
+        Set<Long> tagIds = new HashSet<>();
+        for (TodoRequest request : requests) {
+            if (request.getCategoryId() != null) {
+                categoryIds.add(request.getCategoryId());
+            }
+            if (request.getTagIds() != null) {
+                tagIds.addAll(request.getTagIds());
+            }
+        }
+
+        Map<Long, Category> categories = categoryIds.isEmpty() ? Map.of()
+                : categoryRepository.findByUserIdAndIdIn(userId, categoryIds).stream()
+                        .collect(Collectors.toMap(Category::getId, category -> category));
+        Map<Long, Tag> tags = tagIds.isEmpty() ? Map.of()
+                : tagRepository.findByUserIdAndIdIn(userId, tagIds).stream()
+                        .collect(Collectors.toMap(Tag::getId, tag -> tag));
+        return new BulkReferences(categories, tags);
+    }
+
+    /**
+     * Áp dụng thao tác cho từng todo của lô theo thứ tự request. Todo không tìm thấy (hoặc đã bị
+     * xử lý bởi phần tử trước) và lỗi nghiệp vụ được báo theo phần tử; các todo đã thay đổi được
+     * ghi cùng lúc khi flush.
      *
-     * @return User entity
-     * @throws BadRequestException       nếu không tìm thấy authentication
-     * @throws ResourceNotFoundException nếu không tìm thấy user
+     * @param withData Có trả về TodoResponse của các phần tử thành công hay không
      */
-    private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    private BulkResult<TodoResponse> applyToEach(List<Long> ids, Map<Long, Todo> todos, boolean withData,
+                                                 BulkAction action) {
+        return applyToEach(ids, todos, withData, Map.of(), action);
+    }
 
-        if (authentication == null || !authentication.isAuthenticated()) {
-            throw new BadRequestException("Không tìm thấy thông tin xác thực");
+    /**
+     * Áp dụng thao tác cho từng todo của lô, lưu, rồi cộng {@code subtaskDeltas} (được action điền vào) vào
+     * counter của các todo cha trước khi map kết quả, để todo cha nằm trong cùng lô trả về số subtask mới.
+     */
+    private BulkResult<TodoResponse> applyToEach(List<Long> ids, Map<Long, Todo> todos, boolean withData,
+                                                 Map<Long, Integer> subtaskDeltas, BulkAction action) {
+        List<BulkItemResult<TodoResponse>> results = new ArrayList<>(Collections.nCopies(ids.size(), null));
+        List<Integer> indexes = new ArrayList<>();
+        List<Todo> changed = new ArrayList<>();
+        Set<Long> processed = new HashSet<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            try {
+                Todo todo = todos.get(id);
+                if (todo == null || processed.contains(id)) {
+                    throw new ResourceNotFoundException("Không tìm thấy todo với ID: " + id);
+                }
+                action.apply(i, todo);
+                processed.add(id);
+                changed.add(todo);
+                indexes.add(i);
+            } catch (ResourceNotFoundException | BadRequestException e) {
+                results.set(i, BulkItemResult.failure(i, id, e.getMessage()));
+            }
         }
 
-        String email = authentication.getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy user với email: " + email));
+        todoRepository.saveAll(changed);
+        subtaskDeltas.forEach(todoRepository::adjustSubtaskCount);
+        fillSuccesses(results, indexes, changed, withData, subtaskDeltas);
+        return BulkResult.of(results);
+    }
+
+    private void fillSuccesses(List<BulkItemResult<TodoResponse>> results, List<Integer> indexes,
+                               List<Todo> todos, boolean withData) {
+        fillSuccesses(results, indexes, todos, withData, Map.of());
+    }
+
+    /**
+     * Ghi kết quả thành công của lô. UPDATE counter không đổi entity đã nạp, nên số subtask trong
+     * response của todo cha được cộng thêm delta tương ứng.
+     */
+    private void fillSuccesses(List<BulkItemResult<TodoResponse>> results, List<Integer> indexes,
+                               List<Todo> todos, boolean withData, Map<Long, Integer> subtaskDeltas) {
+        List<TodoResponse> responses = withData ? mapToResponses(todos) : null;
+        if (responses != null && !subtaskDeltas.isEmpty()) {
+            for (int i = 0; i < todos.size(); i++) {
+                Integer delta = subtaskDeltas.get(todos.get(i).getId());
+                TodoResponse response = responses.get(i);
+                if (delta != null && response != null && response.getSubtasksCount() != null) {
+                    response.setSubtasksCount(response.getSubtasksCount() + delta);
+                }
+            }
+        }
+        for (int i = 0; i < indexes.size(); i++) {
+            int index = indexes.get(i);
+            results.set(index, BulkItemResult.success(index, todos.get(i).getId(),
+                    responses == null ? null : responses.get(i)));
+        }
+    }
+
+    private static Map<Long, Todo> indexById(List<Todo> todos) {
+        return todos.stream().collect(Collectors.toMap(Todo::getId, todo -> todo));
+    }
+
+    /**
+     * Thao tác trên một todo của lô
+     */
+    @FunctionalInterface
+    private interface BulkAction {
+        void apply(int index, Todo todo);
+    }
+
+    /**
+     * Category và tags của user đã nạp cho một lô request
+     */
+    private record BulkReferences(Map<Long, Category> categories, Map<Long, Tag> tags) {
+
+        Category category(Long categoryId) {
+            if (categoryId == null) {
+                return null;
+            }
+            Category category = categories.get(categoryId);
+            if (category == null) {
+                throw new ResourceNotFoundException("Không tìm thấy category với ID: " + categoryId);
+            }
+            return category;
+        }
     }
 
     /**
@@ -458,21 +1009,35 @@ public class TodoService {
      */
     private TodoResponse mapToResponse(Todo todo) {
         TodoResponse response = todoMapper.toResponse(todo);
+        associationsOf(todo).applyTo(todo, response);
+        return response;
+    }
 
-        // Map category
-        if (todo.getCategory() != null) {
-            response.setCategory(categoryMapper.toResponse(todo.getCategory()));
-        }
+    /**
+     * Map một trang Todo sang trang TodoResponse, giữ nguyên thông tin phân trang
+     */
+    private Page<TodoResponse> mapToResponsePage(Page<Todo> todos) {
+        return new PageImpl<>(mapToResponses(todos.getContent()), todos.getPageable(), todos.getTotalElements());
+    }
 
-        // Map tags
-        if (todo.getTags() != null && !todo.getTags().isEmpty()) {
-            Set<TagResponse> tagResponses = todo.getTags().stream()
-                    .map(tagMapper::toResponse)
-                    .collect(Collectors.toSet());
-            response.setTags(tagResponses);
+    /**
+     * Map danh sách Todo sang TodoResponse.
+     * Category và tags của cả danh sách được nạp theo lô bằng một số truy vấn cố định,
+     * thay vì lazy load từng todo (N+1); số subtask/attachment lấy từ cột counter.
+     *
+     * @param todos Danh sách Todo entity
+     * @return Danh sách TodoResponse theo đúng thứ tự đầu vào
+     */
+    private List<TodoResponse> mapToResponses(List<Todo> todos) {
+        TodoAssociations associations = loadAssociations(todos);
+
+        List<TodoResponse> responses = new ArrayList<>(todos.size());
+        for (Todo todo : todos) {
+            TodoResponse response = todoMapper.toResponse(todo);
+            associations.applyTo(todo, response);
+            responses.add(response);
         }
-
-        return response;
+        return responses;
     }
 
     /**
@@ -483,26 +1048,13 @@ public class TodoService {
      */
     private TodoDetailResponse mapToDetailResponse(Todo todo) {
         TodoDetailResponse response = todoMapper.toDetailResponse(todo);
-
-        // Map category
-        if (todo.getCategory() != null) {
-            response.setCategory(categoryMapper.toResponse(todo.getCategory()));
-        }
-
-        // Map tags
-        if (todo.getTags() != null && !todo.getTags().isEmpty()) {
-            Set<TagResponse> tagResponses = todo.getTags().stream()
-                    .map(tagMapper::toResponse)
-                    .collect(Collectors.toSet());
-            response.setTags(tagResponses);
-        }
+        associationsOf(todo).applyTo(todo, response);
 
         // Map subtasks
         if (todo.getSubtasks() != null && !todo.getSubtasks().isEmpty()) {
-            List<TodoResponse> subtaskResponses = todo.getSubtasks().stream()
+            List<TodoResponse> subtaskResponses = mapToResponses(todo.getSubtasks().stream()
                     .filter(subtask -> subtask.getDeletedAt() == null)
-                    .map(this::mapToResponse)
-                    .collect(Collectors.toList());
+                    .collect(Collectors.toList()));
             response.setSubtasks(subtaskResponses);
         }
 
@@ -511,5 +1063,80 @@ public class TodoService {
 
         return response;
     }
-}
 
+    /**
+     * Nạp category và tags cho danh sách todo: tối đa 2 truy vấn bất kể kích thước danh sách.
+     * Số subtask/attachment được đọc từ các cột counter của todo.
+     */
+    private TodoAssociations loadAssociations(List<Todo> todos) {
+        if (todos.isEmpty()) {
+            return new TodoAssociations(Map.of(), Map.of());
+        }
+
+        // Category: lấy ID từ proxy (không khởi tạo) rồi nạp một lần
+        Set<Long> categoryIds = todos.stream()
+                .map(Todo::getCategory)
+                .filter(Objects::nonNull)
+                .map(Category::getId)
+                .collect(Collectors.toSet());
+        Map<Long, CategoryResponse> categories = new HashMap<>();
+        if (!categoryIds.isEmpty()) {
+            for (Category category : categoryRepository.findAllById(categoryIds)) {
+                categories.put(category.getId(), categoryMapper.toResponse(category));
+            }
+        }
+
+        // Tags: bỏ qua truy vấn khi counter cho biết không todo nào có tag
+        Map<Long, Set<TagResponse>> tags = new HashMap<>();
+        List<Long> taggedIds = todos.stream()
+                .filter(todo -> todo.getTagCount() == null || todo.getTagCount() > 0)
+                .map(Todo::getId)
+                .collect(Collectors.toList());
+        if (!taggedIds.isEmpty()) {
+            for (Object[] row : todoRepository.findTagsByTodoIds(taggedIds)) {
+                tags.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add(tagMapper.toResponse((Tag) row[1]));
+            }
+        }
+
+        return new TodoAssociations(categories, tags);
+    }
+
+    /**
+     * Lấy category và tags của một todo từ chính entity: sau create/update chúng đã được nạp sẵn,
+     * nếu chưa thì lazy load theo khóa chính (tags qua region todo-tags) mà không kích hoạt auto-flush
+     * như truy vấn theo lô.
+     */
+    private TodoAssociations associationsOf(Todo todo) {
+        Category category = todo.getCategory();
+        Map<Long, CategoryResponse> categories = category == null
+                ? Map.of()
+                : Collections.singletonMap(category.getId(), categoryMapper.toResponse(category));
+
+        Map<Long, Set<TagResponse>> tags = Map.of();
+        if ((todo.getTagCount() == null || todo.getTagCount() > 0) && todo.getTags() != null) {
+            tags = Collections.singletonMap(todo.getId(), todo.getTags().stream()
+                    .map(tagMapper::toResponse)
+                    .collect(Collectors.toSet()));
+        }
+        return new TodoAssociations(categories, tags);
+    }
+
+    /**
+     * Dữ liệu liên kết đã nạp theo lô cho một danh sách todo
+     */
+    private record TodoAssociations(
+            Map<Long, CategoryResponse> categories,
+            Map<Long, Set<TagResponse>> tags) {
+
+        void applyTo(Todo todo, TodoResponse response) {
+            if (todo.getCategory() != null) {
+                response.setCategory(categories.get(todo.getCategory().getId()));
+            }
+
+            Set<TagResponse> todoTags = tags.get(todo.getId());
+            if (todoTags != null && !todoTags.isEmpty()) {
+                response.setTags(todoTags);
+            }
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.todoapp.todos.service;
+
+import com.todoapp.todos.dto.TodoStatistics;
+import com.todoapp.todos.entity.TodoPriority;
+import com.todoapp.todos.entity.TodoStatus;
+import com.todoapp.todos.event.CategoryChangedEvent;
+import com.todoapp.todos.event.TagChangedEvent;
+import com.todoapp.todos.event.TodoChangedEvent;
+import com.todoapp.todos.event.TodoSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache thống kê todos theo user (tùy chọn, bật bằng {@code todo.statistics.cache.enabled}).
+ *
+ * Các counter được cập nhật tăng/giảm từ {@link TodoChangedEvent} sau khi commit, nên đọc thống kê
+ * không cần truy vấn bảng todos. Overdue/dueToday phụ thuộc thời gian nên entry chỉ hợp lệ đến
+ * {@link TodoStatistics#getValidUntil()}; ngoài ra entry hết hạn sau TTL.
+ *
+ * Mỗi entry ghi nhớ version dữ liệu của user (UserDataVersionService) mà nó phản ánh, như
+ * {@link com.todoapp.todos.due.TodoDueIndex}: thay đổi của một transaction chỉ được áp dụng khi version
+ * của nó nối tiếp version của entry (thiếu version ở giữa, ví dụ thay đổi trên instance khác, thì entry
+ * bị bỏ), và entry cũ hơn version hiện tại của user không được trả về. Nhờ vậy thống kê trả về không
+ * bao giờ cũ hơn version dùng làm ETag.
+ */
+@Slf4j
+@Component
+public class TodoStatisticsCache {
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Long, Load> loading = new ConcurrentHashMap<>();
+    private final AtomicLong loadTokens = new AtomicLong();
+
+    private final UserDataVersionService userDataVersionService;
+    private final boolean enabled;
+    private final int maxSize;
+    private final long ttlSeconds;
+
+    public TodoStatisticsCache(UserDataVersionService userDataVersionService,
+                               @Value("${todo.statistics.cache.enabled:false}") boolean enabled,
+                               @Value("${todo.statistics.cache.max-size:10000}") int maxSize,
+                               @Value("${todo.statistics.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.userDataVersionService = userDataVersionService;
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    /**
+     * @return Thống kê đã cache còn hợp lệ tại thời điểm now và không cũ hơn version hiện tại
+     * của user, hoặc null
+     */
+    public TodoStatistics get(Long userId, LocalDateTime now) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            return null;
+        }
+        TodoStatistics statistics = entry.getVersion() < userDataVersionService.getVersion(userId)
+                ? null
+                : entry.snapshot(now, System.nanoTime());
+        if (statistics == null) {
+            entries.remove(userId, entry);
+        }
+        return statistics;
+    }
+
+    /**
+     * Đánh dấu bắt đầu nạp thống kê từ DB; thay đổi xảy ra trong lúc nạp sẽ làm token mất hiệu lực.
+     * Version được đọc sau khi đăng ký token: thay đổi commit sau đó trên instance này làm token mất
+     * hiệu lực, nên dữ liệu nạp được không chứa thay đổi nào mới hơn version của entry.
+     *
+     * @return Token truyền lại cho {@link #put(Long, TodoStatistics, long)}
+     */
+    public long beginLoad(Long userId) {
+        if (!enabled) {
+            return 0L;
+        }
+        long token = loadTokens.incrementAndGet();
+        Load load = new Load(token);
+        loading.put(userId, load);
+        load.version = userDataVersionService.getVersion(userId);
+        return token;
+    }
+
+    public void put(Long userId, TodoStatistics statistics, long token) {
+        if (!enabled) {
+            return;
+        }
+        Load load = loading.get(userId);
+        if (load == null || load.token != token || !loading.remove(userId, load)) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            entries.clear();
+        }
+        entries.put(userId, new Entry(statistics, load.version, System.nanoTime() + ttlSeconds * 1_000_000_000L));
+    }
+
+    public void invalidate(Long userId) {
+        loading.remove(userId);
+        entries.remove(userId);
+    }
+
+    /**
+     * Ghi nhận thay đổi todo của transaction hiện tại; counter được cập nhật sau khi commit
+     */
+    @EventListener
+    public void onTodoChanged(TodoChangedEvent event) {
+        collect(event.userId(), event);
+    }
+
+    /**
+     * Category/tag không ảnh hưởng đến thống kê nhưng làm tăng version dữ liệu của user
+     */
+    @EventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        collect(event.userId(), null);
+    }
+
+    @EventListener
+    public void onTagChanged(TagChangedEvent event) {
+        collect(event.userId(), null);
+    }
+
+    /**
+     * @param event Thay đổi todo, null nếu chỉ có version thay đổi
+     */
+    private void collect(Long userId, TodoChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(userId);
+            return;
+        }
+        TransactionChanges changes = (TransactionChanges) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            changes = new TransactionChanges();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(changes);
+        }
+        changes.add(userId, event);
+    }
+
+    /**
+     * Áp dụng thay đổi của một transaction đã commit
+     *
+     * @param version Version dữ liệu của user được cấp cho transaction, null nếu không xác định
+     */
+    private void apply(Long userId, Long version, List<TodoChangedEvent> events) {
+        loading.remove(userId);
+        Entry entry = entries.get(userId);
+        if (entry != null && !entry.apply(version, events, LocalDateTime.now())) {
+            entries.remove(userId, entry);
+            log.debug("Dropped statistics of user {}: version {} does not follow {}", userId, version, entry.getVersion());
+        }
+    }
+
+    @Scheduled(fixedDelay = 300_000) // Dọn entry hết hạn mỗi 5 phút
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        long nanos = System.nanoTime();
+        entries.values().removeIf(entry -> entry.snapshot(now, nanos) == null);
+    }
+
+    /**
+     * Lần nạp thống kê đang chạy của một user
+     */
+    private static final class Load {
+
+        private final long token;
+        private volatile long version;
+
+        Load(long token) {
+            this.token = token;
+        }
+    }
+
+    /**
+     * Counter có thể cập nhật của một user
+     */
+    private static final class Entry {
+
+        private final long[] byStatus = new long[TodoStatus.values().length];
+        private final long[] byPriority = new long[TodoPriority.values().length];
+        private final long expiresAtNanos;
+        private long version;
+        private long overdue;
+        private long dueToday;
+        private LocalDateTime validUntil;
+
+        Entry(TodoStatistics statistics, long version, long expiresAtNanos) {
+            statistics.getByStatus().forEach((status, count) -> byStatus[status.ordinal()] = count);
+            statistics.getByPriority().forEach((priority, count) -> byPriority[priority.ordinal()] = count);
+            this.overdue = statistics.getOverdue();
+            this.dueToday = statistics.getDueToday();
+            this.validUntil = statistics.getValidUntil();
+            this.version = version;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        synchronized long getVersion() {
+            return version;
+        }
+
+        synchronized TodoStatistics snapshot(LocalDateTime now, long nanos) {
+            if (nanos - expiresAtNanos >= 0 || !now.isBefore(validUntil)) {
+                return null;
+            }
+            Map<TodoStatus, Long> statusCounts = TodoStatistics.emptyStatusCounts();
+            for (TodoStatus status : TodoStatus.values()) {
+                statusCounts.put(status, byStatus[status.ordinal()]);
+            }
+            Map<TodoPriority, Long> priorityCounts = TodoStatistics.emptyPriorityCounts();
+            for (TodoPriority priority : TodoPriority.values()) {
+                priorityCounts.put(priority, byPriority[priority.ordinal()]);
+            }
+            return TodoStatistics.builder()
+                    .byStatus(statusCounts)
+                    .byPriority(priorityCounts)
+                    .overdue(overdue)
+                    .dueToday(dueToday)
+                    .validUntil(validUntil)
+                    .build();
+        }
+
+        /**
+         * Áp dụng các thay đổi của một transaction đã commit
+         *
+         * @return false nếu entry đã thiếu thay đổi (version không nối tiếp) và không còn dùng được
+         */
+        synchronized boolean apply(Long committedVersion, List<TodoChangedEvent> events, LocalDateTime now) {
+            if (committedVersion == null || committedVersion > version + 1) {
+                return false;
+            }
+            if (committedVersion <= version) {
+                // Đã có trong dữ liệu được nạp (nạp sau commit này)
+                return true;
+            }
+            for (TodoChangedEvent event : events) {
+                apply(event.before(), event.after(), now);
+            }
+            version = committedVersion;
+            return true;
+        }
+
+        private void apply(TodoSnapshot before, TodoSnapshot after, LocalDateTime now) {
+            if (before != null && !before.isDeleted()) {
+                add(before, -1, now);
+            }
+            if (after != null && !after.isDeleted()) {
+                add(after, 1, now);
+                if (TodoStatistics.OPEN_STATUSES.contains(after.status()) && after.dueDate() != null
+                        && !after.dueDate().isBefore(now) && after.dueDate().isBefore(validUntil)) {
+                    validUntil = after.dueDate();
+                }
+            }
+        }
+
+        private void add(TodoSnapshot todo, int delta, LocalDateTime now) {
+            if (todo.status() != null) {
+                byStatus[todo.status().ordinal()] += delta;
+            }
+            if (todo.priority() != null) {
+                byPriority[todo.priority().ordinal()] += delta;
+            }
+            if (TodoStatistics.OPEN_STATUSES.contains(todo.status()) && todo.dueDate() != null) {
+                if (todo.dueDate().isBefore(now)) {
+                    overdue += delta;
+                }
+                if (todo.dueDate().toLocalDate().equals(now.toLocalDate())) {
+                    dueToday += delta;
+                }
+            }
+        }
+    }
+
+    /**
+     * Các thay đổi của transaction hiện tại, theo user, áp dụng sau khi commit
+     */
+    private final class TransactionChanges implements TransactionSynchronization {
+
+        private final Map<Long, List<TodoChangedEvent>> changes = new HashMap<>();
+
+        void add(Long userId, TodoChangedEvent event) {
+            List<TodoChangedEvent> events = changes.computeIfAbsent(userId, id -> new ArrayList<>());
+            if (event != null) {
+                events.add(event);
+            }
+        }
+
+        @Override
+        public void afterCommit() {
+            changes.forEach((userId, events) ->
+                    apply(userId, userDataVersionService.getCommittedVersion(userId), events));
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TodoStatisticsCache.this);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.todoapp.todos.service;
+
+import com.todoapp.todos.entity.Todo;
+import com.todoapp.todos.event.ChangeType;
+import com.todoapp.todos.event.TagChangedEvent;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Xóa dữ liệu second-level cache của collection Todo.tags khi một tag bị xóa.
+ *
+ * Các dòng todo_tags của tag bị xóa bởi ON DELETE CASCADE trong database nên Hibernate không biết
+ * collection nào đã thay đổi; region được xóa sau khi transaction commit để không có transaction
+ * nào nạp lại dữ liệu cũ vào cache. Các thay đổi khác của category/tag đi qua Hibernate nên entity
+ * và kết quả query cache được cập nhật tự động.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TodoTagsCacheInvalidator {
+
+    private static final String TODO_TAGS_ROLE = Todo.class.getName() + ".tags";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTagChanged(TagChangedEvent event) {
+        if (event.type() != ChangeType.DELETED) {
+            return;
+        }
+        entityManagerFactory.getCache().unwrap(Cache.class).evictCollectionData(TODO_TAGS_ROLE);
+        log.debug("Đã xóa cache {} sau khi xóa tag {}", TODO_TAGS_ROLE, event.tagId());
+    }
+}
@@ -0,0 +1,506 @@
+package com.todoapp.todos.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.todoapp.auth.entity.User;
+import com.todoapp.auth.security.CurrentUserResolver;
+import com.todoapp.common.exception.BadRequestException;
+import com.todoapp.todos.dto.TodoImportResult;
+import com.todoapp.todos.dto.TodoTransferFormat;
+import com.todoapp.todos.dto.TodoTransferRecord;
+import com.todoapp.todos.entity.Category;
+import com.todoapp.todos.entity.Tag;
+import com.todoapp.todos.entity.Todo;
+import com.todoapp.todos.entity.TodoPriority;
+import com.todoapp.todos.entity.TodoStatus;
+import com.todoapp.todos.event.CategoryChangedEvent;
+import com.todoapp.todos.event.ChangeType;
+import com.todoapp.todos.event.TagChangedEvent;
+import com.todoapp.todos.event.TodoChangedEvent;
+import com.todoapp.todos.repository.CategoryRepository;
+import com.todoapp.todos.repository.TagRepository;
+import com.todoapp.todos.repository.TodoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Service export/import todos của user hiện tại dạng NDJSON/CSV.
+ *
+ * Export: dữ liệu được đọc bằng hai cursor forward-only (todos và tên tag, cùng sắp theo ID todo)
+ * với fetch size cố định, ghép lại trong một lượt và ghi thẳng ra output stream; mỗi lúc chỉ có
+ * một todo trong bộ nhớ nên bộ nhớ dùng không phụ thuộc vào số lượng todos.
+ *
+ * Import: file được parse dần từng dòng và ghi theo lô (todo.import.chunk-size dòng), mỗi lô một
+ * transaction nên persistence context được flush và giải phóng sau mỗi lô; insert todos được gom
+ * thành JDBC batch nhờ sequence todos_seq. Category và tag được tìm/tạo theo tên qua cache trong
+ * phạm vi một lần import.
+ */
+@Service
+@Slf4j
+public class TodoTransferService {
+
+    private static final String DEFAULT_COLOR = "#808080";
+    private static final int MAX_TITLE_LENGTH = 255;
+    private static final int MAX_DESCRIPTION_LENGTH = 5000;
+    private static final int MAX_CATEGORY_NAME_LENGTH = 100;
+    private static final int MAX_TAG_NAME_LENGTH = 50;
+
+    private final TodoRepository todoRepository;
+    private final CategoryRepository categoryRepository;
+    private final TagRepository tagRepository;
+    private final CurrentUserResolver currentUserResolver;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectWriter recordWriter;
+    private final ObjectReader recordReader;
+    private final Counter importedRows;
+    private final Counter failedRows;
+
+    @Value("${todo.import.chunk-size:1000}")
+    private int chunkSize;
+
+    public TodoTransferService(TodoRepository todoRepository,
+                               CategoryRepository categoryRepository,
+                               TagRepository tagRepository,
+                               CurrentUserResolver currentUserResolver,
+                               ApplicationEventPublisher eventPublisher,
+                               PlatformTransactionManager transactionManager,
+                               ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry) {
+        this.todoRepository = todoRepository;
+        this.categoryRepository = categoryRepository;
+        this.tagRepository = tagRepository;
+        this.currentUserResolver = currentUserResolver;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.recordWriter = objectMapper.writerFor(TodoTransferRecord.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.recordReader = objectMapper.readerFor(TodoTransferRecord.class);
+        this.importedRows = importCounter(meterRegistry, "imported");
+        this.failedRows = importCounter(meterRegistry, "failed");
+    }
+
+    /**
+     * Ghi toàn bộ todos chưa xóa (kể cả subtasks) của user hiện tại ra output stream.
+     * Output stream không bị đóng.
+     *
+     * @param format Định dạng export
+     * @param output Output stream đích (thường là response body)
+     * @return Số todos đã ghi
+     * @throws IOException nếu ghi ra output stream thất bại
+     */
+    @Transactional(readOnly = true)
+    public long export(TodoTransferFormat format, OutputStream output) throws IOException {
+        Long userId = currentUserResolver.getCurrentUserId();
+        log.info("Export todos của user {} dạng {}", userId, format);
+
+        try (Stream<TodoTransferRecord> records = todoRepository.streamTransferRecords(userId);
+             Stream<Object[]> tagNames = todoRepository.streamTransferTagNames(userId)) {
+            Iterator<TodoTransferRecord> withTags = new TagMergingIterator(records.iterator(), tagNames.iterator());
+            long count = switch (format) {
+                case NDJSON -> writeNdjson(withTags, output);
+                case CSV -> writeCsv(withTags, output);
+            };
+            log.info("Đã export {} todos của user {}", count, userId);
+            return count;
+        }
+    }
+
+    private long writeNdjson(Iterator<TodoTransferRecord> records, OutputStream output) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = recordWriter.getFactory().createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            while (records.hasNext()) {
+                recordWriter.writeValue(generator, records.next());
+                generator.writeRaw('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long writeCsv(Iterator<TodoTransferRecord> records, OutputStream output) throws IOException {
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        TodoCsv.writeHeader(writer);
+        while (records.hasNext()) {
+            TodoCsv.writeRecord(writer, records.next());
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    /**
+     * Import todos (kể cả subtasks) cho user hiện tại từ input stream.
+     * Dòng lỗi được bỏ qua và báo lại trong kết quả; các lô đã ghi không bị rollback khi lô sau lỗi.
+     * Subtask phải đứng sau todo cha trong file và được nối với todo cha qua id/parentId của file.
+     *
+     * @param format Định dạng dữ liệu
+     * @param input  Input stream nguồn (thường là request body), không bị đóng
+     * @return TodoImportResult
+     * @throws IOException nếu đọc input stream thất bại
+     */
+    public TodoImportResult importTodos(TodoTransferFormat format, InputStream input) throws IOException {
+        long startedAt = System.nanoTime();
+        ImportState state = new ImportState(currentUserResolver.getCurrentUser());
+        log.info("Import todos cho user {} dạng {}", state.userId, format);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        RowSource source = switch (format) {
+            case NDJSON -> ndjsonSource(reader);
+            case CSV -> csvSource(reader);
+        };
+
+        TodoImportResult result = state.result;
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        ImportRow row;
+        while ((row = source.next()) != null) {
+            result.setTotal(result.getTotal() + 1);
+            if (row.error() != null) {
+                result.addError(row.line(), row.error());
+                failedRows.increment();
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() >= chunkSize) {
+                importChunk(state, chunk);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(state, chunk);
+        }
+
+        result.setDurationMs((System.nanoTime() - startedAt) / 1_000_000);
+        log.info("Đã import {} / {} todos cho user {} trong {} ms ({} lỗi)",
+                result.getImported(), result.getTotal(), state.userId, result.getDurationMs(), result.getFailed());
+        return result;
+    }
+
+    /**
+     * Ghi một lô trong một transaction. Lỗi nghiệp vụ chỉ loại dòng tương ứng; lỗi khi ghi
+     * database làm rollback cả lô và mọi dòng của lô được báo lỗi.
+     */
+    private void importChunk(ImportState state, List<ImportRow> chunk) {
+        ChunkState pending = new ChunkState();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Todo> todos = new ArrayList<>(chunk.size());
+                Map<Long, Todo> chunkRoots = new HashMap<>();
+                Map<Long, Integer> subtaskDeltas = new HashMap<>();
+                for (ImportRow row : chunk) {
+                    try {
+                        Todo todo = toTodo(state, pending, chunkRoots, row.record());
+                        todos.add(todo);
+                        Todo parent = todo.getParent();
+                        if (parent == null) {
+                            if (row.record().getId() != null) {
+                                chunkRoots.put(row.record().getId(), todo);
+                            }
+                        } else if (parent.getId() == null) {
+                            // Todo cha nằm trong cùng lô: đếm sẵn trước khi insert
+                            parent.setSubtaskCount(parent.getSubtaskCount() + 1);
+                        } else {
+                            subtaskDeltas.merge(parent.getId(), 1, Integer::sum);
+                        }
+                    } catch (BadRequestException e) {
+                        pending.errors.add(new TodoImportResult.RowError(row.line(), e.getMessage()));
+                    }
+                }
+
+                todoRepository.saveAll(todos);
+                todos.forEach(todo -> eventPublisher.publishEvent(TodoChangedEvent.created(todo)));
+                chunkRoots.forEach((sourceId, todo) -> pending.rootIds.put(sourceId, todo.getId()));
+                pending.imported = todos.size();
+
+                todoRepository.flush();
+                subtaskDeltas.forEach(todoRepository::adjustSubtaskCount);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Import todos cho user {}: lô {} dòng bị rollback", state.userId, chunk.size(), e);
+            for (ImportRow row : chunk) {
+                state.result.addError(row.line(), "Không thể lưu dòng này: lô chứa dòng đã bị rollback");
+            }
+            failedRows.increment(chunk.size());
+            return;
+        }
+
+        state.merge(pending);
+        importedRows.increment(pending.imported);
+        failedRows.increment(pending.errors.size());
+        log.info("Import todos cho user {}: đã xử lý {} dòng, {} thành công",
+                state.userId, state.result.getTotal(), state.result.getImported());
+    }
+
+    private Todo toTodo(ImportState state, ChunkState pending, Map<Long, Todo> chunkRoots, TodoTransferRecord record) {
+        String title = record.getTitle() != null ? record.getTitle().trim() : "";
+        if (title.isEmpty()) {
+            throw new BadRequestException("Tiêu đề không được để trống");
+        }
+        if (title.length() > MAX_TITLE_LENGTH) {
+            throw new BadRequestException("Tiêu đề không được vượt quá 255 ký tự");
+        }
+        if (record.getDescription() != null && record.getDescription().length() > MAX_DESCRIPTION_LENGTH) {
+            throw new BadRequestException("Mô tả không được vượt quá 5000 ký tự");
+        }
+
+        Todo parent = null;
+        if (record.getParentId() != null) {
+            parent = chunkRoots.get(record.getParentId());
+            if (parent == null) {
+                Long parentId = state.rootIds.get(record.getParentId());
+                if (parentId == null) {
+                    throw new BadRequestException("Không tìm thấy todo cha với ID " + record.getParentId()
+                            + " ở các dòng trước (chỉ hỗ trợ subtask 1 cấp)");
+                }
+                parent = todoRepository.getReferenceById(parentId);
+            }
+        }
+
+        Category category = null;
+        if (record.getCategory() != null && !record.getCategory().isBlank()) {
+            category = categoryRepository.getReferenceById(resolveCategory(state, pending, record.getCategory().trim()));
+        }
+
+        Set<Tag> tags = new HashSet<>();
+        if (record.getTags() != null) {
+            for (String tagName : record.getTags()) {
+                if (tagName != null && !tagName.isBlank()) {
+                    tags.add(tagRepository.getReferenceById(resolveTag(state, pending, tagName.trim())));
+                }
+            }
+        }
+
+        TodoStatus status = record.getStatus() != null ? record.getStatus() : TodoStatus.PENDING;
+        return Todo.builder()
+                .user(state.user)
+                .title(title)
+                .description(record.getDescription())
+                .status(status)
+                .priority(record.getPriority() != null ? record.getPriority() : TodoPriority.MEDIUM)
+                .dueDate(record.getDueDate())
+                .remindAt(record.getRemindAt())
+                .estimatedMinutes(record.getEstimatedMinutes())
+                .parent(parent)
+                .category(category)
+                .tags(tags)
+                .tagCount(tags.size())
+                .completedAt(status == TodoStatus.DONE ? record.getCompletedAt() : null)
+                .createdBy(state.userId)
+                .updatedBy(state.userId)
+                .build();
+    }
+
+    private Long resolveCategory(ImportState state, ChunkState pending, String name) {
+        Long id = state.categoryIds.getOrDefault(name, pending.categoryIds.get(name));
+        if (id != null) {
+            return id;
+        }
+        if (name.length() > MAX_CATEGORY_NAME_LENGTH) {
+            throw new BadRequestException("Tên category không được vượt quá 100 ký tự: " + name);
+        }
+        Category category = categoryRepository.save(
+                Category.builder().user(state.user).name(name).color(DEFAULT_COLOR).build());
+        eventPublisher.publishEvent(new CategoryChangedEvent(state.userId, category.getId(), ChangeType.CREATED));
+        pending.categoryIds.put(name, category.getId());
+        return category.getId();
+    }
+
+    private Long resolveTag(ImportState state, ChunkState pending, String name) {
+        Long id = state.tagIds.getOrDefault(name, pending.tagIds.get(name));
+        if (id != null) {
+            return id;
+        }
+        if (name.length() > MAX_TAG_NAME_LENGTH) {
+            throw new BadRequestException("Tên tag không được vượt quá 50 ký tự: " + name);
+        }
+        Tag tag = tagRepository.save(Tag.builder().user(state.user).name(name).color(DEFAULT_COLOR).build());
+        eventPublisher.publishEvent(new TagChangedEvent(state.userId, tag.getId(), ChangeType.CREATED));
+        pending.tagIds.put(name, tag.getId());
+        return tag.getId();
+    }
+
+    private RowSource ndjsonSource(BufferedReader reader) {
+        long[] line = {0};
+        return () -> {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line[0]++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                try {
+                    return new ImportRow(line[0], recordReader.readValue(text), null);
+                } catch (JsonProcessingException e) {
+                    return new ImportRow(line[0], null, "JSON không hợp lệ: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        };
+    }
+
+    private RowSource csvSource(BufferedReader reader) throws IOException {
+        TodoCsv.RowReader rows = new TodoCsv.RowReader(reader);
+        List<String> header = rows.next();
+        if (header == null) {
+            return () -> null;
+        }
+        Map<String, Integer> columns = TodoCsv.headerIndex(header);
+        return () -> {
+            List<String> fields;
+            while ((fields = rows.next()) != null) {
+                if (fields.size() == 1 && fields.get(0).isBlank()) {
+                    continue;
+                }
+                try {
+                    return new ImportRow(rows.rowLine(), TodoCsv.toRecord(columns, fields), null);
+                } catch (IllegalArgumentException e) {
+                    return new ImportRow(rows.rowLine(), null, e.getMessage());
+                }
+            }
+            return null;
+        };
+    }
+
+    private static Counter importCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("todoapp.todos.import.rows")
+                .description("Imported todo rows by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Nguồn dòng dữ liệu đã parse
+     */
+    @FunctionalInterface
+    private interface RowSource {
+
+        /**
+         * @return Dòng tiếp theo, hoặc null khi hết dữ liệu
+         */
+        ImportRow next() throws IOException;
+    }
+
+    /**
+     * Một dòng của file import: record đã parse, hoặc lỗi parse
+     */
+    private record ImportRow(long line, TodoTransferRecord record, String error) {
+    }
+
+    /**
+     * Trạng thái của một lần import: cache tên category/tag -> ID và ánh xạ ID todo cha trong file -> ID mới.
+     * Chỉ chứa dữ liệu đã commit.
+     */
+    private final class ImportState {
+
+        private final User user;
+        private final Long userId;
+        private final Map<String, Long> categoryIds = new HashMap<>();
+        private final Map<String, Long> tagIds = new HashMap<>();
+        private final Map<Long, Long> rootIds = new HashMap<>();
+        private final TodoImportResult result = TodoImportResult.builder().build();
+
+        private ImportState(User user) {
+            this.user = user;
+            this.userId = user.getId();
+            categoryRepository.findByUserId(userId).forEach(category -> categoryIds.put(category.getName(), category.getId()));
+            tagRepository.findByUserId(userId).forEach(tag -> tagIds.put(tag.getName(), tag.getId()));
+        }
+
+        private void merge(ChunkState chunk) {
+            categoryIds.putAll(chunk.categoryIds);
+            tagIds.putAll(chunk.tagIds);
+            rootIds.putAll(chunk.rootIds);
+            result.setImported(result.getImported() + chunk.imported);
+            result.setCategoriesCreated(result.getCategoriesCreated() + chunk.categoryIds.size());
+            result.setTagsCreated(result.getTagsCreated() + chunk.tagIds.size());
+            chunk.errors.forEach(error -> result.addError(error.getLine(), error.getMessage()));
+        }
+    }
+
+    /**
+     * Thay đổi của lô đang ghi, chỉ được gộp vào ImportState sau khi lô commit
+     */
+    private static final class ChunkState {
+
+        private final Map<String, Long> categoryIds = new HashMap<>();
+        private final Map<String, Long> tagIds = new HashMap<>();
+        private final Map<Long, Long> rootIds = new HashMap<>();
+        private final List<TodoImportResult.RowError> errors = new ArrayList<>();
+        private int imported;
+    }
+
+    /**
+     * Gán tên tag vào từng record khi duyệt: cả hai nguồn đều sắp theo ID todo tăng dần
+     * nên chỉ cần giữ lại một dòng tag đọc trước.
+     */
+    static final class TagMergingIterator implements Iterator<TodoTransferRecord> {
+
+        private final Iterator<TodoTransferRecord> records;
+        private final Iterator<Object[]> tagNames;
+        private Object[] pendingTag;
+
+        TagMergingIterator(Iterator<TodoTransferRecord> records, Iterator<Object[]> tagNames) {
+            this.records = records;
+            this.tagNames = tagNames;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return records.hasNext();
+        }
+
+        @Override
+        public TodoTransferRecord next() {
+            TodoTransferRecord record = records.next();
+            long todoId = record.getId();
+            while (true) {
+                if (pendingTag == null) {
+                    if (!tagNames.hasNext()) {
+                        break;
+                    }
+                    pendingTag = tagNames.next();
+                }
+                long tagTodoId = (Long) pendingTag[0];
+                if (tagTodoId > todoId) {
+                    break;
+                }
+                if (tagTodoId == todoId) {
+                    record.getTags().add((String) pendingTag[1]);
+                }
+                pendingTag = null;
+            }
+            return record;
+        }
+    }
+}
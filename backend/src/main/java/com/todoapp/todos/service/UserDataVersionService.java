@@ -0,0 +1,212 @@
+package com.todoapp.todos.service;
+
+import com.todoapp.auth.event.UserRegisteredEvent;
+import com.todoapp.todos.entity.UserDataVersion;
+import com.todoapp.todos.event.CategoryChangedEvent;
+import com.todoapp.todos.event.TagChangedEvent;
+import com.todoapp.todos.event.TodoChangedEvent;
+import com.todoapp.todos.repository.TodoRepository;
+import com.todoapp.todos.repository.UserDataVersionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Phiên bản dữ liệu theo user, tăng mỗi khi todos, categories hoặc tags (kể cả attachment)
+ * của user thay đổi. Dùng làm nguồn ETag cho các API đọc.
+ *
+ * Các thay đổi trong một transaction chỉ tăng version một lần cho mỗi user, ngay trước khi commit
+ * (khóa dòng chỉ giữ đến lúc commit), và các todo đã thay đổi được gán sync_version bằng version mới.
+ * Vì version của một user được cấp tuần tự dưới khóa dòng, thứ tự sync_version trùng với thứ tự
+ * commit, nên delta sync theo sync_version không bỏ sót thay đổi.
+ *
+ * Version được ghi nhớ trong bộ nhớ sau khi commit nên kiểm tra ETag thường không cần truy vấn;
+ * giá trị nhớ chỉ tăng và hết hạn sau TTL để giới hạn sai lệch khi chạy nhiều instance
+ * (ttl-seconds = 0: luôn đọc từ DB).
+ */
+@Slf4j
+@Service
+public class UserDataVersionService {
+
+    private static final int SYNC_STAMP_BATCH_SIZE = 1000;
+
+    private final UserDataVersionRepository userDataVersionRepository;
+    private final TodoRepository todoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    @Value("${todo.data-version.cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${todo.data-version.cache.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    public UserDataVersionService(UserDataVersionRepository userDataVersionRepository,
+                                  TodoRepository todoRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this.userDataVersionRepository = userDataVersionRepository;
+        this.todoRepository = todoRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * @return Version hiện tại của dữ liệu user (0 nếu user chưa có thay đổi nào)
+     */
+    public long getVersion(Long userId) {
+        Entry entry = entries.get(userId);
+        if (entry != null && !entry.isExpired(System.nanoTime())) {
+            return entry.version();
+        }
+        Long version = readOnlyTransactionTemplate.execute(status ->
+                userDataVersionRepository.findVersion(userId).orElse(0L));
+        long loaded = version != null ? version : 0L;
+        remember(userId, loaded);
+        return loaded;
+    }
+
+    /**
+     * Version được cấp cho user khi transaction hiện tại commit. Chỉ có giá trị trong callback
+     * afterCommit của TransactionSynchronization (version được tăng ngay trước khi commit).
+     *
+     * @return Version mới, hoặc null nếu transaction không thay đổi dữ liệu của user
+     */
+    public Long getCommittedVersion(Long userId) {
+        PendingBump pending = (PendingBump) TransactionSynchronizationManager.getResource(this);
+        return pending != null ? pending.versions.get(userId) : null;
+    }
+
+    /**
+     * Đánh dấu dữ liệu của user đã thay đổi. Trong transaction, version được tăng trước khi commit;
+     * ngoài transaction thì tăng ngay.
+     */
+    public void markChanged(Long userId) {
+        markTodosChanged(userId, List.of());
+    }
+
+    /**
+     * Đánh dấu dữ liệu của user đã thay đổi, kèm các todo cần xuất hiện trong delta sync
+     * (dùng cho thay đổi không đi qua TodoChangedEvent, ví dụ counter hoặc liên kết bị xóa theo cascade)
+     */
+    public void markTodosChanged(Long userId, Collection<Long> todoIds) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            Long version = transactionTemplate.execute(status -> bump(userId, todoIds));
+            if (version != null) {
+                remember(userId, version);
+            }
+            return;
+        }
+        PendingBump pending = (PendingBump) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingBump();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.todoIds.computeIfAbsent(userId, id -> new HashSet<>()).addAll(todoIds);
+    }
+
+    @EventListener
+    public void onTodoChanged(TodoChangedEvent event) {
+        // Counter subtask của todo cha thay đổi khi subtask được tạo, xóa hoặc khôi phục
+        markTodosChanged(event.userId(), event.parentId() != null
+                ? List.of(event.todoId(), event.parentId())
+                : List.of(event.todoId()));
+    }
+
+    @EventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        markChanged(event.userId());
+    }
+
+    @EventListener
+    public void onTagChanged(TagChangedEvent event) {
+        markChanged(event.userId());
+    }
+
+    /**
+     * Tạo sẵn dòng version cho user mới, để các lần tăng sau chỉ cần UPDATE
+     */
+    @EventListener
+    public void onUserRegistered(UserRegisteredEvent event) {
+        userDataVersionRepository.save(new UserDataVersion(event.userId(), 0L));
+    }
+
+    /**
+     * Tăng version của user và gán version mới cho các todo đã thay đổi
+     *
+     * @return Version mới
+     */
+    private long bump(Long userId, Collection<Long> todoIds) {
+        long version;
+        if (userDataVersionRepository.increment(userId) == 0) {
+            userDataVersionRepository.save(new UserDataVersion(userId, 1L));
+            version = 1L;
+        } else {
+            version = userDataVersionRepository.findVersion(userId).orElse(0L);
+        }
+
+        List<Long> ids = new ArrayList<>(todoIds);
+        for (int from = 0; from < ids.size(); from += SYNC_STAMP_BATCH_SIZE) {
+            todoRepository.assignSyncVersion(ids.subList(from, Math.min(from + SYNC_STAMP_BATCH_SIZE, ids.size())), version);
+        }
+        return version;
+    }
+
+    private void remember(Long userId, long version) {
+        if (entries.size() >= maxSize) {
+            entries.clear();
+        }
+        Entry loaded = new Entry(version, System.nanoTime() + ttlSeconds * 1_000_000_000L);
+        // Không ghi đè version mới hơn bằng giá trị đọc được trước một commit đồng thời
+        entries.merge(userId, loaded, (current, next) -> next.version() >= current.version() ? next : current);
+    }
+
+    /**
+     * Các user (và todo) có dữ liệu thay đổi trong transaction hiện tại
+     */
+    private final class PendingBump implements TransactionSynchronization {
+
+        // Sắp xếp theo ID user để các transaction khóa các dòng version theo cùng một thứ tự
+        private final Map<Long, Set<Long>> todoIds = new TreeMap<>();
+        private final Map<Long, Long> versions = new HashMap<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            todoIds.forEach((userId, ids) -> versions.put(userId, bump(userId, ids)));
+        }
+
+        @Override
+        public void afterCommit() {
+            versions.forEach(UserDataVersionService.this::remember);
+            log.debug("Đã tăng version dữ liệu của {} user", versions.size());
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(UserDataVersionService.this);
+        }
+    }
+
+    private record Entry(long version, long expiresAtNanos) {
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
@@ -9,6 +9,7 @@ import jakarta.persistence.criteria.JoinType;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -119,23 +120,26 @@ public class TodoSpecification {
     }
 
     /**
-     * Filter todos by searching in title or description
-     * @param query Search query string
-     * @return Specification for text search filter
+     * Filter todos by due date in a half-open range
+     * @param from Start date (inclusive), null for no lower bound
+     * @param to End date (exclusive)
+     * @return Specification for due date range filter
      */
-    public static Specification<Todo> titleOrDescriptionContains(String query) {
-        return (root, criteriaQuery, criteriaBuilder) -> {
-            if (query == null || query.trim().isEmpty()) {
-                return criteriaBuilder.conjunction();
-            }
-            
-            String searchPattern = "%" + query.trim().toLowerCase() + "%";
-            
-            return criteriaBuilder.or(
-                criteriaBuilder.like(criteriaBuilder.lower(root.get("title")), searchPattern),
-                criteriaBuilder.like(criteriaBuilder.lower(root.get("description")), searchPattern)
-            );
-        };
+    public static Specification<Todo> dueDateInRange(LocalDateTime from, LocalDateTime to) {
+        return (root, query, criteriaBuilder) -> from == null
+                ? criteriaBuilder.lessThan(root.get("dueDate"), to)
+                : criteriaBuilder.and(
+                        criteriaBuilder.greaterThanOrEqualTo(root.get("dueDate"), from),
+                        criteriaBuilder.lessThan(root.get("dueDate"), to));
+    }
+
+    /**
+     * Filter todos by any of several statuses
+     * @param statuses Statuses to include
+     * @return Specification for status filter
+     */
+    public static Specification<Todo> hasStatusIn(Collection<TodoStatus> statuses) {
+        return (root, query, criteriaBuilder) -> root.get("status").in(statuses);
     }
 
     /**
@@ -0,0 +1,405 @@
+package com.todoapp.todos.stream;
+
+import com.todoapp.common.exception.RateLimitExceededException;
+import com.todoapp.todos.dto.TodoStreamEvent;
+import com.todoapp.todos.event.CategoryChangedEvent;
+import com.todoapp.todos.event.ReminderDueEvent;
+import com.todoapp.todos.event.TagChangedEvent;
+import com.todoapp.todos.event.TodoChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hub phát thay đổi todos/categories/tags của user tới các kết nối SSE (/api/todos/stream).
+ *
+ * Kết nối dùng async servlet (SseEmitter) nên kết nối đang chờ không giữ thread nào. Các thay đổi
+ * trong một transaction được gom lại và phát thành một event sau khi commit. Mỗi subscriber có hàng
+ * đợi giới hạn ({@code todo.stream.buffer-size}); việc ghi ra socket chạy trên một pool nhỏ, mỗi
+ * subscriber tối đa một tác vụ ghi tại một thời điểm. Subscriber bị ngắt khi hàng đợi đầy, khi event
+ * cũ nhất trong hàng đợi hoặc lần ghi đang chạy quá {@code todo.stream.send-timeout-ms} (client đọc
+ * chậm hoặc đã mất kết nối); client kết nối lại và đồng bộ bù qua /api/todos/changes.
+ *
+ * Lần ghi ra socket là blocking và không thể ngắt: thread đang ghi cho subscriber bị ngắt vì quá hạn
+ * vẫn bị giữ cho đến khi servlet container báo lỗi ghi. Trong thời gian đó pool được nới thêm một
+ * thread cho mỗi lần ghi bị kẹt (tối đa {@code todo.stream.sender-max-threads}), để các subscriber
+ * khác không phải chờ.
+ * Nhắc việc đến hạn của user cũng được gửi qua stream (event "reminder").
+ */
+@Slf4j
+@Component
+public class TodoChangeStream {
+
+    private final Map<Long, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final ThreadPoolExecutor sender;
+    private final AtomicInteger stuckSends = new AtomicInteger();
+
+    private final int bufferSize;
+    private final int maxConnections;
+    private final int maxConnectionsPerUser;
+    private final long timeoutMs;
+    private final long sendTimeoutNanos;
+    private final int senderThreads;
+
+    private final Counter slowConsumerEvictions;
+    private final Counter sendTimeoutEvictions;
+    private final Counter replacedEvictions;
+
+    public TodoChangeStream(MeterRegistry meterRegistry,
+                            @Value("${todo.stream.buffer-size:64}") int bufferSize,
+                            @Value("${todo.stream.max-connections:10000}") int maxConnections,
+                            @Value("${todo.stream.max-connections-per-user:5}") int maxConnectionsPerUser,
+                            @Value("${todo.stream.timeout-ms:1800000}") long timeoutMs,
+                            @Value("${todo.stream.send-timeout-ms:30000}") long sendTimeoutMs,
+                            @Value("${todo.stream.sender-threads:4}") int senderThreads,
+                            @Value("${todo.stream.sender-max-threads:64}") int senderMaxThreads) {
+        this.bufferSize = bufferSize;
+        this.maxConnections = maxConnections;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+        this.timeoutMs = timeoutMs;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        this.senderThreads = senderThreads;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.sender = new ThreadPoolExecutor(senderThreads, Math.max(senderThreads, senderMaxThreads),
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "todo-stream-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.slowConsumerEvictions = evictionCounter(meterRegistry, "slow-consumer");
+        this.sendTimeoutEvictions = evictionCounter(meterRegistry, "send-timeout");
+        this.replacedEvictions = evictionCounter(meterRegistry, "replaced");
+        Gauge.builder("todoapp.todos.stream.connections", connections, AtomicInteger::get)
+                .description("Open todo change stream connections")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Mở kết nối stream cho user. Khi user đã có đủ số kết nối cho phép, kết nối cũ nhất bị đóng.
+     *
+     * @throws RateLimitExceededException nếu server đã đạt số kết nối tối đa
+     */
+    public SseEmitter subscribe(Long userId) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            throw new RateLimitExceededException("Quá nhiều kết nối stream. Vui lòng thử lại sau.");
+        }
+
+        SseEmitter emitter = createEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        emitter.onCompletion(() -> remove(subscriber));
+        // Hết thời gian: đóng stream bình thường để request không kết thúc bằng AsyncRequestTimeoutException
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> remove(subscriber));
+
+        // Thêm trong compute để không chen vào giữa lúc remove() bỏ danh sách rỗng của user khỏi map
+        List<Subscriber> replaced = new ArrayList<>();
+        subscribers.compute(userId, (id, userSubscribers) -> {
+            List<Subscriber> list = userSubscribers != null ? userSubscribers : new CopyOnWriteArrayList<>();
+            list.add(subscriber);
+            for (int i = 0; i < list.size() - maxConnectionsPerUser; i++) {
+                replaced.add(list.get(i));
+            }
+            return list;
+        });
+        for (Subscriber oldest : replaced) {
+            replacedEvictions.increment();
+            oldest.close();
+        }
+
+        // Gửi ngay một comment để header của response được flush và client biết kết nối đã mở
+        subscriber.offer(SseEmitter.event().comment("connected"));
+        log.debug("User {} mở stream thay đổi todos ({} kết nối)", userId, connections.get());
+        return emitter;
+    }
+
+    @EventListener
+    public void onTodoChanged(TodoChangedEvent event) {
+        collect(event.userId(), "TODO", event.type().name(), event.todoId());
+    }
+
+    @EventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        collect(event.userId(), "CATEGORY", event.type().name(), event.categoryId());
+    }
+
+    @EventListener
+    public void onTagChanged(TagChangedEvent event) {
+        collect(event.userId(), "TAG", event.type().name(), event.tagId());
+    }
+
+    /**
+     * Nhắc việc đến hạn (InProcessReminderNotifier) được gửi thành event "reminder"
+     */
+    @EventListener
+    public void onReminderDue(ReminderDueEvent event) {
+        List<Subscriber> userSubscribers = subscribers.get(event.reminder().userId());
+        if (userSubscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : userSubscribers) {
+            subscriber.offer(SseEmitter.event().name("reminder").data(event.reminder(), MediaType.APPLICATION_JSON));
+        }
+    }
+
+    /**
+     * Gửi comment định kỳ để proxy không đóng kết nối rảnh và phát hiện kết nối đã mất
+     */
+    @Scheduled(fixedDelayString = "${todo.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        subscribers.values().forEach(userSubscribers ->
+                userSubscribers.forEach(subscriber -> subscriber.offer(SseEmitter.event().comment("heartbeat"))));
+    }
+
+    /**
+     * Ngắt các subscriber có lần ghi đang chạy hoặc event chờ gửi quá {@code todo.stream.send-timeout-ms}.
+     * Không bao giờ chờ lần ghi đang bị kẹt.
+     */
+    @Scheduled(fixedDelayString = "${todo.stream.deadline-check-ms:5000}")
+    public void evictStalled() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(userSubscribers ->
+                userSubscribers.forEach(subscriber -> subscriber.checkDeadline(now)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(Subscriber::close));
+        sender.shutdownNow();
+    }
+
+    /**
+     * Ghi nhận thay đổi; trong transaction thì chỉ phát sau khi commit
+     */
+    private void collect(Long userId, String entity, String type, Long id) {
+        if (!subscribers.containsKey(userId)) {
+            return;
+        }
+        TodoStreamEvent.Change change = new TodoStreamEvent.Change(entity, type, id);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(userId, List.of(change), 1);
+            return;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.add(userId, change);
+    }
+
+    private void publish(Long userId, List<TodoStreamEvent.Change> changes, int total) {
+        List<Subscriber> userSubscribers = subscribers.get(userId);
+        if (userSubscribers == null || userSubscribers.isEmpty()) {
+            return;
+        }
+        TodoStreamEvent event = TodoStreamEvent.builder()
+                .changes(changes)
+                .truncated(total > changes.size())
+                .build();
+        for (Subscriber subscriber : userSubscribers) {
+            subscriber.offer(SseEmitter.event().name("change").data(event, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        connections.decrementAndGet();
+        subscribers.computeIfPresent(subscriber.userId, (userId, userSubscribers) -> {
+            userSubscribers.remove(subscriber);
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+    }
+
+    /**
+     * Tạo emitter cho một kết nối; tách riêng để test thay bằng emitter không cần servlet response
+     */
+    SseEmitter createEmitter(long timeout) {
+        return new SseEmitter(timeout);
+    }
+
+    /**
+     * Nới pool gửi thêm một thread cho mỗi lần ghi đang bị kẹt, thu lại khi lần ghi đó kết thúc
+     */
+    private synchronized void adjustStuckSends(int delta) {
+        int stuck = stuckSends.addAndGet(delta);
+        sender.setCorePoolSize(Math.min(senderThreads + stuck, sender.getMaximumPoolSize()));
+    }
+
+    private static Counter evictionCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("todoapp.todos.stream.evictions")
+                .description("Todo change stream connections closed by the server")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Một kết nối SSE với hàng đợi event giới hạn
+     */
+    private final class Subscriber {
+
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<QueuedEvent> queue = new ArrayBlockingQueue<>(bufferSize);
+        // Quyền gửi/đóng emitter: chỉ thread giữ cờ này được gọi emitter.send()/complete()
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final AtomicBoolean stuck = new AtomicBoolean();
+        // Thời điểm (nanoTime) lần ghi đang chạy bắt đầu, 0 khi không ghi
+        private volatile long sendStartedAt;
+
+        Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) {
+                return;
+            }
+            long now = System.nanoTime();
+            if (checkDeadline(now)) {
+                return;
+            }
+            if (!queue.offer(new QueuedEvent(event, now))) {
+                slowConsumerEvictions.increment();
+                log.debug("Ngắt stream của user {}: client đọc chậm", userId);
+                close();
+                return;
+            }
+            scheduleSend();
+        }
+
+        /**
+         * Ngắt subscriber nếu lần ghi đang chạy hoặc event cũ nhất trong hàng đợi đã quá hạn
+         *
+         * @return true nếu subscriber đã bị ngắt
+         */
+        boolean checkDeadline(long now) {
+            if (closed.get()) {
+                return true;
+            }
+            long startedAt = sendStartedAt;
+            boolean sendExpired = startedAt != 0 && now - startedAt > sendTimeoutNanos;
+            QueuedEvent oldest = queue.peek();
+            if (!sendExpired && (oldest == null || now - oldest.queuedAt() <= sendTimeoutNanos)) {
+                return false;
+            }
+            sendTimeoutEvictions.increment();
+            log.debug("Ngắt stream của user {}: gửi event quá hạn", userId);
+            if (sendExpired && stuck.compareAndSet(false, true)) {
+                adjustStuckSends(1);
+            }
+            close();
+            return true;
+        }
+
+        /**
+         * Đóng kết nối mà không chờ: nếu đang có lần ghi, emitter được đóng bởi thread ghi khi nó kết thúc
+         */
+        void close() {
+            remove(this);
+            queue.clear();
+            if (sending.compareAndSet(false, true)) {
+                emitter.complete();
+            }
+        }
+
+        private void scheduleSend() {
+            if (sending.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                QueuedEvent event;
+                while (!closed.get() && (event = queue.poll()) != null) {
+                    sendStartedAt = System.nanoTime();
+                    emitter.send(event.event());
+                    sendStartedAt = 0;
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client đã đóng kết nối
+                remove(this);
+                queue.clear();
+            } finally {
+                sendStartedAt = 0;
+                if (stuck.get()) {
+                    adjustStuckSends(-1);
+                }
+                sending.set(false);
+            }
+            if (closed.get()) {
+                if (sending.compareAndSet(false, true)) {
+                    emitter.complete();
+                }
+            } else if (!queue.isEmpty()) {
+                scheduleSend();
+            }
+        }
+    }
+
+    /**
+     * Event chờ gửi cùng thời điểm vào hàng đợi
+     */
+    private record QueuedEvent(SseEmitter.SseEventBuilder event, long queuedAt) {
+    }
+
+    /**
+     * Các thay đổi của transaction hiện tại, theo user, phát sau khi commit
+     */
+    private final class PendingChanges implements TransactionSynchronization {
+
+        private final Map<Long, List<TodoStreamEvent.Change>> changes = new HashMap<>();
+        private final Map<Long, Integer> totals = new HashMap<>();
+
+        void add(Long userId, TodoStreamEvent.Change change) {
+            int total = totals.merge(userId, 1, Integer::sum);
+            if (total <= TodoStreamEvent.MAX_CHANGES) {
+                changes.computeIfAbsent(userId, id -> new ArrayList<>()).add(change);
+            }
+        }
+
+        @Override
+        public void afterCommit() {
+            changes.forEach((userId, userChanges) -> publish(userId, userChanges, totals.get(userId)));
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TodoChangeStream.this);
+        }
+    }
+}
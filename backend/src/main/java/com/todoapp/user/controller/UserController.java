@@ -1,5 +1,6 @@
 package com.todoapp.user.controller;
 
+import com.todoapp.auth.security.CurrentUserResolver;
 import com.todoapp.user.dto.ChangePasswordRequest;
 import com.todoapp.user.dto.UpdateUserRequest;
 import com.todoapp.user.dto.UserResponse;
@@ -21,6 +22,7 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
 
     private final UserService userService;
+    private final CurrentUserResolver currentUserResolver;
 
     /**
      * API lấy thông tin user hiện tại
@@ -53,10 +55,8 @@ public class UserController {
             Authentication authentication) {
         log.info("API PUT /api/users/me - Cập nhật profile user: {}", authentication.getName());
 
-        // Lấy user ID từ authentication
-        // Trong thực tế, bạn có thể lưu userId trong JWT claims hoặc lấy từ email
-        UserResponse currentUser = userService.getCurrentUser();
-        UserResponse response = userService.updateProfile(currentUser.getId(), request);
+        // Lấy user ID từ principal đã được JwtAuthenticationFilter dựng sẵn
+        UserResponse response = userService.updateProfile(currentUserResolver.getCurrentUserId(), request);
 
         log.info("Đã cập nhật profile user: {}", response.getEmail());
         return ResponseEntity.ok(response);
@@ -76,9 +76,8 @@ public class UserController {
             Authentication authentication) {
         log.info("API PUT /api/users/me/password - Đổi mật khẩu user: {}", authentication.getName());
 
-        // Lấy user ID từ authentication
-        UserResponse currentUser = userService.getCurrentUser();
-        userService.changePassword(currentUser.getId(), request);
+        // Lấy user ID từ principal đã được JwtAuthenticationFilter dựng sẵn
+        userService.changePassword(currentUserResolver.getCurrentUserId(), request);
 
         log.info("Đã đổi mật khẩu thành công cho user: {}", authentication.getName());
         return ResponseEntity.ok("Đổi mật khẩu thành công");
@@ -3,32 +3,45 @@ package com.todoapp.user.service;
 import com.todoapp.auth.entity.Role;
 import com.todoapp.auth.entity.User;
 import com.todoapp.auth.repository.UserRepository;
+import com.todoapp.auth.security.CurrentUserResolver;
 import com.todoapp.common.exception.BadRequestException;
 import com.todoapp.common.exception.ResourceNotFoundException;
 import com.todoapp.user.dto.ChangePasswordRequest;
 import com.todoapp.user.dto.UpdateUserRequest;
 import com.todoapp.user.dto.UserResponse;
 import com.todoapp.user.mapper.UserMapper;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Service xử lý các nghiệp vụ liên quan đến User
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class UserService {
 
     private final UserRepository userRepository;
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
+    private final CurrentUserResolver currentUserResolver;
+    private final TransactionTemplate transactionTemplate;
+
+    public UserService(UserRepository userRepository,
+                       UserMapper userMapper,
+                       PasswordEncoder passwordEncoder,
+                       CurrentUserResolver currentUserResolver,
+                       PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.userMapper = userMapper;
+        this.passwordEncoder = passwordEncoder;
+        this.currentUserResolver = currentUserResolver;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
 
     /**
      * Lấy thông tin user theo ID
@@ -58,17 +71,11 @@ public class UserService {
     public UserResponse getCurrentUser() {
         log.debug("Lấy thông tin user hiện tại từ SecurityContext");
 
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-
-        if (authentication == null || !authentication.isAuthenticated()) {
-            throw new BadRequestException("Không tìm thấy thông tin xác thực");
-        }
-
-        String email = authentication.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy user với email: " + email));
+        Long currentUserId = currentUserResolver.getCurrentUserId();
+        User user = userRepository.findById(currentUserId)
+                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy user với ID: " + currentUserId));
 
-        log.info("Đã lấy thông tin user hiện tại: {}", email);
+        log.info("Đã lấy thông tin user hiện tại: {}", user.getEmail());
         return userMapper.toResponse(user);
     }
 
@@ -102,7 +109,9 @@ public class UserService {
     }
 
     /**
-     * Đổi mật khẩu của user
+     * Đổi mật khẩu của user. Không chạy trong transaction: việc kiểm tra và băm mật khẩu (BCrypt, có thể
+     * phải chờ pool băm) không giữ connection database. Mật khẩu mới được ghi trong transaction riêng,
+     * chỉ khi mật khẩu hiện tại không bị đổi kể từ lúc kiểm tra.
      *
      * @param id      ID của user cần đổi mật khẩu
      * @param request ChangePasswordRequest chứa mật khẩu cũ và mật khẩu mới
@@ -110,7 +119,6 @@ public class UserService {
      * @throws BadRequestException       nếu mật khẩu cũ không đúng
      * @throws AccessDeniedException     nếu user không có quyền đổi mật khẩu
      */
-    @Transactional
     public void changePassword(Long id, ChangePasswordRequest request) {
         log.debug("Đổi mật khẩu cho user với ID: {}", id);
 
@@ -133,9 +141,19 @@ public class UserService {
             throw new BadRequestException("Mật khẩu mới phải khác mật khẩu cũ");
         }
 
-        // Mã hóa và cập nhật mật khẩu mới
-        user.setPassword(passwordEncoder.encode(request.getNewPassword()));
-        userRepository.save(user);
+        // Mã hóa mật khẩu mới, sau đó cập nhật trong transaction
+        String checkedPassword = user.getPassword();
+        String encodedPassword = passwordEncoder.encode(request.getNewPassword());
+        transactionTemplate.executeWithoutResult(status -> {
+            User current = userRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy user với ID: " + id));
+            if (!checkedPassword.equals(current.getPassword())) {
+                log.warn("Mật khẩu của user với ID: {} vừa bị thay đổi trong lúc đổi mật khẩu", id);
+                throw new BadRequestException("Mật khẩu vừa được thay đổi. Vui lòng thử lại.");
+            }
+            current.setPassword(encodedPassword);
+            userRepository.save(current);
+        });
 
         log.info("Đã đổi mật khẩu thành công cho user với ID: {}", id);
     }
@@ -147,16 +165,13 @@ public class UserService {
      * @throws AccessDeniedException nếu không có quyền
      */
     private void validateUserPermission(User targetUser) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-
-        if (authentication == null || !authentication.isAuthenticated()) {
+        User currentUser;
+        try {
+            currentUser = currentUserResolver.getCurrentUser();
+        } catch (BadRequestException e) {
             throw new AccessDeniedException("Không tìm thấy thông tin xác thực");
         }
 
-        String currentUserEmail = authentication.getName();
-        User currentUser = userRepository.findByEmail(currentUserEmail)
-                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy user hiện tại"));
-
         // ADMIN có thể thao tác trên bất kỳ user nào
         if (currentUser.getRole() == Role.ADMIN) {
             log.debug("User hiện tại là ADMIN, có quyền thao tác");
@@ -0,0 +1,7 @@
+-- V10: Reminder delivery state
+-- reminded_at = the remind_at value whose reminder has already been claimed and sent;
+-- setting a different remind_at re-arms the reminder
+
+ALTER TABLE todos ADD COLUMN reminded_at TIMESTAMP NULL;
+
+CREATE INDEX idx_todo_remind_at ON todos(remind_at);
@@ -0,0 +1,10 @@
+-- V11: Persisted token revocation watermarks
+-- Access tokens of a user issued at or before revoked_at are no longer trusted from their claims.
+-- No foreign key to users, so the watermark outlives a deleted user.
+
+CREATE TABLE token_revocations (
+    user_id BIGINT PRIMARY KEY,
+    revoked_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_token_revocation_revoked_at ON token_revocations(revoked_at);
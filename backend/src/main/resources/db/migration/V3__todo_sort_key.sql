@@ -0,0 +1,20 @@
+-- V3: Stored sort key for the default todo ordering (keyset pagination)
+-- sort_key = status rank (IN_PROGRESS 0, PENDING 1, others 2)
+--          + due_date as yyyyMMddHHmmss (no due date -> 2999-12-31 23:59:59)
+--          + (99999999999999999 - updated_at as yyyyMMddHHmmssSSS), zero padded to 17 digits
+
+UPDATE todos SET updated_at = created_at WHERE updated_at IS NULL;
+
+ALTER TABLE todos ADD COLUMN sort_key VARCHAR(64);
+
+UPDATE todos SET sort_key = CONCAT(
+    CASE status WHEN 'IN_PROGRESS' THEN '0' WHEN 'PENDING' THEN '1' ELSE '2' END,
+    DATE_FORMAT(COALESCE(due_date, '2999-12-31 23:59:59'), '%Y%m%d%H%i%s'),
+    LPAD(99999999999999999 - CAST(CONCAT(
+        DATE_FORMAT(updated_at, '%Y%m%d%H%i%s'),
+        LPAD(FLOOR(MICROSECOND(updated_at) / 1000), 3, '0')) AS UNSIGNED), 17, '0')
+);
+
+ALTER TABLE todos MODIFY sort_key VARCHAR(64) NOT NULL;
+
+CREATE INDEX idx_todo_user_sort ON todos(user_id, sort_key, id);
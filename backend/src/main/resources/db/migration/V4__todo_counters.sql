@@ -0,0 +1,20 @@
+-- V4: Denormalized child counters on todos (kept in sync by the services,
+-- repaired by TodoCounterReconciliationService)
+
+ALTER TABLE todos ADD COLUMN subtask_count INT NOT NULL DEFAULT 0;
+ALTER TABLE todos ADD COLUMN attachment_count INT NOT NULL DEFAULT 0;
+ALTER TABLE todos ADD COLUMN tag_count INT NOT NULL DEFAULT 0;
+
+UPDATE todos t
+JOIN (SELECT parent_id, COUNT(*) AS cnt FROM todos
+      WHERE parent_id IS NOT NULL AND deleted_at IS NULL
+      GROUP BY parent_id) s ON s.parent_id = t.id
+SET t.subtask_count = s.cnt;
+
+UPDATE todos t
+JOIN (SELECT todo_id, COUNT(*) AS cnt FROM attachments GROUP BY todo_id) a ON a.todo_id = t.id
+SET t.attachment_count = a.cnt;
+
+UPDATE todos t
+JOIN (SELECT todo_id, COUNT(*) AS cnt FROM todo_tags GROUP BY todo_id) g ON g.todo_id = t.id
+SET t.tag_count = g.cnt;
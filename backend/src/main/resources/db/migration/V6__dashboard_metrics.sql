@@ -0,0 +1,21 @@
+-- V6: Incrementally maintained admin dashboard metrics
+
+-- Completion time of todos (set when a todo becomes DONE, cleared when it leaves DONE)
+ALTER TABLE todos ADD COLUMN completed_at TIMESTAMP NULL;
+UPDATE todos SET completed_at = COALESCE(updated_at, created_at) WHERE status = 'DONE';
+CREATE INDEX idx_todo_completed_at ON todos(completed_at);
+
+-- Running totals (users, todos by status, categories, tags)
+CREATE TABLE metric_totals (
+    metric VARCHAR(64) PRIMARY KEY,
+    metric_value BIGINT NOT NULL,
+    updated_at TIMESTAMP NULL
+);
+
+-- Per-day counters (registrations, created and completed todos)
+CREATE TABLE daily_metrics (
+    bucket_date DATE NOT NULL,
+    metric VARCHAR(64) NOT NULL,
+    metric_value BIGINT NOT NULL,
+    PRIMARY KEY (bucket_date, metric)
+);
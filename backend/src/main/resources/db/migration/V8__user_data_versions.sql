@@ -0,0 +1,9 @@
+-- V8: Per-user data version, bumped on every change of a user's todos, categories or tags (ETag source)
+
+CREATE TABLE user_data_versions (
+    user_id BIGINT PRIMARY KEY,
+    data_version BIGINT NOT NULL,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+INSERT INTO user_data_versions (user_id, data_version) SELECT id, 0 FROM users;
@@ -0,0 +1,6 @@
+-- V9: Change sequence of todos for delta sync
+-- sync_version = the owner's data version (user_data_versions) of the last committed change of the todo
+
+ALTER TABLE todos ADD COLUMN sync_version BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX idx_todo_user_sync ON todos(user_id, sync_version, id);
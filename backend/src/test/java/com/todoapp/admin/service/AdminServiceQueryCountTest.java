@@ -0,0 +1,145 @@
+package com.todoapp.admin.service;
+
+import com.todoapp.admin.dto.TodoManagementResponse;
+import com.todoapp.admin.dto.UserManagementResponse;
+import com.todoapp.auth.entity.User;
+import com.todoapp.auth.security.UserSnapshotCache;
+import com.todoapp.common.config.AuditorAwareConfig;
+import com.todoapp.todos.entity.Category;
+import com.todoapp.todos.entity.Tag;
+import com.todoapp.todos.entity.Todo;
+import com.todoapp.todos.entity.TodoStatus;
+import com.todoapp.todos.search.TodoFullTextSearch;
+import com.todoapp.todos.service.UserDataVersionService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Kiểm tra số câu lệnh SQL của các trang quản trị (users, todos) không tăng theo kích thước trang (không N+1)
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({AdminService.class, TodoFullTextSearch.class, AuditorAwareConfig.class})
+@DisplayName("AdminService Query Count Tests")
+class AdminServiceQueryCountTest {
+
+    private static final int USER_COUNT = 15;
+    private static final int TODOS_PER_USER = 3;
+
+    @Autowired
+    private AdminService adminService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private UserSnapshotCache userSnapshotCache;
+
+    @MockBean
+    private DashboardMetricsService dashboardMetricsService;
+
+    @MockBean
+    private UserDataVersionService userDataVersionService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < USER_COUNT; i++) {
+            User user = User.builder()
+                    .email("admin-query-" + i + "@example.com")
+                    .password("encoded")
+                    .fullName("Admin Query " + i)
+                    .build();
+            entityManager.persist(user);
+
+            Category category = Category.builder().user(user).name("Work").color("#ff0000").build();
+            entityManager.persist(category);
+            Tag tag = Tag.builder().user(user).name("urgent").color("#00ff00").build();
+            entityManager.persist(tag);
+
+            for (int j = 0; j < TODOS_PER_USER; j++) {
+                entityManager.persist(Todo.builder()
+                        .user(user)
+                        .title("Todo " + i + "." + j)
+                        .status(j == 0 ? TodoStatus.DONE : TodoStatus.PENDING)
+                        .category(category)
+                        .tags(new HashSet<>(Set.of(tag)))
+                        .tagCount(1)
+                        .build());
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Danh sách users: số câu lệnh cố định (trang + count + 3 truy vấn thống kê gộp)")
+    void userPageUsesBoundedStatements() {
+        Page<UserManagementResponse> page = adminService.getAllUsers(PageRequest.of(0, 10), null);
+
+        assertThat(page.getContent()).hasSize(10);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(5);
+        assertUserStats(page);
+    }
+
+    @Test
+    @DisplayName("Tìm kiếm users: số câu lệnh cố định (trang + count + 3 truy vấn thống kê gộp)")
+    void userSearchUsesBoundedStatements() {
+        Page<UserManagementResponse> page = adminService.getAllUsers(PageRequest.of(0, 10), "admin query");
+
+        assertThat(page.getContent()).hasSize(10);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(5);
+        assertUserStats(page);
+    }
+
+    @Test
+    @DisplayName("Danh sách todos: số câu lệnh cố định (trang + count)")
+    void todoPageUsesBoundedStatements() {
+        Page<TodoManagementResponse> page = adminService.getAllTodos(PageRequest.of(0, 30), null);
+
+        assertThat(page.getContent()).hasSize(30);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+        for (TodoManagementResponse todo : page.getContent()) {
+            assertThat(todo.getUserEmail()).startsWith("admin-query-");
+            assertThat(todo.getCategoryName()).isEqualTo("Work");
+            assertThat(todo.getTagCount()).isEqualTo(1);
+        }
+    }
+
+    private void assertUserStats(Page<UserManagementResponse> page) {
+        for (UserManagementResponse user : page.getContent()) {
+            assertThat(user.getTotalTodos()).isEqualTo(TODOS_PER_USER);
+            assertThat(user.getCompletedTodos()).isEqualTo(1);
+            assertThat(user.getPendingTodos()).isEqualTo(TODOS_PER_USER - 1);
+            assertThat(user.getTotalCategories()).isEqualTo(1);
+            assertThat(user.getTotalTags()).isEqualTo(1);
+        }
+    }
+}
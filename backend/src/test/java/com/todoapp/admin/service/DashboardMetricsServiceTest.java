@@ -0,0 +1,260 @@
+package com.todoapp.admin.service;
+
+import com.todoapp.admin.entity.DailyMetric;
+import com.todoapp.admin.entity.DashboardMetric;
+import com.todoapp.admin.entity.MetricTotal;
+import com.todoapp.admin.repository.DailyMetricRepository;
+import com.todoapp.admin.repository.MetricTotalRepository;
+import com.todoapp.auth.entity.User;
+import com.todoapp.auth.entity.UserStatus;
+import com.todoapp.auth.event.UserRegisteredEvent;
+import com.todoapp.auth.repository.UserRepository;
+import com.todoapp.todos.entity.Todo;
+import com.todoapp.todos.entity.TodoPriority;
+import com.todoapp.todos.entity.TodoStatus;
+import com.todoapp.todos.event.TodoChangedEvent;
+import com.todoapp.todos.event.TodoSnapshot;
+import com.todoapp.todos.repository.CategoryRepository;
+import com.todoapp.todos.repository.TagRepository;
+import com.todoapp.todos.repository.TodoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests cho DashboardMetricsService: delta theo chuyển trạng thái/completedAt, flush thử lại khi lỗi
+ * và dựng lại từ bảng nguồn
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DashboardMetricsService Tests")
+class DashboardMetricsServiceTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2026, 10, 12, 10, 0);
+    private static final LocalDateTime TUESDAY = MONDAY.plusDays(1);
+
+    @Mock
+    private MetricTotalRepository metricTotalRepository;
+
+    @Mock
+    private DailyMetricRepository dailyMetricRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TodoRepository todoRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private TagRepository tagRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private DashboardMetricsService dashboardMetricsService;
+
+    @BeforeEach
+    void setUp() {
+        dashboardMetricsService = new DashboardMetricsService(metricTotalRepository, dailyMetricRepository,
+                userRepository, todoRepository, categoryRepository, tagRepository, transactionManager);
+        ReflectionTestUtils.setField(dashboardMetricsService, "rebuildDays", 35);
+    }
+
+    @Test
+    @DisplayName("Tạo todo: tăng tổng, trạng thái và số tạo trong ngày")
+    void createdTodoAddsTotals() {
+        // Given
+        Todo todo = todo(TodoStatus.PENDING, null);
+        todo.setCreatedAt(MONDAY);
+
+        // When
+        dashboardMetricsService.onTodoChanged(TodoChangedEvent.created(todo));
+
+        // Then
+        assertThat(dashboardMetricsService.getTotals())
+                .contains(entry(DashboardMetric.TODOS_TOTAL, 1L), entry(DashboardMetric.TODOS_PENDING, 1L));
+        assertThat(dashboardMetricsService.getDailyCounts(MONDAY.toLocalDate()).get(MONDAY.toLocalDate()))
+                .containsExactly(entry(DashboardMetric.TODOS_CREATED, 1L));
+    }
+
+    @Test
+    @DisplayName("Hoàn thành rồi mở lại: trạng thái chuyển qua lại, số hoàn thành trong ngày về 0")
+    void statusAndCompletionTransitions() {
+        // Given
+        Todo todo = todo(TodoStatus.PENDING, null);
+
+        // When: PENDING -> DONE (hoàn thành thứ Hai) -> IN_PROGRESS
+        update(todo, TodoStatus.DONE, MONDAY);
+        Map<DashboardMetric, Long> afterDone = dashboardMetricsService.getTotals();
+        Map<DashboardMetric, Long> completedAfterDone = dailyOn(MONDAY);
+        update(todo, TodoStatus.IN_PROGRESS, null);
+
+        // Then
+        assertThat(afterDone).contains(entry(DashboardMetric.TODOS_PENDING, -1L), entry(DashboardMetric.TODOS_DONE, 1L),
+                entry(DashboardMetric.TODOS_TOTAL, 0L));
+        assertThat(completedAfterDone).containsExactly(entry(DashboardMetric.TODOS_COMPLETED, 1L));
+        assertThat(dashboardMetricsService.getTotals()).contains(entry(DashboardMetric.TODOS_PENDING, -1L),
+                entry(DashboardMetric.TODOS_DONE, 0L), entry(DashboardMetric.TODOS_IN_PROGRESS, 1L));
+        assertThat(dailyOn(MONDAY)).containsExactly(entry(DashboardMetric.TODOS_COMPLETED, 0L));
+    }
+
+    @Test
+    @DisplayName("completedAt chuyển sang ngày khác: số hoàn thành chuyển giữa hai ngày, trạng thái không đổi")
+    void completionMovesBetweenDays() {
+        // Given
+        Todo todo = todo(TodoStatus.DONE, MONDAY);
+
+        // When
+        update(todo, TodoStatus.DONE, TUESDAY);
+
+        // Then
+        assertThat(dashboardMetricsService.getTotals()).contains(entry(DashboardMetric.TODOS_DONE, 0L));
+        assertThat(dailyOn(MONDAY)).containsExactly(entry(DashboardMetric.TODOS_COMPLETED, -1L));
+        assertThat(dailyOn(TUESDAY)).containsExactly(entry(DashboardMetric.TODOS_COMPLETED, 1L));
+    }
+
+    @Test
+    @DisplayName("Flush: cộng delta vào dòng có sẵn, tạo dòng mới khi chưa có")
+    void flushIncrementsOrInserts() {
+        // Given
+        dashboardMetricsService.onUserRegistered(new UserRegisteredEvent(1L, UserStatus.ACTIVE, MONDAY));
+        when(metricTotalRepository.increment(eq(DashboardMetric.USERS_TOTAL), eq(1L), any())).thenReturn(1);
+        when(metricTotalRepository.increment(eq(DashboardMetric.USERS_ACTIVE), eq(1L), any())).thenReturn(0);
+        when(dailyMetricRepository.increment(MONDAY.toLocalDate(), DashboardMetric.USERS_REGISTERED, 1L)).thenReturn(0);
+
+        // When
+        dashboardMetricsService.flush();
+        dashboardMetricsService.flush();
+
+        // Then
+        ArgumentCaptor<MetricTotal> total = ArgumentCaptor.forClass(MetricTotal.class);
+        verify(metricTotalRepository).save(total.capture());
+        assertThat(total.getValue().getMetric()).isEqualTo(DashboardMetric.USERS_ACTIVE);
+        assertThat(total.getValue().getValue()).isEqualTo(1L);
+        verify(dailyMetricRepository).save(any(DailyMetric.class));
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    @DisplayName("Flush lỗi: delta được giữ lại và cộng với delta mới ở lần flush sau")
+    void failedFlushKeepsDeltas() {
+        // Given
+        dashboardMetricsService.onUserRegistered(new UserRegisteredEvent(1L, UserStatus.INACTIVE, null));
+        when(metricTotalRepository.increment(eq(DashboardMetric.USERS_TOTAL), anyLong(), any()))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(1);
+
+        // When
+        dashboardMetricsService.flush();
+        Map<DashboardMetric, Long> afterFailure = dashboardMetricsService.getTotals();
+        dashboardMetricsService.onUserRegistered(new UserRegisteredEvent(2L, UserStatus.INACTIVE, null));
+        dashboardMetricsService.flush();
+
+        // Then
+        assertThat(afterFailure).contains(entry(DashboardMetric.USERS_TOTAL, 1L));
+        verify(metricTotalRepository).increment(eq(DashboardMetric.USERS_TOTAL), eq(1L), any());
+        verify(metricTotalRepository).increment(eq(DashboardMetric.USERS_TOTAL), eq(2L), any());
+        verify(transactionManager).rollback(any());
+        assertThat(dashboardMetricsService.getTotals()).contains(entry(DashboardMetric.USERS_TOTAL, 0L));
+    }
+
+    @Test
+    @DisplayName("Dựng lại: tổng lấy từ bảng nguồn, bỏ delta đã có trong số đếm, giữ delta của ngày ngoài khoảng")
+    void rebuildReplacesTotalsAndDropsIncludedDeltas() {
+        // Given
+        LocalDate today = LocalDate.now();
+        LocalDate old = today.minusDays(100);
+        dashboardMetricsService.onUserRegistered(new UserRegisteredEvent(1L, UserStatus.ACTIVE, today.atStartOfDay()));
+        Todo todo = todo(TodoStatus.DONE, old.atTime(9, 0));
+        update(todo, TodoStatus.PENDING, null);
+        when(userRepository.count()).thenReturn(7L);
+        when(userRepository.countByStatus(UserStatus.ACTIVE)).thenReturn(5L);
+        when(todoRepository.count()).thenReturn(3L);
+        when(todoRepository.countGroupedByStatus()).thenReturn(rows(new Object[]{TodoStatus.PENDING, 2L},
+                new Object[]{TodoStatus.DONE, 1L}));
+        when(todoRepository.countCreatedByDay(any())).thenReturn(rows(new Object[]{today, 3L}));
+        when(dailyMetricRepository.increment(old, DashboardMetric.TODOS_COMPLETED, -1L)).thenReturn(1);
+
+        // When
+        dashboardMetricsService.rebuild();
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<MetricTotal>> totals = ArgumentCaptor.forClass(List.class);
+        verify(metricTotalRepository).saveAll(totals.capture());
+        assertThat(totals.getValue()).extracting(MetricTotal::getMetric, MetricTotal::getValue).contains(
+                tuple(DashboardMetric.USERS_TOTAL, 7L), tuple(DashboardMetric.USERS_ACTIVE, 5L),
+                tuple(DashboardMetric.TODOS_PENDING, 2L), tuple(DashboardMetric.TODOS_DONE, 1L),
+                tuple(DashboardMetric.TODOS_IN_PROGRESS, 0L), tuple(DashboardMetric.TAGS_TOTAL, 0L));
+        verify(dailyMetricRepository).deleteSince(today.minusDays(35));
+        verify(dailyMetricRepository).increment(old, DashboardMetric.TODOS_COMPLETED, -1L);
+        verify(metricTotalRepository, never()).increment(any(), anyLong(), any());
+        assertThat(dashboardMetricsService.getTotals()).allSatisfy((metric, value) -> assertThat(value).isZero());
+    }
+
+    @Test
+    @DisplayName("Dựng lại lỗi: delta được trả lại để flush sau")
+    void failedRebuildRestoresDeltas() {
+        // Given
+        dashboardMetricsService.onUserRegistered(new UserRegisteredEvent(1L, UserStatus.INACTIVE, null));
+        when(userRepository.count()).thenThrow(new DataAccessResourceFailureException("down"));
+
+        // When / Then
+        assertThatThrownBy(dashboardMetricsService::rebuild).isInstanceOf(DataAccessResourceFailureException.class);
+        assertThat(dashboardMetricsService.getTotals()).contains(entry(DashboardMetric.USERS_TOTAL, 1L));
+        verify(metricTotalRepository, never()).saveAll(any());
+    }
+
+    private Map<DashboardMetric, Long> dailyOn(LocalDateTime day) {
+        return dashboardMetricsService.getDailyCounts(day.toLocalDate()).get(day.toLocalDate());
+    }
+
+    /**
+     * Phát event cập nhật giống TodoService sau khi đổi trạng thái (completedAt do entity tính khi lưu)
+     */
+    private void update(Todo todo, TodoStatus status, LocalDateTime completedAt) {
+        TodoSnapshot before = TodoSnapshot.of(todo);
+        todo.setStatus(status);
+        todo.setCompletedAt(completedAt);
+        dashboardMetricsService.onTodoChanged(TodoChangedEvent.updated(before, todo));
+    }
+
+    private static Todo todo(TodoStatus status, LocalDateTime completedAt) {
+        return Todo.builder()
+                .id(1L)
+                .user(User.builder().id(1L).build())
+                .title("Todo")
+                .status(status)
+                .priority(TodoPriority.MEDIUM)
+                .completedAt(completedAt)
+                .build();
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
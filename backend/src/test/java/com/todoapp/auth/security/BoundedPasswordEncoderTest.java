@@ -0,0 +1,96 @@
+package com.todoapp.auth.security;
+
+import com.todoapp.common.exception.ErrorResponse;
+import com.todoapp.common.exception.GlobalExceptionHandler;
+import com.todoapp.common.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+/**
+ * Unit tests cho BoundedPasswordEncoder khi pool băm mật khẩu đã bão hòa
+ */
+@DisplayName("BoundedPasswordEncoder Tests")
+class BoundedPasswordEncoderTest {
+
+    private static final long RETRY_AFTER_SECONDS = 2;
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private BoundedPasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        // 1 thread, không có hàng đợi: chỉ một việc băm tại một thời điểm
+        encoder = new BoundedPasswordEncoder(new BlockingEncoder(), 1, 0, RETRY_AFTER_SECONDS);
+        encoder.bindTo(meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.shutdown();
+    }
+
+    @Test
+    @DisplayName("Pool đã bận: yêu cầu bị từ chối ngay với 503 + Retry-After và được đếm")
+    void rejectsWhenSaturated() throws Exception {
+        // Given: thread duy nhất đang băm
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        ServiceUnavailableException exception = catchThrowableOfType(
+                () -> encoder.matches("second", "{noop}second"), ServiceUnavailableException.class);
+        ResponseEntity<ErrorResponse> response = new GlobalExceptionHandler()
+                .handleServiceUnavailable(exception, new MockHttpServletRequest("POST", "/api/auth/login"));
+
+        // Then
+        assertThat(exception.getRetryAfterSeconds()).isEqualTo(RETRY_AFTER_SECONDS);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(meterRegistry.get("todoapp.auth.password.rejections").functionCounter().count()).isEqualTo(1.0);
+
+        // Việc đang chạy không bị ảnh hưởng
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("encoded:first");
+    }
+
+    /**
+     * Encoder giả: lần băm đầu tiên chờ đến khi test cho phép
+     */
+    private final class BlockingEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "encoded:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
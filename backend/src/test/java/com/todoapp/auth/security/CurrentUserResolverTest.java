@@ -0,0 +1,145 @@
+package com.todoapp.auth.security;
+
+import com.todoapp.auth.entity.User;
+import com.todoapp.auth.repository.UserRepository;
+import com.todoapp.common.exception.BadRequestException;
+import com.todoapp.common.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests cho CurrentUserResolver: dùng principal dựng sẵn, fallback truy vấn theo email được ghi nhớ
+ * trong request, và metric todoapp.current_user.lookups theo nguồn
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CurrentUserResolver Tests")
+class CurrentUserResolverTest {
+
+    private static final String EMAIL = "current@example.com";
+
+    @Mock
+    private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CurrentUserResolver currentUserResolver;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        currentUserResolver = new CurrentUserResolver(userRepository, meterRegistry);
+        user = User.builder().id(1L).email(EMAIL).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("Principal là User: trả về principal, không truy vấn database")
+    void returnsPrincipalWithoutQuery() {
+        // Given
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, List.of()));
+
+        // When
+        User first = currentUserResolver.getCurrentUser();
+        Long id = currentUserResolver.getCurrentUserId();
+
+        // Then
+        assertThat(first).isSameAs(user);
+        assertThat(id).isEqualTo(1L);
+        assertThat(lookups("principal")).isEqualTo(2.0);
+        assertThat(lookups("database")).isZero();
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Principal không phải User: truy vấn theo email một lần, các lần sau trong request dùng kết quả đã nhớ")
+    void memoizesDatabaseLookupPerRequest() {
+        // Given
+        authenticateByName();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+
+        // When
+        User first = currentUserResolver.getCurrentUser();
+        User second = currentUserResolver.getCurrentUser();
+        User third = currentUserResolver.getCurrentUser();
+
+        // Then
+        assertThat(first).isSameAs(user);
+        assertThat(second).isSameAs(user);
+        assertThat(third).isSameAs(user);
+        assertThat(lookups("database")).isEqualTo(1.0);
+        assertThat(lookups("request-cache")).isEqualTo(2.0);
+        assertThat(lookups("principal")).isZero();
+        verify(userRepository, times(1)).findByEmail(EMAIL);
+    }
+
+    @Test
+    @DisplayName("Request mới: kết quả của request trước không được dùng lại")
+    void doesNotShareLookupAcrossRequests() {
+        // Given
+        authenticateByName();
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+
+        // When
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        currentUserResolver.getCurrentUser();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        currentUserResolver.getCurrentUser();
+        RequestContextHolder.resetRequestAttributes();
+        currentUserResolver.getCurrentUser();
+
+        // Then: ngoài request (ví dụ job nền) thì không có chỗ ghi nhớ
+        assertThat(lookups("database")).isEqualTo(3.0);
+        assertThat(lookups("request-cache")).isZero();
+        verify(userRepository, times(3)).findByEmail(EMAIL);
+    }
+
+    @Test
+    @DisplayName("Không có authentication hoặc không tìm thấy user: báo lỗi")
+    void failsWithoutAuthenticationOrUser() {
+        // When / Then
+        assertThatThrownBy(() -> currentUserResolver.getCurrentUser()).isInstanceOf(BadRequestException.class);
+
+        authenticateByName();
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.empty());
+        assertThatThrownBy(() -> currentUserResolver.getCurrentUser())
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining(EMAIL);
+    }
+
+    private void authenticateByName() {
+        TestingAuthenticationToken authentication = new TestingAuthenticationToken(EMAIL, null);
+        authentication.setAuthenticated(true);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+
+    private double lookups(String source) {
+        return meterRegistry.get("todoapp.current_user.lookups").tag("source", source).counter().count();
+    }
+}
@@ -0,0 +1,157 @@
+package com.todoapp.auth.security;
+
+import com.todoapp.auth.entity.Role;
+import com.todoapp.auth.entity.TokenRevocation;
+import com.todoapp.auth.entity.User;
+import com.todoapp.auth.entity.UserStatus;
+import com.todoapp.auth.repository.TokenRevocationRepository;
+import com.todoapp.auth.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests cho JwtAuthenticationFilter ở chế độ CLAIMS.
+ *
+ * Mỗi test dựng một UserSnapshotCache mới (tương đương instance vừa khởi động hoặc instance khác),
+ * mốc thu hồi chỉ có trong database (TokenRevocationRepository).
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("JwtAuthenticationFilter Tests")
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "test-secret-key-for-jwt-authentication-filter-tests-min-256-bits";
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TokenRevocationRepository tokenRevocationRepository;
+
+    private JwtService jwtService;
+    private JwtAuthenticationFilter filter;
+    private User admin;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService(SECRET, 60, 100);
+        UserSnapshotCache userSnapshotCache = new UserSnapshotCache(tokenRevocationRepository, 100, 60, 60);
+        filter = new JwtAuthenticationFilter(jwtService, userRepository, userSnapshotCache);
+        ReflectionTestUtils.setField(filter, "principalResolution", PrincipalResolutionMode.CLAIMS);
+
+        admin = User.builder()
+                .id(1L)
+                .email("admin@example.com")
+                .role(Role.ADMIN)
+                .status(UserStatus.ACTIVE)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Token chưa bị thu hồi - dùng claims, không truy vấn users")
+    void claimsTrustedWithoutRevocation() throws Exception {
+        String token = jwtService.generateToken(admin);
+        when(tokenRevocationRepository.findByRevokedAtAfter(any())).thenReturn(List.of());
+
+        Authentication authentication = authenticate(token);
+
+        assertThat(authorities(authentication)).containsExactly("ROLE_ADMIN");
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("User bị hạ quyền - token cũ dùng role hiện tại trong database")
+    void demotedUserLosesRoleFromOldToken() throws Exception {
+        String token = jwtService.generateToken(admin);
+        revokedNow(admin.getId());
+        when(userRepository.findById(admin.getId())).thenReturn(Optional.of(copy(Role.USER, UserStatus.ACTIVE)));
+
+        Authentication authentication = authenticate(token);
+
+        assertThat(authorities(authentication)).containsExactly("ROLE_USER");
+    }
+
+    @Test
+    @DisplayName("User bị khóa - token cũ bị từ chối")
+    void suspendedUserIsRejected() throws Exception {
+        String token = jwtService.generateToken(admin);
+        revokedNow(admin.getId());
+        when(userRepository.findById(admin.getId())).thenReturn(Optional.of(copy(Role.ADMIN, UserStatus.SUSPENDED)));
+
+        assertThat(authenticate(token)).isNull();
+    }
+
+    @Test
+    @DisplayName("User bị xóa - token cũ bị từ chối")
+    void deletedUserIsRejected() throws Exception {
+        String token = jwtService.generateToken(admin);
+        revokedNow(admin.getId());
+        when(userRepository.findById(admin.getId())).thenReturn(Optional.empty());
+
+        assertThat(authenticate(token)).isNull();
+    }
+
+    @Test
+    @DisplayName("Token phát hành sau mốc thu hồi - dùng claims")
+    void tokenIssuedAfterRevocationIsTrusted() throws Exception {
+        when(tokenRevocationRepository.findByRevokedAtAfter(any())).thenReturn(List.of(
+                new TokenRevocation(admin.getId(), LocalDateTime.now().minusMinutes(5))));
+        String token = jwtService.generateToken(admin);
+
+        Authentication authentication = authenticate(token);
+
+        assertThat(authorities(authentication)).containsExactly("ROLE_ADMIN");
+        verifyNoInteractions(userRepository);
+    }
+
+    private void revokedNow(Long userId) {
+        when(tokenRevocationRepository.findByRevokedAtAfter(any())).thenReturn(List.of(
+                new TokenRevocation(userId, LocalDateTime.now())));
+    }
+
+    private User copy(Role role, UserStatus status) {
+        return User.builder()
+                .id(admin.getId())
+                .email(admin.getEmail())
+                .role(role)
+                .status(status)
+                .build();
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/todos");
+        request.setServletPath("/api/todos");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private static List<String> authorities(Authentication authentication) {
+        assertThat(authentication).isNotNull();
+        return authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+    }
+}
@@ -0,0 +1,126 @@
+package com.todoapp.auth.security;
+
+import com.todoapp.auth.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests cho cache token đã xác thực của JwtService: cache hit, hết hạn, token giả mạo dùng lại
+ * chữ ký và dọn cache theo lô
+ */
+@DisplayName("JwtService Tests")
+class JwtServiceTest {
+
+    private static final String SECRET = "test-secret-key-for-jwt-service-test-min-256-bits-long";
+
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService(SECRET, 60, 20);
+    }
+
+    @Test
+    @DisplayName("Token đã xác thực: lần sau lấy claims từ cache")
+    void returnsCachedClaims() {
+        // Given
+        String token = jwtService.generateToken(user(1L));
+
+        // When
+        Claims first = jwtService.verifyToken(token);
+        Claims second = jwtService.verifyToken(token);
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(jwtService.getUserIdFromToken(token)).isEqualTo(1L);
+        assertThat(jwtService.verifiedCacheSize()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Token hết hạn: không được trả về từ cache")
+    void expiredTokenIsNotServedFromCache() throws InterruptedException {
+        // Given
+        Date expiration = new Date(System.currentTimeMillis() + 1500);
+        String token = Jwts.builder()
+                .subject("1")
+                .expiration(expiration)
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+        jwtService.verifyToken(token);
+
+        // When
+        Date expiresAt = jwtService.verifyToken(token).getExpiration();
+        while (System.currentTimeMillis() < expiresAt.getTime()) {
+            Thread.sleep(50);
+        }
+
+        // Then
+        assertThatThrownBy(() -> jwtService.verifyToken(token)).isInstanceOf(ExpiredJwtException.class);
+        assertThat(jwtService.validateToken(token)).isFalse();
+        assertThat(jwtService.verifiedCacheSize()).isZero();
+    }
+
+    @Test
+    @DisplayName("Cùng chữ ký nhưng nội dung khác: không dùng claims trong cache")
+    void sameSignatureWithDifferentContentIsRejected() {
+        // Given
+        String token = jwtService.generateToken(user(1L));
+        jwtService.verifyToken(token);
+        String[] parts = token.split("\\.");
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+                        .replace("\"sub\":\"1\"", "\"sub\":\"2\"")
+                        .getBytes(StandardCharsets.UTF_8));
+        String forged = parts[0] + "." + forgedPayload + "." + parts[2];
+
+        // When / Then
+        assertThat(forged).isNotEqualTo(token);
+        assertThatThrownBy(() -> jwtService.verifyToken(forged)).isInstanceOf(SignatureException.class);
+        assertThat(jwtService.getUserIdFromToken(token)).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Cache đầy: dọn theo lô, các lần miss tiếp theo không phải dọn lại")
+    void evictsInBatches() {
+        // Given
+        List<String> tokens = new ArrayList<>();
+        for (long id = 1; id <= 22; id++) {
+            tokens.add(jwtService.generateToken(user(id)));
+        }
+        tokens.subList(0, 20).forEach(jwtService::verifyToken);
+        assertThat(jwtService.verifiedCacheSize()).isEqualTo(20);
+
+        // When
+        jwtService.verifyToken(tokens.get(20));
+        int afterEviction = jwtService.verifiedCacheSize();
+        jwtService.verifyToken(tokens.get(21));
+
+        // Then: xóa 2 entry (10%) rồi thêm token mới, lần miss sau chỉ put
+        assertThat(afterEviction).isEqualTo(19);
+        assertThat(jwtService.verifiedCacheSize()).isEqualTo(20);
+        Claims cached = jwtService.verifyToken(tokens.get(21));
+        assertThat(jwtService.verifyToken(tokens.get(21))).isSameAs(cached);
+    }
+
+    private static User user(Long id) {
+        return User.builder()
+                .id(id)
+                .email("user" + id + "@example.com")
+                .build();
+    }
+}
@@ -0,0 +1,111 @@
+package com.todoapp.auth.security;
+
+import com.todoapp.auth.entity.TokenRevocation;
+import com.todoapp.auth.repository.TokenRevocationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests cho việc nạp mốc thu hồi của UserSnapshotCache: nạp một lần, không chặn request thread
+ * và không làm request thất bại khi database lỗi
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserSnapshotCache Tests")
+class UserSnapshotCacheTest {
+
+    private static final Long USER_ID = 1L;
+
+    @Mock
+    private TokenRevocationRepository tokenRevocationRepository;
+
+    private UserSnapshotCache userSnapshotCache;
+
+    @BeforeEach
+    void setUp() {
+        userSnapshotCache = new UserSnapshotCache(tokenRevocationRepository, 100, 60, 60);
+    }
+
+    @Test
+    @DisplayName("Nạp khi khởi động: request sau đó không truy vấn lại")
+    void loadsOnceOnStartup() {
+        // Given
+        when(tokenRevocationRepository.findByRevokedAtAfter(any())).thenReturn(List.of(
+                new TokenRevocation(USER_ID, LocalDateTime.now().minusMinutes(1))));
+
+        // When
+        userSnapshotCache.loadOnStartup();
+
+        // Then
+        assertThat(userSnapshotCache.isStale(USER_ID, Instant.now().minusSeconds(120))).isTrue();
+        assertThat(userSnapshotCache.isStale(USER_ID, Instant.now())).isFalse();
+        assertThat(userSnapshotCache.isStale(2L, Instant.now().minusSeconds(120))).isFalse();
+        verify(tokenRevocationRepository, times(1)).findByRevokedAtAfter(any());
+    }
+
+    @Test
+    @DisplayName("Database lỗi: token bị coi là cũ thay vì request thất bại, lần sau thử nạp lại")
+    void failsSoftWhenLoadFails() {
+        // Given
+        when(tokenRevocationRepository.findByRevokedAtAfter(any()))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(List.of());
+
+        // When / Then
+        userSnapshotCache.loadOnStartup();
+        assertThat(userSnapshotCache.isStale(USER_ID, Instant.now())).isFalse();
+        assertThat(userSnapshotCache.isStale(USER_ID, Instant.now())).isFalse();
+        verify(tokenRevocationRepository, times(2)).findByRevokedAtAfter(any());
+    }
+
+    @Test
+    @DisplayName("Request đầu tiên lỗi khi nạp: token bị coi là cũ")
+    void requestPathTreatsLoadFailureAsStale() {
+        // Given
+        when(tokenRevocationRepository.findByRevokedAtAfter(any()))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        // When / Then
+        assertThat(userSnapshotCache.isStale(USER_ID, Instant.now())).isTrue();
+    }
+
+    @Test
+    @DisplayName("Đang có thread nạp: request khác không chờ, không truy vấn lại mà coi token là cũ")
+    void concurrentRequestDoesNotWaitForLoad() throws Exception {
+        // Given
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(tokenRevocationRepository.findByRevokedAtAfter(any())).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+        CompletableFuture<Boolean> first = CompletableFuture.supplyAsync(() -> userSnapshotCache.isStale(USER_ID, Instant.now()));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        boolean second = userSnapshotCache.isStale(USER_ID, Instant.now());
+        release.countDown();
+
+        // Then
+        assertThat(second).isTrue();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isFalse();
+        assertThat(userSnapshotCache.isStale(USER_ID, Instant.now())).isFalse();
+        verify(tokenRevocationRepository, times(1)).findByRevokedAtAfter(any());
+    }
+}
@@ -14,10 +14,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
@@ -47,6 +50,12 @@ class AuthServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private AuthService authService;
 
@@ -96,7 +105,7 @@ class AuthServiceTest {
         when(userRepository.existsByEmail(registerRequest.getEmail())).thenReturn(false);
         when(passwordEncoder.encode(registerRequest.getPassword())).thenReturn("encodedPassword");
         when(userRepository.save(any(User.class))).thenReturn(user);
-        when(jwtService.generateToken(user.getId())).thenReturn("access-token-123");
+        when(jwtService.generateToken(user)).thenReturn("access-token-123");
         when(refreshTokenService.createRefreshToken(user)).thenReturn(refreshToken);
 
         // When
@@ -112,10 +121,15 @@ class AuthServiceTest {
         assertThat(response.getFullName()).isEqualTo("Test User");
         assertThat(response.getRole()).isEqualTo("USER");
 
-        verify(userRepository).existsByEmail(registerRequest.getEmail());
-        verify(passwordEncoder).encode(registerRequest.getPassword());
-        verify(userRepository).save(any(User.class));
-        verify(jwtService).generateToken(user.getId());
+        // Mật khẩu được băm trước khi mở transaction; email được kiểm tra lại trong transaction
+        InOrder inOrder = inOrder(userRepository, passwordEncoder, transactionManager);
+        inOrder.verify(userRepository).existsByEmail(registerRequest.getEmail());
+        inOrder.verify(passwordEncoder).encode(registerRequest.getPassword());
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(userRepository).existsByEmail(registerRequest.getEmail());
+        inOrder.verify(userRepository).save(any(User.class));
+        inOrder.verify(transactionManager).commit(any());
+        verify(jwtService).generateToken(user);
         verify(refreshTokenService).createRefreshToken(user);
     }
 
@@ -141,7 +155,7 @@ class AuthServiceTest {
         // Given
         when(userRepository.findByEmail(loginRequest.getEmail())).thenReturn(Optional.of(user));
         when(passwordEncoder.matches(loginRequest.getPassword(), user.getPassword())).thenReturn(true);
-        when(jwtService.generateToken(user.getId())).thenReturn("access-token-123");
+        when(jwtService.generateToken(user)).thenReturn("access-token-123");
         when(refreshTokenService.createRefreshToken(user)).thenReturn(refreshToken);
 
         // When
@@ -157,7 +171,7 @@ class AuthServiceTest {
 
         verify(userRepository).findByEmail(loginRequest.getEmail());
         verify(passwordEncoder).matches(loginRequest.getPassword(), user.getPassword());
-        verify(jwtService).generateToken(user.getId());
+        verify(jwtService).generateToken(user);
         verify(refreshTokenService).createRefreshToken(user);
     }
 
@@ -217,7 +231,7 @@ class AuthServiceTest {
         // Given
         String refreshTokenString = "refresh-token-123";
         when(refreshTokenService.validateRefreshToken(refreshTokenString)).thenReturn(refreshToken);
-        when(jwtService.generateToken(user.getId())).thenReturn("new-access-token");
+        when(jwtService.generateToken(user)).thenReturn("new-access-token");
 
         // When
         AuthResponse response = authService.refreshToken(refreshTokenString);
@@ -231,7 +245,7 @@ class AuthServiceTest {
         assertThat(response.getEmail()).isEqualTo("test@example.com");
 
         verify(refreshTokenService).validateRefreshToken(refreshTokenString);
-        verify(jwtService).generateToken(user.getId());
+        verify(jwtService).generateToken(user);
     }
 
     @Test
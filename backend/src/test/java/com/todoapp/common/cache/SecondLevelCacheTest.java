@@ -0,0 +1,177 @@
+package com.todoapp.common.cache;
+
+import com.todoapp.auth.entity.User;
+import com.todoapp.common.config.AuditorAwareConfig;
+import com.todoapp.todos.entity.Tag;
+import com.todoapp.todos.entity.Todo;
+import com.todoapp.todos.event.ChangeType;
+import com.todoapp.todos.event.TagChangedEvent;
+import com.todoapp.todos.service.TodoTagsCacheInvalidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Kiểm tra second-level cache trên database thật (H2): các region được bật, xóa tag làm mới
+ * collection Todo.tags đã cache, và metrics hit/miss được xuất theo từng region.
+ * Không chạy trong transaction của test vì cache chỉ được ghi/xóa khi transaction commit.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({TodoTagsCacheInvalidator.class, AuditorAwareConfig.class})
+@DisplayName("Second-Level Cache Tests")
+class SecondLevelCacheTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate jdbcTemplate;
+    private Statistics statistics;
+
+    private User user;
+    private Tag urgent;
+    private Tag home;
+    private Todo todo;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        user = User.builder().email("cache@example.com").password("encoded").fullName("Cache").build();
+        urgent = Tag.builder().user(user).name("urgent").color("#ff0000").build();
+        home = Tag.builder().user(user).name("home").color("#0000ff").build();
+        todo = Todo.builder().user(user).title("Cached").tags(new HashSet<>(Set.of(urgent, home))).tagCount(2).build();
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.persist(user);
+            entityManager.persist(urgent);
+            entityManager.persist(home);
+            entityManager.persist(todo);
+        });
+
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM todo_tags WHERE todo_id IN (SELECT id FROM todos WHERE user_id = ?)", user.getId());
+        jdbcTemplate.update("DELETE FROM todos WHERE user_id = ?", user.getId());
+        jdbcTemplate.update("DELETE FROM tags WHERE user_id = ?", user.getId());
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    @DisplayName("Các region được khai báo và bật: lần đọc thứ hai lấy từ cache")
+    void regionsAreActive() {
+        // When
+        loadTag(urgent.getId());
+        loadTag(urgent.getId());
+        loadTagNames();
+        loadTagNames();
+
+        // Then
+        assertThat(statistics.getSecondLevelCacheRegionNames()).contains(
+                CacheRegions.USERS, CacheRegions.CATEGORIES, CacheRegions.TAGS, CacheRegions.TODO_TAGS);
+        assertThat(entityManagerFactory.getCache().contains(Tag.class, urgent.getId())).isTrue();
+        assertThat(statistics.getDomainDataRegionStatistics(CacheRegions.TAGS).getHitCount()).isPositive();
+        assertThat(statistics.getDomainDataRegionStatistics(CacheRegions.TODO_TAGS).getHitCount()).isEqualTo(1);
+        assertThat(statistics.getDomainDataRegionStatistics(CacheRegions.TODO_TAGS).getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Xóa tag (todo_tags bị xóa bởi ON DELETE CASCADE): collection Todo.tags trong cache bị xóa")
+    void tagDeleteEvictsTodoTags() {
+        // Given
+        assertThat(loadTagNames()).containsExactlyInAnyOrder("urgent", "home");
+        assertThat(loadTagNames()).containsExactlyInAnyOrder("urgent", "home");
+        assertThat(statistics.getDomainDataRegionStatistics(CacheRegions.TODO_TAGS).getHitCount()).isEqualTo(1);
+
+        // When: database xóa dòng todo_tags mà Hibernate không biết, như ON DELETE CASCADE
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM todo_tags WHERE tag_id = ?", urgent.getId());
+            jdbcTemplate.update("DELETE FROM tags WHERE id = ?", urgent.getId());
+            eventPublisher.publishEvent(new TagChangedEvent(user.getId(), urgent.getId(), ChangeType.DELETED));
+        });
+
+        // Then
+        assertThat(loadTagNames()).containsExactly("home");
+        assertThat(statistics.getDomainDataRegionStatistics(CacheRegions.TODO_TAGS).getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("SecondLevelCacheMetrics xuất cache.gets hit/miss theo từng region")
+    void exportsPerRegionHitsAndMisses() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new SecondLevelCacheMetrics(entityManagerFactory).bindTo(registry);
+        double hitsBefore = gets(registry, CacheRegions.TAGS, "hit");
+        double missesBefore = gets(registry, CacheRegions.TAGS, "miss");
+
+        // When
+        loadTag(home.getId());
+        loadTag(home.getId());
+        loadTag(home.getId());
+
+        // Then
+        assertThat(registry.find("cache.gets").tag("cache", CacheRegions.TODO_TAGS).functionCounters()).isNotEmpty();
+        // READ_WRITE đọc lại region trước khi ghi entry vừa nạp, nên một lần nạp có thể tính nhiều miss
+        assertThat(gets(registry, CacheRegions.TAGS, "miss") - missesBefore).isPositive();
+        assertThat(gets(registry, CacheRegions.TAGS, "hit") - hitsBefore).isEqualTo(2.0);
+    }
+
+    private void loadTag(Long id) {
+        transactionTemplate.executeWithoutResult(status -> entityManager.find(Tag.class, id));
+    }
+
+    private Set<String> loadTagNames() {
+        return transactionTemplate.execute(status -> entityManager.find(Todo.class, todo.getId()).getTags().stream()
+                .map(Tag::getName)
+                .collect(Collectors.toSet()));
+    }
+
+    private static double gets(SimpleMeterRegistry registry, String region, String result) {
+        return registry.get("cache.gets").tag("cache", region).tag("result", result).functionCounter().count();
+    }
+}
@@ -0,0 +1,152 @@
+package com.todoapp.common.db;
+
+import com.todoapp.common.exception.ErrorResponse;
+import com.todoapp.common.exception.GlobalExceptionHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests cho DbConcurrencyLimiter: trả permit khi đóng connection hoặc khi lấy connection lỗi,
+ * hết thời gian chờ được trả về 503, và DataSource chỉ được bọc khi giới hạn nhỏ hơn pool
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DbConcurrencyLimiter Tests")
+class DbConcurrencyLimiterTest {
+
+    @Mock
+    private DataSource target;
+
+    @Mock
+    private Connection connection;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DbConcurrencyLimiter limiter;
+    private ConcurrencyLimitedDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = new DbConcurrencyLimiter(1, 50);
+        limiter.bindTo(meterRegistry);
+        dataSource = new ConcurrencyLimitedDataSource(target, limiter);
+    }
+
+    @Test
+    @DisplayName("Đóng connection trả permit cho request tiếp theo")
+    void closeReleasesPermit() throws SQLException {
+        // Given
+        when(target.getConnection()).thenReturn(connection);
+        Connection first = dataSource.getConnection();
+        assertThat(active()).isEqualTo(1.0);
+
+        // When
+        first.close();
+        Connection second = dataSource.getConnection();
+
+        // Then
+        assertThat(second).isNotNull();
+        verify(connection).close();
+        assertThat(active()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Đóng hai lần chỉ trả một permit")
+    void doubleCloseReleasesOnce() throws SQLException {
+        // Given
+        when(target.getConnection()).thenReturn(connection);
+        Connection first = dataSource.getConnection();
+
+        // When
+        first.close();
+        first.close();
+
+        // Then
+        assertThat(active()).isZero();
+        dataSource.getConnection();
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+    }
+
+    @Test
+    @DisplayName("Lấy connection từ pool lỗi: permit được trả lại")
+    void failedGetConnectionReleasesPermit() throws SQLException {
+        // Given
+        when(target.getConnection()).thenThrow(new SQLTransientConnectionException("pool timeout"))
+                .thenReturn(connection);
+
+        // When / Then
+        assertThatThrownBy(dataSource::getConnection).hasMessage("pool timeout");
+        assertThat(active()).isZero();
+        assertThat(dataSource.getConnection()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Hết thời gian chờ permit: lỗi tạm thời, được trả về 503 kèm Retry-After")
+    void timeoutMapsTo503() throws SQLException {
+        // Given
+        when(target.getConnection()).thenReturn(connection);
+        dataSource.getConnection();
+
+        // When
+        SQLTransientConnectionException timeout = catchTimeout();
+        ResponseEntity<ErrorResponse> response = new GlobalExceptionHandler().handleCannotCreateTransaction(
+                new CannotCreateTransactionException("Could not open JPA EntityManager for transaction", timeout),
+                new MockHttpServletRequest("GET", "/api/todos"));
+
+        // Then
+        assertThat(timeout.getMessage()).contains("limit (1)");
+        assertThat(meterRegistry.get("todoapp.db.concurrency.rejections").functionCounter().count()).isEqualTo(1.0);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        verify(target, times(1)).getConnection();
+    }
+
+    @Test
+    @DisplayName("DataSource chỉ được bọc khi giới hạn nhỏ hơn kích thước pool")
+    void wrapsOnlyWhenLimitIsBelowPoolSize() {
+        ApplicationContextRunner runner = new ApplicationContextRunner()
+                .withUserConfiguration(DbConcurrencyConfig.class)
+                .withBean(DataSource.class, () -> target)
+                .withPropertyValues(DbConcurrencyConfig.POOL_SIZE + "=10");
+
+        runner.run(context -> assertThat(context.getBean(DataSource.class)).isSameAs(target));
+        runner.withPropertyValues(DbConcurrencyConfig.MAX_CONCURRENT + "=10")
+                .run(context -> assertThat(context).doesNotHaveBean(DbConcurrencyLimiter.class)
+                        .getBean(DataSource.class).isSameAs(target));
+        runner.withPropertyValues(DbConcurrencyConfig.MAX_CONCURRENT + "=8")
+                .run(context -> assertThat(context.getBean(DataSource.class))
+                        .isInstanceOf(ConcurrencyLimitedDataSource.class));
+    }
+
+    private SQLTransientConnectionException catchTimeout() {
+        try {
+            dataSource.getConnection();
+        } catch (SQLException e) {
+            return (SQLTransientConnectionException) e;
+        }
+        throw new AssertionError("Expected a permit timeout");
+    }
+
+    private double active() {
+        return meterRegistry.get("todoapp.db.concurrency.active").gauge().value();
+    }
+}
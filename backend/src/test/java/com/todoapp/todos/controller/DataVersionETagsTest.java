@@ -0,0 +1,152 @@
+package com.todoapp.todos.controller;
+
+import com.todoapp.auth.security.CurrentUserResolver;
+import com.todoapp.todos.service.UserDataVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests cho DataVersionETags: so khớp If-None-Match theo version dữ liệu, thời điểm hết hiệu lực
+ * trong ETag và trả về 304 mà không nạp dữ liệu
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DataVersionETags Tests")
+class DataVersionETagsTest {
+
+    private static final Long USER_ID = 1L;
+
+    @Mock
+    private CurrentUserResolver currentUserResolver;
+
+    @Mock
+    private UserDataVersionService userDataVersionService;
+
+    private DataVersionETags dataVersionETags;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        dataVersionETags = new DataVersionETags(currentUserResolver, userDataVersionService);
+        when(currentUserResolver.getCurrentUserId()).thenReturn(USER_ID);
+        when(userDataVersionService.getVersion(USER_ID)).thenReturn(5L);
+    }
+
+    @Test
+    @DisplayName("Không có If-None-Match: nạp dữ liệu, ETag chứa version dữ liệu của user")
+    void loadsWithoutIfNoneMatch() {
+        // When
+        ResponseEntity<String> response = get(request("/api/todos"));
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo("data");
+        assertThat(response.getHeaders().getETag()).startsWith("\"5-").endsWith("\"");
+        assertThat(response.getHeaders().getCacheControl()).contains("no-cache").contains("private");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("ETag khớp: trả về 304 mà không nạp dữ liệu")
+    void matchingETagShortCircuits() {
+        // Given
+        String eTag = get(request("/api/todos")).getHeaders().getETag();
+
+        // When
+        ResponseEntity<String> response = get(request("/api/todos", "\"other\", W/" + eTag));
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getETag()).isEqualTo(eTag);
+        assertThat(response.getBody()).isNull();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Version dữ liệu tăng hoặc URL khác: ETag cũ không còn khớp")
+    void etagDoesNotMatchAfterVersionChangeOrOtherUrl() {
+        // Given
+        String eTag = get(request("/api/todos")).getHeaders().getETag();
+
+        // When
+        ResponseEntity<String> otherPage = get(request("/api/todos", eTag, "page=1"));
+        when(userDataVersionService.getVersion(USER_ID)).thenReturn(6L);
+        ResponseEntity<String> changed = get(request("/api/todos", eTag));
+
+        // Then
+        assertThat(otherPage.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(otherPage.getHeaders().getETag()).isNotEqualTo(eTag);
+        assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(changed.getHeaders().getETag()).startsWith("\"6-");
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    @DisplayName("ETag có thời điểm hết hiệu lực: khớp trước thời điểm đó, không khớp sau đó")
+    void etagWithExpiryMatchesUntilItExpires() {
+        // Given
+        LocalDateTime validUntil = LocalDateTime.now().plusHours(1);
+        ResponseEntity<String> first = get(request("/statistics"), validUntil);
+        String eTag = first.getHeaders().getETag();
+        String prefix = eTag.substring(0, eTag.lastIndexOf('-'));
+        String expired = prefix + "-" + LocalDateTime.now().minusSeconds(1).toEpochSecond(ZoneOffset.UTC) + "\"";
+
+        // When
+        ResponseEntity<String> valid = get(request("/statistics", eTag), validUntil);
+        ResponseEntity<String> afterExpiry = get(request("/statistics", expired), validUntil);
+        ResponseEntity<String> malformed = get(request("/statistics", prefix + "-soon\""), validUntil);
+
+        // Then
+        assertThat(eTag).isEqualTo(prefix + "-" + validUntil.toEpochSecond(ZoneOffset.UTC) + "\"");
+        assertThat(valid.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(afterExpiry.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(malformed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(loads).hasValue(3);
+    }
+
+    private ResponseEntity<String> get(MockHttpServletRequest request) {
+        return dataVersionETags.conditional(request, this::load);
+    }
+
+    private ResponseEntity<String> get(MockHttpServletRequest request, LocalDateTime validUntil) {
+        return dataVersionETags.conditional(request, this::load, data -> validUntil, Function.identity());
+    }
+
+    private String load() {
+        loads.incrementAndGet();
+        return "data";
+    }
+
+    private static MockHttpServletRequest request(String uri) {
+        return request(uri, null);
+    }
+
+    private static MockHttpServletRequest request(String uri, String ifNoneMatch) {
+        return request(uri, ifNoneMatch, null);
+    }
+
+    private static MockHttpServletRequest request(String uri, String ifNoneMatch, String queryString) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setQueryString(queryString);
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,196 @@
+package com.todoapp.todos.due;
+
+import com.todoapp.auth.entity.User;
+import com.todoapp.todos.dto.TodoDueBucket;
+import com.todoapp.todos.entity.Todo;
+import com.todoapp.todos.entity.TodoStatus;
+import com.todoapp.todos.event.TodoChangedEvent;
+import com.todoapp.todos.event.TodoSnapshot;
+import com.todoapp.todos.repository.TodoRepository;
+import com.todoapp.todos.service.UserDataVersionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests cho TodoDueIndex: ranh giới các nhóm hạn, cập nhật tăng dần sau commit
+ * và dựng lại index khi cũ hơn version dữ liệu của user
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TodoDueIndex Tests")
+class TodoDueIndexTest {
+
+    private static final Long USER_ID = 1L;
+
+    // Chủ nhật 2026-10-18 và thứ Hai 2026-10-19
+    private static final LocalDateTime SUNDAY_NOON = LocalDateTime.of(2026, 10, 18, 12, 0);
+    private static final LocalDateTime MONDAY_MIDNIGHT = LocalDateTime.of(2026, 10, 19, 0, 0);
+
+    @Mock
+    private TodoRepository todoRepository;
+
+    @Mock
+    private UserDataVersionService userDataVersionService;
+
+    private TodoDueIndex todoDueIndex;
+
+    @BeforeEach
+    void setUp() {
+        todoDueIndex = new TodoDueIndex(todoRepository, userDataVersionService, new SimpleMeterRegistry(),
+                true, 33554432L, 20000, 300);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Chủ nhật: nhóm tuần kết thúc lúc nửa đêm sang thứ Hai")
+    void weekEndsAtMondayMidnight() {
+        // Given
+        UserDueIndex index = indexWith(
+                row(1L, SUNDAY_NOON.minusMinutes(1)),
+                row(2L, SUNDAY_NOON),
+                row(3L, MONDAY_MIDNIGHT.minusNanos(1_000_000)),
+                row(4L, MONDAY_MIDNIGHT));
+
+        // Then
+        assertThat(countIn(index, TodoDueBucket.OVERDUE, SUNDAY_NOON)).isEqualTo(1);
+        assertThat(countIn(index, TodoDueBucket.TODAY, SUNDAY_NOON)).isEqualTo(2);
+        assertThat(countIn(index, TodoDueBucket.WEEK, SUNDAY_NOON)).isEqualTo(2);
+        assertThat(index.find(SUNDAY_NOON, TodoDueBucket.WEEK.to(SUNDAY_NOON), 0, 10)).containsExactly(2L, 3L);
+    }
+
+    @Test
+    @DisplayName("Nửa đêm thứ Hai: todo hạn đúng nửa đêm thuộc hôm nay và tuần mới")
+    void mondayMidnightStartsNewDayAndWeek() {
+        // Given
+        UserDueIndex index = indexWith(
+                row(3L, MONDAY_MIDNIGHT.minusNanos(1_000_000)),
+                row(4L, MONDAY_MIDNIGHT),
+                row(5L, MONDAY_MIDNIGHT.plusDays(1)),
+                row(6L, MONDAY_MIDNIGHT.plusDays(7)));
+
+        // Then
+        assertThat(countIn(index, TodoDueBucket.OVERDUE, MONDAY_MIDNIGHT)).isEqualTo(1);
+        assertThat(countIn(index, TodoDueBucket.TODAY, MONDAY_MIDNIGHT)).isEqualTo(1);
+        assertThat(TodoDueBucket.WEEK.to(MONDAY_MIDNIGHT)).isEqualTo(MONDAY_MIDNIGHT.plusDays(7));
+        assertThat(countIn(index, TodoDueBucket.WEEK, MONDAY_MIDNIGHT)).isEqualTo(2);
+        assertThat(index.nextDue(MONDAY_MIDNIGHT)).isEqualTo(MONDAY_MIDNIGHT);
+    }
+
+    @Test
+    @DisplayName("Đổi trạng thái sang DONE: index được cập nhật tăng dần, không dựng lại")
+    void updateStatusIsAppliedIncrementally() {
+        // Given
+        when(userDataVersionService.getVersion(USER_ID)).thenReturn(5L);
+        indexWith(row(1L, SUNDAY_NOON), row(2L, MONDAY_MIDNIGHT));
+
+        // When: updateStatus(1, DONE) commit với version 6
+        commit(6L, updateStatus(1L, SUNDAY_NOON, TodoStatus.DONE));
+        when(userDataVersionService.getVersion(USER_ID)).thenReturn(6L);
+        UserDueIndex index = todoDueIndex.get(USER_ID).orElseThrow();
+
+        // Then
+        assertThat(index.find(null, MONDAY_MIDNIGHT.plusDays(1), 0, 10)).containsExactly(2L);
+        assertThat(index.getVersion()).isEqualTo(6L);
+        verify(todoRepository, times(1)).findOpenDueDates(eq(USER_ID), any(), any());
+    }
+
+    @Test
+    @DisplayName("Thiếu version ở giữa (thay đổi trên instance khác): index bị bỏ và dựng lại")
+    void versionGapDropsIndex() {
+        // Given
+        when(userDataVersionService.getVersion(USER_ID)).thenReturn(5L);
+        indexWith(row(1L, SUNDAY_NOON), row(2L, MONDAY_MIDNIGHT));
+
+        // When: version 6 commit trên instance khác, version 7 trên instance này
+        commit(7L, updateStatus(1L, SUNDAY_NOON, TodoStatus.DONE));
+        when(userDataVersionService.getVersion(USER_ID)).thenReturn(7L);
+        todoDueIndex.get(USER_ID);
+
+        // Then
+        verify(todoRepository, times(2)).findOpenDueDates(eq(USER_ID), any(), any());
+    }
+
+    @Test
+    @DisplayName("Index cũ hơn version hiện tại của user được dựng lại trước khi đọc")
+    void staleIndexIsRebuilt() {
+        // Given
+        when(userDataVersionService.getVersion(USER_ID)).thenReturn(5L);
+        indexWith(row(1L, SUNDAY_NOON));
+
+        // When
+        when(userDataVersionService.getVersion(USER_ID)).thenReturn(6L);
+        when(todoRepository.findOpenDueDates(eq(USER_ID), any(), any())).thenReturn(List.of());
+        UserDueIndex index = todoDueIndex.get(USER_ID).orElseThrow();
+
+        // Then
+        assertThat(index.size()).isZero();
+        assertThat(index.getVersion()).isEqualTo(6L);
+    }
+
+    private UserDueIndex indexWith(Object[]... rows) {
+        List<Object[]> result = new ArrayList<>(List.of(rows));
+        when(todoRepository.findOpenDueDates(eq(USER_ID), any(), any())).thenReturn(result);
+        return todoDueIndex.get(USER_ID).orElseThrow();
+    }
+
+    private static Object[] row(Long id, LocalDateTime dueDate) {
+        return new Object[]{id, dueDate};
+    }
+
+    private static int countIn(UserDueIndex index, TodoDueBucket bucket, LocalDateTime now) {
+        return index.count(bucket.from(now), bucket.to(now));
+    }
+
+    /**
+     * Event giống TodoService.updateStatus phát ra
+     */
+    private static TodoChangedEvent updateStatus(Long id, LocalDateTime dueDate, TodoStatus status) {
+        Todo todo = Todo.builder()
+                .id(id)
+                .user(User.builder().id(USER_ID).build())
+                .title("Todo " + id)
+                .dueDate(dueDate)
+                .build();
+        TodoSnapshot before = TodoSnapshot.of(todo);
+        todo.setStatus(status);
+        return TodoChangedEvent.updated(before, todo);
+    }
+
+    /**
+     * Chạy các event trong một transaction giả lập và commit với version được cấp
+     */
+    private void commit(long version, TodoChangedEvent... events) {
+        TransactionSynchronizationManager.initSynchronization();
+        for (TodoChangedEvent event : events) {
+            todoDueIndex.onTodoChanged(event);
+        }
+        when(userDataVersionService.getCommittedVersion(USER_ID)).thenReturn(version);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+}
@@ -0,0 +1,140 @@
+package com.todoapp.todos.reminder;
+
+import com.todoapp.auth.entity.User;
+import com.todoapp.common.config.AuditorAwareConfig;
+import com.todoapp.todos.entity.Todo;
+import com.todoapp.todos.entity.TodoStatus;
+import com.todoapp.todos.repository.TodoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Kiểm tra ReminderScheduler trên database thật (H2): mỗi nhắc việc chỉ được gửi một lần kể cả khi
+ * nhiều scheduler (nhiều instance hoặc sau khi khởi động lại) cùng thấy nó, và nhắc việc bị lỡ được gửi bù
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(AuditorAwareConfig.class)
+@DisplayName("ReminderScheduler Tests")
+class ReminderSchedulerTest {
+
+    private static final long CATCH_UP_SECONDS = 3600;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final List<TodoReminder> delivered = new ArrayList<>();
+
+    private User user;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        user = User.builder()
+                .email("reminders@example.com")
+                .password("encoded")
+                .fullName("Reminders")
+                .build();
+        entityManager.persist(user);
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Nhắc việc đến hạn chỉ được gửi một lần dù nhiều scheduler cùng tick")
+    void dueReminderIsDeliveredOnce() {
+        // Given
+        Todo todo = persistTodo("Họp nhóm", now.minusSeconds(5), TodoStatus.PENDING);
+        ReminderScheduler first = newScheduler();
+        ReminderScheduler second = newScheduler();
+
+        // When
+        first.tick();
+        second.tick();
+        first.tick();
+
+        // Then
+        assertThat(delivered).extracting(TodoReminder::todoId).containsExactly(todo.getId());
+        assertThat(delivered.get(0).remindAt()).isEqualTo(now.minusSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Sau khi khởi động lại: gửi bù nhắc việc bị lỡ trong khoảng catch-up, không gửi lại nhắc việc đã gửi")
+    void restartCatchesUpMissedRemindersOnly() {
+        // Given
+        Todo missed = persistTodo("Bị lỡ", now.minusMinutes(30), TodoStatus.PENDING);
+        Todo alreadySent = persistTodo("Đã gửi", now.minusMinutes(20), TodoStatus.PENDING);
+        persistTodo("Quá cũ", now.minusSeconds(CATCH_UP_SECONDS + 60), TodoStatus.PENDING);
+        persistTodo("Đã xong", now.minusMinutes(10), TodoStatus.DONE);
+        persistTodo("Chưa đến hạn", now.plusMinutes(10), TodoStatus.PENDING);
+        entityManager.createNativeQuery("UPDATE todos SET reminded_at = remind_at WHERE id = :id")
+                .setParameter("id", alreadySent.getId())
+                .executeUpdate();
+
+        // When: scheduler mới, cửa sổ rỗng như vừa khởi động
+        newScheduler().tick();
+
+        // Then
+        assertThat(delivered).extracting(TodoReminder::todoId).containsExactly(missed.getId());
+    }
+
+    @Test
+    @DisplayName("Đổi remindAt sau khi đã gửi thì nhắc việc được gửi lại một lần")
+    void changedRemindAtRearmsReminder() {
+        // Given
+        Todo todo = persistTodo("Gọi điện", now.minusMinutes(2), TodoStatus.IN_PROGRESS);
+        ReminderScheduler scheduler = newScheduler();
+        scheduler.tick();
+
+        // When
+        entityManager.createNativeQuery("UPDATE todos SET remind_at = :remindAt WHERE id = :id")
+                .setParameter("remindAt", now.minusMinutes(1))
+                .setParameter("id", todo.getId())
+                .executeUpdate();
+        newScheduler().tick();
+        newScheduler().tick();
+
+        // Then
+        assertThat(delivered).extracting(TodoReminder::remindAt)
+                .containsExactly(now.minusMinutes(2), now.minusMinutes(1));
+    }
+
+    private Todo persistTodo(String title, LocalDateTime remindAt, TodoStatus status) {
+        Todo todo = Todo.builder()
+                .user(user)
+                .title(title)
+                .status(status)
+                .remindAt(remindAt)
+                .build();
+        entityManager.persist(todo);
+        entityManager.flush();
+        return todo;
+    }
+
+    private ReminderScheduler newScheduler() {
+        return new ReminderScheduler(todoRepository, delivered::add, transactionManager, new SimpleMeterRegistry(),
+                true, 1000, 300, CATCH_UP_SECONDS, 10000, 1000, 60000);
+    }
+}
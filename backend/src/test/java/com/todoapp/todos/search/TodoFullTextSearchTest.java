@@ -0,0 +1,73 @@
+package com.todoapp.todos.search;
+
+import com.todoapp.todos.repository.TodoRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests cho TodoFullTextSearch với backend MySQL: từ ngắn hơn innodb_ft_min_token_size
+ * không có trong index full-text nên phải được khớp bằng LIKE
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TodoFullTextSearch Tests")
+class TodoFullTextSearchTest {
+
+    @Mock
+    private TodoRepository todoRepository;
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Query query;
+
+    private TodoFullTextSearch todoFullTextSearch;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        todoFullTextSearch = new TodoFullTextSearch(todoRepository, dataSource, "mysql");
+        ReflectionTestUtils.setField(todoFullTextSearch, "entityManager", entityManager);
+        // Không đọc được innodb_ft_min_token_size: dùng mặc định 3
+        when(dataSource.getConnection()).thenThrow(new SQLException("unavailable"));
+        when(entityManager.createNativeQuery(anyString())).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of());
+    }
+
+    @Test
+    @DisplayName("Từ ngắn được khớp bằng LIKE, từ dài bằng full-text")
+    void shortTermsAreMatchedWithLike() {
+        todoFullTextSearch.searchAllTodoIds("đi chợ", PageRequest.of(0, 20));
+
+        verify(entityManager).createNativeQuery(argThat(sql ->
+                sql.contains("AGAINST (:q IN BOOLEAN MODE)") && sql.contains("LIKE :q0")));
+        verify(query).setParameter("q", "+chợ*");
+        verify(query).setParameter("q0", "%đi%");
+    }
+
+    @Test
+    @DisplayName("Chuỗi chỉ gồm từ ngắn được tìm hoàn toàn bằng LIKE")
+    void onlyShortTermsFallBackToLike() {
+        todoFullTextSearch.searchAllTodoIds("đi ăn", PageRequest.of(0, 20));
+
+        verify(entityManager).createNativeQuery(argThat(sql -> !sql.contains("AGAINST") && sql.contains("LIKE :q")));
+        verify(query).setParameter("q", "%đi ăn%");
+    }
+}
@@ -0,0 +1,36 @@
+package com.todoapp.todos.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests cho cách TodoSearchEngine chuyển chuỗi tìm kiếm thành tham số truy vấn
+ */
+@DisplayName("TodoSearchEngine Tests")
+class TodoSearchEngineTest {
+
+    @Test
+    @DisplayName("Biểu thức boolean mode của MySQL chỉ chứa các từ được index")
+    void mysqlParameterSkipsUnindexedTerms() {
+        assertThat(TodoSearchEngine.MYSQL.toParameter("Đi chợ Đà Lạt", 3)).isEqualTo("+chợ* +lạt*");
+        assertThat(TodoSearchEngine.MYSQL.unindexedTerms("Đi chợ Đà Lạt đi", 3)).containsExactly("đi", "đà");
+    }
+
+    @Test
+    @DisplayName("Chuỗi chỉ gồm từ ngắn không tạo biểu thức full-text")
+    void mysqlParameterIsNullWhenAllTermsAreShort() {
+        assertThat(TodoSearchEngine.MYSQL.toParameter("đi ăn", 3)).isNull();
+        assertThat(TodoSearchEngine.MYSQL.unindexedTerms("đi ăn", 3)).containsExactly("đi", "ăn");
+    }
+
+    @Test
+    @DisplayName("PostgreSQL và LIKE không bị ảnh hưởng bởi độ dài từ")
+    void otherEnginesIgnoreTokenLength() {
+        assertThat(TodoSearchEngine.POSTGRESQL.unindexedTerms("đi ăn", 3)).isEmpty();
+        assertThat(TodoSearchEngine.POSTGRESQL.toParameter("đi ăn", 3))
+                .isEqualTo(TodoSearchEngine.POSTGRESQL.toParameter("đi ăn"));
+        assertThat(TodoSearchEngine.LIKE.toParameter("đi ăn", 3)).isEqualTo("%đi ăn%");
+    }
+}
@@ -0,0 +1,236 @@
+package com.todoapp.todos.search;
+
+import com.todoapp.auth.entity.User;
+import com.todoapp.todos.dto.TodoSearchRequest;
+import com.todoapp.todos.entity.Todo;
+import com.todoapp.todos.entity.TodoPriority;
+import com.todoapp.todos.entity.TodoStatus;
+import com.todoapp.todos.event.ChangeType;
+import com.todoapp.todos.event.TagChangedEvent;
+import com.todoapp.todos.event.TodoChangedEvent;
+import com.todoapp.todos.event.TodoSnapshot;
+import com.todoapp.todos.repository.TodoRepository;
+import com.todoapp.todos.service.UserDataVersionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests cho TodoSearchIndex: áp dụng lại thay đổi commit trong lúc dựng index, dựng lại khi
+ * index cũ hơn version dữ liệu của user và loại index theo ngân sách bộ nhớ
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TodoSearchIndex Tests")
+class TodoSearchIndexTest {
+
+    private static final Long USER_ID = 1L;
+    private static final Long OTHER_USER_ID = 2L;
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 17, 9, 0);
+
+    @Mock
+    private TodoRepository todoRepository;
+
+    @Mock
+    private UserDataVersionService userDataVersionService;
+
+    private TodoSearchIndex todoSearchIndex;
+
+    @Test
+    @DisplayName("Thay đổi commit trong lúc dựng index được áp dụng lại, index được giữ")
+    void replaysChangesCommittedDuringBuild() {
+        // Given: todo 2 được tạo và commit (version 6) trong lúc truy vấn dựng index đang chạy
+        todoSearchIndex = newIndex(67108864L, 300);
+        when(userDataVersionService.getVersion(USER_ID)).thenReturn(5L);
+        when(todoRepository.findSearchFieldsOfActiveRootTodos(USER_ID)).thenAnswer(invocation -> {
+            commit(6L, TodoChangedEvent.created(todo(2L, USER_ID, "Mua bánh")));
+            return rows(row(1L, "Mua sữa"));
+        });
+
+        // When
+        List<Long> first = search(USER_ID, "mua");
+        when(userDataVersionService.getVersion(USER_ID)).thenReturn(6L);
+        List<Long> second = search(USER_ID, "bánh");
+
+        // Then
+        assertThat(first).containsExactly(2L, 1L);
+        assertThat(second).containsExactly(2L);
+        verify(todoRepository, times(1)).findSearchFieldsOfActiveRootTodos(USER_ID);
+    }
+
+    @Test
+    @DisplayName("Thay đổi trong lúc dựng có version không nối tiếp: index dùng một lần rồi bỏ")
+    void versionGapDuringBuildIsNotKept() {
+        // Given: version 6 commit trên instance khác, version 7 trên instance này
+        todoSearchIndex = newIndex(67108864L, 300);
+        when(userDataVersionService.getVersion(USER_ID)).thenReturn(5L);
+        when(todoRepository.findSearchFieldsOfActiveRootTodos(USER_ID)).thenAnswer(invocation -> {
+            commit(7L, TodoChangedEvent.created(todo(2L, USER_ID, "Mua bánh")));
+            return rows(row(1L, "Mua sữa"));
+        });
+
+        // When
+        search(USER_ID, "mua");
+        search(USER_ID, "mua");
+
+        // Then
+        assertThat(todoSearchIndex.getTotalBytes()).isZero();
+        verify(todoRepository, times(2)).findSearchFieldsOfActiveRootTodos(USER_ID);
+    }
+
+    @Test
+    @DisplayName("Thay đổi sau khi dựng được áp dụng tăng dần; thay đổi tag chỉ tăng version")
+    void appliesCommittedChangesIncrementally() {
+        // Given
+        todoSearchIndex = newIndex(67108864L, 300);
+        when(userDataVersionService.getVersion(USER_ID)).thenReturn(5L);
+        when(todoRepository.findSearchFieldsOfActiveRootTodos(USER_ID)).thenReturn(rows(row(1L, "Mua sữa")));
+        search(USER_ID, "mua");
+
+        // When
+        Todo renamed = todo(1L, USER_ID, "Mua sữa");
+        TodoSnapshot before = TodoSnapshot.of(renamed);
+        renamed.setTitle("Họp nhóm");
+        commit(6L, TodoChangedEvent.updated(before, renamed));
+        when(userDataVersionService.getCommittedVersion(USER_ID)).thenReturn(7L);
+        todoSearchIndex.onTagChanged(new TagChangedEvent(USER_ID, 100L, ChangeType.CREATED));
+        when(userDataVersionService.getVersion(USER_ID)).thenReturn(7L);
+
+        // Then
+        assertThat(search(USER_ID, "mua")).isEmpty();
+        assertThat(search(USER_ID, "họp")).containsExactly(1L);
+        verify(todoRepository, times(1)).findSearchFieldsOfActiveRootTodos(USER_ID);
+    }
+
+    @Test
+    @DisplayName("Index cũ hơn version hiện tại của user (thay đổi trên instance khác) được dựng lại")
+    void staleIndexIsRebuilt() {
+        // Given
+        todoSearchIndex = newIndex(67108864L, 300);
+        when(userDataVersionService.getVersion(USER_ID)).thenReturn(5L);
+        when(todoRepository.findSearchFieldsOfActiveRootTodos(USER_ID))
+                .thenReturn(rows(row(1L, "Mua sữa")))
+                .thenReturn(rows(row(1L, "Mua sữa"), row(2L, "Mua bánh")));
+        search(USER_ID, "mua");
+
+        // When
+        when(userDataVersionService.getVersion(USER_ID)).thenReturn(6L);
+        List<Long> ids = search(USER_ID, "mua");
+
+        // Then
+        assertThat(ids).containsExactly(2L, 1L);
+        verify(todoRepository, times(2)).findSearchFieldsOfActiveRootTodos(USER_ID);
+    }
+
+    @Test
+    @DisplayName("Index được dựng lại sau TTL dù version không đổi")
+    void expiredIndexIsRebuilt() {
+        // Given: TTL = 0
+        todoSearchIndex = newIndex(67108864L, 0);
+        when(userDataVersionService.getVersion(USER_ID)).thenReturn(5L);
+        when(todoRepository.findSearchFieldsOfActiveRootTodos(USER_ID)).thenReturn(rows(row(1L, "Mua sữa")));
+
+        // When
+        search(USER_ID, "mua");
+        search(USER_ID, "mua");
+
+        // Then
+        verify(todoRepository, times(2)).findSearchFieldsOfActiveRootTodos(USER_ID);
+    }
+
+    @Test
+    @DisplayName("Vượt ngân sách bộ nhớ: index ít được dùng nhất bị loại")
+    void evictsLeastRecentlyUsedOverBudget() {
+        // Given: ngân sách vừa một index
+        long budget = bytesOfOneIndex() * 3 / 2;
+        todoSearchIndex = newIndex(budget, 300);
+        when(userDataVersionService.getVersion(anyLong())).thenReturn(5L);
+        when(todoRepository.findSearchFieldsOfActiveRootTodos(USER_ID)).thenReturn(rows(row(1L, "Mua sữa")));
+        when(todoRepository.findSearchFieldsOfActiveRootTodos(OTHER_USER_ID)).thenReturn(rows(row(2L, "Mua sữa")));
+
+        // When
+        search(USER_ID, "mua");
+        search(OTHER_USER_ID, "mua");
+        search(OTHER_USER_ID, "mua");
+        search(USER_ID, "mua");
+
+        // Then: index của user 1 bị loại khi user 2 được dựng, sau đó user 1 đẩy user 2 ra
+        assertThat(todoSearchIndex.getTotalBytes()).isPositive().isLessThanOrEqualTo(budget);
+        verify(todoRepository, times(2)).findSearchFieldsOfActiveRootTodos(USER_ID);
+        verify(todoRepository, times(1)).findSearchFieldsOfActiveRootTodos(OTHER_USER_ID);
+    }
+
+    @Test
+    @DisplayName("User có quá nhiều todo không được index")
+    void skipsUsersAboveLimit() {
+        // Given
+        todoSearchIndex = newIndex(67108864L, 300);
+        when(userDataVersionService.getVersion(USER_ID)).thenReturn(5L);
+        when(todoRepository.countByUserIdAndDeletedAtIsNull(USER_ID)).thenReturn(101L);
+
+        // When
+        Optional<Page<Long>> result = todoSearchIndex.search(USER_ID, request("mua"), PageRequest.of(0, 10));
+
+        // Then
+        assertThat(result).isEmpty();
+        verify(todoRepository, never()).findSearchFieldsOfActiveRootTodos(USER_ID);
+    }
+
+    private TodoSearchIndex newIndex(long maxBytes, long ttlSeconds) {
+        return new TodoSearchIndex(todoRepository, userDataVersionService, new SimpleMeterRegistry(),
+                true, maxBytes, 100, ttlSeconds);
+    }
+
+    private static long bytesOfOneIndex() {
+        UserTodoIndex index = new UserTodoIndex(USER_ID, 0L);
+        index.put(new UserTodoIndex.Document(1L, "Mua sữa", null, TodoStatus.PENDING, TodoPriority.MEDIUM,
+                null, List.of(), null, NOW, NOW));
+        return index.getEstimatedBytes();
+    }
+
+    private List<Long> search(Long userId, String query) {
+        return todoSearchIndex.search(userId, request(query), PageRequest.of(0, 10)).orElseThrow().getContent();
+    }
+
+    private static TodoSearchRequest request(String query) {
+        return TodoSearchRequest.builder().query(query).build();
+    }
+
+    /**
+     * Giả lập listener AFTER_COMMIT của một transaction được cấp version
+     */
+    private void commit(long version, TodoChangedEvent event) {
+        when(userDataVersionService.getCommittedVersion(USER_ID)).thenReturn(version);
+        todoSearchIndex.onTodoChanged(event);
+    }
+
+    private static Todo todo(Long id, Long userId, String title) {
+        return Todo.builder()
+                .id(id)
+                .user(User.builder().id(userId).build())
+                .title(title)
+                .status(TodoStatus.PENDING)
+                .priority(TodoPriority.MEDIUM)
+                .build();
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+
+    private static Object[] row(Long id, String title) {
+        return new Object[]{id, title, null, TodoStatus.PENDING, TodoPriority.MEDIUM, null, null, NOW, NOW};
+    }
+}
@@ -0,0 +1,157 @@
+package com.todoapp.todos.search;
+
+import com.todoapp.common.exception.BadRequestException;
+import com.todoapp.todos.dto.TodoSearchRequest;
+import com.todoapp.todos.entity.TodoPriority;
+import com.todoapp.todos.entity.TodoStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests cho UserTodoIndex: khớp từ khóa theo tiền tố, các filter và thứ tự sắp xếp
+ */
+@DisplayName("UserTodoIndex Tests")
+class UserTodoIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 17, 9, 0);
+
+    private UserTodoIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new UserTodoIndex(1L, 0L);
+    }
+
+    @Test
+    @DisplayName("Mỗi từ khóa khớp theo tiền tố; mọi từ phải khớp")
+    void matchesEveryTermByPrefix() {
+        // Given
+        index.put(document(1L, "Mua sữa", null));
+        index.put(document(2L, "Mua bánh mì", null));
+        index.put(document(3L, "Họp nhóm", "mua quà"));
+
+        // Then
+        assertThat(search("mu")).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(search("MUA SỮ")).containsExactly(1L);
+        assertThat(search("mua họp")).containsExactly(3L);
+        assertThat(search("sữa bánh")).isEmpty();
+        assertThat(search("  ")).containsExactly(3L, 2L, 1L);
+    }
+
+    @Test
+    @DisplayName("Khớp ở title xếp trước khớp ở description")
+    void titleMatchesRankAboveDescription() {
+        // Given
+        index.put(document(1L, "Họp nhóm", "báo cáo quý"));
+        index.put(document(2L, "Báo cáo quý", null));
+
+        // Then
+        assertThat(search("báo")).containsExactly(2L, 1L);
+    }
+
+    @Test
+    @DisplayName("Thay thế hoặc xóa document cập nhật các từ và ước lượng bộ nhớ")
+    void putAndRemoveUpdatePostings() {
+        // Given
+        index.put(document(1L, "Mua sữa", null));
+        long bytes = index.getEstimatedBytes();
+
+        // When
+        index.put(document(1L, "Họp nhóm", null));
+
+        // Then
+        assertThat(search("sữa")).isEmpty();
+        assertThat(search("họp")).containsExactly(1L);
+        assertThat(index.size()).isEqualTo(1);
+
+        index.remove(1L);
+        assertThat(search("họp")).isEmpty();
+        assertThat(index.getEstimatedBytes()).isZero();
+        assertThat(bytes).isPositive();
+    }
+
+    @Test
+    @DisplayName("Filter theo trạng thái, độ ưu tiên, category, tag (bất kỳ) và khoảng hạn")
+    void appliesFilters() {
+        // Given
+        index.put(new UserTodoIndex.Document(1L, "Một", null, TodoStatus.PENDING, TodoPriority.HIGH,
+                10L, List.of(100L, 101L), NOW.plusDays(1), NOW, NOW));
+        index.put(new UserTodoIndex.Document(2L, "Hai", null, TodoStatus.DONE, TodoPriority.LOW,
+                20L, List.of(101L), NOW.plusDays(3), NOW, NOW));
+        index.put(new UserTodoIndex.Document(3L, "Ba", null, TodoStatus.PENDING, TodoPriority.LOW,
+                null, List.of(), null, NOW, NOW));
+
+        // Then
+        assertThat(search(TodoSearchRequest.builder().status(TodoStatus.PENDING).build())).containsExactly(3L, 1L);
+        assertThat(search(TodoSearchRequest.builder().priority(TodoPriority.LOW).build())).containsExactly(3L, 2L);
+        assertThat(search(TodoSearchRequest.builder().categoryId(20L).build())).containsExactly(2L);
+        assertThat(search(TodoSearchRequest.builder().tagIds(Set.of(100L, 999L)).build())).containsExactly(1L);
+        assertThat(search(TodoSearchRequest.builder().tagIds(Set.of(101L)).build())).containsExactly(2L, 1L);
+        assertThat(search(TodoSearchRequest.builder().dueFrom(NOW.plusDays(2)).build())).containsExactly(2L);
+        assertThat(search(TodoSearchRequest.builder().dueTo(NOW.plusDays(1)).build())).containsExactly(1L);
+        assertThat(search(TodoSearchRequest.builder()
+                .status(TodoStatus.PENDING).tagIds(Set.of(101L)).dueFrom(NOW).dueTo(NOW.plusDays(3)).build()))
+                .containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Sort theo title không phân biệt hoa thường và dấu, title null xếp cuối")
+    void sortsTitleIgnoringCaseAndAccents() {
+        // Given
+        index.put(document(1L, "banana", null));
+        index.put(document(2L, "Apple", null));
+        index.put(document(3L, "Ăn trưa", null));
+        index.put(document(4L, "cherry", null));
+        index.put(document(5L, null, null));
+        index.put(document(6L, "APPLE", null));
+
+        // When
+        List<Long> ascending = index.search(new TodoSearchRequest(), Sort.by("title"));
+        List<Long> descending = index.search(new TodoSearchRequest(), Sort.by(Sort.Direction.DESC, "title"));
+
+        // Then: "Ăn" được so như "an" (trước "apple"); title bằng nhau xếp theo ID giảm dần
+        assertThat(ascending).containsExactly(3L, 6L, 2L, 1L, 4L, 5L);
+        assertThat(descending).containsExactly(5L, 4L, 1L, 6L, 2L, 3L);
+    }
+
+    @Test
+    @DisplayName("Sort theo nhiều trường và theo trường không hỗ trợ")
+    void sortsByRequestedProperties() {
+        // Given
+        index.put(new UserTodoIndex.Document(1L, "A", null, TodoStatus.PENDING, TodoPriority.LOW,
+                null, List.of(), NOW.plusDays(2), NOW, NOW));
+        index.put(new UserTodoIndex.Document(2L, "B", null, TodoStatus.PENDING, TodoPriority.HIGH,
+                null, List.of(), null, NOW, NOW));
+        index.put(new UserTodoIndex.Document(3L, "C", null, TodoStatus.PENDING, TodoPriority.HIGH,
+                null, List.of(), NOW.plusDays(1), NOW, NOW));
+
+        // Then
+        assertThat(index.search(new TodoSearchRequest(), Sort.by("dueDate"))).containsExactly(3L, 1L, 2L);
+        assertThat(index.search(new TodoSearchRequest(), Sort.by("priority").and(Sort.by("dueDate"))))
+                .containsExactly(3L, 2L, 1L);
+        assertThatThrownBy(() -> index.search(new TodoSearchRequest(), Sort.by("password")))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private List<Long> search(String query) {
+        return search(TodoSearchRequest.builder().query(query).build());
+    }
+
+    private List<Long> search(TodoSearchRequest request) {
+        return index.search(request, Sort.unsorted());
+    }
+
+    private static UserTodoIndex.Document document(Long id, String title, String description) {
+        return new UserTodoIndex.Document(id, title, description, TodoStatus.PENDING, TodoPriority.MEDIUM,
+                null, List.of(), null, NOW, NOW);
+    }
+}
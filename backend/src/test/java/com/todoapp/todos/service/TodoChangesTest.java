@@ -0,0 +1,207 @@
+package com.todoapp.todos.service;
+
+import com.todoapp.auth.entity.User;
+import com.todoapp.auth.security.CurrentUserResolver;
+import com.todoapp.common.config.AuditorAwareConfig;
+import com.todoapp.common.exception.BadRequestException;
+import com.todoapp.todos.dto.TodoChangeCursor;
+import com.todoapp.todos.dto.TodoChangesResponse;
+import com.todoapp.todos.dto.TodoRequest;
+import com.todoapp.todos.dto.TodoResponse;
+import com.todoapp.todos.due.TodoDueIndex;
+import com.todoapp.todos.entity.TodoPriority;
+import com.todoapp.todos.entity.TodoStatus;
+import com.todoapp.todos.mapper.CategoryMapperImpl;
+import com.todoapp.todos.mapper.TagMapperImpl;
+import com.todoapp.todos.mapper.TodoMapperImpl;
+import com.todoapp.todos.search.TodoFullTextSearch;
+import com.todoapp.todos.search.TodoSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+/**
+ * Kiểm tra delta sync (getChanges) trên database thật (H2): phân trang keyset theo (sync_version, id),
+ * tombstone, hasMore, giới hạn limit và sync_version được gán khi commit.
+ * Không chạy trong transaction của test vì sync_version chỉ được gán ngay trước khi commit.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({TodoService.class, TodoFullTextSearch.class, TodoSearchIndex.class, TodoStatisticsCache.class, TodoDueIndex.class,
+        SimpleMeterRegistry.class, TodoMapperImpl.class, CategoryMapperImpl.class, TagMapperImpl.class,
+        AuditorAwareConfig.class, UserDataVersionService.class})
+@DisplayName("TodoService Changes Tests")
+class TodoChangesTest {
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private UserDataVersionService userDataVersionService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private CurrentUserResolver currentUserResolver;
+
+    private TransactionTemplate transactionTemplate;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        user = User.builder().email("changes@example.com").password("encoded").fullName("Changes").build();
+        transactionTemplate.executeWithoutResult(status -> entityManager.persist(user));
+        when(currentUserResolver.getCurrentUser()).thenReturn(user);
+        when(currentUserResolver.getCurrentUserId()).thenReturn(user.getId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            delete("DELETE FROM todos WHERE user_id = :userId AND parent_id IS NOT NULL");
+            delete("DELETE FROM todos WHERE user_id = :userId");
+            delete("DELETE FROM user_data_versions WHERE user_id = :userId");
+            delete("DELETE FROM users WHERE id = :userId");
+        });
+    }
+
+    @Test
+    @DisplayName("Phân trang theo (sync_version, id): todo cùng version theo ID, todo vừa sửa ở cuối")
+    void pagesBySyncVersionThenId() {
+        // Given: ba todo cùng một transaction (cùng version), sau đó sửa todo đầu tiên
+        List<Long> ids = todoService.bulkCreate(List.of(request("A"), request("B"), request("C"))).getResults().stream()
+                .map(result -> result.getData().getId())
+                .toList();
+        todoService.update(ids.get(0), request("A2"));
+
+        // When
+        TodoChangesResponse first = todoService.getChanges(null, 1);
+        TodoChangesResponse second = todoService.getChanges(first.getCursor(), 1);
+        TodoChangesResponse third = todoService.getChanges(second.getCursor(), 1);
+        TodoChangesResponse empty = todoService.getChanges(third.getCursor(), 1);
+
+        // Then
+        assertThat(titles(first)).containsExactly("B");
+        assertThat(titles(second)).containsExactly("C");
+        assertThat(titles(third)).containsExactly("A2");
+        assertThat(List.of(first.isHasMore(), second.isHasMore(), third.isHasMore())).containsExactly(true, true, false);
+        assertThat(TodoChangeCursor.decode(first.getCursor()).version())
+                .isEqualTo(TodoChangeCursor.decode(second.getCursor()).version());
+        assertThat(empty.getChanged()).isEmpty();
+        assertThat(empty.isHasMore()).isFalse();
+        assertThat(empty.getCursor()).isEqualTo(third.getCursor());
+    }
+
+    @Test
+    @DisplayName("Todo bị xóa trả về dạng tombstone, không nằm trong changed")
+    void deletedTodoIsReturnedAsTombstone() {
+        // Given
+        TodoResponse kept = todoService.create(request("Giữ lại"));
+        TodoResponse removed = todoService.create(request("Xóa"));
+        TodoChangesResponse before = todoService.getChanges(null, 10);
+
+        // When
+        todoService.delete(removed.getId());
+        TodoChangesResponse changes = todoService.getChanges(before.getCursor(), 10);
+
+        // Then
+        assertThat(changes.getChanged()).isEmpty();
+        assertThat(changes.getDeleted()).singleElement().satisfies(tombstone -> {
+            assertThat(tombstone.getId()).isEqualTo(removed.getId());
+            assertThat(tombstone.getDeletedAt()).isNotNull();
+        });
+        assertThat(todoService.getChanges(null, 10).getChanged())
+                .extracting(TodoResponse::getId).containsExactly(kept.getId());
+    }
+
+    @Test
+    @DisplayName("limit ngoài khoảng [1, MAX_CHANGES_LIMIT] được giới hạn lại")
+    void clampsLimit() {
+        // Given
+        todoService.create(request("A"));
+        todoService.create(request("B"));
+
+        // When / Then
+        for (int limit : new int[]{0, -5}) {
+            TodoChangesResponse page = todoService.getChanges(null, limit);
+            assertThat(page.getChanged()).hasSize(1);
+            assertThat(page.isHasMore()).isTrue();
+        }
+        TodoChangesResponse all = todoService.getChanges(null, Integer.MAX_VALUE);
+        assertThat(all.getChanged()).hasSize(2);
+        assertThat(all.isHasMore()).isFalse();
+    }
+
+    @Test
+    @DisplayName("sync_version bằng version dữ liệu của user khi commit, kể cả todo cha khi thêm subtask")
+    void stampsSyncVersionOnCommit() {
+        // Given
+        TodoResponse parent = todoService.create(request("Cha"));
+        long createdVersion = userDataVersionService.getVersion(user.getId());
+        String cursor = todoService.getChanges(null, 10).getCursor();
+
+        // When
+        todoService.createSubtask(parent.getId(), request("Con"));
+        TodoChangesResponse changes = todoService.getChanges(cursor, 10);
+
+        // Then
+        long version = userDataVersionService.getVersion(user.getId());
+        assertThat(TodoChangeCursor.decode(cursor).version()).isEqualTo(createdVersion);
+        assertThat(version).isEqualTo(createdVersion + 1);
+        assertThat(changes.getChanged()).extracting(TodoResponse::getTitle).containsExactlyInAnyOrder("Cha", "Con");
+        assertThat(changes.getChanged()).filteredOn(todo -> todo.getId().equals(parent.getId()))
+                .singleElement().extracting(TodoResponse::getSubtasksCount).isEqualTo(1);
+        assertThat(TodoChangeCursor.decode(changes.getCursor()).version()).isEqualTo(version);
+    }
+
+    @Test
+    @DisplayName("Cursor không hợp lệ: BadRequestException")
+    void rejectsInvalidCursor() {
+        assertThatThrownBy(() -> todoService.getChanges("not-a-cursor", 10))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> todoService.getChanges(new TodoChangeCursor(1L, 2L).encode().substring(2), 10))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private static TodoRequest request(String title) {
+        return TodoRequest.builder()
+                .title(title)
+                .status(TodoStatus.PENDING)
+                .priority(TodoPriority.MEDIUM)
+                .build();
+    }
+
+    private static List<String> titles(TodoChangesResponse changes) {
+        return changes.getChanged().stream().map(TodoResponse::getTitle).toList();
+    }
+
+    private void delete(String sql) {
+        entityManager.createNativeQuery(sql).setParameter("userId", user.getId()).executeUpdate();
+    }
+}
@@ -0,0 +1,135 @@
+package com.todoapp.todos.service;
+
+import com.todoapp.common.exception.BadRequestException;
+import com.todoapp.todos.dto.TodoTransferRecord;
+import com.todoapp.todos.entity.TodoPriority;
+import com.todoapp.todos.entity.TodoStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests cho TodoCsv: quoting theo RFC 4180, escape tên tag và đọc lại từng dòng dữ liệu
+ */
+@DisplayName("TodoCsv Tests")
+class TodoCsvTest {
+
+    @Test
+    @DisplayName("Trường chứa dấu phẩy, nháy kép hoặc xuống dòng được đặt trong nháy kép")
+    void quotesSpecialFields() throws IOException {
+        // Given
+        TodoTransferRecord record = TodoTransferRecord.builder()
+                .id(7L)
+                .title("Mua sữa, bánh")
+                .description("Dòng 1\nDòng \"2\"")
+                .status(TodoStatus.DONE)
+                .priority(TodoPriority.HIGH)
+                .dueDate(LocalDateTime.of(2026, 10, 18, 9, 30))
+                .category("Nhà")
+                .tags(new ArrayList<>(List.of("a", "b")))
+                .build();
+        StringWriter writer = new StringWriter();
+
+        // When
+        TodoCsv.writeRecord(writer, record);
+
+        // Then
+        assertThat(writer.toString()).isEqualTo(
+                "7,,\"Mua sữa, bánh\",\"Dòng 1\nDòng \"\"2\"\"\",DONE,HIGH,2026-10-18T09:30,,,Nhà,a|b,,,\r\n");
+    }
+
+    @Test
+    @DisplayName("Header chứa đủ các cột theo thứ tự")
+    void writesHeader() throws IOException {
+        StringWriter writer = new StringWriter();
+
+        TodoCsv.writeHeader(writer);
+
+        assertThat(writer.toString()).isEqualTo(String.join(",", TodoCsv.COLUMNS) + "\r\n");
+    }
+
+    @Test
+    @DisplayName("Ký tự '|' và '\\' trong tên tag được escape và tách lại đúng")
+    void escapesTagNames() {
+        // Given
+        List<String> tags = List.of("a|b", "c\\d", "e\\|", "plain");
+
+        // When
+        String joined = TodoCsv.joinTags(tags);
+
+        // Then
+        assertThat(joined).isEqualTo("a\\|b|c\\\\d|e\\\\\\||plain");
+        assertThat(TodoCsv.splitTags(joined)).containsExactlyElementsOf(tags);
+        assertThat(TodoCsv.joinTags(List.of())).isNull();
+        assertThat(TodoCsv.splitTags(null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Trường trong nháy kép có thể chứa xuống dòng; số dòng vật lý được giữ đúng")
+    void readsQuotedMultiLineFields() throws IOException {
+        // Given
+        TodoCsv.RowReader reader = new TodoCsv.RowReader(new StringReader(
+                "title,description\r\n\"Họp, nhóm\",\"Dòng 1\r\nDòng \"\"2\"\"\"\r\nCuối,\r\n"));
+
+        // When / Then
+        assertThat(reader.next()).containsExactly("title", "description");
+        assertThat(reader.rowLine()).isEqualTo(1);
+        assertThat(reader.next()).containsExactly("Họp, nhóm", "Dòng 1\r\nDòng \"2\"");
+        assertThat(reader.rowLine()).isEqualTo(2);
+        assertThat(reader.next()).containsExactly("Cuối", "");
+        assertThat(reader.rowLine()).isEqualTo(4);
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    @DisplayName("Trường trong nháy kép không được đóng thì báo lỗi kèm dòng bắt đầu")
+    void rejectsUnterminatedQuote() throws IOException {
+        // Given
+        TodoCsv.RowReader reader = new TodoCsv.RowReader(new StringReader("title\n\"Chưa đóng\nvẫn chưa đóng\n"));
+        reader.next();
+
+        // When / Then
+        assertThatThrownBy(reader::next)
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("dòng 2");
+    }
+
+    @Test
+    @DisplayName("Header: bỏ qua BOM, không phân biệt hoa thường, bỏ qua cột lạ")
+    void indexesHeaderWithBomAndUnknownColumns() {
+        // When
+        Map<String, Integer> header = TodoCsv.headerIndex(List.of("\uFEFFId", "extra", "TITLE", "tags"));
+        TodoTransferRecord record = TodoCsv.toRecord(header, List.of("5", "bỏ qua", "Mua sữa", "x\\|y|z"));
+
+        // Then
+        assertThat(header).containsOnlyKeys("id", "title", "tags");
+        assertThat(record.getId()).isEqualTo(5L);
+        assertThat(record.getTitle()).isEqualTo("Mua sữa");
+        assertThat(record.getTags()).containsExactly("x|y", "z");
+        assertThatThrownBy(() -> TodoCsv.headerIndex(List.of("id", "name")))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    @DisplayName("Giá trị sai định dạng báo lỗi kèm tên cột")
+    void rejectsInvalidValues() {
+        Map<String, Integer> header = TodoCsv.headerIndex(List.of("title", "status", "dueDate"));
+
+        assertThatThrownBy(() -> TodoCsv.toRecord(header, List.of("A", "LATER", "")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("status");
+        assertThatThrownBy(() -> TodoCsv.toRecord(header, List.of("A", "done", "mai")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("dueDate");
+    }
+}
@@ -0,0 +1,178 @@
+package com.todoapp.todos.service;
+
+import com.todoapp.auth.entity.User;
+import com.todoapp.auth.security.CurrentUserResolver;
+import com.todoapp.common.config.AuditorAwareConfig;
+import com.todoapp.todos.dto.CursorPageResponse;
+import com.todoapp.todos.dto.TagResponse;
+import com.todoapp.todos.dto.TodoRequest;
+import com.todoapp.todos.dto.TodoResponse;
+import com.todoapp.todos.due.TodoDueIndex;
+import com.todoapp.todos.entity.Attachment;
+import com.todoapp.todos.entity.Category;
+import com.todoapp.todos.entity.Tag;
+import com.todoapp.todos.entity.Todo;
+import com.todoapp.todos.entity.TodoPriority;
+import com.todoapp.todos.entity.TodoStatus;
+import com.todoapp.todos.mapper.CategoryMapperImpl;
+import com.todoapp.todos.mapper.TagMapperImpl;
+import com.todoapp.todos.mapper.TodoMapperImpl;
+import com.todoapp.todos.search.TodoFullTextSearch;
+import com.todoapp.todos.search.TodoSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Kiểm tra số câu lệnh SQL khi lấy danh sách todos không tăng theo kích thước trang (không N+1)
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TodoService.class, TodoFullTextSearch.class, TodoSearchIndex.class, TodoStatisticsCache.class, TodoDueIndex.class,
+        SimpleMeterRegistry.class, TodoMapperImpl.class, CategoryMapperImpl.class, TagMapperImpl.class,
+        AuditorAwareConfig.class, UserDataVersionService.class})
+@DisplayName("TodoService Query Count Tests")
+class TodoServiceQueryCountTest {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private CurrentUserResolver currentUserResolver;
+
+    private Statistics statistics;
+
+    private Todo firstTodo;
+    private Category category;
+    private Set<Long> tagIds;
+
+    @BeforeEach
+    void setUp() {
+        User user = User.builder()
+                .email("query-count@example.com")
+                .password("encoded")
+                .fullName("Query Count")
+                .build();
+        entityManager.persist(user);
+
+        category = Category.builder().user(user).name("Work").color("#ff0000").build();
+        entityManager.persist(category);
+        Tag urgent = Tag.builder().user(user).name("urgent").color("#00ff00").build();
+        Tag home = Tag.builder().user(user).name("home").color("#0000ff").build();
+        entityManager.persist(urgent);
+        entityManager.persist(home);
+        tagIds = Set.of(urgent.getId(), home.getId());
+
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            Todo todo = Todo.builder()
+                    .user(user)
+                    .title("Todo " + i)
+                    .category(category)
+                    .tags(new HashSet<>(Set.of(urgent, home)))
+                    .tagCount(2)
+                    .subtaskCount(2)
+                    .attachmentCount(1)
+                    .build();
+            entityManager.persist(todo);
+            if (firstTodo == null) {
+                firstTodo = todo;
+            }
+
+            for (int j = 0; j < 2; j++) {
+                entityManager.persist(Todo.builder().user(user).parent(todo).title("Subtask " + i + "." + j).build());
+            }
+            entityManager.persist(Attachment.builder().todo(todo).fileName("file.txt").fileUrl("/files/file.txt").build());
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        when(currentUserResolver.getCurrentUser()).thenReturn(user);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Trang offset: số câu lệnh cố định (trang + count + category + tags)")
+    void offsetPageUsesBoundedStatements() {
+        Page<TodoResponse> page = todoService.getAll(PageRequest.of(0, PAGE_SIZE * 3));
+
+        assertThat(page.getContent()).hasSize(PAGE_SIZE * 3);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(4);
+        assertRootTodosFullyMapped(page.getContent());
+    }
+
+    @Test
+    @DisplayName("Trang cursor: số câu lệnh cố định (trang + category + tags)")
+    void cursorPageUsesBoundedStatements() {
+        CursorPageResponse<TodoResponse> page = todoService.getAllByCursor(null, PAGE_SIZE * 3, false);
+
+        assertThat(page.getContent()).hasSize(PAGE_SIZE * 3);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+        assertRootTodosFullyMapped(page.getContent());
+    }
+
+    @Test
+    @DisplayName("Cập nhật một todo: category và tags lấy từ entity, không truy vấn theo lô kèm auto-flush")
+    void singleTodoIsMappedFromLoadedAssociations() {
+        TodoRequest request = TodoRequest.builder()
+                .title("Updated")
+                .status(TodoStatus.IN_PROGRESS)
+                .priority(TodoPriority.HIGH)
+                .categoryId(category.getId())
+                .tagIds(tagIds)
+                .build();
+
+        TodoResponse response = todoService.update(firstTodo.getId(), request);
+
+        assertThat(response.getTitle()).isEqualTo("Updated");
+        assertThat(response.getCategory().getName()).isEqualTo("Work");
+        assertThat(response.getTags()).extracting(TagResponse::getName).containsExactlyInAnyOrder("urgent", "home");
+        assertThat(statistics.getFlushCount()).isZero();
+    }
+
+    private void assertRootTodosFullyMapped(Iterable<TodoResponse> todos) {
+        int roots = 0;
+        for (TodoResponse todo : todos) {
+            if (todo.getParentId() != null) {
+                continue;
+            }
+            roots++;
+            assertThat(todo.getCategory()).isNotNull();
+            assertThat(todo.getCategory().getName()).isEqualTo("Work");
+            assertThat(todo.getTags()).hasSize(2);
+            assertThat(todo.getSubtasksCount()).isEqualTo(2);
+            assertThat(todo.getAttachmentsCount()).isEqualTo(1);
+        }
+        assertThat(roots).isEqualTo(PAGE_SIZE);
+    }
+}
@@ -1,9 +1,11 @@
 package com.todoapp.todos.service;
 
 import com.todoapp.auth.entity.User;
-import com.todoapp.auth.repository.UserRepository;
+import com.todoapp.auth.security.CurrentUserResolver;
 import com.todoapp.common.exception.BadRequestException;
 import com.todoapp.common.exception.ResourceNotFoundException;
+import com.todoapp.todos.dto.BulkResult;
+import com.todoapp.todos.dto.BulkTodoStatusItem;
 import com.todoapp.todos.dto.TodoRequest;
 import com.todoapp.todos.dto.TodoResponse;
 import com.todoapp.todos.dto.TodoSearchRequest;
@@ -18,21 +20,22 @@ import com.todoapp.todos.mapper.TodoMapper;
 import com.todoapp.todos.repository.CategoryRepository;
 import com.todoapp.todos.repository.TagRepository;
 import com.todoapp.todos.repository.TodoRepository;
+import com.todoapp.todos.search.TodoFullTextSearch;
+import com.todoapp.todos.search.TodoSearchIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContext;
-import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -59,7 +62,7 @@ class TodoServiceTest {
     private TagRepository tagRepository;
 
     @Mock
-    private UserRepository userRepository;
+    private CurrentUserResolver currentUserResolver;
 
     @Mock
     private TodoMapper todoMapper;
@@ -71,10 +74,16 @@ class TodoServiceTest {
     private TagMapper tagMapper;
 
     @Mock
-    private SecurityContext securityContext;
+    private TodoFullTextSearch todoFullTextSearch;
 
     @Mock
-    private Authentication authentication;
+    private TodoSearchIndex todoSearchIndex;
+
+    @Mock
+    private TodoStatisticsCache todoStatisticsCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private TodoService todoService;
@@ -140,22 +149,16 @@ class TodoServiceTest {
                 .status(TodoStatus.PENDING)
                 .priority(TodoPriority.MEDIUM)
                 .build();
-
-        // Mock SecurityContext
-        when(securityContext.getAuthentication()).thenReturn(authentication);
-        SecurityContextHolder.setContext(securityContext);
     }
 
     @Test
     @DisplayName("Test tạo todo thành công")
     void testCreateTodo() {
         // Given
-        when(authentication.isAuthenticated()).thenReturn(true);
-        when(authentication.getName()).thenReturn(user.getEmail());
-        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(currentUserResolver.getCurrentUser()).thenReturn(user);
         when(todoMapper.toEntity(todoRequest)).thenReturn(todo);
         when(categoryRepository.findByIdAndUserId(1L, user.getId())).thenReturn(Optional.of(category));
-        when(tagRepository.findByIdAndUserId(1L, user.getId())).thenReturn(Optional.of(tag));
+        when(tagRepository.findByUserIdAndIdIn(user.getId(), Set.of(1L))).thenReturn(List.of(tag));
         when(todoRepository.save(any(Todo.class))).thenReturn(todo);
         when(todoMapper.toResponse(todo)).thenReturn(todoResponse);
 
@@ -169,16 +172,14 @@ class TodoServiceTest {
 
         verify(todoRepository).save(any(Todo.class));
         verify(categoryRepository).findByIdAndUserId(1L, user.getId());
-        verify(tagRepository).findByIdAndUserId(1L, user.getId());
+        verify(tagRepository).findByUserIdAndIdIn(user.getId(), Set.of(1L));
     }
 
     @Test
     @DisplayName("Test tạo todo với category không tồn tại")
     void testCreateTodoWithInvalidCategory() {
         // Given
-        when(authentication.isAuthenticated()).thenReturn(true);
-        when(authentication.getName()).thenReturn(user.getEmail());
-        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(currentUserResolver.getCurrentUser()).thenReturn(user);
         when(todoMapper.toEntity(todoRequest)).thenReturn(todo);
         when(categoryRepository.findByIdAndUserId(1L, user.getId())).thenReturn(Optional.empty());
 
@@ -190,17 +191,33 @@ class TodoServiceTest {
         verify(todoRepository, never()).save(any(Todo.class));
     }
 
+    @Test
+    @DisplayName("Test tạo todo với tag không thuộc user")
+    void testCreateTodoWithInvalidTag() {
+        // Given
+        todoRequest.setTagIds(Set.of(1L, 2L));
+        when(currentUserResolver.getCurrentUser()).thenReturn(user);
+        when(todoMapper.toEntity(todoRequest)).thenReturn(todo);
+        when(categoryRepository.findByIdAndUserId(1L, user.getId())).thenReturn(Optional.of(category));
+        when(tagRepository.findByUserIdAndIdIn(user.getId(), Set.of(1L, 2L))).thenReturn(List.of(tag));
+
+        // When & Then
+        assertThatThrownBy(() -> todoService.create(todoRequest))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("Không tìm thấy tag với ID: 2");
+
+        verify(todoRepository, never()).save(any(Todo.class));
+    }
+
     @Test
     @DisplayName("Test cập nhật todo thành công")
     void testUpdateTodo() {
         // Given
-        when(authentication.isAuthenticated()).thenReturn(true);
-        when(authentication.getName()).thenReturn(user.getEmail());
-        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(currentUserResolver.getCurrentUser()).thenReturn(user);
         when(todoRepository.findByIdAndUserIdAndDeletedAtIsNull(1L, user.getId()))
                 .thenReturn(Optional.of(todo));
         when(categoryRepository.findByIdAndUserId(1L, user.getId())).thenReturn(Optional.of(category));
-        when(tagRepository.findByIdAndUserId(1L, user.getId())).thenReturn(Optional.of(tag));
+        when(tagRepository.findByUserIdAndIdIn(user.getId(), Set.of(1L))).thenReturn(List.of(tag));
         when(todoRepository.save(any(Todo.class))).thenReturn(todo);
         when(todoMapper.toResponse(todo)).thenReturn(todoResponse);
 
@@ -219,9 +236,7 @@ class TodoServiceTest {
     @DisplayName("Test cập nhật todo không tồn tại")
     void testUpdateTodoNotFound() {
         // Given
-        when(authentication.isAuthenticated()).thenReturn(true);
-        when(authentication.getName()).thenReturn(user.getEmail());
-        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(currentUserResolver.getCurrentUser()).thenReturn(user);
         when(todoRepository.findByIdAndUserIdAndDeletedAtIsNull(999L, user.getId()))
                 .thenReturn(Optional.empty());
 
@@ -237,9 +252,7 @@ class TodoServiceTest {
     @DisplayName("Test xóa todo (soft delete) thành công")
     void testDeleteTodo() {
         // Given
-        when(authentication.isAuthenticated()).thenReturn(true);
-        when(authentication.getName()).thenReturn(user.getEmail());
-        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(currentUserResolver.getCurrentUser()).thenReturn(user);
         when(todoRepository.findByIdAndUserIdAndDeletedAtIsNull(1L, user.getId()))
                 .thenReturn(Optional.of(todo));
         when(todoRepository.save(any(Todo.class))).thenReturn(todo);
@@ -267,10 +280,8 @@ class TodoServiceTest {
         List<Todo> todos = Collections.singletonList(todo);
         Page<Todo> todoPage = new PageImpl<>(todos, pageable, 1);
 
-        when(authentication.isAuthenticated()).thenReturn(true);
-        when(authentication.getName()).thenReturn(user.getEmail());
-        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
-        when(todoRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(todoPage);
+        when(currentUserResolver.getCurrentUser()).thenReturn(user);
+        when(todoFullTextSearch.searchUserTodos(user.getId(), searchRequest, pageable)).thenReturn(todoPage);
         when(todoMapper.toResponse(any(Todo.class))).thenReturn(todoResponse);
 
         // When
@@ -281,7 +292,33 @@ class TodoServiceTest {
         assertThat(result.getTotalElements()).isEqualTo(1);
         assertThat(result.getContent()).hasSize(1);
 
+        verify(todoFullTextSearch).searchUserTodos(user.getId(), searchRequest, pageable);
+        verify(todoRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Test tìm kiếm todos chỉ với filters (không có từ khóa)")
+    void testSearchWithFiltersOnly() {
+        // Given
+        TodoSearchRequest searchRequest = TodoSearchRequest.builder()
+                .status(TodoStatus.PENDING)
+                .categoryId(1L)
+                .build();
+
+        Pageable pageable = PageRequest.of(0, 10);
+        Page<Todo> todoPage = new PageImpl<>(Collections.singletonList(todo), pageable, 1);
+
+        when(currentUserResolver.getCurrentUser()).thenReturn(user);
+        when(todoRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(todoPage);
+        when(todoMapper.toResponse(any(Todo.class))).thenReturn(todoResponse);
+
+        // When
+        Page<TodoResponse> result = todoService.search(searchRequest, pageable);
+
+        // Then
+        assertThat(result.getContent()).hasSize(1);
         verify(todoRepository).findAll(any(Specification.class), eq(pageable));
+        verifyNoInteractions(todoFullTextSearch);
     }
 
     @Test
@@ -304,9 +341,7 @@ class TodoServiceTest {
                 .title("Subtask")
                 .build();
 
-        when(authentication.isAuthenticated()).thenReturn(true);
-        when(authentication.getName()).thenReturn(user.getEmail());
-        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(currentUserResolver.getCurrentUser()).thenReturn(user);
         when(todoRepository.findByIdAndUserIdAndDeletedAtIsNull(1L, user.getId()))
                 .thenReturn(Optional.of(todo));
         when(todoMapper.toEntity(subtaskRequest)).thenReturn(subtask);
@@ -341,9 +376,7 @@ class TodoServiceTest {
                 .title("Subtask of Subtask")
                 .build();
 
-        when(authentication.isAuthenticated()).thenReturn(true);
-        when(authentication.getName()).thenReturn(user.getEmail());
-        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(currentUserResolver.getCurrentUser()).thenReturn(user);
         when(todoRepository.findByIdAndUserIdAndDeletedAtIsNull(1L, user.getId()))
                 .thenReturn(Optional.of(todo));
 
@@ -363,10 +396,8 @@ class TodoServiceTest {
         List<Todo> todos = Collections.singletonList(todo);
         Page<Todo> todoPage = new PageImpl<>(todos, pageable, 1);
 
-        when(authentication.isAuthenticated()).thenReturn(true);
-        when(authentication.getName()).thenReturn(user.getEmail());
-        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
-        when(todoRepository.findByUserIdAndDeletedAtIsNull(user.getId(), pageable)).thenReturn(todoPage);
+        when(currentUserResolver.getCurrentUser()).thenReturn(user);
+        when(todoRepository.findActiveTodosByUserId(user.getId(), pageable)).thenReturn(todoPage);
         when(todoMapper.toResponse(any(Todo.class))).thenReturn(todoResponse);
 
         // When
@@ -377,16 +408,46 @@ class TodoServiceTest {
         assertThat(result.getTotalElements()).isEqualTo(1);
         assertThat(result.getContent()).hasSize(1);
 
-        verify(todoRepository).findByUserIdAndDeletedAtIsNull(user.getId(), pageable);
+        verify(todoRepository).findActiveTodosByUserId(user.getId(), pageable);
+    }
+
+    @Test
+    @DisplayName("Test phân trang cursor giới hạn size ngoài khoảng cho phép")
+    void testGetAllByCursorClampsSize() {
+        // Given
+        Todo second = Todo.builder()
+                .id(2L)
+                .title("Second Todo")
+                .status(TodoStatus.PENDING)
+                .priority(TodoPriority.MEDIUM)
+                .user(user)
+                .build();
+        when(currentUserResolver.getCurrentUser()).thenReturn(user);
+        when(todoRepository.findActiveTodosFirstPage(eq(user.getId()), any(Pageable.class)))
+                .thenReturn(List.of(todo, second));
+        when(todoMapper.toResponse(any(Todo.class))).thenReturn(todoResponse);
+
+        // When
+        for (int size : new int[]{0, -5}) {
+            var result = todoService.getAllByCursor(null, size, false);
+
+            // Then
+            assertThat(result.getContent()).hasSize(1);
+            assertThat(result.isHasNext()).isTrue();
+            assertThat(result.getNextCursor()).isNotNull();
+        }
+        todoService.getAllByCursor(null, Integer.MAX_VALUE, false);
+
+        verify(todoRepository, times(2)).findActiveTodosFirstPage(user.getId(), PageRequest.of(0, 2));
+        verify(todoRepository).findActiveTodosFirstPage(user.getId(),
+                PageRequest.of(0, TodoService.MAX_CURSOR_PAGE_SIZE + 1));
     }
 
     @Test
     @DisplayName("Test cập nhật trạng thái todo")
     void testUpdateStatus() {
         // Given
-        when(authentication.isAuthenticated()).thenReturn(true);
-        when(authentication.getName()).thenReturn(user.getEmail());
-        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(currentUserResolver.getCurrentUser()).thenReturn(user);
         when(todoRepository.findByIdAndUserIdAndDeletedAtIsNull(1L, user.getId()))
                 .thenReturn(Optional.of(todo));
         when(todoRepository.save(any(Todo.class))).thenReturn(todo);
@@ -400,14 +461,67 @@ class TodoServiceTest {
         verify(todoRepository).save(argThat(savedTodo -> savedTodo.getStatus() == TodoStatus.DONE));
     }
 
+    @Test
+    @DisplayName("Test cập nhật trạng thái hàng loạt báo kết quả từng phần tử")
+    void testBulkUpdateStatus() {
+        // Given
+        when(currentUserResolver.getCurrentUser()).thenReturn(user);
+        when(todoRepository.findByUserIdAndIdInAndDeletedAtIsNull(user.getId(), List.of(1L, 2L)))
+                .thenReturn(List.of(todo));
+        when(todoMapper.toResponse(todo)).thenReturn(todoResponse);
+
+        // When
+        BulkResult<TodoResponse> result = todoService.bulkUpdateStatus(List.of(
+                new BulkTodoStatusItem(1L, TodoStatus.DONE),
+                new BulkTodoStatusItem(2L, TodoStatus.DONE)));
+
+        // Then
+        assertThat(result.getSucceeded()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getResults().get(0).isSuccess()).isTrue();
+        assertThat(result.getResults().get(0).getData()).isEqualTo(todoResponse);
+        assertThat(result.getResults().get(1).getId()).isEqualTo(2L);
+        assertThat(result.getResults().get(1).getError()).contains("Không tìm thấy todo");
+        assertThat(todo.getStatus()).isEqualTo(TodoStatus.DONE);
+        verify(todoRepository).saveAll(List.of(todo));
+    }
+
+    @Test
+    @DisplayName("Test khôi phục hàng loạt todo cha cùng subtask: số subtask của todo cha đã được cập nhật")
+    void testBulkRestoreReportsUpdatedSubtaskCount() {
+        // Given
+        todo.setDeletedAt(LocalDateTime.now());
+        todo.setSubtaskCount(1);
+        Todo subtask = Todo.builder()
+                .id(2L)
+                .title("Subtask")
+                .user(user)
+                .parent(todo)
+                .build();
+        subtask.setDeletedAt(LocalDateTime.now());
+        when(currentUserResolver.getCurrentUser()).thenReturn(user);
+        when(todoRepository.findByUserIdAndIdIn(user.getId(), List.of(1L, 2L))).thenReturn(List.of(todo, subtask));
+        when(todoMapper.toResponse(todo)).thenReturn(todoResponse);
+        when(todoMapper.toResponse(subtask)).thenReturn(TodoResponse.builder().id(2L).parentId(1L).build());
+        todoResponse.setSubtasksCount(1);
+
+        // When
+        BulkResult<TodoResponse> result = todoService.bulkRestore(List.of(1L, 2L));
+
+        // Then
+        assertThat(result.getSucceeded()).isEqualTo(2);
+        assertThat(result.getResults().get(0).getData().getSubtasksCount()).isEqualTo(2);
+        InOrder inOrder = inOrder(todoRepository, todoMapper);
+        inOrder.verify(todoRepository).adjustSubtaskCount(1L, 1);
+        inOrder.verify(todoMapper).toResponse(todo);
+    }
+
     @Test
     @DisplayName("Test khôi phục todo từ trash")
     void testRestore() {
         // Given
         todo.setDeletedAt(LocalDateTime.now());
-        when(authentication.isAuthenticated()).thenReturn(true);
-        when(authentication.getName()).thenReturn(user.getEmail());
-        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(currentUserResolver.getCurrentUser()).thenReturn(user);
         when(todoRepository.findByIdAndUserId(1L, user.getId()))
                 .thenReturn(Optional.of(todo));
         when(todoRepository.save(any(Todo.class))).thenReturn(todo);
@@ -425,9 +539,7 @@ class TodoServiceTest {
     @DisplayName("Test khôi phục todo chưa bị xóa")
     void testRestoreNotDeletedTodo() {
         // Given
-        when(authentication.isAuthenticated()).thenReturn(true);
-        when(authentication.getName()).thenReturn(user.getEmail());
-        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(currentUserResolver.getCurrentUser()).thenReturn(user);
         when(todoRepository.findByIdAndUserId(1L, user.getId()))
                 .thenReturn(Optional.of(todo));
 
@@ -443,15 +555,15 @@ class TodoServiceTest {
     @DisplayName("Test lấy thống kê todos")
     void testGetStatistics() {
         // Given
-        when(authentication.isAuthenticated()).thenReturn(true);
-        when(authentication.getName()).thenReturn(user.getEmail());
-        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
-        when(todoRepository.countByUserIdAndStatusAndDeletedAtIsNull(user.getId(), TodoStatus.PENDING))
-                .thenReturn(5L);
-        when(todoRepository.countByUserIdAndStatusAndDeletedAtIsNull(user.getId(), TodoStatus.IN_PROGRESS))
-                .thenReturn(3L);
-        when(todoRepository.countByUserIdAndStatusAndDeletedAtIsNull(user.getId(), TodoStatus.DONE))
-                .thenReturn(10L);
+        LocalDateTime nextDue = LocalDateTime.now().plusMinutes(30);
+        when(currentUserResolver.getCurrentUser()).thenReturn(user);
+        when(todoRepository.aggregateStatistics(eq(user.getId()), anyCollection(), any(), any(), any()))
+                .thenReturn(List.of(
+                        new Object[]{TodoStatus.PENDING, TodoPriority.HIGH, 3L, 1L, 2L, nextDue},
+                        new Object[]{TodoStatus.PENDING, TodoPriority.LOW, 2L, 0L, 0L, null},
+                        new Object[]{TodoStatus.IN_PROGRESS, TodoPriority.HIGH, 3L, 1L, 0L, null},
+                        new Object[]{TodoStatus.DONE, TodoPriority.MEDIUM, 10L, 0L, 0L, null},
+                        new Object[]{TodoStatus.CANCELED, TodoPriority.LOW, 1L, 0L, 0L, null}));
 
         // When
         Map<String, Long> statistics = todoService.getStatistics();
@@ -461,11 +573,15 @@ class TodoServiceTest {
         assertThat(statistics.get("PENDING")).isEqualTo(5L);
         assertThat(statistics.get("IN_PROGRESS")).isEqualTo(3L);
         assertThat(statistics.get("DONE")).isEqualTo(10L);
-        assertThat(statistics.get("TOTAL_ACTIVE")).isEqualTo(18L);
-
-        verify(todoRepository).countByUserIdAndStatusAndDeletedAtIsNull(user.getId(), TodoStatus.PENDING);
-        verify(todoRepository).countByUserIdAndStatusAndDeletedAtIsNull(user.getId(), TodoStatus.IN_PROGRESS);
-        verify(todoRepository).countByUserIdAndStatusAndDeletedAtIsNull(user.getId(), TodoStatus.DONE);
+        assertThat(statistics.get("CANCELED")).isEqualTo(1L);
+        assertThat(statistics.get("TOTAL_ACTIVE")).isEqualTo(19L);
+        assertThat(statistics.get("PRIORITY_HIGH")).isEqualTo(6L);
+        assertThat(statistics.get("PRIORITY_MEDIUM")).isEqualTo(10L);
+        assertThat(statistics.get("PRIORITY_LOW")).isEqualTo(3L);
+        assertThat(statistics.get("OVERDUE")).isEqualTo(2L);
+        assertThat(statistics.get("DUE_TODAY")).isEqualTo(2L);
+
+        verify(todoRepository).aggregateStatistics(eq(user.getId()), anyCollection(), any(), any(), any());
+        verify(todoStatisticsCache).put(eq(user.getId()), argThat(cached -> nextDue.equals(cached.getValidUntil())), anyLong());
     }
 }
-
@@ -0,0 +1,279 @@
+package com.todoapp.todos.service;
+
+import com.todoapp.auth.entity.User;
+import com.todoapp.todos.dto.TodoStatistics;
+import com.todoapp.todos.entity.Todo;
+import com.todoapp.todos.entity.TodoPriority;
+import com.todoapp.todos.entity.TodoStatus;
+import com.todoapp.todos.event.ChangeType;
+import com.todoapp.todos.event.TagChangedEvent;
+import com.todoapp.todos.event.TodoChangedEvent;
+import com.todoapp.todos.event.TodoSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests cho TodoStatisticsCache: cập nhật counter sau commit theo version dữ liệu của user,
+ * overdue/dueToday, thời điểm hết hiệu lực và token của lần nạp
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TodoStatisticsCache Tests")
+class TodoStatisticsCacheTest {
+
+    private static final Long USER_ID = 1L;
+
+    @Mock
+    private UserDataVersionService userDataVersionService;
+
+    private TodoStatisticsCache todoStatisticsCache;
+
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        todoStatisticsCache = new TodoStatisticsCache(userDataVersionService, true, 10000, 300);
+        now = LocalDateTime.now();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Entry cũ hơn version hiện tại của user (thay đổi trên instance khác) không được trả về")
+    void entryOlderThanCurrentVersionIsNotReturned() {
+        // Given
+        cache(5L, statistics(Map.of(TodoStatus.PENDING, 1L)));
+        assertThat(todoStatisticsCache.get(USER_ID, now)).isNotNull();
+
+        // When
+        when(userDataVersionService.getVersion(USER_ID)).thenReturn(6L);
+
+        // Then
+        assertThat(todoStatisticsCache.get(USER_ID, now)).isNull();
+    }
+
+    @Test
+    @DisplayName("Thay đổi có version nối tiếp được áp dụng, thay đổi tag chỉ tăng version")
+    void appliesChangesWithFollowingVersion() {
+        // Given
+        cache(5L, statistics(Map.of(TodoStatus.PENDING, 1L)));
+
+        // When
+        commit(6L, TodoChangedEvent.created(todo(2L, TodoStatus.PENDING)));
+        commit(7L, new TagChangedEvent(USER_ID, 100L, ChangeType.CREATED));
+        when(userDataVersionService.getVersion(USER_ID)).thenReturn(7L);
+
+        // Then
+        TodoStatistics statistics = todoStatisticsCache.get(USER_ID, now);
+        assertThat(statistics).isNotNull();
+        assertThat(statistics.getByStatus().get(TodoStatus.PENDING)).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("Thiếu version ở giữa: entry bị bỏ")
+    void versionGapDropsEntry() {
+        // Given
+        cache(5L, statistics(Map.of(TodoStatus.PENDING, 1L)));
+
+        // When: version 6 commit trên instance khác, version 7 trên instance này
+        commit(7L, TodoChangedEvent.created(todo(2L, TodoStatus.PENDING)));
+
+        // Then
+        assertThat(todoStatisticsCache.get(USER_ID, now)).isNull();
+    }
+
+    @Test
+    @DisplayName("Commit đã có trong dữ liệu nạp (listener chạy sau put) không bị đếm hai lần")
+    void commitAlreadyLoadedIsNotCountedTwice() {
+        // Given: version 6 đã commit và được đọc khi nạp, nhưng listener sau commit chạy sau put
+        cache(6L, statistics(Map.of(TodoStatus.PENDING, 2L)));
+
+        // When
+        commit(6L, TodoChangedEvent.created(todo(2L, TodoStatus.PENDING)));
+
+        // Then
+        assertThat(todoStatisticsCache.get(USER_ID, now).getByStatus().get(TodoStatus.PENDING)).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("Thay đổi ngoài transaction: entry bị bỏ")
+    void changeOutsideTransactionInvalidates() {
+        // Given
+        cache(5L, statistics(Map.of(TodoStatus.PENDING, 1L)));
+
+        // When
+        todoStatisticsCache.onTodoChanged(TodoChangedEvent.created(todo(2L, TodoStatus.PENDING)));
+
+        // Then
+        assertThat(todoStatisticsCache.get(USER_ID, now)).isNull();
+    }
+
+    @Test
+    @DisplayName("Todo quá hạn hoàn thành và todo mới có hạn hôm nay: overdue/dueToday được cập nhật")
+    void movesOverdueAndDueToday() {
+        // Given: một todo quá hạn từ hôm qua
+        Todo overdueTodo = todo(2L, TodoStatus.PENDING);
+        overdueTodo.setDueDate(now.minusDays(1));
+        cache(5L, statistics(Map.of(TodoStatus.PENDING, 1L), 1L, 0L));
+
+        // When
+        TodoSnapshot before = TodoSnapshot.of(overdueTodo);
+        overdueTodo.setStatus(TodoStatus.DONE);
+        commit(6L, TodoChangedEvent.updated(before, overdueTodo));
+        Todo dueToday = todo(3L, TodoStatus.IN_PROGRESS);
+        dueToday.setDueDate(now.toLocalDate().atTime(LocalTime.MAX));
+        commit(7L, TodoChangedEvent.created(dueToday));
+        when(userDataVersionService.getVersion(USER_ID)).thenReturn(7L);
+
+        // Then
+        TodoStatistics statistics = todoStatisticsCache.get(USER_ID, now);
+        assertThat(statistics.getOverdue()).isZero();
+        assertThat(statistics.getDueToday()).isEqualTo(1L);
+        assertThat(statistics.getByStatus().get(TodoStatus.PENDING)).isZero();
+        assertThat(statistics.getByStatus().get(TodoStatus.DONE)).isEqualTo(1L);
+        assertThat(statistics.getByStatus().get(TodoStatus.IN_PROGRESS)).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Todo mới có hạn sớm hơn validUntil: entry hết hiệu lực tại hạn đó")
+    void validUntilMovesToNextDueDate() {
+        // Given
+        cache(5L, statistics(Map.of()));
+        LocalDateTime midnight = now.toLocalDate().plusDays(1).atStartOfDay();
+        LocalDateTime dueDate = now.plus(Duration.between(now, midnight).dividedBy(2));
+        Todo todo = todo(2L, TodoStatus.PENDING);
+        todo.setDueDate(dueDate);
+
+        // When
+        commit(6L, TodoChangedEvent.created(todo));
+        when(userDataVersionService.getVersion(USER_ID)).thenReturn(6L);
+
+        // Then
+        assertThat(todoStatisticsCache.get(USER_ID, dueDate.minusSeconds(1)).getValidUntil()).isEqualTo(dueDate);
+        assertThat(todoStatisticsCache.get(USER_ID, dueDate)).isNull();
+        assertThat(todoStatisticsCache.get(USER_ID, now)).isNull();
+    }
+
+    @Test
+    @DisplayName("Hết validUntil ban đầu (nửa đêm): entry không được trả về")
+    void entryExpiresAtMidnight() {
+        // Given
+        cache(5L, statistics(Map.of(TodoStatus.PENDING, 1L)));
+
+        // When / Then
+        assertThat(todoStatisticsCache.get(USER_ID, now)).isNotNull();
+        assertThat(todoStatisticsCache.get(USER_ID, now.toLocalDate().plusDays(1).atStartOfDay())).isNull();
+    }
+
+    @Test
+    @DisplayName("Thay đổi commit trong lúc nạp: kết quả nạp không được lưu")
+    void commitDuringLoadDiscardsPut() {
+        // Given
+        when(userDataVersionService.getVersion(USER_ID)).thenReturn(5L);
+        long token = todoStatisticsCache.beginLoad(USER_ID);
+
+        // When
+        commit(6L, TodoChangedEvent.created(todo(2L, TodoStatus.PENDING)));
+        todoStatisticsCache.put(USER_ID, statistics(Map.of(TodoStatus.PENDING, 1L)), token);
+
+        // Then
+        assertThat(todoStatisticsCache.get(USER_ID, now)).isNull();
+    }
+
+    @Test
+    @DisplayName("Hai lần nạp đồng thời: chỉ lần nạp mới nhất được lưu, token chỉ dùng một lần")
+    void onlyLatestLoadIsStored() {
+        // Given
+        when(userDataVersionService.getVersion(USER_ID)).thenReturn(5L);
+        long first = todoStatisticsCache.beginLoad(USER_ID);
+        long second = todoStatisticsCache.beginLoad(USER_ID);
+
+        // When / Then
+        todoStatisticsCache.put(USER_ID, statistics(Map.of(TodoStatus.PENDING, 1L)), first);
+        assertThat(todoStatisticsCache.get(USER_ID, now)).isNull();
+
+        todoStatisticsCache.put(USER_ID, statistics(Map.of(TodoStatus.PENDING, 2L)), second);
+        assertThat(todoStatisticsCache.get(USER_ID, now).getByStatus().get(TodoStatus.PENDING)).isEqualTo(2L);
+
+        todoStatisticsCache.invalidate(USER_ID);
+        todoStatisticsCache.put(USER_ID, statistics(Map.of(TodoStatus.PENDING, 3L)), second);
+        assertThat(todoStatisticsCache.get(USER_ID, now)).isNull();
+    }
+
+    /**
+     * Nạp thống kê vào cache với version dữ liệu hiện tại của user
+     */
+    private void cache(long version, TodoStatistics statistics) {
+        when(userDataVersionService.getVersion(USER_ID)).thenReturn(version);
+        long token = todoStatisticsCache.beginLoad(USER_ID);
+        todoStatisticsCache.put(USER_ID, statistics, token);
+    }
+
+    private TodoStatistics statistics(Map<TodoStatus, Long> byStatus) {
+        return statistics(byStatus, 0L, 0L);
+    }
+
+    private TodoStatistics statistics(Map<TodoStatus, Long> byStatus, long overdue, long dueToday) {
+        Map<TodoStatus, Long> statusCounts = TodoStatistics.emptyStatusCounts();
+        statusCounts.putAll(byStatus);
+        Map<TodoPriority, Long> priorityCounts = TodoStatistics.emptyPriorityCounts();
+        priorityCounts.put(TodoPriority.MEDIUM, statusCounts.values().stream().mapToLong(Long::longValue).sum());
+        return TodoStatistics.builder()
+                .byStatus(statusCounts)
+                .byPriority(priorityCounts)
+                .overdue(overdue)
+                .dueToday(dueToday)
+                .validUntil(now.toLocalDate().plusDays(1).atStartOfDay())
+                .build();
+    }
+
+    private static Todo todo(Long id, TodoStatus status) {
+        return Todo.builder()
+                .id(id)
+                .user(User.builder().id(USER_ID).build())
+                .title("Todo " + id)
+                .status(status)
+                .priority(TodoPriority.MEDIUM)
+                .build();
+    }
+
+    /**
+     * Chạy các event trong một transaction giả lập và commit với version được cấp
+     */
+    private void commit(long version, Object... events) {
+        TransactionSynchronizationManager.initSynchronization();
+        for (Object event : events) {
+            if (event instanceof TodoChangedEvent todoChanged) {
+                todoStatisticsCache.onTodoChanged(todoChanged);
+            } else {
+                todoStatisticsCache.onTagChanged((TagChangedEvent) event);
+            }
+        }
+        when(userDataVersionService.getCommittedVersion(USER_ID)).thenReturn(version);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+}
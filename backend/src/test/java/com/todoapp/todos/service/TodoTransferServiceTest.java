@@ -0,0 +1,406 @@
+package com.todoapp.todos.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todoapp.auth.entity.User;
+import com.todoapp.auth.security.CurrentUserResolver;
+import com.todoapp.common.config.AuditorAwareConfig;
+import com.todoapp.todos.dto.TodoImportResult;
+import com.todoapp.todos.dto.TodoTransferFormat;
+import com.todoapp.todos.dto.TodoTransferRecord;
+import com.todoapp.todos.entity.Category;
+import com.todoapp.todos.entity.Tag;
+import com.todoapp.todos.entity.Todo;
+import com.todoapp.todos.entity.TodoPriority;
+import com.todoapp.todos.entity.TodoStatus;
+import com.todoapp.todos.repository.TodoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Kiểm tra export/import todos trên database thật (H2).
+ * Không chạy trong transaction của test vì mỗi lô import commit trong transaction riêng.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({TodoTransferService.class, SimpleMeterRegistry.class, AuditorAwareConfig.class})
+@DisplayName("TodoTransferService Tests")
+class TodoTransferServiceTest {
+
+    private static final int EXPORT_ROWS = Integer.parseInt(TodoRepository.EXPORT_FETCH_SIZE) * 2 + 1;
+    private static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    @Autowired
+    private TodoTransferService todoTransferService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private CurrentUserResolver currentUserResolver;
+
+    private final List<User> users = new ArrayList<>();
+
+    private TransactionTemplate transactionTemplate;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        user = persistUser("transfer@example.com");
+        actAs(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        setChunkSize(DEFAULT_CHUNK_SIZE);
+        transactionTemplate.executeWithoutResult(status -> users.forEach(owner -> {
+            delete("DELETE FROM todo_tags WHERE todo_id IN (SELECT id FROM todos WHERE user_id = :userId)", owner);
+            delete("DELETE FROM todos WHERE user_id = :userId AND parent_id IS NOT NULL", owner);
+            delete("DELETE FROM todos WHERE user_id = :userId", owner);
+            delete("DELETE FROM tags WHERE user_id = :userId", owner);
+            delete("DELETE FROM categories WHERE user_id = :userId", owner);
+            delete("DELETE FROM users WHERE id = :userId", owner);
+        }));
+    }
+
+    @Test
+    @DisplayName("Ghép tên tag vào todo theo ID, bỏ qua tag của todo không có trong danh sách")
+    void mergesTagNamesInTodoOrder() {
+        // Given
+        List<TodoTransferRecord> records = List.of(record(1L), record(2L), record(3L), record(5L));
+        List<Object[]> tagNames = List.of(
+                new Object[]{1L, "a"}, new Object[]{1L, "b"}, new Object[]{3L, "c"},
+                new Object[]{4L, "deleted"}, new Object[]{5L, "d"}, new Object[]{6L, "later"});
+
+        // When
+        Iterator<TodoTransferRecord> merged =
+                new TodoTransferService.TagMergingIterator(records.iterator(), tagNames.iterator());
+        List<TodoTransferRecord> result = new ArrayList<>();
+        merged.forEachRemaining(result::add);
+
+        // Then
+        assertThat(result).extracting(TodoTransferRecord::getTags).containsExactly(
+                List.of("a", "b"), List.of(), List.of("c"), List.of("d"));
+    }
+
+    @Test
+    @DisplayName("Export NDJSON nhiều dòng hơn fetch size: đủ todos, đúng thứ tự và đúng tags")
+    void exportsNdjsonBeyondFetchSize() throws IOException {
+        // Given
+        persistTodos(EXPORT_ROWS);
+
+        // When
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long count = todoTransferService.export(TodoTransferFormat.NDJSON, output);
+
+        // Then
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(count).isEqualTo(EXPORT_ROWS);
+        assertThat(lines).hasSize(EXPORT_ROWS);
+        long previousId = 0;
+        for (int i = 0; i < lines.length; i++) {
+            TodoTransferRecord record = objectMapper.readValue(lines[i], TodoTransferRecord.class);
+            assertThat(record.getId()).isGreaterThan(previousId);
+            assertThat(record.getTitle()).isEqualTo("Todo " + i);
+            assertThat(record.getTags()).isEqualTo(i % 3 == 0 ? List.of("a|b", "home") : List.of());
+            previousId = record.getId();
+        }
+    }
+
+    @Test
+    @DisplayName("Export CSV nhiều dòng hơn fetch size: header và một dòng cho mỗi todo")
+    void exportsCsvBeyondFetchSize() throws IOException {
+        // Given
+        persistTodos(EXPORT_ROWS);
+
+        // When
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long count = todoTransferService.export(TodoTransferFormat.CSV, output);
+
+        // Then
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertThat(count).isEqualTo(EXPORT_ROWS);
+        assertThat(lines).hasSize(EXPORT_ROWS + 1);
+        assertThat(lines[0]).isEqualTo(String.join(",", TodoCsv.COLUMNS));
+        assertThat(lines[1]).contains(",Todo 0,").contains(",a\\|b|home,");
+        assertThat(lines[EXPORT_ROWS]).contains(",Todo " + (EXPORT_ROWS - 1) + ",");
+    }
+
+    @Test
+    @DisplayName("Import CSV: bỏ qua BOM và cột lạ, trường nhiều dòng, dòng lỗi được báo kèm số dòng")
+    void importsCsvWithBomUnknownColumnsAndErrors() throws IOException {
+        // Given
+        String csv = "\uFEFFid,title,extra,status,tags\r\n"
+                + "1,Mua sữa,x,,a\\|b|home\r\n"
+                + "2,\"Họp\r\nnhóm\",x,in_progress,\r\n"
+                + "3,,x,,\r\n"
+                + "4,Sai trạng thái,x,LATER,\r\n";
+
+        // When
+        TodoImportResult result = importText(TodoTransferFormat.CSV, csv);
+
+        // Then
+        assertThat(result.getTotal()).isEqualTo(4);
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getTagsCreated()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(TodoImportResult.RowError::getLine).containsExactlyInAnyOrder(5L, 6L);
+        assertThat(exportedTodos()).containsExactly(
+                "Mua sữa / null / PENDING / MEDIUM / null / null / null / [a|b, home] / null",
+                "Họp\r\nnhóm / null / IN_PROGRESS / MEDIUM / null / null / null / [] / null");
+    }
+
+    @Test
+    @DisplayName("Export rồi import sang tài khoản khác giữ nguyên nội dung, category, tags (kể cả '|' và '\\') và subtasks")
+    void roundTripsThroughEveryFormat() throws IOException {
+        // Given
+        LocalDateTime due = LocalDateTime.of(2026, 10, 20, 9, 30);
+        transactionTemplate.executeWithoutResult(status -> {
+            Category category = Category.builder().user(user).name("Việc, \"nhà\"").color("#ff0000").build();
+            Tag escaped = Tag.builder().user(user).name("a|b").color("#00ff00").build();
+            Tag backslash = Tag.builder().user(user).name("c\\d").color("#0000ff").build();
+            entityManager.persist(category);
+            entityManager.persist(escaped);
+            entityManager.persist(backslash);
+            Todo root = Todo.builder().user(user).title("Dọn nhà").description("Dòng 1\nDòng \"2\", hết")
+                    .status(TodoStatus.DONE).completedAt(due.minusDays(1)).priority(TodoPriority.HIGH)
+                    .dueDate(due).category(category).tags(new HashSet<>(Set.of(escaped, backslash))).tagCount(2)
+                    .subtaskCount(1).build();
+            entityManager.persist(root);
+            entityManager.persist(Todo.builder().user(user).parent(root).title("Lau bếp")
+                    .tags(new HashSet<>(Set.of(escaped))).tagCount(1).build());
+            entityManager.persist(Todo.builder().user(user).title("Không category").build());
+        });
+        List<String> expected = exportedTodos();
+
+        for (TodoTransferFormat format : TodoTransferFormat.values()) {
+            actAs(user);
+            String exported = exportText(format);
+            User target = persistUser("transfer-" + format.name().toLowerCase() + "@example.com");
+            actAs(target);
+
+            // When
+            TodoImportResult result = importText(format, exported);
+
+            // Then
+            assertThat(result.getImported()).as(format.name()).isEqualTo(3);
+            assertThat(result.getFailed()).as(format.name()).isZero();
+            assertThat(result.getCategoriesCreated()).as(format.name()).isEqualTo(1);
+            assertThat(result.getTagsCreated()).as(format.name()).isEqualTo(2);
+            assertThat(exportedTodos()).as(format.name()).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("Subtask có todo cha ở lô trước: counter của todo cha được cập nhật; todo cha không tồn tại thì báo lỗi")
+    void linksSubtasksToParentsInEarlierChunks() throws IOException {
+        // Given: lô 1 = hai todo cha, lô 2 và 3 = subtasks
+        setChunkSize(2);
+        String body = ndjson(10, null, "Cha 1") + ndjson(20, null, "Cha 2")
+                + ndjson(11, 10L, "Con 1.1") + ndjson(12, 10L, "Con 1.2")
+                + ndjson(21, 20L, "Con 2.1") + ndjson(99, 98L, "Mồ côi");
+
+        // When
+        TodoImportResult result = importText(TodoTransferFormat.NDJSON, body);
+
+        // Then
+        assertThat(result.getImported()).isEqualTo(5);
+        assertThat(result.getErrors()).extracting(TodoImportResult.RowError::getLine).containsExactly(6L);
+        assertThat(subtaskCount("Cha 1")).isEqualTo(2);
+        assertThat(subtaskCount("Cha 2")).isEqualTo(1);
+        assertThat(exportedTodos()).filteredOn(todo -> todo.startsWith("Con 1."))
+                .allMatch(todo -> todo.endsWith(" / Cha 1"));
+    }
+
+    @Test
+    @DisplayName("Lô bị rollback: mọi dòng của lô được báo lỗi, lô trước và sau vẫn được ghi, category của lô lỗi không bị tính")
+    void reportsEveryRowOfRolledBackChunk() throws IOException {
+        // Given: lô thứ hai vi phạm ràng buộc của database
+        setChunkSize(2);
+        transactionTemplate.executeWithoutResult(status -> entityManager
+                .createNativeQuery("ALTER TABLE todos ADD CONSTRAINT chk_import_test CHECK (title <> 'BOOM')")
+                .executeUpdate());
+        String body = ndjson(1, null, "A") + ndjson(2, null, "B")
+                + "{\"title\":\"C\",\"category\":\"Mới\"}\n" + ndjson(3, null, "BOOM")
+                + "{\"title\":\"D\",\"category\":\"Mới\"}\n";
+
+        // When
+        TodoImportResult result;
+        try {
+            result = importText(TodoTransferFormat.NDJSON, body);
+        } finally {
+            transactionTemplate.executeWithoutResult(status -> entityManager
+                    .createNativeQuery("ALTER TABLE todos DROP CONSTRAINT chk_import_test")
+                    .executeUpdate());
+        }
+
+        // Then
+        assertThat(result.getTotal()).isEqualTo(5);
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(TodoImportResult.RowError::getLine).containsExactly(3L, 4L);
+        assertThat(result.getCategoriesCreated()).isEqualTo(1);
+        assertThat(countRows("SELECT COUNT(*) FROM categories WHERE user_id = :userId")).isEqualTo(1);
+        assertThat(exportedTodos()).extracting(todo -> todo.substring(0, 1)).containsExactly("A", "B", "D");
+    }
+
+    @Test
+    @DisplayName("Import 20k dòng: số câu lệnh SQL tăng theo số lô JDBC batch, không theo số dòng")
+    void importUsesBatchedStatements() throws IOException {
+        // Given
+        int rows = 20_000;
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.persist(Category.builder().user(user).name("Work").color("#ff0000").build());
+            entityManager.persist(Tag.builder().user(user).name("home").color("#0000ff").build());
+        });
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            body.append("{\"title\":\"Todo ").append(i).append("\",\"category\":\"Work\",\"tags\":[\"home\"]}\n");
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        TodoImportResult result = importText(TodoTransferFormat.NDJSON, body.toString());
+
+        // Then
+        assertThat(result.getImported()).isEqualTo(rows);
+        assertThat(countRows("SELECT COUNT(*) FROM todo_tags g JOIN todos t ON t.id = g.todo_id WHERE t.user_id = :userId"))
+                .isEqualTo(rows);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(rows / 40);
+    }
+
+    private void persistTodos(int count) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Tag escaped = Tag.builder().user(user).name("a|b").color("#00ff00").build();
+            Tag home = Tag.builder().user(user).name("home").color("#0000ff").build();
+            entityManager.persist(escaped);
+            entityManager.persist(home);
+            for (int i = 0; i < count; i++) {
+                Set<Tag> tags = i % 3 == 0 ? new HashSet<>(Set.of(escaped, home)) : new HashSet<>();
+                entityManager.persist(Todo.builder().user(user).title("Todo " + i).tags(tags).tagCount(tags.size()).build());
+            }
+        });
+    }
+
+    private User persistUser(String email) {
+        User owner = User.builder().email(email).password("encoded").fullName("Transfer").build();
+        transactionTemplate.executeWithoutResult(status -> entityManager.persist(owner));
+        users.add(owner);
+        return owner;
+    }
+
+    private void actAs(User owner) {
+        when(currentUserResolver.getCurrentUser()).thenReturn(owner);
+        when(currentUserResolver.getCurrentUserId()).thenReturn(owner.getId());
+    }
+
+    private void setChunkSize(int chunkSize) {
+        Object target = AopTestUtils.getUltimateTargetObject(todoTransferService);
+        ReflectionTestUtils.setField(target, "chunkSize", chunkSize);
+    }
+
+    private TodoImportResult importText(TodoTransferFormat format, String body) throws IOException {
+        return todoTransferService.importTodos(format, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private String exportText(TodoTransferFormat format) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        todoTransferService.export(format, output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Các todo của user hiện tại dưới dạng so sánh được giữa hai tài khoản: ID được thay bằng tiêu đề todo cha
+     */
+    private List<String> exportedTodos() throws IOException {
+        List<TodoTransferRecord> records = new ArrayList<>();
+        for (String line : exportText(TodoTransferFormat.NDJSON).split("\n")) {
+            records.add(objectMapper.readValue(line, TodoTransferRecord.class));
+        }
+        Map<Long, String> titles = new HashMap<>();
+        records.forEach(record -> titles.put(record.getId(), record.getTitle()));
+        return records.stream()
+                .map(record -> String.join(" / ", record.getTitle(), String.valueOf(record.getDescription()),
+                        String.valueOf(record.getStatus()), String.valueOf(record.getPriority()),
+                        String.valueOf(record.getDueDate()), String.valueOf(record.getCompletedAt()),
+                        String.valueOf(record.getCategory()), String.valueOf(record.getTags()),
+                        String.valueOf(titles.get(record.getParentId()))))
+                .toList();
+    }
+
+    private int subtaskCount(String title) {
+        return transactionTemplate.execute(status -> ((Number) entityManager
+                .createNativeQuery("SELECT subtask_count FROM todos WHERE user_id = :userId AND title = :title")
+                .setParameter("userId", user.getId())
+                .setParameter("title", title)
+                .getSingleResult()).intValue());
+    }
+
+    private long countRows(String sql) {
+        return transactionTemplate.execute(status -> ((Number) entityManager.createNativeQuery(sql)
+                .setParameter("userId", user.getId())
+                .getSingleResult()).longValue());
+    }
+
+    private static String ndjson(long id, Long parentId, String title) {
+        return "{\"id\":" + id + ",\"parentId\":" + parentId + ",\"title\":\"" + title + "\"}\n";
+    }
+
+    private void delete(String sql, User owner) {
+        entityManager.createNativeQuery(sql).setParameter("userId", owner.getId()).executeUpdate();
+    }
+
+    private static TodoTransferRecord record(Long id) {
+        return TodoTransferRecord.builder().id(id).title("Todo " + id).build();
+    }
+}
@@ -0,0 +1,324 @@
+package com.todoapp.todos.stream;
+
+import com.todoapp.common.exception.RateLimitExceededException;
+import com.todoapp.todos.dto.TodoStreamEvent;
+import com.todoapp.todos.event.CategoryChangedEvent;
+import com.todoapp.todos.event.ChangeType;
+import com.todoapp.todos.event.TagChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests cho TodoChangeStream: giới hạn kết nối, gom thay đổi theo transaction,
+ * cắt bớt event lớn và ngắt subscriber đọc chậm hoặc bị kẹt khi ghi
+ */
+@DisplayName("TodoChangeStream Tests")
+class TodoChangeStreamTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<RecordingEmitter> emitters = new ArrayList<>();
+
+    private TodoChangeStream stream;
+    private boolean blockNext;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        emitters.forEach(RecordingEmitter::release);
+        if (stream != null) {
+            stream.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Thay đổi trong transaction được phát thành một event sau khi commit")
+    void batchesTransactionChangesAfterCommit() throws Exception {
+        // Given
+        stream = newStream(64, 10, 5, 30_000, 4);
+        RecordingEmitter emitter = subscribe(1L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        stream.onTagChanged(new TagChangedEvent(1L, 10L, ChangeType.CREATED));
+        stream.onCategoryChanged(new CategoryChangedEvent(1L, 20L, ChangeType.UPDATED));
+        stream.onTagChanged(new TagChangedEvent(2L, 30L, ChangeType.DELETED));
+        Thread.sleep(50);
+        assertThat(emitter.changeEvents()).isEmpty();
+        commit();
+
+        // Then
+        await(() -> emitter.changeEvents().size() == 1);
+        TodoStreamEvent event = emitter.changeEvents().get(0);
+        assertThat(event.isTruncated()).isFalse();
+        assertThat(event.getChanges()).containsExactly(
+                new TodoStreamEvent.Change("TAG", "CREATED", 10L),
+                new TodoStreamEvent.Change("CATEGORY", "UPDATED", 20L));
+    }
+
+    @Test
+    @DisplayName("Transaction rollback: không phát gì")
+    void dropsChangesOnRollback() throws Exception {
+        // Given
+        stream = newStream(64, 10, 5, 30_000, 4);
+        RecordingEmitter emitter = subscribe(1L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        stream.onTagChanged(new TagChangedEvent(1L, 10L, ChangeType.CREATED));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        stream.onTagChanged(new TagChangedEvent(1L, 11L, ChangeType.UPDATED));
+
+        // Then: chỉ có thay đổi ngoài transaction sau đó
+        await(() -> emitter.changeEvents().size() == 1);
+        Thread.sleep(50);
+        assertThat(emitter.changeEvents()).hasSize(1);
+        assertThat(emitter.changeEvents().get(0).getChanges()).extracting(TodoStreamEvent.Change::getId).containsExactly(11L);
+    }
+
+    @Test
+    @DisplayName("Transaction có hơn MAX_CHANGES thay đổi: event bị cắt và đánh dấu truncated")
+    void truncatesLargeTransactions() {
+        // Given
+        stream = newStream(64, 10, 5, 30_000, 4);
+        RecordingEmitter emitter = subscribe(1L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        for (long id = 1; id <= TodoStreamEvent.MAX_CHANGES + 50; id++) {
+            stream.onTagChanged(new TagChangedEvent(1L, id, ChangeType.UPDATED));
+        }
+        commit();
+
+        // Then
+        await(() -> emitter.changeEvents().size() == 1);
+        TodoStreamEvent event = emitter.changeEvents().get(0);
+        assertThat(event.isTruncated()).isTrue();
+        assertThat(event.getChanges()).hasSize(TodoStreamEvent.MAX_CHANGES);
+    }
+
+    @Test
+    @DisplayName("Vượt số kết nối mỗi user: kết nối cũ nhất bị đóng")
+    void perUserCapEvictsOldest() {
+        // Given
+        stream = newStream(64, 10, 2, 30_000, 4);
+        RecordingEmitter first = subscribe(1L);
+        RecordingEmitter second = subscribe(1L);
+
+        // When
+        RecordingEmitter third = subscribe(1L);
+
+        // Then
+        await(first::isCompleted);
+        assertThat(second.isCompleted()).isFalse();
+        assertThat(third.isCompleted()).isFalse();
+        assertThat(evictions("replaced")).isEqualTo(1);
+        assertThat(openConnections()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Vượt số kết nối toàn server: từ chối bằng RateLimitExceededException")
+    void globalCapRejects() {
+        // Given
+        stream = newStream(64, 2, 5, 30_000, 4);
+        subscribe(1L);
+        subscribe(2L);
+
+        // When / Then
+        assertThatThrownBy(() -> subscribe(3L)).isInstanceOf(RateLimitExceededException.class);
+        assertThat(openConnections()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Hàng đợi đầy: subscriber bị ngắt, emitter được đóng khi lần ghi đang chạy kết thúc")
+    void evictsSlowConsumerWhenBufferIsFull() {
+        // Given: lần ghi đầu tiên (comment "connected") bị kẹt
+        stream = newStream(2, 10, 5, 30_000, 4);
+        RecordingEmitter emitter = subscribe(1L, true);
+        await(emitter::isSending);
+
+        // When
+        for (long id = 1; id <= 3; id++) {
+            stream.onTagChanged(new TagChangedEvent(1L, id, ChangeType.UPDATED));
+        }
+
+        // Then
+        assertThat(evictions("slow-consumer")).isEqualTo(1);
+        assertThat(openConnections()).isZero();
+        assertThat(emitter.isCompleted()).isFalse();
+        emitter.release();
+        await(emitter::isCompleted);
+    }
+
+    @Test
+    @DisplayName("Lần ghi bị kẹt quá hạn: subscriber bị ngắt, subscriber khác vẫn nhận event dù pool chỉ có một thread")
+    void evictsStuckSendAndKeepsServingOthers() throws Exception {
+        // Given
+        stream = newStream(64, 10, 5, 100, 1);
+        RecordingEmitter stuck = subscribe(1L, true);
+        await(stuck::isSending);
+        Thread.sleep(150);
+
+        // When
+        stream.evictStalled();
+        RecordingEmitter healthy = subscribe(2L);
+        stream.onTagChanged(new TagChangedEvent(2L, 10L, ChangeType.CREATED));
+
+        // Then
+        await(() -> healthy.changeEvents().size() == 1);
+        assertThat(evictions("send-timeout")).isEqualTo(1);
+        assertThat(openConnections()).isEqualTo(1);
+        assertThat(stuck.isCompleted()).isFalse();
+        stuck.release();
+        await(stuck::isCompleted);
+    }
+
+    @Test
+    @DisplayName("Event chờ trong hàng đợi quá hạn: subscriber bị ngắt khi có event mới")
+    void evictsWhenOldestQueuedEventExpires() throws Exception {
+        // Given
+        stream = newStream(64, 10, 5, 100, 4);
+        RecordingEmitter emitter = subscribe(1L, true);
+        await(emitter::isSending);
+        stream.onTagChanged(new TagChangedEvent(1L, 1L, ChangeType.UPDATED));
+        Thread.sleep(150);
+
+        // When
+        stream.heartbeat();
+
+        // Then
+        assertThat(evictions("send-timeout")).isEqualTo(1);
+        assertThat(openConnections()).isZero();
+    }
+
+    private TodoChangeStream newStream(int bufferSize, int maxConnections, int maxConnectionsPerUser,
+                                       long sendTimeoutMs, int senderThreads) {
+        return new TodoChangeStream(meterRegistry, bufferSize, maxConnections, maxConnectionsPerUser, 60_000,
+                sendTimeoutMs, senderThreads, 8) {
+            @Override
+            SseEmitter createEmitter(long timeout) {
+                RecordingEmitter emitter = new RecordingEmitter(blockNext);
+                blockNext = false;
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+
+    private RecordingEmitter subscribe(Long userId) {
+        return subscribe(userId, false);
+    }
+
+    private RecordingEmitter subscribe(Long userId, boolean blockSends) {
+        blockNext = blockSends;
+        return (RecordingEmitter) stream.subscribe(userId);
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    private double evictions(String reason) {
+        return meterRegistry.get("todoapp.todos.stream.evictions").tag("reason", reason).counter().count();
+    }
+
+    private double openConnections() {
+        return meterRegistry.get("todoapp.todos.stream.connections").gauge().value();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("điều kiện không xảy ra trong 5 giây").isLessThan(deadline);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * SseEmitter ghi lại dữ liệu đã gửi; có thể chặn mọi lần gửi như client không đọc (cửa sổ TCP đầy).
+     * send/complete đều synchronized như SseEmitter, nên đóng emitter trong lúc đang gửi sẽ bị chặn.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<Object> sent = new CopyOnWriteArrayList<>();
+        private final CountDownLatch released = new CountDownLatch(1);
+        private final boolean blockSends;
+        private volatile boolean sending;
+        private volatile boolean completed;
+
+        RecordingEmitter(boolean blockSends) {
+            this.blockSends = blockSends;
+        }
+
+        @Override
+        public synchronized void send(SseEventBuilder builder) {
+            sending = true;
+            try {
+                if (blockSends) {
+                    released.await(10, TimeUnit.SECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Set<ResponseBodyEmitter.DataWithMediaType> data = builder.build();
+            data.stream()
+                    .filter(item -> MediaType.APPLICATION_JSON.equals(item.getMediaType()))
+                    .forEach(item -> sent.add(item.getData()));
+            sending = false;
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+        }
+
+        List<TodoStreamEvent> changeEvents() {
+            return sent.stream()
+                    .filter(TodoStreamEvent.class::isInstance)
+                    .map(TodoStreamEvent.class::cast)
+                    .toList();
+        }
+
+        boolean isSending() {
+            return sending;
+        }
+
+        boolean isCompleted() {
+            return completed;
+        }
+
+        void release() {
+            released.countDown();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+// ==========================================
+// Todo App - Load test for /api/todos (k6)
+// ==========================================
+//
+// Compares the default platform-thread mode with virtual threads (JDK 21+):
+//
+//   1. Start the backend on JDK 21 with VIRTUAL_THREADS_ENABLED=false, run:
+//        k6 run -e BASE_URL=http://localhost:8081 -e VUS=400 scripts/loadtest-todos.js
+//   2. Restart with VIRTUAL_THREADS_ENABLED=true and run the same command.
+//
+// Keep DB_POOL_SIZE / DB_CONCURRENCY_LIMIT identical between runs, and compare
+// http_req_duration (p95/p99), http_reqs/s and the error rate reported by k6, together with
+// todoapp.db.concurrency.wait and todoapp.db.concurrency.rejections from /actuator/metrics.
+// Responses with status 503 mean the database concurrency limit rejected the request.
+
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8081';
+const VUS = parseInt(__ENV.VUS || '200', 10);
+
+export const options = {
+    scenarios: {
+        todos: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: VUS },
+                { duration: __ENV.DURATION || '2m', target: VUS },
+                { duration: '15s', target: 0 },
+            ],
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+    },
+};
+
+const JSON_HEADERS = { 'Content-Type': 'application/json' };
+
+export function setup() {
+    // The auth rate limit is per IP, so a small pool of users is registered up front and shared by the VUs
+    const users = [];
+    for (let i = 0; i < parseInt(__ENV.USERS || '5', 10); i++) {
+        const suffix = `${Date.now()}${i}`;
+        const res = http.post(`${BASE_URL}/api/auth/register`, JSON.stringify({
+            email: `load${suffix}@example.com`,
+            password: 'Password123!',
+            fullName: 'Load Test',
+        }), { headers: JSON_HEADERS });
+        check(res, { 'registered': (r) => r.status === 200 || r.status === 201 });
+        users.push(res.json('accessToken'));
+    }
+    return { tokens: users };
+}
+
+export default function (data) {
+    const token = data.tokens[__VU % data.tokens.length];
+    const params = { headers: Object.assign({ Authorization: `Bearer ${token}` }, JSON_HEADERS) };
+
+    // Mostly reads, with some writes to keep the change events and indexes busy
+    if (Math.random() < 0.2) {
+        const res = http.post(`${BASE_URL}/api/todos`, JSON.stringify({
+            title: `Load test ${__VU}-${__ITER}`,
+            status: 'PENDING',
+            priority: 'MEDIUM',
+        }), params);
+        check(res, { 'created': (r) => r.status === 200 || r.status === 201 });
+    } else {
+        const res = http.get(`${BASE_URL}/api/todos?page=0&size=20`, params);
+        check(res, { 'listed': (r) => r.status === 200 });
+    }
+}
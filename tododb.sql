@@ -422,6 +422,150 @@ ALTER TABLE `todos`
 ALTER TABLE `todo_tags`
   ADD CONSTRAINT `todo_tags_ibfk_1` FOREIGN KEY (`todo_id`) REFERENCES `todos` (`id`) ON DELETE CASCADE,
   ADD CONSTRAINT `todo_tags_ibfk_2` FOREIGN KEY (`tag_id`) REFERENCES `tags` (`id`) ON DELETE CASCADE;
+
+-- --------------------------------------------------------
+
+--
+-- Cập nhật schema: mốc thu hồi access token (V11__token_revocations)
+--
+
+CREATE TABLE token_revocations (
+    user_id BIGINT PRIMARY KEY,
+    revoked_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_token_revocation_revoked_at ON token_revocations(revoked_at);
+
+-- --------------------------------------------------------
+
+--
+-- Cập nhật schema: khóa sắp xếp todos cho phân trang keyset (V3__todo_sort_key)
+--
+
+-- sort_key = status rank (IN_PROGRESS 0, PENDING 1, others 2)
+--          + due_date as yyyyMMddHHmmss (no due date -> 2999-12-31 23:59:59)
+--          + (99999999999999999 - updated_at as yyyyMMddHHmmssSSS), zero padded to 17 digits
+
+UPDATE todos SET updated_at = created_at WHERE updated_at IS NULL;
+
+ALTER TABLE todos ADD COLUMN sort_key VARCHAR(64);
+
+UPDATE todos SET sort_key = CONCAT(
+    CASE status WHEN 'IN_PROGRESS' THEN '0' WHEN 'PENDING' THEN '1' ELSE '2' END,
+    DATE_FORMAT(COALESCE(due_date, '2999-12-31 23:59:59'), '%Y%m%d%H%i%s'),
+    LPAD(99999999999999999 - CAST(CONCAT(
+        DATE_FORMAT(updated_at, '%Y%m%d%H%i%s'),
+        LPAD(FLOOR(MICROSECOND(updated_at) / 1000), 3, '0')) AS UNSIGNED), 17, '0')
+);
+
+ALTER TABLE todos MODIFY sort_key VARCHAR(64) NOT NULL;
+
+CREATE INDEX idx_todo_user_sort ON todos(user_id, sort_key, id);
+
+-- --------------------------------------------------------
+
+--
+-- Cập nhật schema: counter subtask/attachment/tag trên todos (V4__todo_counters)
+--
+
+ALTER TABLE todos ADD COLUMN subtask_count INT NOT NULL DEFAULT 0;
+ALTER TABLE todos ADD COLUMN attachment_count INT NOT NULL DEFAULT 0;
+ALTER TABLE todos ADD COLUMN tag_count INT NOT NULL DEFAULT 0;
+
+UPDATE todos t
+JOIN (SELECT parent_id, COUNT(*) AS cnt FROM todos
+      WHERE parent_id IS NOT NULL AND deleted_at IS NULL
+      GROUP BY parent_id) s ON s.parent_id = t.id
+SET t.subtask_count = s.cnt;
+
+UPDATE todos t
+JOIN (SELECT todo_id, COUNT(*) AS cnt FROM attachments GROUP BY todo_id) a ON a.todo_id = t.id
+SET t.attachment_count = a.cnt;
+
+UPDATE todos t
+JOIN (SELECT todo_id, COUNT(*) AS cnt FROM todo_tags GROUP BY todo_id) g ON g.todo_id = t.id
+SET t.tag_count = g.cnt;
+
+-- --------------------------------------------------------
+
+--
+-- Cập nhật schema: chỉ mục full-text cho todos (V5__todo_fulltext)
+--
+
+ALTER TABLE todos ADD FULLTEXT INDEX idx_todo_fulltext (title, description);
+
+-- --------------------------------------------------------
+
+--
+-- Cập nhật schema: số liệu dashboard admin cập nhật tăng dần (V6__dashboard_metrics)
+--
+
+-- Completion time of todos (set when a todo becomes DONE, cleared when it leaves DONE)
+ALTER TABLE todos ADD COLUMN completed_at TIMESTAMP NULL;
+UPDATE todos SET completed_at = COALESCE(updated_at, created_at) WHERE status = 'DONE';
+CREATE INDEX idx_todo_completed_at ON todos(completed_at);
+
+-- Running totals (users, todos by status, categories, tags)
+CREATE TABLE metric_totals (
+    metric VARCHAR(64) PRIMARY KEY,
+    metric_value BIGINT NOT NULL,
+    updated_at TIMESTAMP NULL
+);
+
+-- Per-day counters (registrations, created and completed todos)
+CREATE TABLE daily_metrics (
+    bucket_date DATE NOT NULL,
+    metric VARCHAR(64) NOT NULL,
+    metric_value BIGINT NOT NULL,
+    PRIMARY KEY (bucket_date, metric)
+);
+
+-- --------------------------------------------------------
+
+--
+-- Cập nhật schema: bảng sequence cho ID todos, pooled 50 (V7__todo_id_sequence)
+--
+
+CREATE TABLE todos_seq (
+    next_val BIGINT
+);
+
+-- Hibernate's pooled optimizer hands out (value - 49 .. value); start above the existing IDs
+INSERT INTO todos_seq (next_val) SELECT COALESCE(MAX(id), 0) + 51 FROM todos;
+
+-- --------------------------------------------------------
+
+--
+-- Cập nhật schema: phiên bản dữ liệu theo user cho ETag (V8__user_data_versions)
+--
+
+CREATE TABLE user_data_versions (
+    user_id BIGINT PRIMARY KEY,
+    data_version BIGINT NOT NULL,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+INSERT INTO user_data_versions (user_id, data_version) SELECT id, 0 FROM users;
+
+-- --------------------------------------------------------
+
+--
+-- Cập nhật schema: sync_version của todos cho đồng bộ delta (V9__todo_sync_version)
+--
+
+ALTER TABLE todos ADD COLUMN sync_version BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX idx_todo_user_sync ON todos(user_id, sync_version, id);
+
+-- --------------------------------------------------------
+
+--
+-- Cập nhật schema: trạng thái gửi nhắc việc (V10__todo_reminders)
+--
+
+ALTER TABLE todos ADD COLUMN reminded_at TIMESTAMP NULL;
+
+CREATE INDEX idx_todo_remind_at ON todos(remind_at);
 COMMIT;
 
 /*!40101 SET CHARACTER_SET_CLIENT=@OLD_CHARACTER_SET_CLIENT */;